@@ -374,6 +374,42 @@ public abstract class AbstractByteBuf extends ByteBuf {
 
     protected abstract long _getLong(int index);
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        checkIndex(index, bulkLength(length, 2));
+        checkArrayIndex("dstIndex", dstIndex, length, dst.length);
+        _getInts(index, dst, dstIndex, length);
+        return this;
+    }
+
+    /**
+     * Reads {@code length} {@code int}s once the bounds were checked.  Sub-classes which can do better than calling
+     * {@link #_getInt(int)} for each element should override this.
+     */
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, index += 4) {
+            dst[i] = _getInt(index);
+        }
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        checkIndex(index, bulkLength(length, 3));
+        checkArrayIndex("dstIndex", dstIndex, length, dst.length);
+        _getLongs(index, dst, dstIndex, length);
+        return this;
+    }
+
+    /**
+     * Reads {@code length} {@code long}s once the bounds were checked.  Sub-classes which can do better than calling
+     * {@link #_getLong(int)} for each element should override this.
+     */
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, index += 8) {
+            dst[i] = _getLong(index);
+        }
+    }
+
     @Override
     public char getChar(int index) {
         return (char) getShort(index);
@@ -471,6 +507,42 @@ public abstract class AbstractByteBuf extends ByteBuf {
 
     protected abstract void _setLong(int index, long value);
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        checkIndex(index, bulkLength(length, 2));
+        checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        _setInts(index, src, srcIndex, length);
+        return this;
+    }
+
+    /**
+     * Writes {@code length} {@code int}s once the bounds were checked.  Sub-classes which can do better than calling
+     * {@link #_setInt(int, int)} for each element should override this.
+     */
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, index += 4) {
+            _setInt(index, src[i]);
+        }
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        checkIndex(index, bulkLength(length, 3));
+        checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        _setLongs(index, src, srcIndex, length);
+        return this;
+    }
+
+    /**
+     * Writes {@code length} {@code long}s once the bounds were checked.  Sub-classes which can do better than calling
+     * {@link #_setLong(int, long)} for each element should override this.
+     */
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, index += 8) {
+            _setLong(index, src[i]);
+        }
+    }
+
     @Override
     public ByteBuf setDouble(int index, double value) {
         setLong(index, Double.doubleToRawLongBits(value));
@@ -651,6 +723,24 @@ public abstract class AbstractByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        int bytes = bulkLength(length, 2);
+        checkReadableBytes(bytes);
+        getInts(readerIndex, dst, dstIndex, length);
+        readerIndex += bytes;
+        return this;
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        int bytes = bulkLength(length, 3);
+        checkReadableBytes(bytes);
+        getLongs(readerIndex, dst, dstIndex, length);
+        readerIndex += bytes;
+        return this;
+    }
+
     @Override
     public ByteBuf readBytes(byte[] dst) {
         readBytes(dst, 0, dst.length);
@@ -792,6 +882,26 @@ public abstract class AbstractByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        ensureAccessible();
+        int bytes = bulkLength(length, 2);
+        ensureWritable(bytes);
+        setInts(writerIndex, src, srcIndex, length);
+        writerIndex += bytes;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        ensureAccessible();
+        int bytes = bulkLength(length, 3);
+        ensureWritable(bytes);
+        setLongs(writerIndex, src, srcIndex, length);
+        writerIndex += bytes;
+        return this;
+    }
+
     @Override
     public ByteBuf writeBytes(byte[] src) {
         writeBytes(src, 0, src.length);
@@ -988,6 +1098,22 @@ public abstract class AbstractByteBuf extends ByteBuf {
         }
 
         final int endIndex = index + length;
+        if (ByteBufUtil.canSwarIndexOf(this)) {
+            // Search 8 bytes at once for the processors which just look for a delimiter.
+            if (processor == ByteBufProcessor.FIND_LF) {
+                return ByteBufUtil.swarIndexOf(this, index, endIndex, (byte) '\n', (byte) '\n');
+            }
+            if (processor == ByteBufProcessor.FIND_CRLF) {
+                return ByteBufUtil.swarIndexOf(this, index, endIndex, (byte) '\r', (byte) '\n');
+            }
+            if (processor == ByteBufProcessor.FIND_CR) {
+                return ByteBufUtil.swarIndexOf(this, index, endIndex, (byte) '\r', (byte) '\r');
+            }
+            if (processor == ByteBufProcessor.FIND_NUL) {
+                return ByteBufUtil.swarIndexOf(this, index, endIndex, (byte) 0, (byte) 0);
+            }
+        }
+
         int i = index;
         try {
             do {
@@ -1124,6 +1250,24 @@ public abstract class AbstractByteBuf extends ByteBuf {
         }
     }
 
+    /**
+     * Returns the number of bytes of {@code length} elements of {@code 1 << shift} bytes each.
+     */
+    static int bulkLength(int length, int shift) {
+        if (length < 0 || length > Integer.MAX_VALUE >> shift) {
+            throw new IllegalArgumentException(
+                    "length: " + length + " (expected: 0-" + (Integer.MAX_VALUE >> shift) + ')');
+        }
+        return length << shift;
+    }
+
+    static void checkArrayIndex(String name, int arrayIndex, int length, int arrayLength) {
+        if (arrayIndex < 0 || arrayIndex > arrayLength - length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "%s: %d, length: %d (expected: range(0, %d))", name, arrayIndex, length, arrayLength));
+        }
+    }
+
     /**
      * Throws an {@link IndexOutOfBoundsException} if the current
      * {@linkplain #readableBytes() readable bytes} of this buffer is less
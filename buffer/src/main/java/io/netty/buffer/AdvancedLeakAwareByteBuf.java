@@ -202,6 +202,18 @@ final class AdvancedLeakAwareByteBuf extends WrappedByteBuf {
         return super.getBytes(index, dst, dstIndex, length);
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        leak.record();
+        return super.getInts(index, dst, dstIndex, length);
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        leak.record();
+        return super.getLongs(index, dst, dstIndex, length);
+    }
+
     @Override
     public ByteBuf getBytes(int index, ByteBuffer dst) {
         leak.record();
@@ -304,6 +316,18 @@ final class AdvancedLeakAwareByteBuf extends WrappedByteBuf {
         return super.setBytes(index, src, srcIndex, length);
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        leak.record();
+        return super.setInts(index, src, srcIndex, length);
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        leak.record();
+        return super.setLongs(index, src, srcIndex, length);
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuffer src) {
         leak.record();
@@ -442,6 +466,18 @@ final class AdvancedLeakAwareByteBuf extends WrappedByteBuf {
         return super.readBytes(dst, dstIndex, length);
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        leak.record();
+        return super.readInts(dst, dstIndex, length);
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        leak.record();
+        return super.readLongs(dst, dstIndex, length);
+    }
+
     @Override
     public ByteBuf readBytes(ByteBuffer dst) {
         leak.record();
@@ -550,6 +586,18 @@ final class AdvancedLeakAwareByteBuf extends WrappedByteBuf {
         return super.writeBytes(src, srcIndex, length);
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        leak.record();
+        return super.writeInts(src, srcIndex, length);
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        leak.record();
+        return super.writeLongs(src, srcIndex, length);
+    }
+
     @Override
     public ByteBuf writeBytes(ByteBuffer src) {
         leak.record();
@@ -741,6 +741,48 @@ public abstract class ByteBuf implements ReferenceCounted, Comparable<ByteBuf> {
      */
     public abstract ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length);
 
+    /**
+     * Transfers this buffer's data to the specified {@code int} array starting at the specified absolute
+     * {@code index}, reading each element as {@link #getInt(int)} does with a single bounds check.
+     * This method does not modify {@code readerIndex} or {@code writerIndex} of this buffer.
+     *
+     * @param dstIndex the first index of the destination
+     * @param length   the number of {@code int}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code index} is less than {@code 0},
+     *         if the specified {@code dstIndex} is less than {@code 0},
+     *         if {@code index + length * 4} is greater than
+     *            {@code this.capacity}, or
+     *         if {@code dstIndex + length} is greater than
+     *            {@code dst.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 4} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf getInts(int index, int[] dst, int dstIndex, int length);
+
+    /**
+     * Transfers this buffer's data to the specified {@code long} array starting at the specified absolute
+     * {@code index}, reading each element as {@link #getLong(int)} does with a single bounds check.
+     * This method does not modify {@code readerIndex} or {@code writerIndex} of this buffer.
+     *
+     * @param dstIndex the first index of the destination
+     * @param length   the number of {@code long}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code index} is less than {@code 0},
+     *         if the specified {@code dstIndex} is less than {@code 0},
+     *         if {@code index + length * 8} is greater than
+     *            {@code this.capacity}, or
+     *         if {@code dstIndex + length} is greater than
+     *            {@code dst.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 8} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf getLongs(int index, long[] dst, int dstIndex, int length);
+
     /**
      * Transfers this buffer's data to the specified destination starting at
      * the specified absolute {@code index} until the destination's position
@@ -987,6 +1029,46 @@ public abstract class ByteBuf implements ReferenceCounted, Comparable<ByteBuf> {
      */
     public abstract ByteBuf setBytes(int index, byte[] src, int srcIndex, int length);
 
+    /**
+     * Transfers the specified {@code int} array's data to this buffer starting at the specified absolute
+     * {@code index}, writing each element as {@link #setInt(int, int)} does with a single bounds check.
+     * This method does not modify {@code readerIndex} or {@code writerIndex} of this buffer.
+     *
+     * @param srcIndex the first index of the source
+     * @param length   the number of {@code int}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code index} is less than {@code 0},
+     *         if the specified {@code srcIndex} is less than {@code 0},
+     *         if {@code index + length * 4} is greater than
+     *            {@code this.capacity}, or
+     *         if {@code srcIndex + length} is greater than {@code src.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 4} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf setInts(int index, int[] src, int srcIndex, int length);
+
+    /**
+     * Transfers the specified {@code long} array's data to this buffer starting at the specified absolute
+     * {@code index}, writing each element as {@link #setLong(int, long)} does with a single bounds check.
+     * This method does not modify {@code readerIndex} or {@code writerIndex} of this buffer.
+     *
+     * @param srcIndex the first index of the source
+     * @param length   the number of {@code long}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code index} is less than {@code 0},
+     *         if the specified {@code srcIndex} is less than {@code 0},
+     *         if {@code index + length * 8} is greater than
+     *            {@code this.capacity}, or
+     *         if {@code srcIndex + length} is greater than {@code src.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 8} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf setLongs(int index, long[] src, int srcIndex, int length);
+
     /**
      * Transfers the specified source buffer's data to this buffer starting at
      * the specified absolute {@code index} until the source buffer's position
@@ -1272,6 +1354,40 @@ public abstract class ByteBuf implements ReferenceCounted, Comparable<ByteBuf> {
      */
     public abstract ByteBuf readBytes(byte[] dst, int dstIndex, int length);
 
+    /**
+     * Transfers this buffer's data to the specified {@code int} array starting at the current
+     * {@code readerIndex} and increases the {@code readerIndex} by {@code length * 4}.
+     *
+     * @param dstIndex the first index of the destination
+     * @param length   the number of {@code int}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code dstIndex} is less than {@code 0},
+     *         if {@code length * 4} is greater than {@code this.readableBytes}, or
+     *         if {@code dstIndex + length} is greater than {@code dst.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 4} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf readInts(int[] dst, int dstIndex, int length);
+
+    /**
+     * Transfers this buffer's data to the specified {@code long} array starting at the current
+     * {@code readerIndex} and increases the {@code readerIndex} by {@code length * 8}.
+     *
+     * @param dstIndex the first index of the destination
+     * @param length   the number of {@code long}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code dstIndex} is less than {@code 0},
+     *         if {@code length * 8} is greater than {@code this.readableBytes}, or
+     *         if {@code dstIndex + length} is greater than {@code dst.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 8} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf readLongs(long[] dst, int dstIndex, int length);
+
     /**
      * Transfers this buffer's data to the specified destination starting at
      * the current {@code readerIndex} until the destination's position
@@ -1484,6 +1600,42 @@ public abstract class ByteBuf implements ReferenceCounted, Comparable<ByteBuf> {
      */
     public abstract ByteBuf writeBytes(byte[] src, int srcIndex, int length);
 
+    /**
+     * Transfers the specified {@code int} array's data to this buffer starting at the current
+     * {@code writerIndex} and increases the {@code writerIndex} by {@code length * 4}.
+     * If {@code this.writableBytes} is less than {@code length * 4}, {@link #ensureWritable(int)}
+     * will be called in an attempt to expand capacity to accommodate.
+     *
+     * @param srcIndex the first index of the source
+     * @param length   the number of {@code int}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code srcIndex} is less than {@code 0} or
+     *         if {@code srcIndex + length} is greater than {@code src.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 4} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf writeInts(int[] src, int srcIndex, int length);
+
+    /**
+     * Transfers the specified {@code long} array's data to this buffer starting at the current
+     * {@code writerIndex} and increases the {@code writerIndex} by {@code length * 8}.
+     * If {@code this.writableBytes} is less than {@code length * 8}, {@link #ensureWritable(int)}
+     * will be called in an attempt to expand capacity to accommodate.
+     *
+     * @param srcIndex the first index of the source
+     * @param length   the number of {@code long}s to transfer
+     *
+     * @throws IndexOutOfBoundsException
+     *         if the specified {@code srcIndex} is less than {@code 0} or
+     *         if {@code srcIndex + length} is greater than {@code src.length}
+     * @throws IllegalArgumentException
+     *         if the specified {@code length} is less than {@code 0} or
+     *         if {@code length * 8} is greater than {@link Integer#MAX_VALUE}
+     */
+    public abstract ByteBuf writeLongs(long[] src, int srcIndex, int length);
+
     /**
      * Transfers the specified source buffer's data to this buffer starting at
      * the current {@code writerIndex} until the source buffer's position
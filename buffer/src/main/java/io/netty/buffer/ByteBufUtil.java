@@ -47,6 +47,10 @@ public final class ByteBufUtil {
 
     private static final int THREAD_LOCAL_BUFFER_SIZE;
 
+    // Searching 8 bytes at once requires reading a long from any index in a single operation.
+    private static final boolean SWAR_SUPPORTED = PlatformDependent.isUnaligned();
+    private static final boolean NATIVE_ORDER_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
     static {
         final char[] DIGITS = "0123456789abcdef".toCharArray();
         for (int i = 0; i < 256; i ++) {
@@ -362,6 +366,11 @@ public final class ByteBufUtil {
             return -1;
         }
 
+        // Only use the fast path if getByte(...) would not throw, otherwise the loop below will.
+        if (toIndex <= buffer.capacity() && buffer.refCnt() != 0 && canSwarIndexOf(buffer)) {
+            return swarIndexOf(buffer, fromIndex, toIndex, value, value);
+        }
+
         for (int i = fromIndex; i < toIndex; i ++) {
             if (buffer.getByte(i) == value) {
                 return i;
@@ -386,6 +395,167 @@ public final class ByteBufUtil {
         return -1;
     }
 
+    /**
+     * Returns {@code true} if {@link #swarIndexOf(ByteBuf, int, int, byte, byte)} can be used for the buffer.
+     */
+    static boolean canSwarIndexOf(ByteBuf buffer) {
+        return SWAR_SUPPORTED && (buffer.hasArray() || buffer.hasMemoryAddress());
+    }
+
+    /**
+     * Returns the index of the first byte in {@code [fromIndex, toIndex)} which is equal to {@code value1} or
+     * {@code value2}, or {@code -1} if there is none. Instead of looking at one byte at a time, 8 bytes are read as a
+     * {@code long} and compared at once (SWAR - SIMD within a register).
+     *
+     * The caller must make sure that {@link #canSwarIndexOf(ByteBuf)} returns {@code true}, that the buffer is
+     * accessible and that the range is within the capacity of the buffer, as the memory is accessed directly.
+     */
+    static int swarIndexOf(ByteBuf buffer, int fromIndex, int toIndex, byte value1, byte value2) {
+        if (buffer.hasArray()) {
+            return swarIndexOf(buffer.array(), buffer.arrayOffset(), fromIndex, toIndex, value1, value2);
+        }
+        return swarIndexOf(buffer.memoryAddress(), fromIndex, toIndex, value1, value2);
+    }
+
+    private static int swarIndexOf(byte[] array, int arrayOffset, int fromIndex, int toIndex,
+                                   byte value1, byte value2) {
+        final long pattern1 = swarPattern(value1);
+        final long pattern2 = swarPattern(value2);
+        int i = fromIndex;
+        for (final int wordEnd = toIndex - 7; i < wordEnd; i += 8) {
+            long word = PlatformDependent.getLong(array, arrayOffset + i);
+            long matches = swarZeroBytes(word ^ pattern1) | swarZeroBytes(word ^ pattern2);
+            if (matches != 0) {
+                return i + swarFirstByte(matches);
+            }
+        }
+        for (; i < toIndex; i ++) {
+            byte b = array[arrayOffset + i];
+            if (b == value1 || b == value2) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int swarIndexOf(long memoryAddress, int fromIndex, int toIndex, byte value1, byte value2) {
+        final long pattern1 = swarPattern(value1);
+        final long pattern2 = swarPattern(value2);
+        int i = fromIndex;
+        for (final int wordEnd = toIndex - 7; i < wordEnd; i += 8) {
+            long word = PlatformDependent.getLong(memoryAddress + i);
+            long matches = swarZeroBytes(word ^ pattern1) | swarZeroBytes(word ^ pattern2);
+            if (matches != 0) {
+                return i + swarFirstByte(matches);
+            }
+        }
+        for (; i < toIndex; i ++) {
+            byte b = PlatformDependent.getByte(memoryAddress + i);
+            if (b == value1 || b == value2) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a {@code long} which holds {@code value} in each of its bytes.
+     */
+    private static long swarPattern(byte value) {
+        return (value & 0xFFL) * 0x0101010101010101L;
+    }
+
+    /**
+     * Returns a {@code long} which has the highest bit set in each byte which is {@code 0} in {@code word}, and all
+     * other bits cleared. Unlike the well known {@code (word - 0x01..01) & ~word & 0x80..80} this never reports a
+     * false match, so the result can be used to locate the first match.
+     */
+    private static long swarZeroBytes(long word) {
+        long tmp = (word & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL;
+        return ~(tmp | word | 0x7F7F7F7F7F7F7F7FL);
+    }
+
+    /**
+     * Returns the offset of the first byte in memory order which has its highest bit set in {@code matches}.
+     */
+    private static int swarFirstByte(long matches) {
+        if (NATIVE_ORDER_BIG_ENDIAN) {
+            return Long.numberOfLeadingZeros(matches) >>> 3;
+        }
+        return Long.numberOfTrailingZeros(matches) >>> 3;
+    }
+
+    // Bulk access used by the buffers which implement AbstractByteBuf._getInts() and friends via Unsafe. The bounds
+    // must have been checked by the caller. bigEndian is the byte order of the buffer, not the native one.
+
+    static void getInts(long memoryAddress, int[] dst, int dstIndex, int length, boolean bigEndian) {
+        final boolean swap = bigEndian != NATIVE_ORDER_BIG_ENDIAN;
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, memoryAddress += 4) {
+            int v = PlatformDependent.getInt(memoryAddress);
+            dst[i] = swap? Integer.reverseBytes(v) : v;
+        }
+    }
+
+    static void setInts(long memoryAddress, int[] src, int srcIndex, int length, boolean bigEndian) {
+        final boolean swap = bigEndian != NATIVE_ORDER_BIG_ENDIAN;
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, memoryAddress += 4) {
+            int v = src[i];
+            PlatformDependent.putInt(memoryAddress, swap? Integer.reverseBytes(v) : v);
+        }
+    }
+
+    static void getLongs(long memoryAddress, long[] dst, int dstIndex, int length, boolean bigEndian) {
+        final boolean swap = bigEndian != NATIVE_ORDER_BIG_ENDIAN;
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, memoryAddress += 8) {
+            long v = PlatformDependent.getLong(memoryAddress);
+            dst[i] = swap? Long.reverseBytes(v) : v;
+        }
+    }
+
+    static void setLongs(long memoryAddress, long[] src, int srcIndex, int length, boolean bigEndian) {
+        final boolean swap = bigEndian != NATIVE_ORDER_BIG_ENDIAN;
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, memoryAddress += 8) {
+            long v = src[i];
+            PlatformDependent.putLong(memoryAddress, swap? Long.reverseBytes(v) : v);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the {@code byte[]} variants of {@link #getInts(byte[], int, int[], int, int)} and
+     * friends can be used, which requires unaligned access.
+     */
+    static boolean canBulkAccessArray() {
+        return SWAR_SUPPORTED;
+    }
+
+    static void getInts(byte[] array, int index, int[] dst, int dstIndex, int length) {
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, index += 4) {
+            int v = PlatformDependent.getInt(array, index);
+            dst[i] = NATIVE_ORDER_BIG_ENDIAN? v : Integer.reverseBytes(v);
+        }
+    }
+
+    static void setInts(byte[] array, int index, int[] src, int srcIndex, int length) {
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, index += 4) {
+            int v = src[i];
+            PlatformDependent.putInt(array, index, NATIVE_ORDER_BIG_ENDIAN? v : Integer.reverseBytes(v));
+        }
+    }
+
+    static void getLongs(byte[] array, int index, long[] dst, int dstIndex, int length) {
+        for (int i = dstIndex, end = dstIndex + length; i < end; i ++, index += 8) {
+            long v = PlatformDependent.getLong(array, index);
+            dst[i] = NATIVE_ORDER_BIG_ENDIAN? v : Long.reverseBytes(v);
+        }
+    }
+
+    static void setLongs(byte[] array, int index, long[] src, int srcIndex, int length) {
+        for (int i = srcIndex, end = srcIndex + length; i < end; i ++, index += 8) {
+            long v = src[i];
+            PlatformDependent.putLong(array, index, NATIVE_ORDER_BIG_ENDIAN? v : Long.reverseBytes(v));
+        }
+    }
+
     /**
      * Encode a {@link CharSequence} in <a href="http://en.wikipedia.org/wiki/UTF-8">UTF-8</a> and write
      * it to a {@link ByteBuf}.
@@ -26,6 +26,7 @@ import java.nio.ByteOrder;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ScatteringByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -48,6 +49,7 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
     private final int maxNumComponents;
 
     private boolean freed;
+    private int lastAccessedComponentId;
 
     public CompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents) {
         super(Integer.MAX_VALUE);
@@ -167,7 +169,7 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         int readableBytes = buffer.readableBytes();
 
         // No need to consolidate - just add a component to the list.
-        Component c = new Component(buffer.order(ByteOrder.BIG_ENDIAN).slice());
+        Component c = newComponent(buffer);
         if (cIndex == components.size()) {
             components.add(c);
             if (cIndex == 0) {
@@ -208,18 +210,27 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
             throw new NullPointerException("buffers");
         }
 
-        // No need for consolidation
-        for (ByteBuf b: buffers) {
-            if (b == null) {
-                break;
-            }
-            cIndex = addComponent0(cIndex, b) + 1;
-            int size = components.size();
-            if (cIndex > size) {
-                cIndex = size;
-            }
+        int numBuffers = 0;
+        while (numBuffers < buffers.length && buffers[numBuffers] != null) {
+            numBuffers ++;
         }
-        return cIndex;
+        if (numBuffers == 0) {
+            return cIndex;
+        }
+
+        // No need for consolidation - insert all components at once so the components behind them are only moved
+        // and their offsets only updated once instead of once per buffer.
+        Component[] newComponents = new Component[numBuffers];
+        for (int i = 0; i < numBuffers; i ++) {
+            newComponents[i] = newComponent(buffers[i]);
+        }
+        components.addAll(cIndex, Arrays.asList(newComponents));
+        updateComponentOffsets(cIndex);
+        return cIndex + numBuffers;
+    }
+
+    private static Component newComponent(ByteBuf buffer) {
+        return new Component(buffer.order(ByteOrder.BIG_ENDIAN).slice());
     }
 
     /**
@@ -269,17 +280,32 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         final int numComponents = components.size();
         if (numComponents > maxNumComponents) {
             final int capacity = components.get(numComponents - 1).endOffset;
-
-            ByteBuf consolidated = allocBuffer(capacity);
+            final Component first = components.get(0);
+
+            ByteBuf consolidated = first.consolidated;
+            int cIndex;
+            if (consolidated != null && consolidated.capacity() >= capacity) {
+                // The first component is the result of an earlier consolidation and there is still enough room left
+                // behind it, so only the components which were added since then need to be copied.
+                cIndex = 1;
+            } else {
+                int newCapacity = capacity;
+                if (consolidated != null) {
+                    // Consolidating over and over again, so reserve room for the components which are added next.
+                    // This makes appending to the buffer linear instead of copying everything every time.
+                    newCapacity = alloc.calculateNewCapacity(capacity, Integer.MAX_VALUE);
+                }
+                consolidated = allocBuffer(newCapacity);
+                cIndex = 0;
+            }
 
             // We're not using foreach to avoid creating an iterator.
-            for (int i = 0; i < numComponents; i ++) {
+            for (int i = cIndex; i < numComponents; i ++) {
                 Component c = components.get(i);
-                ByteBuf b = c.buf;
-                consolidated.writeBytes(b);
+                consolidated.setBytes(c.offset, c.buf, 0, c.length);
                 c.freeIfNecessary();
             }
-            Component c = new Component(consolidated);
+            Component c = new Component(consolidated.slice(0, capacity), consolidated);
             c.endOffset = c.length;
             components.clear();
             components.add(c);
@@ -588,8 +614,23 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
      */
     public int toComponentIndex(int offset) {
         checkIndex(offset);
+        return toComponentIndex0(offset);
+    }
 
-        for (int low = 0, high = components.size(); low <= high;) {
+    private int toComponentIndex0(int offset) {
+        final List<Component> components = this.components;
+        final int size = components.size();
+
+        // Sequential reads and writes hit the same component again and again, so check it before searching.
+        int cIndex = lastAccessedComponentId;
+        if (cIndex < size) {
+            Component c = components.get(cIndex);
+            if (offset >= c.offset && offset < c.endOffset) {
+                return cIndex;
+            }
+        }
+
+        for (int low = 0, high = size - 1; low <= high;) {
             int mid = low + high >>> 1;
             Component c = components.get(mid);
             if (offset >= c.endOffset) {
@@ -597,6 +638,7 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
             } else if (offset < c.offset) {
                 high = mid - 1;
             } else {
+                lastAccessedComponentId = mid;
                 return mid;
             }
         }
@@ -690,6 +732,16 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         return this;
     }
 
+    @Override
+    public CompositeByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        return (CompositeByteBuf) super.getInts(index, dst, dstIndex, length);
+    }
+
+    @Override
+    public CompositeByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        return (CompositeByteBuf) super.getLongs(index, dst, dstIndex, length);
+    }
+
     @Override
     public CompositeByteBuf getBytes(int index, ByteBuffer dst) {
         int limit = dst.limit();
@@ -852,6 +904,16 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         return (CompositeByteBuf) super.setLong(index, value);
     }
 
+    @Override
+    public CompositeByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        return (CompositeByteBuf) super.setInts(index, src, srcIndex, length);
+    }
+
+    @Override
+    public CompositeByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        return (CompositeByteBuf) super.setLongs(index, src, srcIndex, length);
+    }
+
     @Override
     protected void _setLong(int index, long value) {
         Component c = findComponent(index);
@@ -1093,21 +1155,9 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
 
     private Component findComponent(int offset) {
         checkIndex(offset);
-
-        for (int low = 0, high = components.size(); low <= high;) {
-            int mid = low + high >>> 1;
-            Component c = components.get(mid);
-            if (offset >= c.endOffset) {
-                low = mid + 1;
-            } else if (offset < c.offset) {
-                high = mid - 1;
-            } else {
-                assert c.length != 0;
-                return c;
-            }
-        }
-
-        throw new Error("should not reach here");
+        Component c = components.get(toComponentIndex0(offset));
+        assert c.length != 0;
+        return c;
     }
 
     @Override
@@ -1354,11 +1404,21 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
     private static final class Component {
         final ByteBuf buf;
         final int length;
+        /**
+         * The buffer allocated by {@link #consolidateIfNeeded()} which {@link #buf} is a slice of, or {@code null}.
+         * Its bytes behind {@link #length} are unused and may be filled by the next consolidation.
+         */
+        final ByteBuf consolidated;
         int offset;
         int endOffset;
 
         Component(ByteBuf buf) {
+            this(buf, null);
+        }
+
+        Component(ByteBuf buf, ByteBuf consolidated) {
             this.buf = buf;
+            this.consolidated = consolidated;
             length = buf.readableBytes();
         }
 
@@ -1493,6 +1553,16 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         return (CompositeByteBuf) super.readBytes(dst, dstIndex, length);
     }
 
+    @Override
+    public CompositeByteBuf readInts(int[] dst, int dstIndex, int length) {
+        return (CompositeByteBuf) super.readInts(dst, dstIndex, length);
+    }
+
+    @Override
+    public CompositeByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        return (CompositeByteBuf) super.readLongs(dst, dstIndex, length);
+    }
+
     @Override
     public CompositeByteBuf readBytes(ByteBuffer dst) {
         return (CompositeByteBuf) super.readBytes(dst);
@@ -1578,6 +1648,16 @@ public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
         return (CompositeByteBuf) super.writeBytes(src, srcIndex, length);
     }
 
+    @Override
+    public CompositeByteBuf writeInts(int[] src, int srcIndex, int length) {
+        return (CompositeByteBuf) super.writeInts(src, srcIndex, length);
+    }
+
+    @Override
+    public CompositeByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        return (CompositeByteBuf) super.writeLongs(src, srcIndex, length);
+    }
+
     @Override
     public CompositeByteBuf writeBytes(ByteBuffer src) {
         return (CompositeByteBuf) super.writeBytes(src);
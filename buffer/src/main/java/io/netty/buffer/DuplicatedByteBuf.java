@@ -151,6 +151,16 @@ public class DuplicatedByteBuf extends AbstractDerivedByteBuf {
         return buffer.getLong(index);
     }
 
+    @Override
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        buffer.getInts(index, dst, dstIndex, length);
+    }
+
+    @Override
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        buffer.getLongs(index, dst, dstIndex, length);
+    }
+
     @Override
     public ByteBuf copy(int index, int length) {
         return buffer.copy(index, length);
@@ -234,6 +244,16 @@ public class DuplicatedByteBuf extends AbstractDerivedByteBuf {
         buffer.setLong(index, value);
     }
 
+    @Override
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        buffer.setInts(index, src, srcIndex, length);
+    }
+
+    @Override
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        buffer.setLongs(index, src, srcIndex, length);
+    }
+
     @Override
     public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
         buffer.setBytes(index, src, srcIndex, length);
@@ -322,6 +322,16 @@ public final class EmptyByteBuf extends ByteBuf {
         return checkIndex(index, length);
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        return checkIndex(index, AbstractByteBuf.bulkLength(length, 2));
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        return checkIndex(index, AbstractByteBuf.bulkLength(length, 3));
+    }
+
     @Override
     public ByteBuf getBytes(int index, ByteBuffer dst) {
         return checkIndex(index, dst.remaining());
@@ -408,6 +418,16 @@ public final class EmptyByteBuf extends ByteBuf {
         return checkIndex(index, length);
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        return checkIndex(index, AbstractByteBuf.bulkLength(length, 2));
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        return checkIndex(index, AbstractByteBuf.bulkLength(length, 3));
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuffer src) {
         return checkIndex(index, src.remaining());
@@ -530,6 +550,16 @@ public final class EmptyByteBuf extends ByteBuf {
         return checkLength(length);
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        return checkLength(AbstractByteBuf.bulkLength(length, 2));
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        return checkLength(AbstractByteBuf.bulkLength(length, 3));
+    }
+
     @Override
     public ByteBuf readBytes(ByteBuffer dst) {
         return checkLength(dst.remaining());
@@ -621,6 +651,16 @@ public final class EmptyByteBuf extends ByteBuf {
         return checkLength(length);
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        return checkLength(AbstractByteBuf.bulkLength(length, 2));
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        return checkLength(AbstractByteBuf.bulkLength(length, 3));
+    }
+
     @Override
     public ByteBuf writeBytes(ByteBuffer src) {
         return checkLength(src.remaining());
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * A buffer which is backed by a region of a file mapped into memory, so the content of the file can be read and
+ * transformed without copying it into another buffer first.  A buffer mapped with {@link MapMode#READ_ONLY} throws a
+ * {@link java.nio.ReadOnlyBufferException} on every modification.  Modifications of a buffer mapped with
+ * {@link MapMode#READ_WRITE} are written through to the file.
+ * <p>
+ * The region is unmapped as soon as the buffer is released, instead of when the garbage collector finds the mapping,
+ * so it must not be accessed via a {@link ByteBuffer} obtained from {@link #nioBuffer()} after that.  If the platform
+ * does not allow to unmap explicitly, the region stays mapped until it is garbage collected.
+ * <p>
+ * It is recommended to use {@link Unpooled#mappedBuffer(java.io.File)} and
+ * {@link Unpooled#mappedBuffer(FileChannel, MapMode, long, int)} instead of calling the constructor explicitly.
+ */
+public final class MappedFileByteBuf extends AbstractReferenceCountedByteBuf {
+
+    private final ByteBufAllocator alloc;
+    private final MappedByteBuffer mapped;
+    private final AbstractByteBuf buf;
+
+    /**
+     * Maps {@code length} bytes of the specified {@code channel}, starting at {@code position}, into memory.  The
+     * {@code channel} may be closed afterwards without affecting the mapping.
+     */
+    public MappedFileByteBuf(ByteBufAllocator alloc, FileChannel channel, MapMode mode, long position, int length)
+            throws IOException {
+        super(length);
+        if (alloc == null) {
+            throw new NullPointerException("alloc");
+        }
+        if (channel == null) {
+            throw new NullPointerException("channel");
+        }
+        if (mode == null) {
+            throw new NullPointerException("mode");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("position: " + position + " (expected: >= 0)");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("length: " + length + " (expected: >= 0)");
+        }
+
+        this.alloc = alloc;
+        mapped = channel.map(mode, position, length);
+
+        // Reuse the buffers which wrap a ByteBuffer for the actual access as they already make use of the
+        // memory address if possible.  Neither of them frees the wrapped ByteBuffer, this is done by deallocate().
+        if (mapped.isReadOnly()) {
+            if (PlatformDependent.hasUnsafe()) {
+                buf = new ReadOnlyUnsafeDirectByteBuf(alloc, mapped);
+            } else {
+                buf = new ReadOnlyByteBufferBuf(alloc, mapped);
+            }
+        } else {
+            if (PlatformDependent.hasUnsafe()) {
+                buf = new UnpooledUnsafeDirectByteBuf(alloc, mapped, length);
+            } else {
+                buf = new UnpooledDirectByteBuf(alloc, mapped, length);
+            }
+        }
+        writerIndex(length);
+    }
+
+    /**
+     * Returns {@code true} if and only if the region was mapped with {@link MapMode#READ_ONLY}.
+     */
+    public boolean isReadOnly() {
+        return mapped.isReadOnly();
+    }
+
+    /**
+     * Forces all modifications of this buffer to be written to the storage device which contains the mapped file.
+     *
+     * @see MappedByteBuffer#force()
+     */
+    public MappedFileByteBuf force() {
+        ensureAccessible();
+        mapped.force();
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        buf.release();
+        PlatformDependent.freeDirectBuffer(mapped);
+    }
+
+    @Override
+    public int capacity() {
+        return maxCapacity();
+    }
+
+    @Override
+    public ByteBuf capacity(int newCapacity) {
+        throw new UnsupportedOperationException("the capacity of a mapped file region is fixed");
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return alloc;
+    }
+
+    @Override
+    public ByteOrder order() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public ByteBuf unwrap() {
+        return null;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        return buf._getByte(index);
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        return buf._getShort(index);
+    }
+
+    @Override
+    protected int _getUnsignedMedium(int index) {
+        return buf._getUnsignedMedium(index);
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        return buf._getInt(index);
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        return buf._getLong(index);
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst, int dstIndex, int length) {
+        ensureAccessible();
+        buf.getBytes(index, dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length) {
+        ensureAccessible();
+        buf.getBytes(index, dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuffer dst) {
+        ensureAccessible();
+        buf.getBytes(index, dst);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, OutputStream out, int length) throws IOException {
+        ensureAccessible();
+        buf.getBytes(index, out, length);
+        return this;
+    }
+
+    @Override
+    public int getBytes(int index, GatheringByteChannel out, int length) throws IOException {
+        ensureAccessible();
+        return buf.getBytes(index, out, length);
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        buf._setByte(index, value);
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        buf._setShort(index, value);
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        buf._setMedium(index, value);
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        buf._setInt(index, value);
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        buf._setLong(index, value);
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
+        ensureAccessible();
+        buf.setBytes(index, src, srcIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        ensureAccessible();
+        buf.setBytes(index, src, srcIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuffer src) {
+        ensureAccessible();
+        buf.setBytes(index, src);
+        return this;
+    }
+
+    @Override
+    public int setBytes(int index, InputStream in, int length) throws IOException {
+        ensureAccessible();
+        return buf.setBytes(index, in, length);
+    }
+
+    @Override
+    public int setBytes(int index, ScatteringByteChannel in, int length) throws IOException {
+        ensureAccessible();
+        return buf.setBytes(index, in, length);
+    }
+
+    @Override
+    public ByteBuf copy(int index, int length) {
+        ensureAccessible();
+        return buf.copy(index, length);
+    }
+
+    @Override
+    public int nioBufferCount() {
+        return 1;
+    }
+
+    @Override
+    public ByteBuffer nioBuffer(int index, int length) {
+        ensureAccessible();
+        return buf.nioBuffer(index, length);
+    }
+
+    @Override
+    public ByteBuffer[] nioBuffers(int index, int length) {
+        return new ByteBuffer[] { nioBuffer(index, length) };
+    }
+
+    @Override
+    public ByteBuffer internalNioBuffer(int index, int length) {
+        ensureAccessible();
+        return buf.internalNioBuffer(index, length);
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] array() {
+        throw new UnsupportedOperationException("mapped file buffer");
+    }
+
+    @Override
+    public int arrayOffset() {
+        throw new UnsupportedOperationException("mapped file buffer");
+    }
+
+    @Override
+    public boolean hasMemoryAddress() {
+        return buf.hasMemoryAddress();
+    }
+
+    @Override
+    public long memoryAddress() {
+        return buf.memoryAddress();
+    }
+}
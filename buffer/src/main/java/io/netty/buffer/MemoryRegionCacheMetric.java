@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+
+/**
+ * Metrics for the cache of one size in a thread-local cache.
+ */
+public interface MemoryRegionCacheMetric {
+
+    /**
+     * Return the size (in bytes) of the memory regions which are cached.
+     */
+    int elementSize();
+
+    /**
+     * Return the maximal number of memory regions which can be cached at the moment. The cache grows and shrinks
+     * depending on how it is used.
+     */
+    int maxNumElements();
+
+    /**
+     * Return the number of memory regions which are currently cached.
+     */
+    int numElements();
+
+    /**
+     * Return the number of allocations which were served out of the cache.
+     */
+    long numHits();
+
+    /**
+     * Return the number of allocations which could not be served out of the cache.
+     */
+    long numMisses();
+}
@@ -16,67 +16,134 @@
 
 package io.netty.buffer;
 
+import io.netty.util.internal.ConcurrentSet;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 
 import java.nio.ByteBuffer;
-
-abstract class PoolArena<T> {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+abstract class PoolArena<T> implements PoolArenaMetric {
+
+    enum SizeClass {
+        Tiny,
+        Small,
+        Normal
+    }
 
     static final int numTinySubpagePools = 512 >>> 4;
 
+    // Small capacities (>= 512) are spaced into SMALL_CLASSES_PER_DOUBLING size classes per power of two, which
+    // bounds the internal fragmentation caused by rounding up to 1 / SMALL_CLASSES_PER_DOUBLING (12.5%).
+    static final int LOG2_SMALL_CLASSES_PER_DOUBLING = 3;
+    static final int SMALL_CLASSES_PER_DOUBLING = 1 << LOG2_SMALL_CLASSES_PER_DOUBLING;
+
+    // Small allocations are served out of subpages for all capacities below pageSize << SMALL_MAX_PAGE_SHIFTS.
+    // Everything above is a normal allocation which is rounded up to the next power of two.
+    private static final int SMALL_MAX_PAGE_SHIFTS = 2;
+
+    // A subpage may span a run of up to pageSize << MAX_SUBPAGE_RUN_SHIFTS bytes, so the elements of the bigger
+    // small size classes can be packed without wasting most of a page.
+    private static final int MAX_SUBPAGE_RUN_SHIFTS = SMALL_MAX_PAGE_SHIFTS + 2;
+
     final PooledByteBufAllocator parent;
 
     private final int maxOrder;
     final int pageSize;
     final int pageShifts;
     final int chunkSize;
-    final int subpageOverflowMask;
+    final int minNormalCapacity;
     final int numSmallSubpagePools;
+    final boolean fineGrainedLocking;
+    private final long chunkReleaseDelayNanos;
+    private final int minChunkReserve;
     private final PoolSubpage<T>[] tinySubpagePools;
     private final PoolSubpage<T>[] smallSubpagePools;
+    private final byte[] smallSubpageRunShifts;
+
+    // The chunks of the arena, split into several stripes if fine-grained locking is enabled.
+    private final ChunkStripe[] stripes;
 
-    private final PoolChunkList<T> q050;
-    private final PoolChunkList<T> q025;
-    private final PoolChunkList<T> q000;
-    private final PoolChunkList<T> qInit;
-    private final PoolChunkList<T> q075;
-    private final PoolChunkList<T> q100;
+    private final List<PoolChunkListMetric> chunkListMetrics;
+    private final ConcurrentSet<PoolThreadCacheMetric> threadCaches = new ConcurrentSet<PoolThreadCacheMetric>();
+
+    // Metrics for allocations and deallocations. Tiny and small allocations are counted by the head of their
+    // subpage pool (see PoolSubpage.numAllocations) as they may be done without holding the arena lock. Normal
+    // allocations and all deallocations of pooled chunks are counted by the chunk stripe (see ChunkStripe).
+
+    // We need to use AtomicLong here as huge allocations are done without the arena lock.
+    private final AtomicLong allocationsHuge = new AtomicLong();
+    private final AtomicLong deallocationsHuge = new AtomicLong();
+
+    // Number of bytes reserved by pooled chunks and huge allocations.
+    private final AtomicLong activeBytes = new AtomicLong();
+
+    // Number of pooled chunks and how many of them were released or allocated again after others were released.
+    // Guarded by the arena lock, which is always acquired after the lock of a chunk stripe (if both are needed).
+    private int numChunks;
+    private long chunksReleased;
+    private long chunksReallocated;
 
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
-    protected PoolArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+    protected PoolArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                        boolean fineGrainedLocking, int numChunkStripes, long chunkReleaseDelayMillis,
+                        int minChunkReserve) {
         this.parent = parent;
+        this.fineGrainedLocking = fineGrainedLocking;
+        chunkReleaseDelayNanos = TimeUnit.MILLISECONDS.toNanos(chunkReleaseDelayMillis);
+        this.minChunkReserve = minChunkReserve;
         this.pageSize = pageSize;
         this.maxOrder = maxOrder;
         this.pageShifts = pageShifts;
         this.chunkSize = chunkSize;
-        subpageOverflowMask = ~(pageSize - 1);
+        minNormalCapacity = Math.max(512, Math.min(pageSize << SMALL_MAX_PAGE_SHIFTS, chunkSize));
         tinySubpagePools = newSubpagePoolArray(numTinySubpagePools);
         for (int i = 0; i < tinySubpagePools.length; i ++) {
             tinySubpagePools[i] = newSubpagePoolHead(pageSize);
         }
 
-        numSmallSubpagePools = pageShifts - 9;
+        numSmallSubpagePools = smallIdx(minNormalCapacity);
         smallSubpagePools = newSubpagePoolArray(numSmallSubpagePools);
+        smallSubpageRunShifts = new byte[numSmallSubpagePools];
         for (int i = 0; i < smallSubpagePools.length; i ++) {
             smallSubpagePools[i] = newSubpagePoolHead(pageSize);
+            smallSubpageRunShifts[i] = (byte) subpageRunShifts(smallCapacity(i), pageSize, maxOrder);
+        }
+
+        if (!fineGrainedLocking) {
+            numChunkStripes = 1;
+        } else if (numChunkStripes <= 0) {
+            throw new IllegalArgumentException("numChunkStripes: " + numChunkStripes + " (expected: > 0)");
+        }
+        stripes = newChunkStripeArray(numChunkStripes);
+        PoolChunkListMetric[][] stripeLists = new PoolChunkListMetric[stripes.length][];
+        for (int i = 0; i < stripes.length; i ++) {
+            stripes[i] = new ChunkStripe(i, fineGrainedLocking);
+            stripeLists[i] = stripes[i].chunkLists();
         }
 
-        q100 = new PoolChunkList<T>(this, null, 100, Integer.MAX_VALUE);
-        q075 = new PoolChunkList<T>(this, q100, 75, 100);
-        q050 = new PoolChunkList<T>(this, q075, 50, 100);
-        q025 = new PoolChunkList<T>(this, q050, 25, 75);
-        q000 = new PoolChunkList<T>(this, q025, 1, 50);
-        qInit = new PoolChunkList<T>(this, q000, Integer.MIN_VALUE, 25);
+        List<PoolChunkListMetric> metrics = new ArrayList<PoolChunkListMetric>(6);
+        if (stripes.length == 1) {
+            Collections.addAll(metrics, stripeLists[0]);
+        } else {
+            // Expose a single list per usage range which spans the lists of all stripes.
+            for (int i = 0; i < stripeLists[0].length; i ++) {
+                metrics.add(new StripedChunkListMetric(stripeLists, i));
+            }
+        }
+        chunkListMetrics = Collections.unmodifiableList(metrics);
+    }
 
-        q100.prevList = q075;
-        q075.prevList = q050;
-        q050.prevList = q025;
-        q025.prevList = q000;
-        q000.prevList = null;
-        qInit.prevList = qInit;
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private ChunkStripe[] newChunkStripeArray(int size) {
+        return new PoolArena.ChunkStripe[size];
     }
 
     private PoolSubpage<T> newSubpagePoolHead(int pageSize) {
@@ -91,7 +158,8 @@ abstract class PoolArena<T> {
         return new PoolSubpage[size];
     }
 
-    abstract boolean isDirect();
+    @Override
+    public abstract boolean isDirect();
 
     PooledByteBuf<T> allocate(PoolThreadCache cache, int reqCapacity, int maxCapacity) {
         PooledByteBuf<T> buf = newByteBuf(maxCapacity);
@@ -104,18 +172,66 @@ abstract class PoolArena<T> {
     }
 
     static int smallIdx(int normCapacity) {
-        int tableIdx = 0;
-        int i = normCapacity >>> 10;
-        while (i != 0) {
-            i >>>= 1;
-            tableIdx ++;
+        // normCapacity is in the doubling [2^log2, 2^(log2 + 1)), which starts at index (log2 - 9) * classes.
+        int log2 = log2(normCapacity);
+        return (log2 - 9 << LOG2_SMALL_CLASSES_PER_DOUBLING) +
+                (normCapacity >>> log2 - LOG2_SMALL_CLASSES_PER_DOUBLING) - SMALL_CLASSES_PER_DOUBLING;
+    }
+
+    /**
+     * Returns the capacity of the small size class with the given index (the reverse of {@link #smallIdx(int)}).
+     */
+    static int smallCapacity(int smallIdx) {
+        int doubling = smallIdx >>> LOG2_SMALL_CLASSES_PER_DOUBLING;
+        int offset = smallIdx & SMALL_CLASSES_PER_DOUBLING - 1;
+        return SMALL_CLASSES_PER_DOUBLING + offset << 9 - LOG2_SMALL_CLASSES_PER_DOUBLING + doubling;
+    }
+
+    /**
+     * Returns the number of page shifts of the runs backing the subpages of the given element size. The smallest run
+     * which wastes at most 1 / SMALL_CLASSES_PER_DOUBLING of its size is used, as an element which does not fit in
+     * the remaining space of a run is lost for the lifetime of the subpage.
+     */
+    private static int subpageRunShifts(int elemSize, int pageSize, int maxOrder) {
+        int maxRunShifts = Math.min(MAX_SUBPAGE_RUN_SHIFTS, maxOrder);
+        int bestRunShifts = maxRunShifts;
+        long bestWaste = Long.MAX_VALUE;
+        for (int runShifts = 0; runShifts <= maxRunShifts; runShifts ++) {
+            int runSize = pageSize << runShifts;
+            if (runSize < elemSize) {
+                continue;
+            }
+            int waste = runSize % elemSize;
+            if (waste <= runSize >>> LOG2_SMALL_CLASSES_PER_DOUBLING) {
+                return runShifts;
+            }
+            // Compare the waste relative to the run size, scaled to the biggest possible run.
+            long relativeWaste = (long) waste << maxRunShifts - runShifts;
+            if (relativeWaste < bestWaste) {
+                bestWaste = relativeWaste;
+                bestRunShifts = runShifts;
+            }
         }
-        return tableIdx;
+        return bestRunShifts;
     }
 
-    // capacity < pageSize
+    private static int log2(int val) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(val);
+    }
+
+    // capacity < minNormalCapacity
     boolean isTinyOrSmall(int normCapacity) {
-        return (normCapacity & subpageOverflowMask) == 0;
+        return normCapacity < minNormalCapacity;
+    }
+
+    /**
+     * Returns the number of page shifts of the runs which back the subpages of the given tiny or small capacity.
+     */
+    int subpageRunShifts(int normCapacity) {
+        if (isTiny(normCapacity)) {
+            return 0;
+        }
+        return smallSubpageRunShifts[smallIdx(normCapacity)];
     }
 
     // normCapacity < 512
@@ -125,7 +241,7 @@ abstract class PoolArena<T> {
 
     private void allocate(PoolThreadCache cache, PooledByteBuf<T> buf, final int reqCapacity) {
         final int normCapacity = normalizeCapacity(reqCapacity);
-        if (isTinyOrSmall(normCapacity)) { // capacity < pageSize
+        if (isTinyOrSmall(normCapacity)) { // capacity < minNormalCapacity
             int tableIdx;
             PoolSubpage<T>[] table;
             if (isTiny(normCapacity)) { // < 512
@@ -144,52 +260,91 @@ abstract class PoolArena<T> {
                 table = smallSubpagePools;
             }
 
-            synchronized (this) {
-                final PoolSubpage<T> head = table[tableIdx];
+            final PoolSubpage<T> head = table[tableIdx];
+            synchronized (subpagePoolLock(head)) {
                 final PoolSubpage<T> s = head.next;
                 if (s != head) {
                     assert s.doNotDestroy && s.elemSize == normCapacity;
                     long handle = s.allocate();
                     assert handle >= 0;
                     s.chunk.initBufWithSubpage(buf, handle, reqCapacity);
+                    head.numAllocations ++;
                     return;
                 }
             }
+            // The allocation is counted by PoolChunk.allocateSubpage(...) as it holds the subpage pool lock.
+            ChunkStripe stripe = currentStripe();
+            synchronized (stripe.lock) {
+                allocateNormal(stripe, buf, reqCapacity, normCapacity);
+            }
         } else if (normCapacity <= chunkSize) {
             if (cache.allocateNormal(this, buf, reqCapacity, normCapacity)) {
                 // was able to allocate out of the cache so move on
                 return;
             }
+            ChunkStripe stripe = currentStripe();
+            synchronized (stripe.lock) {
+                allocateNormal(stripe, buf, reqCapacity, normCapacity);
+                ++ stripe.allocationsNormal;
+            }
         } else {
             // Huge allocations are never served via the cache so just call allocateHuge
             allocateHuge(buf, reqCapacity);
-            return;
         }
-        allocateNormal(buf, reqCapacity, normCapacity);
     }
 
-    private synchronized void allocateNormal(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
-        if (q050.allocate(buf, reqCapacity, normCapacity) || q025.allocate(buf, reqCapacity, normCapacity) ||
-            q000.allocate(buf, reqCapacity, normCapacity) || qInit.allocate(buf, reqCapacity, normCapacity) ||
-            q075.allocate(buf, reqCapacity, normCapacity) || q100.allocate(buf, reqCapacity, normCapacity)) {
+    /**
+     * Returns the chunk stripe which serves the allocations of the current thread. Threads are spread over the
+     * stripes so that only threads which share a stripe contend on its lock.
+     */
+    private ChunkStripe currentStripe() {
+        final ChunkStripe[] stripes = this.stripes;
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    // Method must be called inside synchronized(stripe.lock) { ... } block
+    private void allocateNormal(ChunkStripe stripe, PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+        if (stripe.q050.allocate(buf, reqCapacity, normCapacity) ||
+            stripe.q025.allocate(buf, reqCapacity, normCapacity) ||
+            stripe.q000.allocate(buf, reqCapacity, normCapacity) ||
+            stripe.qInit.allocate(buf, reqCapacity, normCapacity) ||
+            stripe.q075.allocate(buf, reqCapacity, normCapacity) ||
+            stripe.q100.allocate(buf, reqCapacity, normCapacity)) {
             return;
         }
 
         // Add a new chunk.
         PoolChunk<T> c = newChunk(pageSize, maxOrder, pageShifts, chunkSize);
+        c.stripeIdx = stripe.index;
+        activeBytes.addAndGet(c.chunkSize());
+        synchronized (this) {
+            ++ numChunks;
+            if (chunksReallocated < chunksReleased) {
+                // Would not have been needed if a released chunk had been kept.
+                ++ chunksReallocated;
+            }
+        }
         long handle = c.allocate(normCapacity);
         assert handle > 0;
         c.initBuf(buf, handle, reqCapacity);
-        qInit.add(c);
+        stripe.qInit.add(c);
     }
 
     private void allocateHuge(PooledByteBuf<T> buf, int reqCapacity) {
-        buf.initUnpooled(newUnpooledChunk(reqCapacity), reqCapacity);
+        PoolChunk<T> chunk = newUnpooledChunk(reqCapacity);
+        activeBytes.addAndGet(chunk.chunkSize());
+        buf.initUnpooled(chunk, reqCapacity);
+        allocationsHuge.incrementAndGet();
     }
 
     void free(PoolChunk<T> chunk, long handle, int normCapacity, boolean sameThreads) {
         if (chunk.unpooled) {
+            activeBytes.addAndGet(-chunk.chunkSize());
             destroyChunk(chunk);
+            deallocationsHuge.incrementAndGet();
         } else {
             if (sameThreads) {
                 PoolThreadCache cache = parent.threadCache.get();
@@ -199,25 +354,143 @@ abstract class PoolArena<T> {
                 }
             }
 
-            synchronized (this) {
-                chunk.parent.free(chunk, handle);
+            freeChunk(chunk, handle, sizeClass(normCapacity));
+        }
+    }
+
+    private SizeClass sizeClass(int normCapacity) {
+        if (!isTinyOrSmall(normCapacity)) {
+            return SizeClass.Normal;
+        }
+        return isTiny(normCapacity) ? SizeClass.Tiny : SizeClass.Small;
+    }
+
+    void freeChunk(PoolChunk<T> chunk, long handle, SizeClass sizeClass) {
+        final ChunkStripe stripe = stripes[chunk.stripeIdx];
+        final List<PoolChunk<T>> releasedChunks;
+        synchronized (stripe.lock) {
+            switch (sizeClass) {
+            case Normal:
+                ++ stripe.deallocationsNormal;
+                break;
+            case Small:
+                ++ stripe.deallocationsSmall;
+                break;
+            case Tiny:
+                ++ stripe.deallocationsTiny;
+                break;
+            default:
+                throw new Error();
+            }
+            if (!chunk.parent.free(chunk, handle)) {
+                // Not used anymore after it dropped out of q000.
+                if (chunkReleaseDelayNanos == 0) {
+                    releasedChunks = releaseChunk(stripe, chunk);
+                } else {
+                    // Keep it in qInit until it was idle for chunkReleaseDelayNanos.
+                    stripe.qInit.add(chunk);
+                    releasedChunks = markEmpty(stripe, chunk);
+                }
+            } else if (chunkReleaseDelayNanos != 0 && chunk.usage() == 0) {
+                // Without a release delay a chunk which became empty in qInit is kept, so that a single buffer
+                // which is allocated and released over and over again does not create a new chunk every time.
+                releasedChunks = markEmpty(stripe, chunk);
+            } else {
+                releasedChunks = null;
+            }
+        }
+        destroyChunks(releasedChunks);
+    }
+
+    // Method must be called inside synchronized(stripe.lock) { ... } block
+    private List<PoolChunk<T>> markEmpty(ChunkStripe stripe, PoolChunk<T> chunk) {
+        long nanoTime = System.nanoTime();
+        chunk.emptySince = nanoTime;
+        return removeIdleChunks(stripe, nanoTime);
+    }
+
+    // Method must be called inside synchronized(stripe.lock) { ... } block
+    private List<PoolChunk<T>> releaseChunk(ChunkStripe stripe, PoolChunk<T> chunk) {
+        synchronized (this) {
+            if (numChunks <= minChunkReserve) {
+                stripe.qInit.add(chunk);
+                return null;
+            }
+            numChunks --;
+            chunksReleased ++;
+            return Collections.singletonList(chunk);
+        }
+    }
+
+    /**
+     * Release all chunks which are not used since at least the chunk release delay, but keep the minimum chunk
+     * reserve of the arena.
+     */
+    void releaseIdleChunks() {
+        if (chunkReleaseDelayNanos == 0) {
+            // Chunks are released as soon as they are not used anymore, the ones in qInit are kept.
+            return;
+        }
+        for (ChunkStripe stripe: stripes) {
+            final List<PoolChunk<T>> releasedChunks;
+            synchronized (stripe.lock) {
+                releasedChunks = removeIdleChunks(stripe, System.nanoTime());
             }
+            destroyChunks(releasedChunks);
+        }
+    }
+
+    // Method must be called inside synchronized(stripe.lock) { ... } block
+    private List<PoolChunk<T>> removeIdleChunks(ChunkStripe stripe, long nanoTime) {
+        // The reserve is kept per arena, so the arena lock must be held while the chunks are removed.
+        synchronized (this) {
+            int maxChunks = numChunks - minChunkReserve;
+            if (maxChunks <= 0) {
+                return null;
+            }
+            // Empty chunks are always moved to qInit, so no need to look at the other lists.
+            List<PoolChunk<T>> releasedChunks =
+                    stripe.qInit.removeEmptyChunks(nanoTime - chunkReleaseDelayNanos, maxChunks);
+            if (releasedChunks != null) {
+                numChunks -= releasedChunks.size();
+                chunksReleased += releasedChunks.size();
+            }
+            return releasedChunks;
+        }
+    }
+
+    private void destroyChunks(List<PoolChunk<T>> chunks) {
+        if (chunks == null) {
+            return;
+        }
+        // destroyChunk not need to be called while holding the synchronized lock.
+        for (int i = 0; i < chunks.size(); i ++) {
+            PoolChunk<T> chunk = chunks.get(i);
+            activeBytes.addAndGet(-chunk.chunkSize());
+            destroyChunk(chunk);
         }
     }
 
+    /**
+     * Returns the monitor which guards the subpage pool starting at the given {@code head} and all
+     * {@link PoolSubpage}s linked into it. If fine-grained locking is enabled every subpage pool is guarded by its
+     * own head so that allocations which can be served by an existing subpage do not contend on the arena itself.
+     * Otherwise the arena is used, which is the same monitor that guards the {@link PoolChunkList}s.
+     *
+     * The monitor returned here must always be acquired after the lock of a chunk stripe (if both are needed).
+     */
+    Object subpagePoolLock(PoolSubpage<T> head) {
+        return fineGrainedLocking ? head : this;
+    }
+
     PoolSubpage<T> findSubpagePoolHead(int elemSize) {
         int tableIdx;
         PoolSubpage<T>[] table;
         if (isTiny(elemSize)) { // < 512
-            tableIdx = elemSize >>> 4;
+            tableIdx = tinyIdx(elemSize);
             table = tinySubpagePools;
         } else {
-            tableIdx = 0;
-            elemSize >>>= 10;
-            while (elemSize != 0) {
-                elemSize >>>= 1;
-                tableIdx ++;
-            }
+            tableIdx = smallIdx(elemSize);
             table = smallSubpagePools;
         }
 
@@ -233,6 +506,12 @@ abstract class PoolArena<T> {
         }
 
         if (!isTiny(reqCapacity)) { // >= 512
+            if (reqCapacity < minNormalCapacity) {
+                // Spaced into SMALL_CLASSES_PER_DOUBLING size classes per power of two
+                int mask = (1 << log2(reqCapacity) - LOG2_SMALL_CLASSES_PER_DOUBLING) - 1;
+                return reqCapacity + mask & ~mask;
+            }
+
             // Doubled
 
             int normalizedCapacity = reqCapacity;
@@ -259,6 +538,181 @@ abstract class PoolArena<T> {
         return (reqCapacity & ~15) + 16;
     }
 
+    void addThreadCache(PoolThreadCacheMetric cache) {
+        threadCaches.add(cache);
+    }
+
+    void removeThreadCache(PoolThreadCacheMetric cache) {
+        threadCaches.remove(cache);
+    }
+
+    @Override
+    public int numThreadCaches() {
+        return threadCaches.size();
+    }
+
+    @Override
+    public int numTinySubpages() {
+        return tinySubpagePools.length;
+    }
+
+    @Override
+    public int numSmallSubpages() {
+        return smallSubpagePools.length;
+    }
+
+    @Override
+    public int numChunkLists() {
+        return chunkListMetrics.size();
+    }
+
+    @Override
+    public List<PoolSubpageMetric> tinySubpages() {
+        return subPageMetricList(tinySubpagePools);
+    }
+
+    @Override
+    public List<PoolSubpageMetric> smallSubpages() {
+        return subPageMetricList(smallSubpagePools);
+    }
+
+    @Override
+    public List<PoolChunkListMetric> chunkLists() {
+        return chunkListMetrics;
+    }
+
+    @Override
+    public List<PoolThreadCacheMetric> threadCaches() {
+        return Collections.unmodifiableList(new ArrayList<PoolThreadCacheMetric>(threadCaches));
+    }
+
+    private List<PoolSubpageMetric> subPageMetricList(PoolSubpage<T>[] pages) {
+        List<PoolSubpageMetric> metrics = new ArrayList<PoolSubpageMetric>();
+        for (PoolSubpage<T> head : pages) {
+            synchronized (subpagePoolLock(head)) {
+                for (PoolSubpage<T> s = head.next; s != head; s = s.next) {
+                    metrics.add(s);
+                }
+            }
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    @Override
+    public long numAllocations() {
+        return numTinyAllocations() + numSmallAllocations() + numNormalAllocations() + allocationsHuge.get();
+    }
+
+    @Override
+    public long numTinyAllocations() {
+        return numAllocations(tinySubpagePools);
+    }
+
+    @Override
+    public long numSmallAllocations() {
+        return numAllocations(smallSubpagePools);
+    }
+
+    private static long numAllocations(PoolSubpage<?>[] heads) {
+        long allocations = 0;
+        for (PoolSubpage<?> head : heads) {
+            allocations += head.numAllocations;
+        }
+        return allocations;
+    }
+
+    @Override
+    public long numNormalAllocations() {
+        long allocations = 0;
+        for (ChunkStripe stripe: stripes) {
+            allocations += stripe.allocationsNormal;
+        }
+        return allocations;
+    }
+
+    @Override
+    public long numHugeAllocations() {
+        return allocationsHuge.get();
+    }
+
+    @Override
+    public long numDeallocations() {
+        return numTinyDeallocations() + numSmallDeallocations() + numNormalDeallocations() +
+                deallocationsHuge.get();
+    }
+
+    @Override
+    public long numTinyDeallocations() {
+        long deallocations = 0;
+        for (ChunkStripe stripe: stripes) {
+            deallocations += stripe.deallocationsTiny;
+        }
+        return deallocations;
+    }
+
+    @Override
+    public long numSmallDeallocations() {
+        long deallocations = 0;
+        for (ChunkStripe stripe: stripes) {
+            deallocations += stripe.deallocationsSmall;
+        }
+        return deallocations;
+    }
+
+    @Override
+    public long numNormalDeallocations() {
+        long deallocations = 0;
+        for (ChunkStripe stripe: stripes) {
+            deallocations += stripe.deallocationsNormal;
+        }
+        return deallocations;
+    }
+
+    @Override
+    public long numHugeDeallocations() {
+        return deallocationsHuge.get();
+    }
+
+    @Override
+    public long numActiveAllocations() {
+        return Math.max(numAllocations() - numDeallocations(), 0);
+    }
+
+    @Override
+    public long numActiveTinyAllocations() {
+        return Math.max(numTinyAllocations() - numTinyDeallocations(), 0);
+    }
+
+    @Override
+    public long numActiveSmallAllocations() {
+        return Math.max(numSmallAllocations() - numSmallDeallocations(), 0);
+    }
+
+    @Override
+    public long numActiveNormalAllocations() {
+        return Math.max(numNormalAllocations() - numNormalDeallocations(), 0);
+    }
+
+    @Override
+    public long numActiveHugeAllocations() {
+        return Math.max(numHugeAllocations() - numHugeDeallocations(), 0);
+    }
+
+    @Override
+    public long numActiveBytes() {
+        return activeBytes.get();
+    }
+
+    @Override
+    public long numChunksReleased() {
+        return chunksReleased;
+    }
+
+    @Override
+    public long numChunksReallocated() {
+        return chunksReallocated;
+    }
+
     void reallocate(PooledByteBuf<T> buf, int newCapacity, boolean freeOldMemory) {
         if (newCapacity < 0 || newCapacity > buf.maxCapacity()) {
             throw new IllegalArgumentException("newCapacity: " + newCapacity);
@@ -308,84 +762,173 @@ abstract class PoolArena<T> {
     protected abstract void memoryCopy(T src, int srcOffset, T dst, int dstOffset, int length);
     protected abstract void destroyChunk(PoolChunk<T> chunk);
 
-    public synchronized String toString() {
-        StringBuilder buf = new StringBuilder()
-            .append("Chunk(s) at 0~25%:")
-            .append(StringUtil.NEWLINE)
-            .append(qInit)
-            .append(StringUtil.NEWLINE)
-            .append("Chunk(s) at 0~50%:")
-            .append(StringUtil.NEWLINE)
-            .append(q000)
-            .append(StringUtil.NEWLINE)
-            .append("Chunk(s) at 25~75%:")
-            .append(StringUtil.NEWLINE)
-            .append(q025)
-            .append(StringUtil.NEWLINE)
-            .append("Chunk(s) at 50~100%:")
-            .append(StringUtil.NEWLINE)
-            .append(q050)
-            .append(StringUtil.NEWLINE)
-            .append("Chunk(s) at 75~100%:")
-            .append(StringUtil.NEWLINE)
-            .append(q075)
-            .append(StringUtil.NEWLINE)
-            .append("Chunk(s) at 100%:")
-            .append(StringUtil.NEWLINE)
-            .append(q100)
-            .append(StringUtil.NEWLINE)
-            .append("tiny subpages:");
-        for (int i = 1; i < tinySubpagePools.length; i ++) {
-            PoolSubpage<T> head = tinySubpagePools[i];
-            if (head.next == head) {
-                continue;
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        for (ChunkStripe stripe: stripes) {
+            if (stripes.length > 1) {
+                buf.append("Stripe ")
+                   .append(stripe.index)
+                   .append(':')
+                   .append(StringUtil.NEWLINE);
             }
-
-            buf.append(StringUtil.NEWLINE)
-               .append(i)
-               .append(": ");
-            PoolSubpage<T> s = head.next;
-            for (;;) {
-                buf.append(s);
-                s = s.next;
-                if (s == head) {
-                    break;
-                }
+            synchronized (stripe.lock) {
+                buf.append("Chunk(s) at 0~25%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.qInit)
+                   .append(StringUtil.NEWLINE)
+                   .append("Chunk(s) at 0~50%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.q000)
+                   .append(StringUtil.NEWLINE)
+                   .append("Chunk(s) at 25~75%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.q025)
+                   .append(StringUtil.NEWLINE)
+                   .append("Chunk(s) at 50~100%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.q050)
+                   .append(StringUtil.NEWLINE)
+                   .append("Chunk(s) at 75~100%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.q075)
+                   .append(StringUtil.NEWLINE)
+                   .append("Chunk(s) at 100%:")
+                   .append(StringUtil.NEWLINE)
+                   .append(stripe.q100)
+                   .append(StringUtil.NEWLINE);
             }
         }
+        buf.append("tiny subpages:");
+        appendPoolSubPages(buf, tinySubpagePools);
         buf.append(StringUtil.NEWLINE)
            .append("small subpages:");
-        for (int i = 1; i < smallSubpagePools.length; i ++) {
-            PoolSubpage<T> head = smallSubpagePools[i];
-            if (head.next == head) {
-                continue;
-            }
+        appendPoolSubPages(buf, smallSubpagePools);
+        buf.append(StringUtil.NEWLINE);
+
+        return buf.toString();
+    }
+
+    private void appendPoolSubPages(StringBuilder buf, PoolSubpage<T>[] subpages) {
+        for (int i = 1; i < subpages.length; i ++) {
+            PoolSubpage<T> head = subpages[i];
+            synchronized (subpagePoolLock(head)) {
+                if (head.next == head) {
+                    continue;
+                }
 
-            buf.append(StringUtil.NEWLINE)
-               .append(i)
-               .append(": ");
-            PoolSubpage<T> s = head.next;
-            for (;;) {
-                buf.append(s);
-                s = s.next;
-                if (s == head) {
-                    break;
+                buf.append(StringUtil.NEWLINE)
+                   .append(i)
+                   .append(": ");
+                PoolSubpage<T> s = head.next;
+                for (;;) {
+                    buf.append(s);
+                    s = s.next;
+                    if (s == head) {
+                        break;
+                    }
                 }
             }
         }
-        buf.append(StringUtil.NEWLINE);
+    }
 
-        return buf.toString();
+    /**
+     * A set of {@link PoolChunkList}s together with the monitor which guards them and all the chunks linked into them.
+     * If fine-grained locking is enabled the chunks of an arena are split over several stripes, each guarded by its
+     * own monitor, so that normal allocations and frees of threads which use different stripes do not contend.
+     * Otherwise the arena has a single stripe which is guarded by the arena itself.
+     *
+     * A chunk always stays in the stripe which created it, as its handles may still be in use.
+     */
+    private final class ChunkStripe {
+        final int index;
+        final Object lock;
+
+        final PoolChunkList<T> q050;
+        final PoolChunkList<T> q025;
+        final PoolChunkList<T> q000;
+        final PoolChunkList<T> qInit;
+        final PoolChunkList<T> q075;
+        final PoolChunkList<T> q100;
+
+        // Guarded by lock.
+        long allocationsNormal;
+        long deallocationsTiny;
+        long deallocationsSmall;
+        long deallocationsNormal;
+
+        ChunkStripe(int index, boolean fineGrainedLocking) {
+            this.index = index;
+            lock = fineGrainedLocking ? this : PoolArena.this;
+
+            q100 = new PoolChunkList<T>(lock, null, 100, Integer.MAX_VALUE);
+            q075 = new PoolChunkList<T>(lock, q100, 75, 100);
+            q050 = new PoolChunkList<T>(lock, q075, 50, 100);
+            q025 = new PoolChunkList<T>(lock, q050, 25, 75);
+            q000 = new PoolChunkList<T>(lock, q025, 1, 50);
+            qInit = new PoolChunkList<T>(lock, q000, Integer.MIN_VALUE, 25);
+
+            q100.prevList = q075;
+            q075.prevList = q050;
+            q050.prevList = q025;
+            q025.prevList = q000;
+            q000.prevList = null;
+            qInit.prevList = qInit;
+        }
+
+        /**
+         * Returns the lists ordered from {@code qInit} to {@code q100}.
+         */
+        PoolChunkListMetric[] chunkLists() {
+            return new PoolChunkListMetric[] { qInit, q000, q025, q050, q075, q100 };
+        }
+    }
+
+    /**
+     * A {@link PoolChunkListMetric} which spans the lists of the same usage range of all chunk stripes.
+     */
+    private static final class StripedChunkListMetric implements PoolChunkListMetric {
+        private final PoolChunkListMetric[] lists;
+
+        StripedChunkListMetric(PoolChunkListMetric[][] stripeLists, int listIdx) {
+            lists = new PoolChunkListMetric[stripeLists.length];
+            for (int i = 0; i < stripeLists.length; i ++) {
+                lists[i] = stripeLists[i][listIdx];
+            }
+        }
+
+        @Override
+        public int minUsage() {
+            return lists[0].minUsage();
+        }
+
+        @Override
+        public int maxUsage() {
+            return lists[0].maxUsage();
+        }
+
+        @Override
+        public Iterator<PoolChunkMetric> iterator() {
+            List<PoolChunkMetric> metrics = new ArrayList<PoolChunkMetric>();
+            for (PoolChunkListMetric list: lists) {
+                for (PoolChunkMetric chunk: list) {
+                    metrics.add(chunk);
+                }
+            }
+            return metrics.iterator();
+        }
     }
 
     static final class HeapArena extends PoolArena<byte[]> {
 
-        HeapArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
-            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+        HeapArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                  boolean fineGrainedLocking, int numChunkStripes, long chunkReleaseDelayMillis,
+                  int minChunkReserve) {
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize, fineGrainedLocking, numChunkStripes,
+                    chunkReleaseDelayMillis, minChunkReserve);
         }
 
         @Override
-        boolean isDirect() {
+        public boolean isDirect() {
             return false;
         }
 
@@ -423,12 +966,15 @@ abstract class PoolArena<T> {
 
         private static final boolean HAS_UNSAFE = PlatformDependent.hasUnsafe();
 
-        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
-            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize,
+                    boolean fineGrainedLocking, int numChunkStripes, long chunkReleaseDelayMillis,
+                    int minChunkReserve) {
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize, fineGrainedLocking, numChunkStripes,
+                    chunkReleaseDelayMillis, minChunkReserve);
         }
 
         @Override
-        boolean isDirect() {
+        public boolean isDirect() {
             return true;
         }
 
@@ -31,8 +31,9 @@ package io.netty.buffer;
  * marked as reserved so it is always used by exactly one ByteBuf and no more)
  *
  * For simplicity all sizes are normalized according to PoolArena#normalizeCapacity method
- * This ensures that when we request for memory segments of size >= pageSize the normalizedCapacity
- * equals the next nearest power of 2
+ * This ensures that when we request for memory segments of size >= PoolArena#minNormalCapacity the
+ * normalizedCapacity equals the next nearest power of 2. Smaller sizes are rounded up to one of the tiny or small
+ * size classes of the arena and served out of subpages.
  *
  * To search for the first offset in chunk that has at least requested size available we construct a
  * complete balanced binary tree and store it in an array (just like heaps) - memoryMap
@@ -87,9 +88,19 @@ package io.netty.buffer;
  *
  * Algorithm: [allocateSubpage(size)]
  * ----------
- * 1) use allocateNode(maxOrder) to find an empty (i.e., unused) leaf (i.e., page)
+ * 1) use allocateNode(maxOrder - r) to find an empty (i.e., unused) run of 2^r pages, where r is given by
+ *    PoolArena#subpageRunShifts(size) (r = 0 i.e., a leaf for tiny sizes, bigger small sizes may use longer runs
+ *    so that the run can be divided into elements without wasting too much of it)
  * 2) use this handle to construct the PoolSubpage object or if it already exists just call init(normCapacity)
  *    note that this PoolSubpage object is added to subpagesPool in the PoolArena when we init() it
+ *    PoolSubpages are indexed by the first page of their run
+ *
+ * Locking:
+ * --------
+ * The memoryMap and freeBytes are guarded by the monitor of the chunk stripe of the owning PoolArena which the chunk
+ * belongs to (see stripeIdx). This is the arena itself unless fine-grained locking is enabled. The PoolSubpages of a
+ * chunk are guarded by the monitor returned by PoolArena#subpagePoolLock(head) for the subpage pool they belong to,
+ * which is either the arena itself or, if fine-grained locking is enabled, the head of the subpage pool.
  *
  * Note:
  * -----
@@ -101,7 +112,7 @@ package io.netty.buffer;
  * the second value (i.e, x) indicates that the first node which is free to be allocated is at depth x (from root)
  */
 
-final class PoolChunk<T> {
+final class PoolChunk<T> implements PoolChunkMetric {
 
     final PoolArena<T> arena;
     final T memory;
@@ -111,7 +122,6 @@ final class PoolChunk<T> {
     private final byte[] depthMap;
     private final PoolSubpage<T>[] subpages;
     /** Used to determine if the requested capacity is equal to or greater than pageSize. */
-    private final int subpageOverflowMask;
     private final int pageSize;
     private final int pageShifts;
     private final int maxOrder;
@@ -127,6 +137,12 @@ final class PoolChunk<T> {
     PoolChunk<T> prev;
     PoolChunk<T> next;
 
+    // The index of the chunk stripe of the arena which owns this chunk. Never changes once the chunk was added.
+    int stripeIdx;
+
+    // The value of System.nanoTime() when the chunk became unused the last time, guarded by the stripe lock.
+    long emptySince;
+
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
@@ -140,7 +156,6 @@ final class PoolChunk<T> {
         this.chunkSize = chunkSize;
         unusable = (byte) (maxOrder + 1);
         log2ChunkSize = log2(chunkSize);
-        subpageOverflowMask = ~(pageSize - 1);
         freeBytes = chunkSize;
 
         assert maxOrder < 30 : "maxOrder should be < 30, but is: " + maxOrder;
@@ -171,7 +186,6 @@ final class PoolChunk<T> {
         memoryMap = null;
         depthMap = null;
         subpages = null;
-        subpageOverflowMask = 0;
         pageSize = 0;
         pageShifts = 0;
         maxOrder = 0;
@@ -186,7 +200,8 @@ final class PoolChunk<T> {
         return new PoolSubpage[size];
     }
 
-    int usage() {
+    @Override
+    public int usage() {
         final int freeBytes = this.freeBytes;
         if (freeBytes == 0) {
             return 100;
@@ -200,10 +215,10 @@ final class PoolChunk<T> {
     }
 
     long allocate(int normCapacity) {
-        if ((normCapacity & subpageOverflowMask) != 0) { // >= pageSize
-            return allocateRun(normCapacity);
-        } else {
+        if (arena.isTinyOrSmall(normCapacity)) { // < minNormalCapacity
             return allocateSubpage(normCapacity);
+        } else {
+            return allocateRun(normCapacity);
         }
     }
 
@@ -306,26 +321,33 @@ final class PoolChunk<T> {
      * @return index in memoryMap
      */
     private long allocateSubpage(int normCapacity) {
-        int d = maxOrder; // subpages are only be allocated from pages i.e., leaves
+        // subpages are allocated from runs of 2^runShifts pages, for tiny sizes this is a single page i.e., a leaf
+        int d = maxOrder - arena.subpageRunShifts(normCapacity);
         int id = allocateNode(d);
         if (id < 0) {
             return id;
         }
 
         final PoolSubpage<T>[] subpages = this.subpages;
-        final int pageSize = this.pageSize;
+        final int runLength = runLength(id);
 
-        freeBytes -= pageSize;
+        freeBytes -= runLength;
 
         int subpageIdx = subpageIdx(id);
-        PoolSubpage<T> subpage = subpages[subpageIdx];
-        if (subpage == null) {
-            subpage = new PoolSubpage<T>(this, id, runOffset(id), pageSize, normCapacity);
-            subpages[subpageIdx] = subpage;
-        } else {
-            subpage.init(normCapacity);
+        PoolSubpage<T> head = arena.findSubpagePoolHead(normCapacity);
+        synchronized (arena.subpagePoolLock(head)) {
+            PoolSubpage<T> subpage = subpages[subpageIdx];
+            if (subpage == null || subpage.memoryMapIdx != id) {
+                // No subpage was created for this run yet. A subpage which starts at the same page but spans a run
+                // of different length is not in use anymore (its run was freed) and so can be replaced.
+                subpage = new PoolSubpage<T>(this, id, runOffset(id), runLength, normCapacity);
+                subpages[subpageIdx] = subpage;
+            } else {
+                subpage.init(normCapacity);
+            }
+            head.numAllocations ++;
+            return subpage.allocate();
         }
-        return subpage.allocate();
     }
 
     /**
@@ -342,9 +364,15 @@ final class PoolChunk<T> {
 
         if (bitmapIdx != 0) { // free a subpage
             PoolSubpage<T> subpage = subpages[subpageIdx(memoryMapIdx)];
-            assert subpage != null && subpage.doNotDestroy;
-            if (subpage.free(bitmapIdx & 0x3FFFFFFF)) {
-                return;
+            assert subpage != null;
+
+            // The subpage still has at least one element in use (the one we free) so elemSize can not change.
+            PoolSubpage<T> head = arena.findSubpagePoolHead(subpage.elemSize);
+            synchronized (arena.subpagePoolLock(head)) {
+                assert subpage.doNotDestroy;
+                if (subpage.free(bitmapIdx & 0x3FFFFFFF)) {
+                    return;
+                }
             }
         }
         freeBytes += runLength(memoryMapIdx);
@@ -411,7 +439,18 @@ final class PoolChunk<T> {
     }
 
     private int subpageIdx(int memoryMapIdx) {
-        return memoryMapIdx ^ maxSubpageAllocs; // remove highest set bit, to get offset
+        // move down to the first page (leaf) of the run and remove highest set bit, to get offset
+        return memoryMapIdx << maxOrder - depth(memoryMapIdx) ^ maxSubpageAllocs;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public int freeBytes() {
+        return freeBytes;
     }
 
     @Override
@@ -18,8 +18,16 @@ package io.netty.buffer;
 
 import io.netty.util.internal.StringUtil;
 
-final class PoolChunkList<T> {
-    private final PoolArena<T> arena;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+final class PoolChunkList<T> implements PoolChunkListMetric {
+    private static final Iterator<PoolChunkMetric> EMPTY_METRICS =
+            Collections.<PoolChunkMetric>emptyList().iterator();
+    // The monitor which guards this list and the chunks linked into it, see PoolArena.ChunkStripe.
+    private final Object lock;
     private final PoolChunkList<T> nextList;
     PoolChunkList<T> prevList;
 
@@ -31,8 +39,8 @@ final class PoolChunkList<T> {
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
-    PoolChunkList(PoolArena<T> arena, PoolChunkList<T> nextList, int minUsage, int maxUsage) {
-        this.arena = arena;
+    PoolChunkList(Object lock, PoolChunkList<T> nextList, int minUsage, int maxUsage) {
+        this.lock = lock;
         this.nextList = nextList;
         this.minUsage = minUsage;
         this.maxUsage = maxUsage;
@@ -61,17 +69,37 @@ final class PoolChunkList<T> {
         }
     }
 
-    void free(PoolChunk<T> chunk, long handle) {
+    /**
+     * Free the memory region of the given {@code handle} from the chunk. Returns {@code false} if the chunk is not
+     * used anymore and was removed from the lists, in which case the caller is responsible for it.
+     */
+    boolean free(PoolChunk<T> chunk, long handle) {
         chunk.free(handle);
         if (chunk.usage() < minUsage) {
             remove(chunk);
-            if (prevList == null) {
-                assert chunk.usage() == 0;
-                arena.destroyChunk(chunk);
-            } else {
-                prevList.add(chunk);
-            }
+            return move0(chunk);
+        }
+        return true;
+    }
+
+    /**
+     * Move the chunk down the lists until it reaches the list which matches its usage.
+     */
+    private boolean move(PoolChunk<T> chunk) {
+        if (chunk.usage() < minUsage) {
+            return move0(chunk);
+        }
+        add0(chunk);
+        return true;
+    }
+
+    private boolean move0(PoolChunk<T> chunk) {
+        if (prevList == null) {
+            // The chunk is not used anymore.
+            assert chunk.usage() == 0;
+            return false;
         }
+        return prevList.move(chunk);
     }
 
     void add(PoolChunk<T> chunk) {
@@ -79,7 +107,10 @@ final class PoolChunkList<T> {
             nextList.add(chunk);
             return;
         }
+        add0(chunk);
+    }
 
+    private void add0(PoolChunk<T> chunk) {
         chunk.parent = this;
         if (head == null) {
             head = chunk;
@@ -93,6 +124,27 @@ final class PoolChunkList<T> {
         }
     }
 
+    /**
+     * Remove up to {@code maxChunks} chunks which are not used since {@code emptyBefore} (a value of
+     * {@link System#nanoTime()}) or earlier. Returns the removed chunks or {@code null} if none was removed.
+     */
+    List<PoolChunk<T>> removeEmptyChunks(long emptyBefore, int maxChunks) {
+        List<PoolChunk<T>> removed = null;
+        for (PoolChunk<T> cur = head; cur != null && maxChunks > 0;) {
+            PoolChunk<T> next = cur.next;
+            if (cur.usage() == 0 && cur.emptySince - emptyBefore <= 0) {
+                remove(cur);
+                if (removed == null) {
+                    removed = new ArrayList<PoolChunk<T>>(2);
+                }
+                removed.add(cur);
+                maxChunks --;
+            }
+            cur = next;
+        }
+        return removed;
+    }
+
     private void remove(PoolChunk<T> cur) {
         if (cur == head) {
             head = cur.next;
@@ -108,6 +160,35 @@ final class PoolChunkList<T> {
         }
     }
 
+    @Override
+    public int minUsage() {
+        return minUsage;
+    }
+
+    @Override
+    public int maxUsage() {
+        return maxUsage;
+    }
+
+    @Override
+    public Iterator<PoolChunkMetric> iterator() {
+        // Take a snapshot while holding the lock as the chunks move between the lists concurrently.
+        synchronized (lock) {
+            if (head == null) {
+                return EMPTY_METRICS;
+            }
+            List<PoolChunkMetric> metrics = new ArrayList<PoolChunkMetric>();
+            for (PoolChunk<T> cur = head;;) {
+                metrics.add(cur);
+                cur = cur.next;
+                if (cur == null) {
+                    break;
+                }
+            }
+            return metrics.iterator();
+        }
+    }
+
     @Override
     public String toString() {
         if (head == null) {
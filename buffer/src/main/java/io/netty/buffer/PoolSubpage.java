@@ -16,12 +16,12 @@
 
 package io.netty.buffer;
 
-final class PoolSubpage<T> {
+final class PoolSubpage<T> implements PoolSubpageMetric {
 
     final PoolChunk<T> chunk;
-    private final int memoryMapIdx;
+    final int memoryMapIdx;
     private final int runOffset;
-    private final int pageSize;
+    private final int runSize;
     private final long[] bitmap;
 
     PoolSubpage<T> prev;
@@ -34,6 +34,10 @@ final class PoolSubpage<T> {
     private int nextAvail;
     private int numAvail;
 
+    // Only used by the head of a subpage pool. Counts the elements allocated out of the pool and is guarded by
+    // the subpage pool lock (see PoolArena.subpagePoolLock(...)).
+    long numAllocations;
+
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
@@ -43,16 +47,20 @@ final class PoolSubpage<T> {
         memoryMapIdx = -1;
         runOffset = -1;
         elemSize = -1;
-        this.pageSize = pageSize;
+        runSize = pageSize;
         bitmap = null;
     }
 
-    PoolSubpage(PoolChunk<T> chunk, int memoryMapIdx, int runOffset, int pageSize, int elemSize) {
+    /**
+     * Creates a new subpage which divides the run of {@code runSize} bytes starting at {@code runOffset} into elements
+     * of {@code elemSize} bytes. The run is a single page for tiny sizes but may span multiple pages for small sizes.
+     */
+    PoolSubpage(PoolChunk<T> chunk, int memoryMapIdx, int runOffset, int runSize, int elemSize) {
         this.chunk = chunk;
         this.memoryMapIdx = memoryMapIdx;
         this.runOffset = runOffset;
-        this.pageSize = pageSize;
-        bitmap = new long[pageSize >>> 10]; // pageSize / 16 / 64
+        this.runSize = runSize;
+        bitmap = new long[runSize >>> 10]; // runSize / 16 / 64
         init(elemSize);
     }
 
@@ -60,7 +68,7 @@ final class PoolSubpage<T> {
         doNotDestroy = true;
         this.elemSize = elemSize;
         if (elemSize != 0) {
-            maxNumElems = numAvail = pageSize / elemSize;
+            maxNumElems = numAvail = runSize / elemSize;
             nextAvail = 0;
             bitmapLength = maxNumElems >>> 6;
             if ((maxNumElems & 63) != 0) {
@@ -202,12 +210,33 @@ final class PoolSubpage<T> {
         return 0x4000000000000000L | (long) bitmapIdx << 32 | memoryMapIdx;
     }
 
+    @Override
     public String toString() {
         if (!doNotDestroy) {
             return "(" + memoryMapIdx + ": not in use)";
         }
 
         return String.valueOf('(') + memoryMapIdx + ": " + (maxNumElems - numAvail) + '/' + maxNumElems +
-               ", offset: " + runOffset + ", length: " + pageSize + ", elemSize: " + elemSize + ')';
+               ", offset: " + runOffset + ", length: " + runSize + ", elemSize: " + elemSize + ')';
+    }
+
+    @Override
+    public int maxNumElements() {
+        return maxNumElems;
+    }
+
+    @Override
+    public int numAvailable() {
+        return numAvail;
+    }
+
+    @Override
+    public int elementSize() {
+        return elemSize;
+    }
+
+    @Override
+    public int pageSize() {
+        return runSize;
     }
 }
@@ -17,22 +17,48 @@
 package io.netty.buffer;
 
 
+import io.netty.buffer.PoolArena.SizeClass;
 import io.netty.util.ThreadDeathWatcher;
+import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Acts a Thread cache for allocations. This implementation is moduled after
  * <a href="http://people.freebsd.org/~jasone/jemalloc/bsdcan2006/jemalloc.pdf">jemalloc</a> and the descripted
  * technics of <a href="https://www.facebook.com/notes/facebook-engineering/scalable-memory-allocation-using-jemalloc/
  * 480222803919">Scalable memory allocation using jemalloc</a>.
+ *
+ * The number of memory regions cached per size class adapts to the usage of the owning {@link Thread}: a cache grows
+ * (up to {@value #MAX_CACHE_GROWTH} times its configured size) if allocations miss it while released buffers did not
+ * fit into it anymore, and it shrinks and releases all its memory regions if it was not used at all since the last
+ * trim. Trimming happens every {@code freeSweepAllocationThreshold} allocations and whenever the owning thread calls
+ * {@link #trimCurrentThreadCaches()}, which is done by the event loops once they become idle. Each trim also gives
+ * the arenas a chance to release chunks which were not used for a while.
  */
 final class PoolThreadCache {
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(PoolThreadCache.class);
 
+    /**
+     * The maximal factor by which a {@link MemoryRegionCache} may grow beyond its configured size.
+     */
+    static final int MAX_CACHE_GROWTH = 4;
+
+    // All caches which are owned by the current thread, so they can be trimmed once the thread becomes idle.
+    private static final FastThreadLocal<List<PoolThreadCache>> CURRENT_THREAD_CACHES =
+            new FastThreadLocal<List<PoolThreadCache>>() {
+                @Override
+                protected List<PoolThreadCache> initialValue() {
+                    return new ArrayList<PoolThreadCache>(2);
+                }
+            };
+
     final PoolArena<byte[]> heapArena;
     final PoolArena<ByteBuffer> directArena;
 
@@ -49,6 +75,10 @@ final class PoolThreadCache {
     private final int numShiftsNormalHeap;
     private final int freeSweepAllocationThreshold;
 
+    // Metrics of this cache, registered in the arena they belong to.
+    private final PoolThreadCacheMetric heapMetric;
+    private final PoolThreadCacheMetric directMetric;
+
     private int allocations;
 
     private final Thread thread = Thread.currentThread();
@@ -77,47 +107,93 @@ final class PoolThreadCache {
         this.heapArena = heapArena;
         this.directArena = directArena;
         if (directArena != null) {
-            tinySubPageDirectCaches = createSubPageCaches(tinyCacheSize, PoolArena.numTinySubpagePools);
-            smallSubPageDirectCaches = createSubPageCaches(smallCacheSize, directArena.numSmallSubpagePools);
+            tinySubPageDirectCaches = createTinySubPageCaches(tinyCacheSize);
+            smallSubPageDirectCaches = createSmallSubPageCaches(smallCacheSize, maxCachedBufferCapacity, directArena);
 
-            numShiftsNormalDirect = log2(directArena.pageSize);
+            numShiftsNormalDirect = log2(directArena.minNormalCapacity);
             normalDirectCaches = createNormalCaches(
                     normalCacheSize, maxCachedBufferCapacity, directArena);
+
+            directMetric = new ArenaCacheMetric(tinySubPageDirectCaches, smallSubPageDirectCaches, normalDirectCaches);
+            directArena.addThreadCache(directMetric);
         } else {
             // No directArea is configured so just null out all caches
             tinySubPageDirectCaches = null;
             smallSubPageDirectCaches = null;
             normalDirectCaches = null;
             numShiftsNormalDirect = -1;
+            directMetric = null;
         }
         if (heapArena != null) {
             // Create the caches for the heap allocations
-            tinySubPageHeapCaches = createSubPageCaches(tinyCacheSize, PoolArena.numTinySubpagePools);
-            smallSubPageHeapCaches = createSubPageCaches(smallCacheSize, heapArena.numSmallSubpagePools);
+            tinySubPageHeapCaches = createTinySubPageCaches(tinyCacheSize);
+            smallSubPageHeapCaches = createSmallSubPageCaches(smallCacheSize, maxCachedBufferCapacity, heapArena);
 
-            numShiftsNormalHeap = log2(heapArena.pageSize);
+            numShiftsNormalHeap = log2(heapArena.minNormalCapacity);
             normalHeapCaches = createNormalCaches(
                     normalCacheSize, maxCachedBufferCapacity, heapArena);
+
+            heapMetric = new ArenaCacheMetric(tinySubPageHeapCaches, smallSubPageHeapCaches, normalHeapCaches);
+            heapArena.addThreadCache(heapMetric);
         } else {
             // No heapArea is configured so just null out all caches
             tinySubPageHeapCaches = null;
             smallSubPageHeapCaches = null;
             normalHeapCaches = null;
             numShiftsNormalHeap = -1;
+            heapMetric = null;
         }
 
         // The thread-local cache will keep a list of pooled buffers which must be returned to
         // the pool when the thread is not alive anymore.
         ThreadDeathWatcher.watch(thread, freeTask);
+        CURRENT_THREAD_CACHES.get().add(this);
     }
 
-    private static <T> SubPageMemoryRegionCache<T>[] createSubPageCaches(int cacheSize, int numCaches) {
+    /**
+     * Trim all caches which are owned by the current thread. Memory regions which were not used since the last trim
+     * are released back to their arenas.
+     */
+    static void trimCurrentThreadCaches() {
+        if (!CURRENT_THREAD_CACHES.isSet()) {
+            return;
+        }
+        List<PoolThreadCache> caches = CURRENT_THREAD_CACHES.get();
+        for (int i = 0; i < caches.size(); i ++) {
+            caches.get(i).trim();
+        }
+    }
+
+    private static <T> SubPageMemoryRegionCache<T>[] createTinySubPageCaches(int cacheSize) {
         if (cacheSize > 0) {
-            @SuppressWarnings("unchecked")
-            SubPageMemoryRegionCache<T>[] cache = new SubPageMemoryRegionCache[numCaches];
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            SubPageMemoryRegionCache<T>[] cache = new SubPageMemoryRegionCache[PoolArena.numTinySubpagePools];
             for (int i = 0; i < cache.length; i++) {
                 // TODO: maybe use cacheSize / cache.length
-                cache[i] = new SubPageMemoryRegionCache<T>(cacheSize);
+                cache[i] = new SubPageMemoryRegionCache<T>(cacheSize, i << 4, SizeClass.Tiny);
+            }
+            return cache;
+        } else {
+            return null;
+        }
+    }
+
+    private static <T> SubPageMemoryRegionCache<T>[] createSmallSubPageCaches(
+            int cacheSize, int maxCachedBufferCapacity, PoolArena<T> area) {
+        int numCaches = 0;
+        while (numCaches < area.numSmallSubpagePools &&
+                PoolArena.smallCapacity(numCaches) <= maxCachedBufferCapacity) {
+            numCaches ++;
+        }
+        if (cacheSize > 0 && numCaches > 0) {
+            // The cache size is meant per power of two, so divide it between the size classes of a power of two.
+            int classCacheSize = Math.max(1, cacheSize / PoolArena.SMALL_CLASSES_PER_DOUBLING);
+
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            SubPageMemoryRegionCache<T>[] cache = new SubPageMemoryRegionCache[numCaches];
+            for (int i = 0; i < cache.length; i++) {
+                cache[i] = new SubPageMemoryRegionCache<T>(
+                        classCacheSize, PoolArena.smallCapacity(i), SizeClass.Small);
             }
             return cache;
         } else {
@@ -127,14 +203,15 @@ final class PoolThreadCache {
 
     private static <T> NormalMemoryRegionCache<T>[] createNormalCaches(
             int cacheSize, int maxCachedBufferCapacity, PoolArena<T> area) {
-        if (cacheSize > 0) {
-            int max = Math.min(area.chunkSize, maxCachedBufferCapacity);
-            int arraySize = Math.max(1, max / area.pageSize);
+        int max = Math.min(area.chunkSize, maxCachedBufferCapacity);
+        if (cacheSize > 0 && max >= area.minNormalCapacity) {
+            // One cache per power of two, starting at the smallest normal capacity.
+            int arraySize = log2(max / area.minNormalCapacity) + 1;
 
             @SuppressWarnings("unchecked")
             NormalMemoryRegionCache<T>[] cache = new NormalMemoryRegionCache[arraySize];
             for (int i = 0; i < cache.length; i++) {
-                cache[i] = new NormalMemoryRegionCache<T>(cacheSize);
+                cache[i] = new NormalMemoryRegionCache<T>(cacheSize, area.minNormalCapacity << i);
             }
             return cache;
         } else {
@@ -217,6 +294,16 @@ final class PoolThreadCache {
     }
 
     private void free0() {
+        if (Thread.currentThread() == thread && CURRENT_THREAD_CACHES.isSet()) {
+            CURRENT_THREAD_CACHES.get().remove(this);
+        }
+        if (directMetric != null) {
+            directArena.removeThreadCache(directMetric);
+        }
+        if (heapMetric != null) {
+            heapArena.removeThreadCache(heapMetric);
+        }
+
         int numFreed = free(tinySubPageDirectCaches) +
                 free(smallSubPageDirectCaches) +
                 free(normalDirectCaches) +
@@ -249,12 +336,21 @@ final class PoolThreadCache {
     }
 
     void trim() {
+        allocations = 0;
         trim(tinySubPageDirectCaches);
         trim(smallSubPageDirectCaches);
         trim(normalDirectCaches);
         trim(tinySubPageHeapCaches);
         trim(smallSubPageHeapCaches);
         trim(normalHeapCaches);
+
+        // The trimmed memory regions may have left chunks unused.
+        if (directArena != null) {
+            directArena.releaseIdleChunks();
+        }
+        if (heapArena != null) {
+            heapArena.releaseIdleChunks();
+        }
     }
 
     private static void trim(MemoryRegionCache<?>[] caches) {
@@ -305,12 +401,110 @@ final class PoolThreadCache {
         return cache[idx];
     }
 
+    private final class ArenaCacheMetric implements PoolThreadCacheMetric {
+        private final List<MemoryRegionCacheMetric> tinyCaches;
+        private final List<MemoryRegionCacheMetric> smallCaches;
+        private final List<MemoryRegionCacheMetric> normalCaches;
+
+        ArenaCacheMetric(MemoryRegionCache<?>[] tinyCaches, MemoryRegionCache<?>[] smallCaches,
+                         MemoryRegionCache<?>[] normalCaches) {
+            this.tinyCaches = metricList(tinyCaches);
+            this.smallCaches = metricList(smallCaches);
+            this.normalCaches = metricList(normalCaches);
+        }
+
+        private List<MemoryRegionCacheMetric> metricList(MemoryRegionCache<?>[] caches) {
+            if (caches == null) {
+                return Collections.emptyList();
+            }
+            List<MemoryRegionCacheMetric> metrics = new ArrayList<MemoryRegionCacheMetric>(caches.length);
+            Collections.addAll(metrics, caches);
+            return Collections.unmodifiableList(metrics);
+        }
+
+        @Override
+        public String threadName() {
+            return thread.getName();
+        }
+
+        @Override
+        public List<MemoryRegionCacheMetric> tinyCaches() {
+            return tinyCaches;
+        }
+
+        @Override
+        public List<MemoryRegionCacheMetric> smallCaches() {
+            return smallCaches;
+        }
+
+        @Override
+        public List<MemoryRegionCacheMetric> normalCaches() {
+            return normalCaches;
+        }
+
+        @Override
+        public long numHits() {
+            return numHits(tinyCaches) + numHits(smallCaches) + numHits(normalCaches);
+        }
+
+        @Override
+        public long numMisses() {
+            return numMisses(tinyCaches) + numMisses(smallCaches) + numMisses(normalCaches);
+        }
+
+        @Override
+        public long numTinyHits() {
+            return numHits(tinyCaches);
+        }
+
+        @Override
+        public long numTinyMisses() {
+            return numMisses(tinyCaches);
+        }
+
+        @Override
+        public long numSmallHits() {
+            return numHits(smallCaches);
+        }
+
+        @Override
+        public long numSmallMisses() {
+            return numMisses(smallCaches);
+        }
+
+        @Override
+        public long numNormalHits() {
+            return numHits(normalCaches);
+        }
+
+        @Override
+        public long numNormalMisses() {
+            return numMisses(normalCaches);
+        }
+
+        private long numHits(List<MemoryRegionCacheMetric> caches) {
+            long hits = 0;
+            for (int i = 0; i < caches.size(); i ++) {
+                hits += caches.get(i).numHits();
+            }
+            return hits;
+        }
+
+        private long numMisses(List<MemoryRegionCacheMetric> caches) {
+            long misses = 0;
+            for (int i = 0; i < caches.size(); i ++) {
+                misses += caches.get(i).numMisses();
+            }
+            return misses;
+        }
+    }
+
     /**
      * Cache used for buffers which are backed by TINY or SMALL size.
      */
     private static final class SubPageMemoryRegionCache<T> extends MemoryRegionCache<T> {
-        SubPageMemoryRegionCache(int size) {
-            super(size);
+        SubPageMemoryRegionCache(int size, int elemSize, SizeClass sizeClass) {
+            super(size, elemSize, sizeClass);
         }
 
         @Override
@@ -324,8 +518,8 @@ final class PoolThreadCache {
      * Cache used for buffers which are backed by NORMAL size.
      */
     private static final class NormalMemoryRegionCache<T> extends MemoryRegionCache<T> {
-        NormalMemoryRegionCache(int size) {
-            super(size);
+        NormalMemoryRegionCache(int size, int elemSize) {
+            super(size, elemSize, SizeClass.Normal);
         }
 
         @Override
@@ -338,21 +532,42 @@ final class PoolThreadCache {
     /**
      * Cache of {@link PoolChunk} and handles which can be used to allocate a buffer without locking at all.
      */
-    private abstract static class MemoryRegionCache<T> {
-        private final Entry<T>[] entries;
-        private final int maxUnusedCached;
+    private abstract static class MemoryRegionCache<T> implements MemoryRegionCacheMetric {
+        private Entry<T>[] entries;
+        private final int maxCapacity;
+        private final int elemSize;
+        private final SizeClass sizeClass;
+        // The number of entries which may be cached at the moment, never larger than entries.length.
+        private int capacity;
         private int head;
         private int tail;
         private int maxEntriesInUse;
         private int entriesInUse;
 
+        // Only modified by the thread which owns the cache.
+        private long hits;
+        private long misses;
+
+        // Usage since the last trim, used to adapt the capacity.
+        private int allocationsSinceTrim;
+        private int missesSinceTrim;
+        private int rejectedSinceTrim;
+
+        MemoryRegionCache(int size, int elemSize, SizeClass sizeClass) {
+            capacity = powerOfTwo(size);
+            maxCapacity = capacity * MAX_CACHE_GROWTH;
+            entries = newEntries(capacity);
+            this.elemSize = elemSize;
+            this.sizeClass = sizeClass;
+        }
+
         @SuppressWarnings("unchecked")
-        MemoryRegionCache(int size) {
-            entries = new Entry[powerOfTwo(size)];
+        private static <T> Entry<T>[] newEntries(int size) {
+            Entry<T>[] entries = new Entry[size];
             for (int i = 0; i < entries.length; i++) {
                 entries[i] = new Entry<T>();
             }
-            maxUnusedCached = size / 2;
+            return entries;
         }
 
         private static int powerOfTwo(int res) {
@@ -380,8 +595,9 @@ final class PoolThreadCache {
          */
         public boolean add(PoolChunk<T> chunk, long handle) {
             Entry<T> entry = entries[tail];
-            if (entry.chunk != null) {
+            if (entry.chunk != null || size() >= capacity) {
                 // cache is full
+                rejectedSinceTrim ++;
                 return false;
             }
             entriesInUse --;
@@ -396,10 +612,14 @@ final class PoolThreadCache {
          * Allocate something out of the cache if possible and remove the entry from the cache.
          */
         public boolean allocate(PooledByteBuf<T> buf, int reqCapacity) {
+            allocationsSinceTrim ++;
             Entry<T> entry = entries[head];
             if (entry.chunk == null) {
+                misses ++;
+                missesSinceTrim ++;
                 return false;
             }
+            hits ++;
 
             entriesInUse ++;
             if (maxEntriesInUse < entriesInUse) {
@@ -420,7 +640,7 @@ final class PoolThreadCache {
             entriesInUse = 0;
             maxEntriesInUse = 0;
             for (int i = head;; i = nextIdx(i)) {
-                if (freeEntry(entries[i])) {
+                if (freeEntry(entries[i], sizeClass)) {
                     numFreed++;
                 } else {
                     // all cleared
@@ -430,20 +650,40 @@ final class PoolThreadCache {
         }
 
         /**
-         * Free up cached {@link PoolChunk}s if not allocated frequently enough.
+         * Free up cached {@link PoolChunk}s if not allocated frequently enough and adapt the capacity to the usage
+         * since the last trim.
          */
         private void trim() {
-            int free = size() - maxEntriesInUse;
+            int free;
+            if (allocationsSinceTrim == 0) {
+                // Not used at all, so release everything and shrink.
+                free = size();
+                if (capacity > 1) {
+                    capacity >>>= 1;
+                }
+            } else {
+                if (missesSinceTrim > 0 && rejectedSinceTrim > 0 && capacity < maxCapacity) {
+                    // Allocations missed the cache while released buffers did not fit into it anymore.
+                    grow();
+                }
+                free = size() - maxEntriesInUse;
+                if (free <= capacity >>> 1) {
+                    free = 0;
+                }
+            }
             entriesInUse = 0;
             maxEntriesInUse = 0;
+            allocationsSinceTrim = 0;
+            missesSinceTrim = 0;
+            rejectedSinceTrim = 0;
 
-            if (free <= maxUnusedCached) {
+            if (free == 0) {
                 return;
             }
 
             int i = head;
             for (; free > 0; free--) {
-                if (!freeEntry(entries[i])) {
+                if (!freeEntry(entries[i], sizeClass)) {
                     // all freed
                     break;
                 }
@@ -456,23 +696,42 @@ final class PoolThreadCache {
         }
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
-        private static boolean freeEntry(Entry entry) {
+        private static boolean freeEntry(Entry entry, SizeClass sizeClass) {
             PoolChunk chunk = entry.chunk;
             if (chunk == null) {
                 return false;
             }
-            // need to synchronize on the area from which it was allocated before.
-            synchronized (chunk.arena) {
-                chunk.parent.free(chunk, entry.handle);
-            }
+            chunk.arena.freeChunk(chunk, entry.handle, sizeClass);
             entry.chunk = null;
             return true;
         }
 
+        /**
+         * Double the capacity, moving the cached entries into a larger array if needed.
+         */
+        private void grow() {
+            capacity <<= 1;
+            if (capacity <= entries.length) {
+                return;
+            }
+            Entry<T>[] newEntries = newEntries(capacity);
+            int size = size();
+            for (int i = 0, j = head; i < size; i ++, j = nextIdx(j)) {
+                newEntries[i] = entries[j];
+            }
+            entries = newEntries;
+            head = 0;
+            tail = size;
+        }
+
         /**
          * Return the number of cached entries.
          */
         private int size()  {
+            if (entries[tail].chunk != null) {
+                // tail points to an occupied entry only if all entries are occupied
+                return entries.length;
+            }
             return tail - head & entries.length - 1;
         }
 
@@ -481,6 +740,31 @@ final class PoolThreadCache {
             return index + 1 & entries.length - 1;
         }
 
+        @Override
+        public int elementSize() {
+            return elemSize;
+        }
+
+        @Override
+        public int maxNumElements() {
+            return capacity;
+        }
+
+        @Override
+        public int numElements() {
+            return size();
+        }
+
+        @Override
+        public long numHits() {
+            return hits;
+        }
+
+        @Override
+        public long numMisses() {
+            return misses;
+        }
+
         private static final class Entry<T> {
             PoolChunk<T> chunk;
             long handle;
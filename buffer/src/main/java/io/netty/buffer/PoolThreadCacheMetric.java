@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+
+import java.util.List;
+
+/**
+ * Metrics for the thread-local cache of a single thread, restricted to the memory regions of one arena.
+ *
+ * The counters are only updated by the thread which owns the cache and are read without synchronization, so they may
+ * be slightly stale when sampled from another thread.
+ */
+public interface PoolThreadCacheMetric {
+
+    /**
+     * Return the name of the {@link Thread} which owns the cache.
+     */
+    String threadName();
+
+    /**
+     * Returns an unmodifiable {@link List} which holds the {@link MemoryRegionCacheMetric}s for tiny allocations.
+     */
+    List<MemoryRegionCacheMetric> tinyCaches();
+
+    /**
+     * Returns an unmodifiable {@link List} which holds the {@link MemoryRegionCacheMetric}s for small allocations.
+     */
+    List<MemoryRegionCacheMetric> smallCaches();
+
+    /**
+     * Returns an unmodifiable {@link List} which holds the {@link MemoryRegionCacheMetric}s for normal allocations.
+     */
+    List<MemoryRegionCacheMetric> normalCaches();
+
+    /**
+     * Return the number of allocations which were served out of the cache. This includes all sizes.
+     */
+    long numHits();
+
+    /**
+     * Return the number of allocations which could not be served out of the cache and so were delegated to the
+     * arena. This includes all sizes.
+     */
+    long numMisses();
+
+    /**
+     * Return the number of tiny allocations which were served out of the cache.
+     */
+    long numTinyHits();
+
+    /**
+     * Return the number of tiny allocations which could not be served out of the cache.
+     */
+    long numTinyMisses();
+
+    /**
+     * Return the number of small allocations which were served out of the cache.
+     */
+    long numSmallHits();
+
+    /**
+     * Return the number of small allocations which could not be served out of the cache.
+     */
+    long numSmallMisses();
+
+    /**
+     * Return the number of normal allocations which were served out of the cache.
+     */
+    long numNormalHits();
+
+    /**
+     * Return the number of normal allocations which could not be served out of the cache.
+     */
+    long numNormalMisses();
+}
@@ -23,6 +23,9 @@ import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PooledByteBufAllocator extends AbstractByteBufAllocator {
@@ -38,6 +41,10 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
     private static final int DEFAULT_NORMAL_CACHE_SIZE;
     private static final int DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
     private static final int DEFAULT_CACHE_TRIM_INTERVAL;
+    private static final boolean DEFAULT_FINE_GRAINED_LOCKING;
+    private static final int DEFAULT_NUM_CHUNK_STRIPES;
+    private static final long DEFAULT_CHUNK_RELEASE_DELAY_MILLIS;
+    private static final int DEFAULT_MIN_CHUNK_RESERVE;
 
     private static final int MIN_PAGE_SIZE = 4096;
     private static final int MAX_CHUNK_SIZE = (int) (((long) Integer.MAX_VALUE + 1) / 2);
@@ -94,6 +101,20 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         DEFAULT_CACHE_TRIM_INTERVAL = SystemPropertyUtil.getInt(
                 "io.netty.allocator.cacheTrimInterval", 8192);
 
+        // guard the subpage pools of an arena by their own monitors instead of the arena monitor and split the
+        // chunks of an arena into the given number of stripes, each guarded by its own monitor
+        DEFAULT_FINE_GRAINED_LOCKING = SystemPropertyUtil.getBoolean(
+                "io.netty.allocator.fineGrainedLocking", false);
+        DEFAULT_NUM_CHUNK_STRIPES = Math.max(1, SystemPropertyUtil.getInt(
+                "io.netty.allocator.numChunkStripes", 4));
+
+        // release chunks which were not used for this long, but keep the given number of chunks per arena.
+        // By default unused chunks are released immediately, like before.
+        DEFAULT_CHUNK_RELEASE_DELAY_MILLIS = Math.max(0, SystemPropertyUtil.getLong(
+                "io.netty.allocator.chunkReleaseDelayMillis", 0));
+        DEFAULT_MIN_CHUNK_RESERVE = Math.max(0, SystemPropertyUtil.getInt(
+                "io.netty.allocator.minChunkReserve", 0));
+
         if (logger.isDebugEnabled()) {
             logger.debug("-Dio.netty.allocator.numHeapArenas: {}", DEFAULT_NUM_HEAP_ARENA);
             logger.debug("-Dio.netty.allocator.numDirectArenas: {}", DEFAULT_NUM_DIRECT_ARENA);
@@ -113,6 +134,10 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
             logger.debug("-Dio.netty.allocator.normalCacheSize: {}", DEFAULT_NORMAL_CACHE_SIZE);
             logger.debug("-Dio.netty.allocator.maxCachedBufferCapacity: {}", DEFAULT_MAX_CACHED_BUFFER_CAPACITY);
             logger.debug("-Dio.netty.allocator.cacheTrimInterval: {}", DEFAULT_CACHE_TRIM_INTERVAL);
+            logger.debug("-Dio.netty.allocator.fineGrainedLocking: {}", DEFAULT_FINE_GRAINED_LOCKING);
+            logger.debug("-Dio.netty.allocator.numChunkStripes: {}", DEFAULT_NUM_CHUNK_STRIPES);
+            logger.debug("-Dio.netty.allocator.chunkReleaseDelayMillis: {}", DEFAULT_CHUNK_RELEASE_DELAY_MILLIS);
+            logger.debug("-Dio.netty.allocator.minChunkReserve: {}", DEFAULT_MIN_CHUNK_RESERVE);
         }
     }
 
@@ -124,6 +149,8 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
     private final int tinyCacheSize;
     private final int smallCacheSize;
     private final int normalCacheSize;
+    private final List<PoolArenaMetric> heapArenaMetrics;
+    private final List<PoolArenaMetric> directArenaMetrics;
 
     final PoolThreadLocalCache threadCache;
 
@@ -146,6 +173,43 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
 
     public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
                                   int tinyCacheSize, int smallCacheSize, int normalCacheSize) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+                tinyCacheSize, smallCacheSize, normalCacheSize, DEFAULT_FINE_GRAINED_LOCKING);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param fineGrainedLocking {@code true} if the subpage pools of each arena should be guarded by their own
+     *                           monitors, so that tiny and small allocations which can be served by an already
+     *                           existing subpage do not need to acquire the arena-wide lock, and if the chunks of
+     *                           each arena should be split into {@code io.netty.allocator.numChunkStripes} stripes
+     *                           guarded by their own monitors, so that normal allocations and frees of different
+     *                           threads do not contend either. This reduces contention when many threads share the
+     *                           same arena, at the cost of up to one partially used chunk per stripe.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  boolean fineGrainedLocking) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+                tinyCacheSize, smallCacheSize, normalCacheSize, fineGrainedLocking,
+                DEFAULT_CHUNK_RELEASE_DELAY_MILLIS, DEFAULT_MIN_CHUNK_RESERVE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param chunkReleaseDelayMillis the time (in milliseconds) a chunk needs to be unused before its memory is
+     *                                released. Unused chunks are kept for this long so that bursts of allocations do
+     *                                not need to allocate new chunks over and over again. With {@code 0} (the
+     *                                default) a chunk is released as soon as its usage drops below its lowest chunk
+     *                                list, while a chunk which becomes empty in its initial list is kept, like before.
+     * @param minChunkReserve         the number of chunks each arena keeps even if they are not used. {@code 0} by
+     *                                default.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                                  boolean fineGrainedLocking, long chunkReleaseDelayMillis, int minChunkReserve) {
         super(preferDirect);
         threadCache = new PoolThreadLocalCache();
         this.tinyCacheSize = tinyCacheSize;
@@ -159,28 +223,49 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         if (nDirectArena < 0) {
             throw new IllegalArgumentException("nDirectArea: " + nDirectArena + " (expected: >= 0)");
         }
+        if (chunkReleaseDelayMillis < 0) {
+            throw new IllegalArgumentException(
+                    "chunkReleaseDelayMillis: " + chunkReleaseDelayMillis + " (expected: >= 0)");
+        }
+        if (minChunkReserve < 0) {
+            throw new IllegalArgumentException("minChunkReserve: " + minChunkReserve + " (expected: >= 0)");
+        }
 
         int pageShifts = validateAndCalculatePageShifts(pageSize);
 
         if (nHeapArena > 0) {
             heapArenas = newArenaArray(nHeapArena);
             for (int i = 0; i < heapArenas.length; i ++) {
-                heapArenas[i] = new PoolArena.HeapArena(this, pageSize, maxOrder, pageShifts, chunkSize);
+                heapArenas[i] = new PoolArena.HeapArena(
+                        this, pageSize, maxOrder, pageShifts, chunkSize, fineGrainedLocking,
+                        DEFAULT_NUM_CHUNK_STRIPES, chunkReleaseDelayMillis, minChunkReserve);
             }
+            heapArenaMetrics = arenaMetricList(heapArenas);
         } else {
             heapArenas = null;
+            heapArenaMetrics = Collections.emptyList();
         }
 
         if (nDirectArena > 0) {
             directArenas = newArenaArray(nDirectArena);
             for (int i = 0; i < directArenas.length; i ++) {
-                directArenas[i] = new PoolArena.DirectArena(this, pageSize, maxOrder, pageShifts, chunkSize);
+                directArenas[i] = new PoolArena.DirectArena(
+                        this, pageSize, maxOrder, pageShifts, chunkSize, fineGrainedLocking,
+                        DEFAULT_NUM_CHUNK_STRIPES, chunkReleaseDelayMillis, minChunkReserve);
             }
+            directArenaMetrics = arenaMetricList(directArenas);
         } else {
             directArenas = null;
+            directArenaMetrics = Collections.emptyList();
         }
     }
 
+    private static List<PoolArenaMetric> arenaMetricList(PoolArena<?>[] arenas) {
+        List<PoolArenaMetric> metrics = new ArrayList<PoolArenaMetric>(arenas.length);
+        Collections.addAll(metrics, arenas);
+        return Collections.unmodifiableList(metrics);
+    }
+
     @SuppressWarnings("unchecked")
     private static <T> PoolArena<T>[] newArenaArray(int size) {
         return new PoolArena[size];
@@ -255,6 +340,82 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         return directArenas != null;
     }
 
+    /**
+     * Return the number of heap arenas.
+     */
+    public int numHeapArenas() {
+        return heapArenaMetrics.size();
+    }
+
+    /**
+     * Return the number of direct arenas.
+     */
+    public int numDirectArenas() {
+        return directArenaMetrics.size();
+    }
+
+    /**
+     * Return a {@link List} of all heap {@link PoolArenaMetric}s that are provided by this pool.
+     */
+    public List<PoolArenaMetric> heapArenas() {
+        return heapArenaMetrics;
+    }
+
+    /**
+     * Return a {@link List} of all direct {@link PoolArenaMetric}s that are provided by this pool.
+     */
+    public List<PoolArenaMetric> directArenas() {
+        return directArenaMetrics;
+    }
+
+    /**
+     * Return the number of thread local caches used by this {@link PooledByteBufAllocator}.
+     */
+    public int numThreadLocalCaches() {
+        PoolArena<?>[] arenas = heapArenas != null ? heapArenas : directArenas;
+        if (arenas == null) {
+            return 0;
+        }
+
+        int total = 0;
+        for (int i = 0; i < arenas.length; i++) {
+            total += arenas[i].numThreadCaches();
+        }
+
+        return total;
+    }
+
+    /**
+     * Return the size of the tiny cache.
+     */
+    public int tinyCacheSize() {
+        return tinyCacheSize;
+    }
+
+    /**
+     * Return the size of the small cache.
+     */
+    public int smallCacheSize() {
+        return smallCacheSize;
+    }
+
+    /**
+     * Return the size of the normal cache.
+     */
+    public int normalCacheSize() {
+        return normalCacheSize;
+    }
+
+    /**
+     * Trim the thread-local caches of all {@link PooledByteBufAllocator}s which were used by the calling thread.
+     * Cached memory regions which were not used since the last trim are released back to the arenas and the caches
+     * shrink, so threads which became idle do not hold on to memory. Afterwards the arenas of the caches release
+     * their chunks which were not used for the chunk release delay. Event loops call this once they become idle.
+     */
+    public static void trimCurrentThreadCaches() {
+        PoolThreadCache.trimCurrentThreadCaches();
+    }
+
     final class PoolThreadLocalCache extends FastThreadLocal<PoolThreadCache> {
         private final AtomicInteger index = new AtomicInteger();
 
@@ -192,6 +192,42 @@ final class PooledHeapByteBuf extends PooledByteBuf<byte[]> {
         memory[index + 7] = (byte) value;
     }
 
+    @Override
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.getInts(memory, idx(index), dst, dstIndex, length);
+        } else {
+            super._getInts(index, dst, dstIndex, length);
+        }
+    }
+
+    @Override
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.setInts(memory, idx(index), src, srcIndex, length);
+        } else {
+            super._setInts(index, src, srcIndex, length);
+        }
+    }
+
+    @Override
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.getLongs(memory, idx(index), dst, dstIndex, length);
+        } else {
+            super._getLongs(index, dst, dstIndex, length);
+        }
+    }
+
+    @Override
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.setLongs(memory, idx(index), src, srcIndex, length);
+        } else {
+            super._setLongs(index, src, srcIndex, length);
+        }
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
         checkSrcIndex(index, length, srcIndex, src.capacity());
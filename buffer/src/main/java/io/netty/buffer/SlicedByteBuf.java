@@ -137,6 +137,16 @@ public class SlicedByteBuf extends AbstractDerivedByteBuf {
         return buffer.getLong(index + adjustment);
     }
 
+    @Override
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        buffer.getInts(index + adjustment, dst, dstIndex, length);
+    }
+
+    @Override
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        buffer.getLongs(index + adjustment, dst, dstIndex, length);
+    }
+
     @Override
     public ByteBuf duplicate() {
         ByteBuf duplicate = buffer.slice(adjustment, length);
@@ -205,6 +215,16 @@ public class SlicedByteBuf extends AbstractDerivedByteBuf {
         buffer.setLong(index + adjustment, value);
     }
 
+    @Override
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        buffer.setInts(index + adjustment, src, srcIndex, length);
+    }
+
+    @Override
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        buffer.setLongs(index + adjustment, src, srcIndex, length);
+    }
+
     @Override
     public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
         checkIndex(index, length);
@@ -29,6 +29,9 @@ import java.nio.charset.Charset;
  */
 public class SwappedByteBuf extends ByteBuf {
 
+    // The maximum number of elements swapped at once by setInts(...) and friends, see setSwappedInts(...).
+    private static final int MAX_SWAP_CHUNK_ELEMENTS = 1024;
+
     private final ByteBuf buf;
     private final ByteOrder order;
 
@@ -302,6 +305,20 @@ public class SwappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        buf.getInts(index, dst, dstIndex, length);
+        swapInts(dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        buf.getLongs(index, dst, dstIndex, length);
+        swapLongs(dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf getBytes(int index, ByteBuffer dst) {
         buf.getBytes(index, dst);
@@ -403,6 +420,22 @@ public class SwappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        checkIndex(index, AbstractByteBuf.bulkLength(length, 2));
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        setSwappedInts(index, src, srcIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        checkIndex(index, AbstractByteBuf.bulkLength(length, 3));
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        setSwappedLongs(index, src, srcIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuffer src) {
         buf.setBytes(index, src);
@@ -530,6 +563,20 @@ public class SwappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        buf.readInts(dst, dstIndex, length);
+        swapInts(dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        buf.readLongs(dst, dstIndex, length);
+        swapLongs(dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf readBytes(ByteBuffer dst) {
         buf.readBytes(dst);
@@ -637,6 +684,28 @@ public class SwappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        int bytes = AbstractByteBuf.bulkLength(length, 2);
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        buf.ensureWritable(bytes);
+        int writerIndex = buf.writerIndex();
+        setSwappedInts(writerIndex, src, srcIndex, length);
+        buf.writerIndex(writerIndex + bytes);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        int bytes = AbstractByteBuf.bulkLength(length, 3);
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        buf.ensureWritable(bytes);
+        int writerIndex = buf.writerIndex();
+        setSwappedLongs(writerIndex, src, srcIndex, length);
+        buf.writerIndex(writerIndex + bytes);
+        return this;
+    }
+
     @Override
     public ByteBuf writeBytes(ByteBuffer src) {
         buf.writeBytes(src);
@@ -861,4 +930,58 @@ public class SwappedByteBuf extends ByteBuf {
     public String toString() {
         return "Swapped(" + buf + ')';
     }
+
+    private void checkIndex(int index, int length) {
+        if (index < 0 || index > buf.capacity() - length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "index: %d, length: %d (expected: range(0, %d))", index, length, buf.capacity()));
+        }
+    }
+
+    /**
+     * Swaps the given range of {@code src} into a bounded temporary array and transfers it to the wrapped buffer with
+     * its bulk accessor, as {@code src} must not be modified. The range must have been checked already.
+     */
+    private void setSwappedInts(int index, int[] src, int srcIndex, int length) {
+        int[] swapped = new int[Math.min(length, MAX_SWAP_CHUNK_ELEMENTS)];
+        while (length > 0) {
+            int chunk = Math.min(length, swapped.length);
+            for (int i = 0; i < chunk; i ++) {
+                swapped[i] = ByteBufUtil.swapInt(src[srcIndex + i]);
+            }
+            buf.setInts(index, swapped, 0, chunk);
+            index += chunk << 2;
+            srcIndex += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * See {@link #setSwappedInts(int, int[], int, int)}.
+     */
+    private void setSwappedLongs(int index, long[] src, int srcIndex, int length) {
+        long[] swapped = new long[Math.min(length, MAX_SWAP_CHUNK_ELEMENTS)];
+        while (length > 0) {
+            int chunk = Math.min(length, swapped.length);
+            for (int i = 0; i < chunk; i ++) {
+                swapped[i] = ByteBufUtil.swapLong(src[srcIndex + i]);
+            }
+            buf.setLongs(index, swapped, 0, chunk);
+            index += chunk << 3;
+            srcIndex += chunk;
+            length -= chunk;
+        }
+    }
+
+    private static void swapInts(int[] array, int index, int length) {
+        for (int i = index, end = index + length; i < end; i ++) {
+            array[i] = ByteBufUtil.swapInt(array[i]);
+        }
+    }
+
+    private static void swapLongs(long[] array, int index, int length) {
+        for (int i = index, end = index + length; i < end; i ++) {
+            array[i] = ByteBufUtil.swapLong(array[i]);
+        }
+    }
 }
@@ -17,9 +17,14 @@ package io.netty.buffer;
 
 import io.netty.util.internal.PlatformDependent;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -60,6 +65,12 @@ import java.util.List;
  * you want to create a buffer which is composed of more than one array to
  * reduce the number of memory copy.
  *
+ * <h3>Creating a mapped buffer</h3>
+ *
+ * Mapped buffer is a view of a region of a file which is mapped into memory.
+ * The file is read without copying its content into another buffer first.
+ * The methods are provided with the name {@code mappedBuffer()}.
+ *
  * <h3>Creating a copied buffer</h3>
  *
  * Copied buffer is a deep copy of one or more existing byte arrays, byte
@@ -353,6 +364,47 @@ public final class Unpooled {
         return new CompositeByteBuf(ALLOC, false, maxNumComponents);
     }
 
+    /**
+     * Creates a new big-endian read-only buffer which maps the whole content of the specified {@code file} into
+     * memory.  The new buffer's {@code readerIndex} and {@code writerIndex} are {@code 0} and the length of the
+     * file respectively.  The file is unmapped when the buffer is released.
+     *
+     * @see MappedFileByteBuf
+     */
+    public static ByteBuf mappedBuffer(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long length = raf.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "file too large to be mapped as a whole: " + file + " (" + length + " bytes)");
+            }
+            return mappedBuffer(raf.getChannel(), MapMode.READ_ONLY, 0, (int) length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Creates a new big-endian buffer which maps {@code length} bytes of the specified {@code channel}, starting at
+     * {@code position}, into memory.  The new buffer's {@code readerIndex} and {@code writerIndex} are {@code 0} and
+     * {@code length} respectively.  Unless {@code mode} is {@link MapMode#READ_ONLY}, a modification of the buffer
+     * will be visible in the file.  The region is unmapped when the buffer is released.
+     *
+     * @see MappedFileByteBuf
+     */
+    public static ByteBuf mappedBuffer(FileChannel channel, MapMode mode, long position, int length)
+            throws IOException {
+        if (length == 0) {
+            return EMPTY_BUFFER;
+        }
+        return AbstractByteBufAllocator.toLeakAwareBuffer(
+                new MappedFileByteBuf(ALLOC, channel, mode, position, length));
+    }
+
     /**
      * Creates a new big-endian buffer whose content is a copy of the
      * specified {@code array}.  The new buffer's {@code readerIndex} and
@@ -421,6 +421,42 @@ public class UnpooledHeapByteBuf extends AbstractReferenceCountedByteBuf {
         array[index + 7] = (byte) value;
     }
 
+    @Override
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.getInts(array, index, dst, dstIndex, length);
+        } else {
+            super._getInts(index, dst, dstIndex, length);
+        }
+    }
+
+    @Override
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.setInts(array, index, src, srcIndex, length);
+        } else {
+            super._setInts(index, src, srcIndex, length);
+        }
+    }
+
+    @Override
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.getLongs(array, index, dst, dstIndex, length);
+        } else {
+            super._getLongs(index, dst, dstIndex, length);
+        }
+    }
+
+    @Override
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        if (ByteBufUtil.canBulkAccessArray()) {
+            ByteBufUtil.setLongs(array, index, src, srcIndex, length);
+        } else {
+            super._setLongs(index, src, srcIndex, length);
+        }
+    }
+
     @Override
     public ByteBuf copy(int index, int length) {
         checkIndex(index, length);
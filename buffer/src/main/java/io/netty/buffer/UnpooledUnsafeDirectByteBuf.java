@@ -343,6 +343,26 @@ public class UnpooledUnsafeDirectByteBuf extends AbstractReferenceCountedByteBuf
         PlatformDependent.putLong(addr(index), NATIVE_ORDER ? value : Long.reverseBytes(value));
     }
 
+    @Override
+    protected void _getInts(int index, int[] dst, int dstIndex, int length) {
+        ByteBufUtil.getInts(addr(index), dst, dstIndex, length, true);
+    }
+
+    @Override
+    protected void _setInts(int index, int[] src, int srcIndex, int length) {
+        ByteBufUtil.setInts(addr(index), src, srcIndex, length, true);
+    }
+
+    @Override
+    protected void _getLongs(int index, long[] dst, int dstIndex, int length) {
+        ByteBufUtil.getLongs(addr(index), dst, dstIndex, length, true);
+    }
+
+    @Override
+    protected void _setLongs(int index, long[] src, int srcIndex, int length) {
+        ByteBufUtil.setLongs(addr(index), src, srcIndex, length, true);
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
         checkIndex(index, length);
@@ -88,6 +88,40 @@ final class UnsafeDirectSwappedByteBuf extends SwappedByteBuf {
         return nativeByteOrder? v : Short.reverseBytes(v);
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        wrapped.checkIndex(index, AbstractByteBuf.bulkLength(length, 2));
+        AbstractByteBuf.checkArrayIndex("dstIndex", dstIndex, length, dst.length);
+        ByteBufUtil.getInts(addr(index), dst, dstIndex, length, false);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        wrapped.checkIndex(index, AbstractByteBuf.bulkLength(length, 3));
+        AbstractByteBuf.checkArrayIndex("dstIndex", dstIndex, length, dst.length);
+        ByteBufUtil.getLongs(addr(index), dst, dstIndex, length, false);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        int bytes = AbstractByteBuf.bulkLength(length, 2);
+        wrapped.checkReadableBytes(bytes);
+        getInts(wrapped.readerIndex, dst, dstIndex, length);
+        wrapped.readerIndex += bytes;
+        return this;
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        int bytes = AbstractByteBuf.bulkLength(length, 3);
+        wrapped.checkReadableBytes(bytes);
+        getLongs(wrapped.readerIndex, dst, dstIndex, length);
+        wrapped.readerIndex += bytes;
+        return this;
+    }
+
     @Override
     public ByteBuf setShort(int index, int value) {
         wrapped.checkIndex(index, 2);
@@ -109,6 +143,22 @@ final class UnsafeDirectSwappedByteBuf extends SwappedByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        wrapped.checkIndex(index, AbstractByteBuf.bulkLength(length, 2));
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        ByteBufUtil.setInts(addr(index), src, srcIndex, length, false);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        wrapped.checkIndex(index, AbstractByteBuf.bulkLength(length, 3));
+        AbstractByteBuf.checkArrayIndex("srcIndex", srcIndex, length, src.length);
+        ByteBufUtil.setLongs(addr(index), src, srcIndex, length, false);
+        return this;
+    }
+
     @Override
     public ByteBuf setChar(int index, int value) {
         setShort(index, value);
@@ -154,6 +204,26 @@ final class UnsafeDirectSwappedByteBuf extends SwappedByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        wrapped.ensureAccessible();
+        int bytes = AbstractByteBuf.bulkLength(length, 2);
+        wrapped.ensureWritable(bytes);
+        setInts(wrapped.writerIndex, src, srcIndex, length);
+        wrapped.writerIndex += bytes;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        wrapped.ensureAccessible();
+        int bytes = AbstractByteBuf.bulkLength(length, 3);
+        wrapped.ensureWritable(bytes);
+        setLongs(wrapped.writerIndex, src, srcIndex, length);
+        wrapped.writerIndex += bytes;
+        return this;
+    }
+
     @Override
     public ByteBuf writeChar(int value) {
         writeShort(value);
@@ -290,6 +290,18 @@ public class WrappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        buf.getInts(index, dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        buf.getLongs(index, dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf getBytes(int index, ByteBuffer dst) {
         buf.getBytes(index, dst);
@@ -391,6 +403,18 @@ public class WrappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        buf.setInts(index, src, srcIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        buf.setLongs(index, src, srcIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf setBytes(int index, ByteBuffer src) {
         buf.setBytes(index, src);
@@ -518,6 +542,18 @@ public class WrappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        buf.readInts(dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        buf.readLongs(dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf readBytes(ByteBuffer dst) {
         buf.readBytes(dst);
@@ -625,6 +661,18 @@ public class WrappedByteBuf extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        buf.writeInts(src, srcIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        buf.writeLongs(src, srcIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf writeBytes(ByteBuffer src) {
         buf.writeBytes(src);
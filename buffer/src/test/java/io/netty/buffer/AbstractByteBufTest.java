@@ -759,6 +759,164 @@ public abstract class AbstractByteBufTest {
         assertFalse(buffer.isWritable());
     }
 
+    @Test
+    public void testBulkIntAccess() {
+        int[] expected = new int[(buffer.capacity() - 1) / 4];
+        for (int i = 0; i < expected.length; i ++) {
+            expected[i] = random.nextInt();
+        }
+
+        // Start at an odd index so that unaligned access is covered as well.
+        buffer.writerIndex(1);
+        buffer.writeInts(expected, 0, expected.length);
+        assertEquals(1 + expected.length * 4, buffer.writerIndex());
+        for (int i = 0; i < expected.length; i ++) {
+            assertEquals(expected[i], buffer.getInt(1 + i * 4));
+        }
+
+        int[] actual = new int[expected.length + 2];
+        buffer.readerIndex(1);
+        buffer.readInts(actual, 1, expected.length);
+        assertEquals(buffer.writerIndex(), buffer.readerIndex());
+        assertEquals(0, actual[0]);
+        assertEquals(0, actual[actual.length - 1]);
+        for (int i = 0; i < expected.length; i ++) {
+            assertEquals(expected[i], actual[i + 1]);
+        }
+
+        buffer.setInts(1, expected, 1, 1);
+        assertEquals(expected[1], buffer.getInt(1));
+
+        try {
+            buffer.getInts(0, actual, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.setInts(0, expected, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.readInts(actual, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.writeInts(expected, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+    }
+
+    @Test
+    public void testBulkLongAccess() {
+        long[] expected = new long[(buffer.capacity() - 1) / 8];
+        for (int i = 0; i < expected.length; i ++) {
+            expected[i] = random.nextLong();
+        }
+
+        buffer.writerIndex(1);
+        buffer.writeLongs(expected, 0, expected.length);
+        assertEquals(1 + expected.length * 8, buffer.writerIndex());
+        for (int i = 0; i < expected.length; i ++) {
+            assertEquals(expected[i], buffer.getLong(1 + i * 8));
+        }
+
+        long[] actual = new long[expected.length];
+        buffer.getLongs(1, actual, 0, actual.length);
+        assertArrayEquals(expected, actual);
+
+        buffer.setLongs(1, expected, 1, 1);
+        assertEquals(expected[1], buffer.getLong(1));
+
+        try {
+            buffer.getLongs(0, actual, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.setLongs(0, expected, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.readLongs(actual, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            buffer.writeLongs(expected, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+    }
+
+    @Test
+    public void testSwappedBulkIntAndLongAccess() {
+        ByteBuf swapped = buffer.order(buffer.order() == BIG_ENDIAN? LITTLE_ENDIAN : BIG_ENDIAN);
+        int[] expectedInts = new int[(buffer.capacity() - 1) / 4];
+        for (int i = 0; i < expectedInts.length; i ++) {
+            expectedInts[i] = random.nextInt();
+        }
+
+        swapped.writerIndex(1);
+        swapped.writeInts(expectedInts, 0, expectedInts.length);
+        assertEquals(1 + expectedInts.length * 4, swapped.writerIndex());
+        for (int i = 0; i < expectedInts.length; i ++) {
+            assertEquals(expectedInts[i], swapped.getInt(1 + i * 4));
+            assertEquals(ByteBufUtil.swapInt(expectedInts[i]), buffer.getInt(1 + i * 4));
+        }
+        int[] actualInts = new int[expectedInts.length];
+        swapped.getInts(1, actualInts, 0, actualInts.length);
+        assertArrayEquals(expectedInts, actualInts);
+
+        long[] expectedLongs = new long[(buffer.capacity() - 1) / 8];
+        for (int i = 0; i < expectedLongs.length; i ++) {
+            expectedLongs[i] = random.nextLong();
+        }
+        swapped.setLongs(1, expectedLongs, 0, expectedLongs.length);
+        for (int i = 0; i < expectedLongs.length; i ++) {
+            assertEquals(expectedLongs[i], swapped.getLong(1 + i * 8));
+            assertEquals(ByteBufUtil.swapLong(expectedLongs[i]), buffer.getLong(1 + i * 8));
+        }
+        long[] actualLongs = new long[expectedLongs.length];
+        swapped.getLongs(1, actualLongs, 0, actualLongs.length);
+        assertArrayEquals(expectedLongs, actualLongs);
+
+        try {
+            swapped.getInts(1, actualInts, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            swapped.writeLongs(expectedLongs, 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadIntsOutOfBounds() {
+        buffer.writerIndex(7);
+        buffer.readInts(new int[2], 0, 2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetLongsOutOfDstBounds() {
+        buffer.getLongs(0, new long[2], 1, 2);
+    }
+
     @Test
     public void testByteArrayTransfer() {
         byte[] value = new byte[BLOCK_SIZE * 2];
@@ -1555,6 +1713,37 @@ public abstract class AbstractByteBufTest {
         assertEquals(3, buffer.indexOf(4, 1, (byte) 2));
     }
 
+    @Test
+    public void testIndexOfAndForEachByteFindDelimiter() {
+        // Bytes which differ from the delimiters in only one bit must never be reported as a match.
+        byte[] noise = { (byte) 0x8A, 0x0B, 0x0C, (byte) 0x8D, 0x01, (byte) 0x80, (byte) 0xFF, 'a' };
+        for (int from = 0; from < 16; from ++) {
+            for (int pos = from; pos < from + 40; pos ++) {
+                buffer.clear();
+                for (int i = 0; i < 64; i ++) {
+                    buffer.writeByte(noise[i % noise.length]);
+                }
+                assertEquals(-1, buffer.indexOf(from, 64, (byte) '\n'));
+                assertEquals(-1, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_CRLF));
+                assertEquals(-1, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_NUL));
+
+                buffer.setByte(pos, '\n');
+                assertEquals(pos, buffer.indexOf(from, 64, (byte) '\n'));
+                assertEquals(pos - from, buffer.bytesBefore(from, 64 - from, (byte) '\n'));
+                assertEquals(pos, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_LF));
+                assertEquals(pos, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_CRLF));
+                assertEquals(-1, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_CR));
+                assertEquals(-1, buffer.indexOf(from, pos, (byte) '\n'));
+
+                buffer.setByte(pos + 1, '\r');
+                buffer.setByte(pos + 2, 0);
+                assertEquals(pos, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_CRLF));
+                assertEquals(pos + 1, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_CR));
+                assertEquals(pos + 2, buffer.forEachByte(from, 64 - from, ByteBufProcessor.FIND_NUL));
+            }
+        }
+    }
+
     @Test
     public void testNioBuffer1() {
         Assume.assumeTrue(buffer.nioBufferCount() == 1);
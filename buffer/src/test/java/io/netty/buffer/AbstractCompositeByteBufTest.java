@@ -176,6 +176,39 @@ public abstract class AbstractCompositeByteBufTest extends AbstractByteBufTest {
         assertEquals(0, buf.arrayOffset());
     }
 
+    @Test
+    public void testRepeatedAutoConsolidation() {
+        CompositeByteBuf buf = releaseLater(compositeBuffer(2));
+        for (int i = 0; i < 100; i ++) {
+            buf.addComponent(wrappedBuffer(new byte[] { (byte) i }));
+            assertTrue(buf.numComponents() <= 2);
+        }
+
+        assertEquals(100, buf.capacity());
+        for (int i = 0; i < 100; i ++) {
+            assertEquals((byte) i, buf.getByte(i));
+        }
+    }
+
+    @Test
+    public void testAddComponentsInMiddle() {
+        CompositeByteBuf buf = releaseLater(compositeBuffer());
+        buf.addComponents(wrappedBuffer(new byte[] { 1 }), wrappedBuffer(new byte[] { 6, 7 }));
+        buf.addComponents(1, wrappedBuffer(new byte[] { 2, 3 }), EMPTY_BUFFER, wrappedBuffer(new byte[] { 4, 5 }));
+
+        assertEquals(5, buf.numComponents());
+        assertEquals(7, buf.capacity());
+        assertEquals(0, buf.toByteIndex(0));
+        assertEquals(1, buf.toByteIndex(1));
+        assertEquals(3, buf.toByteIndex(2));
+        assertEquals(3, buf.toByteIndex(3));
+        assertEquals(5, buf.toByteIndex(4));
+        assertEquals(3, buf.toComponentIndex(4));
+        assertEquals(4, buf.toComponentIndex(6));
+        assertEquals(1, buf.toComponentIndex(2));
+        assertEquals(wrappedBuffer(new byte[] { 1, 2, 3, 4, 5, 6, 7 }), buf.setIndex(0, 7));
+    }
+
     @Test
     public void testCompositeToSingleBuffer() {
         CompositeByteBuf buf = releaseLater(compositeBuffer(3));
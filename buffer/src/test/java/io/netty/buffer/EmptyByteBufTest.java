@@ -54,6 +54,44 @@ public class EmptyByteBufTest {
         assertThat(empty.nioBuffer(), is(sameInstance(empty.internalNioBuffer(0, 0))));
     }
 
+    @Test
+    public void testBulkAccessWithOverflowingLength() {
+        EmptyByteBuf empty = new EmptyByteBuf(UnpooledByteBufAllocator.DEFAULT);
+        // length << 2 and length << 3 overflow to 0 for these lengths.
+        int intLength = 1 << 30;
+        int longLength = 1 << 29;
+        try {
+            empty.getInts(0, new int[0], 0, intLength);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            empty.setLongs(0, new long[0], 0, longLength);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            empty.readInts(new int[0], 0, intLength);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            empty.writeLongs(new long[0], 0, longLength);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+        try {
+            empty.readLongs(new long[0], 0, -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+            // Ignore.
+        }
+    }
+
     @Test
     public void testMemoryAddress() {
         EmptyByteBuf empty = new EmptyByteBuf(UnpooledByteBufAllocator.DEFAULT);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.IllegalReferenceCountException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel.MapMode;
+
+import static org.junit.Assert.*;
+
+public class MappedFileByteBufTest {
+
+    private static final byte[] CONTENT = "Hello, mapped world!".getBytes();
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("netty-", ".tmp");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(CONTENT);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testReadOnly() throws IOException {
+        ByteBuf buf = Unpooled.mappedBuffer(file);
+        assertEquals(0, buf.readerIndex());
+        assertEquals(CONTENT.length, buf.writerIndex());
+        assertEquals(CONTENT.length, buf.capacity());
+        assertTrue(buf.isDirect());
+        assertEquals(Unpooled.wrappedBuffer(CONTENT), buf);
+
+        ByteBuf slice = buf.slice(7, 6);
+        assertEquals(Unpooled.wrappedBuffer("mapped".getBytes()), slice);
+        try {
+            slice.setByte(0, 'M');
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+            // expected
+        }
+        assertTrue(slice.release());
+        assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        MappedFileByteBuf buf;
+        try {
+            buf = new MappedFileByteBuf(UnpooledByteBufAllocator.DEFAULT, raf.getChannel(), MapMode.READ_WRITE, 7, 6);
+        } finally {
+            raf.close();
+        }
+        assertFalse(buf.isReadOnly());
+        buf.setBytes(0, "MAPPED".getBytes());
+        buf.force();
+        assertTrue(buf.release());
+
+        ByteBuf copy = Unpooled.mappedBuffer(file);
+        assertEquals(Unpooled.wrappedBuffer("Hello, MAPPED world!".getBytes()), copy);
+        assertTrue(copy.release());
+    }
+
+    @Test(expected = IllegalReferenceCountException.class)
+    public void testAccessAfterRelease() throws IOException {
+        ByteBuf buf = Unpooled.mappedBuffer(file);
+        ByteBuf duplicate = buf.duplicate();
+        assertTrue(buf.release());
+        duplicate.getByte(0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCapacityIsFixed() throws IOException {
+        ByteBuf buf = Unpooled.mappedBuffer(file);
+        try {
+            buf.capacity(CONTENT.length + 1);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -25,11 +25,32 @@ public class PoolArenaTest {
 
     @Test
     public void testNormalizeCapacity() throws Exception {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 0, 0, 9, 999999);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 0, 0, 9, 999999, false, 1, 0, 0);
         int[] reqCapacities = {0, 15, 510, 1024, 1023, 1025};
         int[] expectedResult = {0, 16, 512, 1024, 1024, 2048};
         for (int i = 0; i < reqCapacities.length; i ++) {
             Assert.assertEquals(expectedResult[i], arena.normalizeCapacity(reqCapacities[i]));
         }
     }
+
+    @Test
+    public void testNormalizeCapacityWithSizeClasses() throws Exception {
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, 8192, 11, 13, 16 * 1024 * 1024, false, 1, 0, 0);
+        Assert.assertEquals(32 * 1024, arena.minNormalCapacity);
+        int[] reqCapacities = {496, 513, 1000, 8193, 20000, 32767, 32769};
+        int[] expectedResult = {496, 576, 1024, 9216, 20480, 32768, 65536};
+        for (int i = 0; i < reqCapacities.length; i ++) {
+            Assert.assertEquals(expectedResult[i], arena.normalizeCapacity(reqCapacities[i]));
+        }
+    }
+
+    @Test
+    public void testSmallSizeClassIndex() {
+        for (int i = 0; i < 32; i ++) {
+            Assert.assertEquals(i, PoolArena.smallIdx(PoolArena.smallCapacity(i)));
+        }
+        Assert.assertEquals(512, PoolArena.smallCapacity(0));
+        Assert.assertEquals(576, PoolArena.smallCapacity(1));
+        Assert.assertEquals(1024, PoolArena.smallCapacity(8));
+    }
 }
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class PooledByteBufAllocatorTest {
+
+    @Test
+    public void testConcurrentUsageWithArenaLock() throws Throwable {
+        testConcurrentUsage(false);
+    }
+
+    @Test
+    public void testConcurrentUsageWithFineGrainedLocking() throws Throwable {
+        testConcurrentUsage(true);
+    }
+
+    @Test
+    public void testArenaMetrics() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 2, 3, 8192, 11, 0, 0, 0);
+        assertEquals(2, allocator.numHeapArenas());
+        assertEquals(2, allocator.heapArenas().size());
+        assertEquals(3, allocator.numDirectArenas());
+        assertEquals(3, allocator.directArenas().size());
+        assertFalse(allocator.heapArenas().get(0).isDirect());
+        assertTrue(allocator.directArenas().get(0).isDirect());
+
+        PooledByteBufAllocator noHeap = new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, 0);
+        assertEquals(0, noHeap.numHeapArenas());
+        assertTrue(noHeap.heapArenas().isEmpty());
+    }
+
+    @Test
+    public void testArenaAllocationCounters() {
+        // Disable the thread-local cache so every allocation and deallocation is done via the arena.
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 1, 1, 8192, 11, 0, 0, 0);
+        PoolArenaMetric metric = allocator.directArenas().get(0);
+
+        ByteBuf tiny = allocator.directBuffer(16);
+        ByteBuf small = allocator.directBuffer(1024);
+        ByteBuf normal = allocator.directBuffer(64 * 1024);
+        ByteBuf huge = allocator.directBuffer(32 * 1024 * 1024);
+
+        assertEquals(1, metric.numTinyAllocations());
+        assertEquals(1, metric.numSmallAllocations());
+        assertEquals(1, metric.numNormalAllocations());
+        assertEquals(1, metric.numHugeAllocations());
+        assertEquals(4, metric.numAllocations());
+        assertEquals(4, metric.numActiveAllocations());
+        assertEquals(16 * 1024 * 1024 + 32 * 1024 * 1024, metric.numActiveBytes());
+
+        assertEquals(1, metric.tinySubpages().size());
+        assertEquals(1, metric.smallSubpages().size());
+        assertEquals(6, metric.numChunkLists());
+        int numChunks = 0;
+        for (PoolChunkListMetric list: metric.chunkLists()) {
+            for (PoolChunkMetric chunk: list) {
+                assertEquals(16 * 1024 * 1024, chunk.chunkSize());
+                assertTrue(chunk.freeBytes() < chunk.chunkSize());
+                numChunks ++;
+            }
+        }
+        assertEquals(1, numChunks);
+
+        assertTrue(tiny.release());
+        assertTrue(small.release());
+        assertTrue(normal.release());
+        assertTrue(huge.release());
+
+        assertEquals(1, metric.numTinyDeallocations());
+        assertEquals(1, metric.numSmallDeallocations());
+        assertEquals(1, metric.numNormalDeallocations());
+        assertEquals(1, metric.numHugeDeallocations());
+        assertEquals(0, metric.numActiveAllocations());
+    }
+
+    @Test
+    public void testThreadCacheMetrics() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 1, 0, 8192, 11);
+        PoolArenaMetric metric = allocator.heapArenas().get(0);
+
+        // The first allocation misses the thread-local cache, the released buffer is cached and so
+        // the second allocation is served out of the cache.
+        allocator.heapBuffer(16).release();
+        allocator.heapBuffer(16).release();
+
+        assertEquals(1, metric.numThreadCaches());
+        assertEquals(1, allocator.numThreadLocalCaches());
+        PoolThreadCacheMetric cacheMetric = metric.threadCaches().get(0);
+        assertEquals(Thread.currentThread().getName(), cacheMetric.threadName());
+        assertEquals(1, cacheMetric.numHits());
+        assertEquals(1, cacheMetric.numMisses());
+
+        MemoryRegionCacheMetric regionCache = cacheMetric.tinyCaches().get(1);
+        assertEquals(16, regionCache.elementSize());
+        assertEquals(1, regionCache.numElements());
+        assertEquals(1, regionCache.numHits());
+        assertEquals(1, regionCache.numMisses());
+    }
+
+    @Test
+    public void testThreadCacheShrinksWhenIdle() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 1, 0, 8192, 11, 512, 256, 64);
+        allocator.heapBuffer(16).release();
+
+        PoolThreadCacheMetric cacheMetric = allocator.heapArenas().get(0).threadCaches().get(0);
+        MemoryRegionCacheMetric regionCache = cacheMetric.tinyCaches().get(1);
+        assertEquals(1, regionCache.numElements());
+        assertEquals(512, regionCache.maxNumElements());
+        assertEquals(1, cacheMetric.numTinyMisses());
+        assertEquals(0, cacheMetric.numSmallMisses());
+
+        // The cache was used since the last trim, so nothing is released.
+        PooledByteBufAllocator.trimCurrentThreadCaches();
+        assertEquals(1, regionCache.numElements());
+        assertEquals(512, regionCache.maxNumElements());
+
+        // Idle since the last trim, so the cached buffer is released and the cache shrinks.
+        PooledByteBufAllocator.trimCurrentThreadCaches();
+        assertEquals(0, regionCache.numElements());
+        assertEquals(256, regionCache.maxNumElements());
+    }
+
+    @Test
+    public void testThreadCacheGrowsOnMisses() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 1, 0, 8192, 11, 2, 0, 0);
+        List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+        for (int i = 0; i < 4; i ++) {
+            buffers.add(allocator.heapBuffer(16));
+        }
+        // Only two of the released buffers fit into the cache.
+        for (ByteBuf buf: buffers) {
+            assertTrue(buf.release());
+        }
+
+        PoolThreadCacheMetric cacheMetric = allocator.heapArenas().get(0).threadCaches().get(0);
+        MemoryRegionCacheMetric regionCache = cacheMetric.tinyCaches().get(1);
+        assertEquals(2, regionCache.numElements());
+        assertEquals(2, regionCache.maxNumElements());
+        assertEquals(4, cacheMetric.numTinyMisses());
+
+        PooledByteBufAllocator.trimCurrentThreadCaches();
+        assertEquals(2, regionCache.numElements());
+        assertEquals(4, regionCache.maxNumElements());
+    }
+
+    @Test
+    public void testUnusedChunksAreReleased() {
+        // Release unused chunks immediately but keep one chunk per arena.
+        PooledByteBufAllocator allocator =
+                new PooledByteBufAllocator(false, 1, 0, 8192, 11, 0, 0, 0, false, 0, 1);
+        PoolArenaMetric metric = allocator.heapArenas().get(0);
+        int chunkSize = 8192 << 11;
+
+        ByteBuf a = allocator.heapBuffer(chunkSize);
+        ByteBuf b = allocator.heapBuffer(chunkSize);
+        assertEquals(2L * chunkSize, metric.numActiveBytes());
+
+        assertTrue(a.release());
+        assertEquals(1, metric.numChunksReleased());
+        assertEquals(chunkSize, metric.numActiveBytes());
+
+        // The last chunk is kept as reserve.
+        assertTrue(b.release());
+        assertEquals(1, metric.numChunksReleased());
+        assertEquals(chunkSize, metric.numActiveBytes());
+
+        a = allocator.heapBuffer(chunkSize);
+        b = allocator.heapBuffer(chunkSize);
+        assertEquals(1, metric.numChunksReallocated());
+        assertTrue(a.release());
+        assertTrue(b.release());
+    }
+
+    @Test
+    public void testUnusedChunksAreReleasedImmediatelyByDefault() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(false, 1, 0, 8192, 11, 0, 0, 0);
+        PoolArenaMetric metric = allocator.heapArenas().get(0);
+        int chunkSize = 8192 << 11;
+
+        ByteBuf a = allocator.heapBuffer(chunkSize);
+        assertEquals(chunkSize, metric.numActiveBytes());
+        assertTrue(a.release());
+        assertEquals(1, metric.numChunksReleased());
+        assertEquals(0, metric.numActiveBytes());
+    }
+
+    @Test
+    public void testChunkIsNotReleasedForEveryNormalAllocationByDefault() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true);
+        for (int i = 0; i < 2000; i ++) {
+            assertTrue(allocator.directBuffer(65536).release());
+        }
+        for (PoolArenaMetric metric: allocator.directArenas()) {
+            assertEquals(0, metric.numChunksReleased());
+        }
+    }
+
+    @Test
+    public void testUnusedChunksAreKeptDuringReleaseDelay() {
+        PooledByteBufAllocator allocator =
+                new PooledByteBufAllocator(false, 1, 0, 8192, 11, 0, 0, 0, false, 60 * 60 * 1000, 0);
+        PoolArenaMetric metric = allocator.heapArenas().get(0);
+        int chunkSize = 8192 << 11;
+
+        ByteBuf a = allocator.heapBuffer(chunkSize);
+        ByteBuf b = allocator.heapBuffer(chunkSize / 2);
+        assertTrue(a.release());
+        assertTrue(b.release());
+        PooledByteBufAllocator.trimCurrentThreadCaches();
+        assertEquals(0, metric.numChunksReleased());
+        assertEquals(2L * chunkSize, metric.numActiveBytes());
+
+        // Served by the unused chunks, so no new chunk is needed.
+        a = allocator.heapBuffer(chunkSize);
+        assertEquals(2L * chunkSize, metric.numActiveBytes());
+        assertEquals(0, metric.numChunksReallocated());
+        assertTrue(a.release());
+    }
+
+    @Test
+    public void testNormalAllocationsWithFineGrainedLocking() throws Throwable {
+        // Disable the thread-local cache so every normal allocation and deallocation is done via the chunk stripes.
+        final PooledByteBufAllocator allocator =
+                new PooledByteBufAllocator(false, 1, 0, 8192, 11, 0, 0, 0, true, 0, 0);
+        final PoolArenaMetric metric = allocator.heapArenas().get(0);
+        final int numThreads = 8;
+        final CountDownLatch latch = new CountDownLatch(numThreads);
+        final AtomicReference<Throwable> cause = new AtomicReference<Throwable>();
+
+        for (int i = 0; i < numThreads; i ++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+                        for (int j = 0; j < 1000; j ++) {
+                            buffers.add(allocator.heapBuffer(64 * 1024));
+                            if (buffers.size() > 16) {
+                                assertTrue(buffers.remove(0).release());
+                            }
+                        }
+                        for (ByteBuf buf: buffers) {
+                            assertTrue(buf.release());
+                        }
+                    } catch (Throwable t) {
+                        cause.compareAndSet(null, t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        latch.await();
+        Throwable t = cause.get();
+        if (t != null) {
+            throw t;
+        }
+
+        // The lists of all stripes are exposed as the usual six chunk lists.
+        assertEquals(6, metric.numChunkLists());
+        assertEquals(numThreads * 1000, metric.numNormalAllocations());
+        assertEquals(numThreads * 1000, metric.numNormalDeallocations());
+        assertEquals(0, metric.numActiveAllocations());
+
+        // Without a release delay the chunks which became empty in qInit are kept. The buffers in use never fill a
+        // whole chunk, so every stripe (4 by default) needed a single one.
+        int numChunks = 0;
+        for (PoolChunkListMetric list: metric.chunkLists()) {
+            for (PoolChunkMetric chunk: list) {
+                assertEquals(0, chunk.usage());
+                numChunks ++;
+            }
+        }
+        assertTrue(numChunks <= 4);
+        assertEquals(numChunks * (8192L << 11), metric.numActiveBytes());
+    }
+
+    private static void testConcurrentUsage(boolean fineGrainedLocking) throws Throwable {
+        // Use a single arena and no thread-local cache so that all threads contend on the same arena.
+        final PooledByteBufAllocator allocator =
+                new PooledByteBufAllocator(false, 1, 1, 8192, 11, 0, 0, 0, fineGrainedLocking);
+        final int[] sizes = { 16, 496, 512, 4096, 8192, 65536 };
+        final int numThreads = 8;
+        final CountDownLatch latch = new CountDownLatch(numThreads);
+        final AtomicReference<Throwable> cause = new AtomicReference<Throwable>();
+
+        for (int i = 0; i < numThreads; i ++) {
+            final boolean direct = (i & 1) == 0;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Random rand = new Random();
+                        List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+                        for (int j = 0; j < 10000; j ++) {
+                            int size = sizes[rand.nextInt(sizes.length)];
+                            ByteBuf buf = direct ? allocator.directBuffer(size) : allocator.heapBuffer(size);
+                            buf.writerIndex(size);
+                            buf.setByte(0, j);
+                            buf.setByte(size - 1, j);
+                            buffers.add(buf);
+                            if (buffers.size() > 64) {
+                                ByteBuf old = buffers.remove(rand.nextInt(buffers.size()));
+                                assertEquals(old.getByte(0), old.getByte(old.capacity() - 1));
+                                assertTrue(old.release());
+                            }
+                        }
+                        for (ByteBuf buf: buffers) {
+                            assertTrue(buf.release());
+                        }
+                    } catch (Throwable t) {
+                        cause.compareAndSet(null, t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        latch.await();
+        Throwable t = cause.get();
+        if (t != null) {
+            throw t;
+        }
+    }
+}
@@ -313,22 +313,22 @@ public class DelimiterBasedFrameDecoder extends ByteToMessageDecoder {
      * found in the haystack.
      */
     private static int indexOf(ByteBuf haystack, ByteBuf needle) {
-        for (int i = haystack.readerIndex(); i < haystack.writerIndex(); i ++) {
-            int haystackIndex = i;
-            int needleIndex;
-            for (needleIndex = 0; needleIndex < needle.capacity(); needleIndex ++) {
-                if (haystack.getByte(haystackIndex) != needle.getByte(needleIndex)) {
-                    break;
-                } else {
-                    haystackIndex ++;
-                    if (haystackIndex == haystack.writerIndex() &&
-                        needleIndex != needle.capacity() - 1) {
-                        return -1;
-                    }
-                }
+        final int needleLength = needle.capacity();
+        final byte firstByte = needle.getByte(0);
+        final int writerIndex = haystack.writerIndex();
+        for (int i = haystack.readerIndex(); i < writerIndex; i ++) {
+            // Skip to the next candidate, which is much faster than comparing at every index.
+            i = haystack.indexOf(i, writerIndex, firstByte);
+            if (i < 0 || writerIndex - i < needleLength) {
+                return -1;
+            }
+
+            int needleIndex = 1;
+            while (needleIndex < needleLength && haystack.getByte(i + needleIndex) == needle.getByte(needleIndex)) {
+                needleIndex ++;
             }
 
-            if (needleIndex == needle.capacity()) {
+            if (needleIndex == needleLength) {
                 // Found the needle from the haystack!
                 return i - haystack.readerIndex();
             }
@@ -195,6 +195,20 @@ final class ReplayingDecoderBuffer extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf getInts(int index, int[] dst, int dstIndex, int length) {
+        checkIndex(index, length << 2);
+        buffer.getInts(index, dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getLongs(int index, long[] dst, int dstIndex, int length) {
+        checkIndex(index, length << 3);
+        buffer.getLongs(index, dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf getBytes(int index, byte[] dst) {
         checkIndex(index, dst.length);
@@ -476,6 +490,20 @@ final class ReplayingDecoderBuffer extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf readInts(int[] dst, int dstIndex, int length) {
+        checkReadableBytes(length << 2);
+        buffer.readInts(dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readLongs(long[] dst, int dstIndex, int length) {
+        checkReadableBytes(length << 3);
+        buffer.readLongs(dst, dstIndex, length);
+        return this;
+    }
+
     @Override
     public ByteBuf readBytes(byte[] dst) {
         checkReadableBytes(dst.length);
@@ -634,6 +662,18 @@ final class ReplayingDecoderBuffer extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf setInts(int index, int[] src, int srcIndex, int length) {
+        reject();
+        return this;
+    }
+
+    @Override
+    public ByteBuf setLongs(int index, long[] src, int srcIndex, int length) {
+        reject();
+        return this;
+    }
+
     @Override
     public ByteBuf setBytes(int index, byte[] src) {
         reject();
@@ -845,6 +885,18 @@ final class ReplayingDecoderBuffer extends ByteBuf {
         return this;
     }
 
+    @Override
+    public ByteBuf writeInts(int[] src, int srcIndex, int length) {
+        reject();
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLongs(long[] src, int srcIndex, int length) {
+        reject();
+        return this;
+    }
+
     @Override
     public ByteBuf writeBytes(byte[] src) {
         reject();
@@ -0,0 +1,851 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.MpscLinkedQueueNode;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.OneTimeTask;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Timer} optimized for approximated I/O timeout scheduling, which keeps its timeouts in a hierarchy of
+ * timing wheels.
+ *
+ * <h3>Hierarchical Wheels</h3>
+ *
+ * The lowest wheel has a bucket per tick, like the single wheel of {@link HashedWheelTimer}.  Each bucket of the
+ * next wheel covers as many ticks as the whole wheel below it, and so on.  A timeout is added to the lowest wheel
+ * which covers its delay and is moved down to the wheel below once the bucket it was added to comes up.  A timeout is
+ * therefore visited at most once per wheel no matter how far in the future it expires, while
+ * {@link HashedWheelTimer} visits every timeout once per rotation of its wheel.  This makes a difference if there
+ * are many long timeouts, for example for idle keep-alive connections.  Adding and cancelling a timeout takes
+ * constant time.
+ *
+ * <h3>Dedicated Thread or Event Loop</h3>
+ *
+ * A timer which was created with a {@link ThreadFactory} creates a dedicated thread when it is started, just like
+ * {@link HashedWheelTimer}.  Timeouts which are created or cancelled by other threads are handed over to this thread
+ * and processed on the next tick.
+ * <p>
+ * A timer which was created with an {@link EventExecutor} is driven by the executor instead and does not wake it up
+ * while there are no timeouts.  Timeouts which are created or cancelled in the executor's thread are added to or
+ * removed from the wheels right away, so creating a timer per event loop for the timeouts of its channels avoids
+ * both the hand-over and a shared timer thread.
+ *
+ * <h3>Metrics</h3>
+ *
+ * {@link #pendingTimeouts()}, {@link #expiredTimeouts()} and {@link #cancelledTimeouts()} can be used to monitor
+ * the timer from any thread.
+ */
+public class HierarchicalWheelTimer implements Timer {
+
+    static final InternalLogger logger = InternalLoggerFactory.getInstance(HierarchicalWheelTimer.class);
+
+    private static final AtomicIntegerFieldUpdater<HierarchicalWheelTimer> WORKER_STATE_UPDATER;
+    static {
+        AtomicIntegerFieldUpdater<HierarchicalWheelTimer> workerStateUpdater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(HierarchicalWheelTimer.class, "workerState");
+        if (workerStateUpdater == null) {
+            workerStateUpdater = AtomicIntegerFieldUpdater.newUpdater(HierarchicalWheelTimer.class, "workerState");
+        }
+        WORKER_STATE_UPDATER = workerStateUpdater;
+    }
+
+    private static final int WORKER_STATE_INIT = 0;
+    private static final int WORKER_STATE_STARTED = 1;
+    private static final int WORKER_STATE_SHUTDOWN = 2;
+    @SuppressWarnings({ "unused", "FieldMayBeFinal", "RedundantFieldInitialization" })
+    private volatile int workerState = WORKER_STATE_INIT; // 0 - init, 1 - started, 2 - shut down
+
+    private final long tickDuration;
+    private final int wheelBits;
+    private final int mask;
+    private final Bucket[][] wheels;
+
+    // Only one of executor and workerThread is non-null.
+    private final EventExecutor executor;
+    private final Thread workerThread;
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    private final Queue<WheelTimeout> timeouts = PlatformDependent.newMpscQueue();
+    private final Queue<Runnable> cancellations = PlatformDependent.newMpscQueue();
+    // Timeouts which were handed over to the executor but not added to the wheels yet, null if there is no executor.
+    private final Set<WheelTimeout> dispatchedTimeouts;
+    private final Set<Timeout> unprocessedTimeouts = new HashSet<Timeout>();
+
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+    private final AtomicLong cancelledTimeouts = new AtomicLong();
+    private volatile long expiredTimeouts;
+
+    private volatile long startTime;
+
+    // Only accessed by the thread which runs the wheels.
+    private long currentTick = -1;
+    private int numTimeouts;
+    private boolean wheelsCleared;
+    private ScheduledFuture<?> tickFuture;
+
+    private final Runnable tickTask = new Runnable() {
+        @Override
+        public void run() {
+            tickFuture = null;
+            advance(System.nanoTime() - startTime);
+            scheduleTick();
+        }
+    };
+
+    /**
+     * Creates a new timer with the default thread factory ({@link Executors#defaultThreadFactory()}), default tick
+     * duration, and default number of ticks per wheel.
+     */
+    public HierarchicalWheelTimer() {
+        this(Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Creates a new timer with the default thread factory ({@link Executors#defaultThreadFactory()}) and default
+     * number of ticks per wheel.
+     *
+     * @param tickDuration   the duration between tick
+     * @param unit           the time unit of the {@code tickDuration}
+     * @throws NullPointerException     if {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code tickDuration} is <= 0
+     */
+    public HierarchicalWheelTimer(long tickDuration, TimeUnit unit) {
+        this(Executors.defaultThreadFactory(), tickDuration, unit);
+    }
+
+    /**
+     * Creates a new timer with the default tick duration and default number of ticks per wheel.
+     *
+     * @param threadFactory  a {@link ThreadFactory} that creates a background {@link Thread} which is dedicated to
+     *                       {@link TimerTask} execution.
+     * @throws NullPointerException if {@code threadFactory} is {@code null}
+     */
+    public HierarchicalWheelTimer(ThreadFactory threadFactory) {
+        this(threadFactory, 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new timer with the default number of ticks per wheel.
+     *
+     * @param threadFactory  a {@link ThreadFactory} that creates a background {@link Thread} which is dedicated to
+     *                       {@link TimerTask} execution.
+     * @param tickDuration   the duration between tick
+     * @param unit           the time unit of the {@code tickDuration}
+     * @throws NullPointerException     if either of {@code threadFactory} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code tickDuration} is <= 0
+     */
+    public HierarchicalWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit) {
+        this(threadFactory, tickDuration, unit, 64);
+    }
+
+    /**
+     * Creates a new timer.
+     *
+     * @param threadFactory  a {@link ThreadFactory} that creates a background {@link Thread} which is dedicated to
+     *                       {@link TimerTask} execution.
+     * @param tickDuration   the duration between tick
+     * @param unit           the time unit of the {@code tickDuration}
+     * @param ticksPerWheel  the size of each wheel, rounded up to the next power of two
+     * @throws NullPointerException     if either of {@code threadFactory} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code tickDuration} is <= 0 or {@code ticksPerWheel} is not within
+     *                                  {@code [2, 65536]}
+     */
+    public HierarchicalWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(ObjectUtil.checkNotNull(threadFactory, "threadFactory"), null, tickDuration, unit, ticksPerWheel);
+    }
+
+    /**
+     * Creates a new timer which is driven by the specified {@link EventExecutor}, with the default tick duration and
+     * default number of ticks per wheel.
+     *
+     * @param executor       the {@link EventExecutor} which executes the {@link TimerTask}s
+     * @throws NullPointerException if {@code executor} is {@code null}
+     */
+    public HierarchicalWheelTimer(EventExecutor executor) {
+        this(executor, 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new timer which is driven by the specified {@link EventExecutor}, with the default number of ticks per
+     * wheel.
+     *
+     * @param executor       the {@link EventExecutor} which executes the {@link TimerTask}s
+     * @param tickDuration   the duration between tick
+     * @param unit           the time unit of the {@code tickDuration}
+     * @throws NullPointerException     if either of {@code executor} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code tickDuration} is <= 0
+     */
+    public HierarchicalWheelTimer(EventExecutor executor, long tickDuration, TimeUnit unit) {
+        this(executor, tickDuration, unit, 64);
+    }
+
+    /**
+     * Creates a new timer which is driven by the specified {@link EventExecutor}.
+     *
+     * @param executor       the {@link EventExecutor} which executes the {@link TimerTask}s
+     * @param tickDuration   the duration between tick
+     * @param unit           the time unit of the {@code tickDuration}
+     * @param ticksPerWheel  the size of each wheel, rounded up to the next power of two
+     * @throws NullPointerException     if either of {@code executor} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if {@code tickDuration} is <= 0 or {@code ticksPerWheel} is not within
+     *                                  {@code [2, 65536]}
+     */
+    public HierarchicalWheelTimer(EventExecutor executor, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(null, ObjectUtil.checkNotNull(executor, "executor"), tickDuration, unit, ticksPerWheel);
+    }
+
+    private HierarchicalWheelTimer(
+            ThreadFactory threadFactory, EventExecutor executor, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel < 2 || ticksPerWheel > 65536) {
+            throw new IllegalArgumentException("ticksPerWheel: " + ticksPerWheel + " (expected: 2-65536)");
+        }
+
+        this.tickDuration = unit.toNanos(tickDuration);
+        wheelBits = 32 - Integer.numberOfLeadingZeros(ticksPerWheel - 1);
+        mask = (1 << wheelBits) - 1;
+
+        // Create as many wheels as needed to cover a delay of Long.MAX_VALUE nanoseconds.
+        int maxDeltaBit = 63 - Long.numberOfLeadingZeros(Math.max(1, Long.MAX_VALUE / this.tickDuration));
+        wheels = new Bucket[maxDeltaBit / wheelBits + 1][];
+        for (int i = 0; i < wheels.length; i ++) {
+            Bucket[] wheel = new Bucket[mask + 1];
+            for (int j = 0; j < wheel.length; j ++) {
+                wheel[j] = new Bucket();
+            }
+            wheels[i] = wheel;
+        }
+
+        this.executor = executor;
+        if (executor == null) {
+            workerThread = threadFactory.newThread(new Worker());
+            dispatchedTimeouts = null;
+        } else {
+            workerThread = null;
+            dispatchedTimeouts = Collections.newSetFromMap(
+                    PlatformDependent.<WheelTimeout, Boolean>newConcurrentHashMap());
+            long startTime = System.nanoTime();
+            // We use 0 as an indicator for the uninitialized value, so make sure it's not 0 when initialized.
+            this.startTime = startTime == 0 ? 1 : startTime;
+            workerState = WORKER_STATE_STARTED;
+        }
+    }
+
+    /**
+     * Starts the background thread explicitly.  The background thread will start automatically on demand even if
+     * you did not call this method.  Does nothing if this timer is driven by an {@link EventExecutor}.
+     *
+     * @throws IllegalStateException if this timer has been {@linkplain #stop() stopped} already
+     */
+    public void start() {
+        switch (WORKER_STATE_UPDATER.get(this)) {
+            case WORKER_STATE_INIT:
+                if (WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
+                    workerThread.start();
+                }
+                break;
+            case WORKER_STATE_STARTED:
+                break;
+            case WORKER_STATE_SHUTDOWN:
+                throw new IllegalStateException("cannot be started once stopped");
+            default:
+                throw new Error("Invalid WorkerState");
+        }
+
+        // Wait until the startTime is initialized by the worker.
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException ignore) {
+                // Ignore - it will be ready very soon.
+            }
+        }
+    }
+
+    @Override
+    public Set<Timeout> stop() {
+        if (executor != null) {
+            return stopExecutor();
+        }
+
+        if (Thread.currentThread() == workerThread) {
+            throw new IllegalStateException(
+                    HierarchicalWheelTimer.class.getSimpleName() +
+                            ".stop() cannot be called from " +
+                            TimerTask.class.getSimpleName());
+        }
+
+        if (!WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_STARTED, WORKER_STATE_SHUTDOWN)) {
+            // workerState can be 0 or 2 at this moment - let it always be 2.
+            WORKER_STATE_UPDATER.set(this, WORKER_STATE_SHUTDOWN);
+            return Collections.emptySet();
+        }
+
+        boolean interrupted = false;
+        while (workerThread.isAlive()) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(100);
+            } catch (InterruptedException ignored) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.unmodifiableSet(unprocessedTimeouts);
+    }
+
+    private Set<Timeout> stopExecutor() {
+        if (!WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_STARTED, WORKER_STATE_SHUTDOWN)) {
+            return Collections.emptySet();
+        }
+
+        if (executor.inEventLoop()) {
+            return clearWheels();
+        }
+
+        Future<Set<Timeout>> future;
+        try {
+            future = executor.submit(new Callable<Set<Timeout>>() {
+                @Override
+                public Set<Timeout> call() {
+                    return clearWheels();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The executor was shut down, so no timeout will expire anymore anyway.
+            return Collections.emptySet();
+        }
+        future.awaitUninterruptibly();
+        return future.isSuccess() ? future.getNow() : Collections.<Timeout>emptySet();
+    }
+
+    @Override
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        start();
+
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        if (deadline < 0) {
+            // Guard against overflow.
+            deadline = Long.MAX_VALUE;
+        }
+        WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+
+        if (inWheelThread()) {
+            add(timeout);
+        } else if (executor == null) {
+            // Added to the wheels on the next tick.
+            timeouts.add(timeout);
+        } else {
+            dispatchedTimeouts.add(timeout);
+            try {
+                executor.execute(timeout);
+            } catch (RejectedExecutionException e) {
+                dispatchedTimeouts.remove(timeout);
+                pendingTimeouts.decrementAndGet();
+                throw e;
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * Returns the number of timeouts which neither expired nor were cancelled yet.  This includes the timeouts which
+     * were returned by {@link #stop()}.
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * Returns the number of timeouts whose {@link TimerTask} was executed.
+     */
+    public long expiredTimeouts() {
+        return expiredTimeouts;
+    }
+
+    /**
+     * Returns the number of timeouts which were cancelled before they expired.
+     */
+    public long cancelledTimeouts() {
+        return cancelledTimeouts.get();
+    }
+
+    private boolean inWheelThread() {
+        return executor != null ? executor.inEventLoop() : Thread.currentThread() == workerThread;
+    }
+
+    private void add(WheelTimeout timeout) {
+        if (timeout.isCancelled()) {
+            return;
+        }
+        if (wheelsCleared) {
+            // Handed over after stop() collected the unprocessed timeouts, so it will never expire.
+            timeout.cancel();
+            return;
+        }
+        if (numTimeouts == 0) {
+            // The wheels are not advanced while they are empty, so catch up first.
+            advance(System.nanoTime() - startTime);
+        }
+        place(timeout, currentTick + 1);
+        numTimeouts ++;
+        scheduleTick();
+    }
+
+    private void remove(WheelTimeout timeout) {
+        Bucket bucket = timeout.bucket;
+        if (bucket != null) {
+            bucket.remove(timeout);
+            numTimeouts --;
+        }
+    }
+
+    /**
+     * Adds the timeout to the bucket of the lowest wheel which covers the delay between {@code tick} and the
+     * deadline of the timeout.
+     */
+    private void place(WheelTimeout timeout, long tick) {
+        long deadlineTick = Math.max(timeout.deadline / tickDuration, tick);
+        long delta = deadlineTick - tick;
+        int level = delta <= mask ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / wheelBits;
+        int idx = (int) (deadlineTick >>> level * wheelBits) & mask;
+        timeout.deadlineTick = deadlineTick;
+        wheels[level][idx].add(timeout);
+    }
+
+    /**
+     * Expires all timeouts up to the last tick which ended before {@code currentTime}.
+     */
+    private void advance(long currentTime) {
+        long targetTick = currentTime / tickDuration - 1;
+        while (currentTick < targetTick) {
+            if (numTimeouts == 0) {
+                currentTick = targetTick;
+                return;
+            }
+
+            long tick = ++ currentTick;
+
+            // Move the timeouts of the buckets which start with this tick down to the wheels below, starting with
+            // the highest wheel so that they can move down more than one wheel at once.
+            int level = Math.min(wheels.length - 1, Long.numberOfTrailingZeros(tick) / wheelBits);
+            for (; level > 0; level --) {
+                Bucket bucket = wheels[level][(int) (tick >>> level * wheelBits) & mask];
+                for (;;) {
+                    WheelTimeout timeout = bucket.poll();
+                    if (timeout == null) {
+                        break;
+                    }
+                    place(timeout, tick);
+                }
+            }
+
+            Bucket bucket = wheels[0][(int) tick & mask];
+            for (;;) {
+                WheelTimeout timeout = bucket.head;
+                // Timeouts which were added by the expired TimerTasks belong to the next rotation.
+                if (timeout == null || timeout.deadlineTick > tick) {
+                    break;
+                }
+                bucket.remove(timeout);
+                numTimeouts --;
+                timeout.expire();
+            }
+        }
+    }
+
+    private void scheduleTick() {
+        if (executor == null || tickFuture != null || numTimeouts == 0 || workerState == WORKER_STATE_SHUTDOWN) {
+            return;
+        }
+        // Run once the next tick has ended.
+        long delay = (currentTick + 2) * tickDuration - (System.nanoTime() - startTime);
+        tickFuture = executor.schedule(tickTask, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    private Set<Timeout> clearWheels() {
+        wheelsCleared = true;
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+            tickFuture = null;
+        }
+        for (Bucket[] wheel: wheels) {
+            for (Bucket bucket: wheel) {
+                bucket.clearTimeouts(unprocessedTimeouts);
+            }
+        }
+        if (dispatchedTimeouts != null) {
+            // Claim the timeouts one by one, as other threads may still hand over new ones.  Those are discarded
+            // once they run.
+            for (WheelTimeout timeout: dispatchedTimeouts) {
+                if (dispatchedTimeouts.remove(timeout) && !timeout.isCancelled()) {
+                    unprocessedTimeouts.add(timeout);
+                }
+            }
+        }
+        numTimeouts = 0;
+        return Collections.unmodifiableSet(unprocessedTimeouts);
+    }
+
+    private final class Worker implements Runnable {
+        @Override
+        public void run() {
+            // Initialize the startTime.
+            startTime = System.nanoTime();
+            if (startTime == 0) {
+                // We use 0 as an indicator for the uninitialized value here, so make sure it's not 0 when initialized.
+                startTime = 1;
+            }
+
+            // Notify the other threads waiting for the initialization at start().
+            startTimeInitialized.countDown();
+
+            do {
+                final long currentTime = waitForNextTick();
+                if (currentTime > 0) {
+                    processCancellations();
+                    transferTimeoutsToWheels();
+                    advance(currentTime);
+                }
+            } while (WORKER_STATE_UPDATER.get(HierarchicalWheelTimer.this) == WORKER_STATE_STARTED);
+
+            // Fill the unprocessedTimeouts so we can return them from stop() method.
+            clearWheels();
+            for (;;) {
+                WheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (!timeout.isCancelled()) {
+                    unprocessedTimeouts.add(timeout);
+                }
+            }
+            processCancellations();
+        }
+
+        private void transferTimeoutsToWheels() {
+            // transfer only max. 100000 timeouts per tick to prevent a thread to stale the workerThread when it just
+            // adds new timeouts in a loop.
+            for (int i = 0; i < 100000; i++) {
+                WheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    // all processed
+                    break;
+                }
+                add(timeout);
+            }
+        }
+
+        private void processCancellations() {
+            for (;;) {
+                Runnable task = cancellations.poll();
+                if (task == null) {
+                    // all processed
+                    break;
+                }
+                task.run();
+            }
+        }
+
+        /**
+         * Waits until the tick after the last processed one has ended.
+         *
+         * @return Long.MIN_VALUE if received a shutdown request, the current time otherwise
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (currentTick + 2);
+
+            for (;;) {
+                final long currentTime = System.nanoTime() - startTime;
+                long sleepTimeMs = (deadline - currentTime + 999999) / 1000000;
+
+                if (sleepTimeMs <= 0) {
+                    if (currentTime == Long.MIN_VALUE) {
+                        return -Long.MAX_VALUE;
+                    } else {
+                        return currentTime;
+                    }
+                }
+
+                // Check if we run on windows, as if thats the case we will need
+                // to round the sleepTime as workaround for a bug that only affect
+                // the JVM if it runs on windows.
+                //
+                // See https://github.com/netty/netty/issues/356
+                if (PlatformDependent.isWindows()) {
+                    sleepTimeMs = sleepTimeMs / 10 * 10;
+                }
+
+                try {
+                    Thread.sleep(sleepTimeMs);
+                } catch (InterruptedException ignored) {
+                    if (WORKER_STATE_UPDATER.get(HierarchicalWheelTimer.this) == WORKER_STATE_SHUTDOWN) {
+                        return Long.MIN_VALUE;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class WheelTimeout extends MpscLinkedQueueNode<Timeout> implements Timeout, Runnable {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER;
+
+        static {
+            AtomicIntegerFieldUpdater<WheelTimeout> updater =
+                    PlatformDependent.newAtomicIntegerFieldUpdater(WheelTimeout.class, "state");
+            if (updater == null) {
+                updater = AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+            }
+            STATE_UPDATER = updater;
+        }
+
+        private final HierarchicalWheelTimer timer;
+        private final TimerTask task;
+        private final long deadline;
+
+        @SuppressWarnings({"unused", "FieldMayBeFinal", "RedundantFieldInitialization" })
+        private volatile int state = ST_INIT;
+
+        // The following fields are only accessed by the thread which runs the wheels.
+        long deadlineTick;
+        WheelTimeout next;
+        WheelTimeout prev;
+        Bucket bucket;
+
+        WheelTimeout(HierarchicalWheelTimer timer, TimerTask task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Timer timer() {
+            return timer;
+        }
+
+        @Override
+        public TimerTask task() {
+            return task;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.cancelledTimeouts.incrementAndGet();
+
+            if (timer.inWheelThread()) {
+                timer.remove(this);
+                return true;
+            }
+
+            // It is important that we not just add the WheelTimeout itself to a queue, as it extends
+            // MpscLinkedQueueNode and so may still be used as tombstone.
+            Runnable removeTask = new OneTimeTask() {
+                @Override
+                public void run() {
+                    timer.remove(WheelTimeout.this);
+                }
+            };
+            if (timer.executor == null) {
+                timer.cancellations.add(removeTask);
+            } else {
+                try {
+                    timer.executor.execute(removeTask);
+                } catch (RejectedExecutionException ignore) {
+                    // The executor was shut down, so the timeout will never expire anyway.
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        @Override
+        public WheelTimeout value() {
+            return this;
+        }
+
+        /**
+         * Adds this timeout to the wheels after it was handed over to the {@link EventExecutor}.
+         */
+        @Override
+        public void run() {
+            if (timer.dispatchedTimeouts.remove(this)) {
+                timer.add(this);
+            }
+            // Otherwise it was returned by stop() already.
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.expiredTimeouts ++;
+
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("An exception was thrown by " + TimerTask.class.getSimpleName() + '.', t);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            final long currentTime = System.nanoTime();
+            long remaining = deadline - currentTime + timer.startTime;
+
+            StringBuilder buf = new StringBuilder(192)
+               .append(StringUtil.simpleClassName(this))
+               .append('(')
+               .append("deadline: ");
+            if (remaining > 0) {
+                buf.append(remaining)
+                   .append(" ns later");
+            } else if (remaining < 0) {
+                buf.append(-remaining)
+                   .append(" ns ago");
+            } else {
+                buf.append("now");
+            }
+
+            if (isCancelled()) {
+                buf.append(", cancelled");
+            }
+
+            return buf.append(", task: ")
+                      .append(task())
+                      .append(')')
+                      .toString();
+        }
+    }
+
+    /**
+     * Bucket that stores WheelTimeouts in a doubly linked list, so that a timeout can be removed in constant time.
+     * The WheelTimeouts act as nodes themselves, so no extra object creation is needed.
+     */
+    private static final class Bucket {
+        WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            assert timeout.bucket == null;
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            WheelTimeout next = timeout.next;
+            WheelTimeout prev = timeout.prev;
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                head = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            } else {
+                tail = prev;
+            }
+            // null out prev, next and bucket to allow for GC.
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        WheelTimeout poll() {
+            WheelTimeout head = this.head;
+            if (head != null) {
+                remove(head);
+            }
+            return head;
+        }
+
+        /**
+         * Clear this bucket and add all timeouts which neither expired nor were cancelled to {@code set}.
+         */
+        void clearTimeouts(Set<Timeout> set) {
+            for (;;) {
+                WheelTimeout timeout = poll();
+                if (timeout == null) {
+                    return;
+                }
+                if (timeout.isExpired() || timeout.isCancelled()) {
+                    continue;
+                }
+                set.add(timeout);
+            }
+        }
+    }
+}
@@ -26,10 +26,28 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Light-weight object pool based on a thread-local stack.
  *
+ * <h3>Recycling from another thread</h3>
+ *
+ * An object which is recycled by another thread than the one which got it is handed back through a queue per pair of
+ * threads, and only becomes available to {@link #get()} once the owning thread runs out of objects.  When objects
+ * are always released by other threads, like in a pipeline which decodes in one event loop and releases in another,
+ * these queues could otherwise grow with every allocation.  They are bounded in three ways:
+ * <ul>
+ * <li>Only one of every {@code ratio} objects which were never recycled before is handed back; the others are left
+ *     to the garbage collector.  Objects which were recycled once are always handed back.</li>
+ * <li>All other threads together can only hand back {@code maxCapacity / maxSharedCapacityFactor} objects which the
+ *     owning thread did not take yet.</li>
+ * <li>A thread hands back objects to at most {@code maxDelayedQueuesPerThread} other threads, and drops the objects
+ *     of any further thread.</li>
+ * </ul>
+ *
+ * {@link #hits()}, {@link #misses()} and {@link #dropped()} can be used to check how well the pool works.
+ *
  * @param <T> the type of the pooled object
  */
 public abstract class Recycler<T> {
@@ -39,7 +57,13 @@ public abstract class Recycler<T> {
     private static final AtomicInteger ID_GENERATOR = new AtomicInteger(Integer.MIN_VALUE);
     private static final int OWN_THREAD_ID = ID_GENERATOR.getAndIncrement();
     private static final int DEFAULT_MAX_CAPACITY;
+    private static final int DEFAULT_MAX_SHARED_CAPACITY_FACTOR;
+    private static final int DEFAULT_RATIO;
+    private static final int DEFAULT_MAX_DELAYED_QUEUES_PER_THREAD;
     private static final int INITIAL_CAPACITY;
+    private static final int LINK_CAPACITY = 16;
+    // Number of events a thread counts before it adds them to the statistics of the Recycler.
+    private static final int STATS_BATCH_SIZE = 64;
 
     static {
         // In the future, we might have different maxCapacity for different object types.
@@ -52,18 +76,40 @@ public abstract class Recycler<T> {
         }
 
         DEFAULT_MAX_CAPACITY = maxCapacity;
+        DEFAULT_MAX_SHARED_CAPACITY_FACTOR =
+                Math.max(1, SystemPropertyUtil.getInt("io.netty.recycler.maxSharedCapacityFactor", 2));
+        DEFAULT_RATIO = Math.max(1, SystemPropertyUtil.getInt("io.netty.recycler.ratio", 8));
+        DEFAULT_MAX_DELAYED_QUEUES_PER_THREAD = Math.max(0, SystemPropertyUtil.getInt(
+                "io.netty.recycler.maxDelayedQueuesPerThread", Runtime.getRuntime().availableProcessors() * 2));
         if (logger.isDebugEnabled()) {
             logger.debug("-Dio.netty.recycler.maxCapacity: {}", DEFAULT_MAX_CAPACITY);
+            logger.debug("-Dio.netty.recycler.maxSharedCapacityFactor: {}", DEFAULT_MAX_SHARED_CAPACITY_FACTOR);
+            logger.debug("-Dio.netty.recycler.ratio: {}", DEFAULT_RATIO);
+            logger.debug("-Dio.netty.recycler.maxDelayedQueuesPerThread: {}", DEFAULT_MAX_DELAYED_QUEUES_PER_THREAD);
         }
 
         INITIAL_CAPACITY = Math.min(DEFAULT_MAX_CAPACITY, 256);
     }
 
     private final int maxCapacity;
+    private final int maxSharedCapacityFactor;
+    private final int ratio;
+    private final int maxDelayedQueuesPerThread;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
     private final FastThreadLocal<Stack<T>> threadLocal = new FastThreadLocal<Stack<T>>() {
         @Override
         protected Stack<T> initialValue() {
-            return new Stack<T>(Recycler.this, Thread.currentThread(), maxCapacity);
+            return new Stack<T>(Recycler.this, Thread.currentThread(), maxCapacity, maxSharedCapacityFactor,
+                                ratio, maxDelayedQueuesPerThread);
+        }
+
+        @Override
+        protected void onRemoval(Stack<T> stack) {
+            stack.flushStats();
         }
     };
 
@@ -72,7 +118,29 @@ public abstract class Recycler<T> {
     }
 
     protected Recycler(int maxCapacity) {
+        this(maxCapacity, DEFAULT_MAX_SHARED_CAPACITY_FACTOR, DEFAULT_RATIO, DEFAULT_MAX_DELAYED_QUEUES_PER_THREAD);
+    }
+
+    /**
+     * @param maxCapacity               the maximum number of objects pooled per thread
+     * @param maxSharedCapacityFactor   the objects which other threads recycled for a thread and which were not
+     *                                  taken by it yet are limited to {@code maxCapacity / maxSharedCapacityFactor}
+     * @param ratio                     only one of every {@code ratio} objects which were never recycled before is
+     *                                  recycled when it is recycled by another thread; {@code 1} recycles all of them
+     * @param maxDelayedQueuesPerThread the maximum number of other threads a thread recycles objects for
+     */
+    protected Recycler(int maxCapacity, int maxSharedCapacityFactor, int ratio, int maxDelayedQueuesPerThread) {
+        if (maxSharedCapacityFactor < 1) {
+            throw new IllegalArgumentException(
+                    "maxSharedCapacityFactor: " + maxSharedCapacityFactor + " (expected: >= 1)");
+        }
+        if (ratio < 1) {
+            throw new IllegalArgumentException("ratio: " + ratio + " (expected: >= 1)");
+        }
         this.maxCapacity = Math.max(0, maxCapacity);
+        this.maxSharedCapacityFactor = maxSharedCapacityFactor;
+        this.ratio = ratio;
+        this.maxDelayedQueuesPerThread = Math.max(0, maxDelayedQueuesPerThread);
     }
 
     @SuppressWarnings("unchecked")
@@ -80,8 +148,11 @@ public abstract class Recycler<T> {
         Stack<T> stack = threadLocal.get();
         DefaultHandle<T> handle = stack.pop();
         if (handle == null) {
+            stack.recordMiss();
             handle = stack.newHandle();
             handle.value = newObject(handle);
+        } else {
+            stack.recordHit();
         }
         return (T) handle.value;
     }
@@ -96,6 +167,35 @@ public abstract class Recycler<T> {
         return true;
     }
 
+    /**
+     * Returns the number of {@link #get()} calls which returned a pooled object.
+     *
+     * Every thread counts its events and adds them to the statistics in batches, so the returned value may lag
+     * behind by a few events per thread.
+     */
+    public final long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of {@link #get()} calls which had to create a new object.
+     *
+     * @see #hits()
+     */
+    public final long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of recycled objects which were not pooled, because the pool was full or because of the
+     * limits on recycling from another thread.
+     *
+     * @see #hits()
+     */
+    public final long dropped() {
+        return dropped.get();
+    }
+
     final int threadLocalCapacity() {
         return threadLocal.get().elements.length;
     }
@@ -114,6 +214,9 @@ public abstract class Recycler<T> {
         private int lastRecycledId;
         private int recycleId;
 
+        // true once the object was pooled; only accessed by the thread which recycles it.
+        boolean hasBeenRecycled;
+
         private Stack<?> stack;
         private Object value;
 
@@ -134,13 +237,34 @@ public abstract class Recycler<T> {
             // we don't want to have a ref to the queue as the value in our weak map
             // so we null it out; to ensure there are no races with restoring it later
             // we impose a memory ordering here (no-op on x86)
+            Stack<?> stack = this.stack;
             Map<Stack<?>, WeakOrderQueue> delayedRecycled = DELAYED_RECYCLED.get();
             WeakOrderQueue queue = delayedRecycled.get(stack);
             if (queue == null) {
-                delayedRecycled.put(stack, queue = new WeakOrderQueue(stack, thread));
+                if (delayedRecycled.size() >= stack.maxDelayedQueues) {
+                    // Remember that this thread does not recycle for the stack, so the objects are dropped cheaply.
+                    delayedRecycled.put(stack, WeakOrderQueue.DUMMY);
+                    recordDropped(stack);
+                    return;
+                }
+                if ((queue = WeakOrderQueue.allocate(stack, thread)) == null) {
+                    // The other threads hold back as many objects for the stack as allowed already.
+                    recordDropped(stack);
+                    return;
+                }
+                delayedRecycled.put(stack, queue);
+            } else if (queue == WeakOrderQueue.DUMMY) {
+                recordDropped(stack);
+                return;
             }
             queue.add(this);
         }
+
+        private static void recordDropped(Stack<?> stack) {
+            // There is no queue to count the drop, so count it on the stack of this thread which adds it to the
+            // statistics in batches as well.
+            stack.parent.threadLocal.get().recordDropped();
+        }
     }
 
     private static final FastThreadLocal<Map<Stack<?>, WeakOrderQueue>> DELAYED_RECYCLED =
@@ -154,7 +278,9 @@ public abstract class Recycler<T> {
     // a queue that makes only moderate guarantees about visibility: items are seen in the correct order,
     // but we aren't absolutely guaranteed to ever see anything at all, thereby keeping the queue cheap to maintain
     private static final class WeakOrderQueue {
-        private static final int LINK_CAPACITY = 16;
+
+        // Marks a stack this thread does not recycle for, because it recycles for too many other stacks already.
+        static final WeakOrderQueue DUMMY = new WeakOrderQueue();
 
         // Let Link extend AtomicInteger for intrinsics. The Link itself will be used as writerIndex.
         @SuppressWarnings("serial")
@@ -172,24 +298,96 @@ public abstract class Recycler<T> {
         private final WeakReference<Thread> owner;
         private final int id = ID_GENERATOR.getAndIncrement();
 
-        WeakOrderQueue(Stack<?> stack, Thread thread) {
+        // Not the Stack itself, as the queue is the value of a WeakHashMap keyed by the stack.
+        private final AtomicInteger availableSharedCapacity;
+        private final AtomicLong dropped;
+        private final int ratioInterval;
+        // Only accessed by the owner thread of the queue.
+        private int handleRecycleCount;
+        private int pendingDropped;
+
+        private WeakOrderQueue() {
+            owner = null;
+            availableSharedCapacity = null;
+            dropped = null;
+            ratioInterval = 0;
+        }
+
+        private WeakOrderQueue(Stack<?> stack, Thread thread) {
             head = tail = new Link();
             owner = new WeakReference<Thread>(thread);
+            availableSharedCapacity = stack.availableSharedCapacity;
+            dropped = stack.parent.dropped;
+            ratioInterval = stack.ratioInterval;
+            // Recycle the first object.
+            handleRecycleCount = ratioInterval;
             synchronized (stack) {
                 next = stack.head;
                 stack.head = this;
             }
         }
 
+        /**
+         * Creates a new queue for the given stack, or returns {@code null} if there is no shared capacity left.
+         */
+        static WeakOrderQueue allocate(Stack<?> stack, Thread thread) {
+            return reserveSpace(stack.availableSharedCapacity, LINK_CAPACITY) ?
+                    new WeakOrderQueue(stack, thread) : null;
+        }
+
+        private static boolean reserveSpace(AtomicInteger availableSharedCapacity, int space) {
+            for (;;) {
+                int available = availableSharedCapacity.get();
+                if (available < space) {
+                    return false;
+                }
+                if (availableSharedCapacity.compareAndSet(available, available - space)) {
+                    return true;
+                }
+            }
+        }
+
+        private void reclaimSpace(int space) {
+            availableSharedCapacity.addAndGet(space);
+        }
+
+        /**
+         * Gives back the shared capacity of all links, once the queue was unlinked from its stack.
+         */
+        void reclaimAllSpace() {
+            int space = 0;
+            for (Link link = head; link != null; link = link.next) {
+                space += LINK_CAPACITY;
+            }
+            head = null;
+            reclaimSpace(space);
+        }
+
         void add(DefaultHandle<?> handle) {
-            handle.lastRecycledId = id;
+            if (!handle.hasBeenRecycled) {
+                if (handleRecycleCount < ratioInterval) {
+                    // Leave the object to the GC, so the pool does not grow with every object handed over.
+                    handleRecycleCount ++;
+                    drop();
+                    return;
+                }
+                handleRecycleCount = 0;
+                handle.hasBeenRecycled = true;
+            }
 
             Link tail = this.tail;
             int writeIndex;
             if ((writeIndex = tail.get()) == LINK_CAPACITY) {
+                if (!reserveSpace(availableSharedCapacity, LINK_CAPACITY)) {
+                    // The stack has not taken the objects other threads recycled for it yet.
+                    drop();
+                    return;
+                }
                 this.tail = tail = tail.next = new Link();
                 writeIndex = tail.get();
             }
+
+            handle.lastRecycledId = id;
             tail.elements[writeIndex] = handle;
             handle.stack = null;
             // we lazy set to ensure that setting stack to null appears before we unnull it in the owning thread;
@@ -197,6 +395,13 @@ public abstract class Recycler<T> {
             tail.lazySet(writeIndex + 1);
         }
 
+        private void drop() {
+            if (++ pendingDropped == STATS_BATCH_SIZE) {
+                dropped.addAndGet(pendingDropped);
+                pendingDropped = 0;
+            }
+        }
+
         boolean hasFinalData() {
             return tail.readIndex != tail.get();
         }
@@ -215,6 +420,7 @@ public abstract class Recycler<T> {
                     return false;
                 }
                 this.head = head = head.next;
+                reclaimSpace(LINK_CAPACITY);
             }
 
             final int srcStart = head.readIndex;
@@ -251,6 +457,7 @@ public abstract class Recycler<T> {
 
                 if (srcEnd == LINK_CAPACITY && head.next != null) {
                     this.head = head.next;
+                    reclaimSpace(LINK_CAPACITY);
                 }
 
                 head.readIndex = srcEnd;
@@ -270,20 +477,65 @@ public abstract class Recycler<T> {
         // still recycling all items.
         final Recycler<T> parent;
         final Thread thread;
+        final AtomicInteger availableSharedCapacity;
+        final int ratioInterval;
+        final int maxDelayedQueues;
         private DefaultHandle<?>[] elements;
         private final int maxCapacity;
         private int size;
 
+        // Events which were not added to the statistics of the parent yet.
+        private int pendingHits;
+        private int pendingMisses;
+        private int pendingDropped;
+
         private volatile WeakOrderQueue head;
         private WeakOrderQueue cursor, prev;
 
-        Stack(Recycler<T> parent, Thread thread, int maxCapacity) {
+        Stack(Recycler<T> parent, Thread thread, int maxCapacity, int maxSharedCapacityFactor,
+              int ratio, int maxDelayedQueues) {
             this.parent = parent;
             this.thread = thread;
             this.maxCapacity = maxCapacity;
+            availableSharedCapacity = new AtomicInteger(Math.max(maxCapacity / maxSharedCapacityFactor, LINK_CAPACITY));
+            ratioInterval = ratio - 1;
+            this.maxDelayedQueues = maxDelayedQueues;
             elements = new DefaultHandle[Math.min(INITIAL_CAPACITY, maxCapacity)];
         }
 
+        void recordHit() {
+            if (++ pendingHits == STATS_BATCH_SIZE) {
+                flushStats();
+            }
+        }
+
+        void recordMiss() {
+            if (++ pendingMisses == STATS_BATCH_SIZE) {
+                flushStats();
+            }
+        }
+
+        void recordDropped() {
+            if (++ pendingDropped == STATS_BATCH_SIZE) {
+                flushStats();
+            }
+        }
+
+        void flushStats() {
+            if (pendingHits != 0) {
+                parent.hits.addAndGet(pendingHits);
+                pendingHits = 0;
+            }
+            if (pendingMisses != 0) {
+                parent.misses.addAndGet(pendingMisses);
+                pendingMisses = 0;
+            }
+            if (pendingDropped != 0) {
+                parent.dropped.addAndGet(pendingDropped);
+                pendingDropped = 0;
+            }
+        }
+
         int increaseCapacity(int expectedCapacity) {
             int newCapacity = elements.length;
             int maxCapacity = this.maxCapacity;
@@ -364,6 +616,7 @@ public abstract class Recycler<T> {
                     }
                     if (prev != null) {
                         prev.next = next;
+                        cursor.reclaimAllSpace();
                     }
                 } else {
                     prev = cursor;
@@ -387,8 +640,10 @@ public abstract class Recycler<T> {
             int size = this.size;
             if (size >= maxCapacity) {
                 // Hit the maximum capacity - drop the possibly youngest object.
+                recordDropped();
                 return;
             }
+            item.hasBeenRecycled = true;
             if (size == elements.length) {
                 elements = Arrays.copyOf(elements, Math.min(size << 1, maxCapacity));
             }
@@ -18,16 +18,18 @@ package io.netty.util;
 
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.ThreadLocalRandom;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.netty.util.internal.StringUtil.*;
 
@@ -36,6 +38,17 @@ public final class ResourceLeakDetector<T> {
     private static final String PROP_LEVEL = "io.netty.leakDetectionLevel";
     private static final Level DEFAULT_LEVEL = Level.SIMPLE;
 
+    private static final String PROP_SAMPLING_INTERVAL = "io.netty.leakDetection.samplingInterval";
+    private static final int DEFAULT_SAMPLING_INTERVAL = 113;
+
+    private static final String PROP_MAX_RECORDS = "io.netty.leakDetection.maxRecords";
+    private static final int DEFAULT_MAX_RECORDS = 4;
+
+    private static final String PROP_ALLOCATION_SITES_ONLY = "io.netty.leakDetection.allocationSitesOnly";
+
+    // The maximum number of distinct allocation sites interned by a detector in allocation-sites-only mode.
+    private static final int MAX_ALLOCATION_SITES = 4096;
+
     /**
      * Represents the level of resource leak detection.
      */
@@ -51,7 +64,10 @@ public final class ResourceLeakDetector<T> {
         SIMPLE,
         /**
          * Enables advanced sampling resource leak detection which reports where the leaked object was accessed
-         * recently at the cost of high overhead.
+         * recently at the cost of high overhead.  If {@code -Dio.netty.leakDetection.allocationSitesOnly} is
+         * {@code true}, only where the leaked object was created is reported and all objects created at the same
+         * place share a single allocation site record, which keeps the overhead low enough to leave it enabled in
+         * production.
          */
         ADVANCED,
         /**
@@ -62,9 +78,15 @@ public final class ResourceLeakDetector<T> {
     }
 
     private static Level level;
+    private static final int SAMPLING_INTERVAL;
+    private static final int MAX_RECORDS;
+    private static final boolean ALLOCATION_SITES_ONLY;
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ResourceLeakDetector.class);
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ResourceLeakDetector.DefaultResourceLeak> DROPPED_RECORDS_UPDATER;
+
     static {
         String levelStr = SystemPropertyUtil.get(PROP_LEVEL, DEFAULT_LEVEL.name()).trim().toUpperCase();
         Level level = DEFAULT_LEVEL;
@@ -75,13 +97,28 @@ public final class ResourceLeakDetector<T> {
         }
 
         ResourceLeakDetector.level = level;
+        SAMPLING_INTERVAL = Math.max(1, SystemPropertyUtil.getInt(PROP_SAMPLING_INTERVAL, DEFAULT_SAMPLING_INTERVAL));
+        MAX_RECORDS = Math.max(0, SystemPropertyUtil.getInt(PROP_MAX_RECORDS, DEFAULT_MAX_RECORDS));
+        ALLOCATION_SITES_ONLY = SystemPropertyUtil.getBoolean(PROP_ALLOCATION_SITES_ONLY, false);
+
+        @SuppressWarnings("rawtypes")
+        AtomicIntegerFieldUpdater<ResourceLeakDetector.DefaultResourceLeak> droppedRecordsUpdater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(
+                        ResourceLeakDetector.DefaultResourceLeak.class, "droppedRecords");
+        if (droppedRecordsUpdater == null) {
+            droppedRecordsUpdater = AtomicIntegerFieldUpdater.newUpdater(
+                    ResourceLeakDetector.DefaultResourceLeak.class, "droppedRecords");
+        }
+        DROPPED_RECORDS_UPDATER = droppedRecordsUpdater;
+
         if (logger.isDebugEnabled()) {
             logger.debug("-D{}: {}", PROP_LEVEL, level.name().toLowerCase());
+            logger.debug("-D{}: {}", PROP_SAMPLING_INTERVAL, SAMPLING_INTERVAL);
+            logger.debug("-D{}: {}", PROP_MAX_RECORDS, MAX_RECORDS);
+            logger.debug("-D{}: {}", PROP_ALLOCATION_SITES_ONLY, ALLOCATION_SITES_ONLY);
         }
     }
 
-    private static final int DEFAULT_SAMPLING_INTERVAL = 113;
-
     /**
      * Sets the resource leak detection level.
      */
@@ -105,6 +142,8 @@ public final class ResourceLeakDetector<T> {
 
     private final ReferenceQueue<Object> refQueue = new ReferenceQueue<Object>();
     private final ConcurrentMap<String, Boolean> reportedLeaks = PlatformDependent.newConcurrentHashMap();
+    /** the interned allocation sites keyed by the hash code of their stack trace, see {@link #intern(Record)} */
+    private final ConcurrentMap<Integer, Record> allocationSites = PlatformDependent.newConcurrentHashMap();
 
     private final String resourceType;
     private final int samplingInterval;
@@ -119,7 +158,7 @@ public final class ResourceLeakDetector<T> {
     }
 
     public ResourceLeakDetector(String resourceType) {
-        this(resourceType, DEFAULT_SAMPLING_INTERVAL, Long.MAX_VALUE);
+        this(resourceType, SAMPLING_INTERVAL, Long.MAX_VALUE);
     }
 
     public ResourceLeakDetector(Class<?> resourceType, int samplingInterval, long maxActive) {
@@ -224,25 +263,58 @@ public final class ResourceLeakDetector<T> {
         }
     }
 
-    private final class DefaultResourceLeak extends PhantomReference<Object> implements ResourceLeak {
+    /**
+     * Returns the interned record of the allocation site captured by the given {@code record}.  All the leaks created
+     * at the same place share the same record, so that a leak does not need to retain its own stack trace.  Up to
+     * {@code MAX_ALLOCATION_SITES} sites are interned, after which the given record is returned for every site which
+     * was not seen before.
+     */
+    private Record intern(Record record) {
+        StackTraceElement[] stackTrace = record.getStackTrace();
+        Integer hash = Arrays.hashCode(stackTrace);
+        Record site = allocationSites.get(hash);
+        if (site == null) {
+            if (allocationSites.size() >= MAX_ALLOCATION_SITES) {
+                return record;
+            }
+            site = allocationSites.putIfAbsent(hash, record);
+            if (site == null) {
+                return record;
+            }
+        }
+        // Guard against hash collisions.
+        return Arrays.equals(site.getStackTrace(), stackTrace)? site : record;
+    }
 
-        private static final int MAX_RECORDS = 4;
+    private final class DefaultResourceLeak extends PhantomReference<Object> implements ResourceLeak {
 
-        private final String creationRecord;
-        private final Deque<String> lastRecords = new ArrayDeque<String>();
+        private final Record creationRecord;
+        /**
+         * The most recent access record, which links to the older ones.  Updated lock-free and bounded to
+         * {@code MAX_RECORDS} records, see {@link #record0(Object)}.
+         */
+        private final AtomicReference<Record> lastRecord;
         private final AtomicBoolean freed;
         private DefaultResourceLeak prev;
         private DefaultResourceLeak next;
+        // Updated via DROPPED_RECORDS_UPDATER, not private so the updater can access it without Unsafe.
+        @SuppressWarnings("unused")
+        volatile int droppedRecords;
 
         DefaultResourceLeak(Object referent) {
             super(referent, referent != null? refQueue : null);
 
             if (referent != null) {
                 Level level = getLevel();
-                if (level.ordinal() >= Level.ADVANCED.ordinal()) {
-                    creationRecord = newRecord(null, 3);
-                } else {
+                if (level.ordinal() < Level.ADVANCED.ordinal()) {
                     creationRecord = null;
+                    lastRecord = null;
+                } else if (ALLOCATION_SITES_ONLY) {
+                    creationRecord = intern(new Record(null, null));
+                    lastRecord = null;
+                } else {
+                    creationRecord = new Record(null, null);
+                    lastRecord = MAX_RECORDS == 0? null : new AtomicReference<Record>();
                 }
 
                 // TODO: Use CAS to update the list.
@@ -256,32 +328,49 @@ public final class ResourceLeakDetector<T> {
                 freed = new AtomicBoolean();
             } else {
                 creationRecord = null;
+                lastRecord = null;
                 freed = new AtomicBoolean(true);
             }
         }
 
         @Override
         public void record() {
-            record0(null, 3);
+            record0(null);
         }
 
         @Override
         public void record(Object hint) {
-            record0(hint, 3);
+            record0(hint);
         }
 
-        private void record0(Object hint, int recordsToSkip) {
-            if (creationRecord != null) {
-                String value = newRecord(hint, recordsToSkip);
+        /**
+         * Keeps at most {@code MAX_RECORDS} records.  Once the limit is reached the most recent record is replaced,
+         * and only with a probability which halves with every further access, so a buffer which is accessed very
+         * often does not capture a stack trace on every access.
+         */
+        private void record0(Object hint) {
+            final AtomicReference<Record> lastRecord = this.lastRecord;
+            if (lastRecord == null) {
+                return;
+            }
 
-                synchronized (lastRecords) {
-                    int size = lastRecords.size();
-                    if (size == 0 || !lastRecords.getLast().equals(value)) {
-                        lastRecords.add(value);
+            for (;;) {
+                Record oldLast = lastRecord.get();
+                int numRecords = oldLast == null? 0 : oldLast.pos + 1;
+                Record newNext = oldLast;
+                if (numRecords >= MAX_RECORDS) {
+                    int dropped = DROPPED_RECORDS_UPDATER.get(this);
+                    if (ThreadLocalRandom.current().nextInt(1 << Math.min(dropped, 30)) != 0) {
+                        DROPPED_RECORDS_UPDATER.incrementAndGet(this);
+                        return;
                     }
-                    if (size > MAX_RECORDS) {
-                        lastRecords.removeFirst();
+                    newNext = oldLast.next;
+                }
+                if (lastRecord.compareAndSet(oldLast, new Record(hint, newNext))) {
+                    if (newNext != oldLast) {
+                        DROPPED_RECORDS_UPDATER.incrementAndGet(this);
                     }
+                    return;
                 }
             }
         }
@@ -307,24 +396,38 @@ public final class ResourceLeakDetector<T> {
                 return "";
             }
 
-            Object[] array;
-            synchronized (lastRecords) {
-                array = lastRecords.toArray();
-            }
-
-            StringBuilder buf = new StringBuilder(16384)
-                .append(NEWLINE)
-                .append("Recent access records: ")
-                .append(array.length)
-                .append(NEWLINE);
-
-            if (array.length > 0) {
-                for (int i = array.length - 1; i >= 0; i --) {
+            StringBuilder buf = new StringBuilder(16384).append(NEWLINE);
+            if (lastRecord != null) {
+                Record last = lastRecord.get();
+                int numRecords = last == null? 0 : last.pos + 1;
+                buf.append("Recent access records: ")
+                   .append(numRecords)
+                   .append(NEWLINE);
+
+                // Records are only formatted here, so skip consecutive duplicates now.
+                String prevRecord = null;
+                for (Record r = last; r != null; r = r.next) {
+                    String record = r.toString();
+                    if (record.equals(prevRecord)) {
+                        continue;
+                    }
+                    prevRecord = record;
                     buf.append('#')
-                       .append(i + 1)
+                       .append(r.pos + 1)
                        .append(':')
                        .append(NEWLINE)
-                       .append(array[i]);
+                       .append(record);
+                }
+
+                int dropped = DROPPED_RECORDS_UPDATER.get(this);
+                if (dropped > 0) {
+                    buf.append(dropped)
+                       .append(" leak records were discarded because the leak record count is limited to ")
+                       .append(MAX_RECORDS)
+                       .append(". Use system property ")
+                       .append(PROP_MAX_RECORDS)
+                       .append(" to increase the limit.")
+                       .append(NEWLINE);
                 }
             }
 
@@ -343,28 +446,49 @@ public final class ResourceLeakDetector<T> {
             "io.netty.buffer.AbstractByteBufAllocator.toLeakAwareBuffer(",
     };
 
-    static String newRecord(Object hint, int recordsToSkip) {
-        StringBuilder buf = new StringBuilder(4096);
+    /**
+     * A stack trace captured when a leak was created or recorded.  Capturing is cheap compared to formatting, so the
+     * stack trace is only formatted when the leak is reported.
+     */
+    private static final class Record extends Throwable {
+
+        private static final long serialVersionUID = -7255326291357340208L;
+
+        /**
+         * The number of frames of {@link DefaultResourceLeak} and {@link ResourceLeakDetector} on top of the stack.
+         */
+        private static final int RECORDS_TO_SKIP = 2;
+
+        private final String hintString;
+        private final Record next;
+        private final int pos;
 
-        // Append the hint first if available.
-        if (hint != null) {
-            buf.append("\tHint: ");
+        Record(Object hint, Record next) {
             // Prefer a hint string to a simple string form.
-            if (hint instanceof ResourceLeakHint) {
-                buf.append(((ResourceLeakHint) hint).toHintString());
+            if (hint == null) {
+                hintString = null;
+            } else if (hint instanceof ResourceLeakHint) {
+                hintString = ((ResourceLeakHint) hint).toHintString();
             } else {
-                buf.append(hint);
+                hintString = hint.toString();
             }
-            buf.append(NEWLINE);
+            this.next = next;
+            pos = next == null? 0 : next.pos + 1;
         }
 
-        // Append the stack trace.
-        StackTraceElement[] array = new Throwable().getStackTrace();
-        for (StackTraceElement e: array) {
-            if (recordsToSkip > 0) {
-                recordsToSkip --;
-            } else {
-                String estr = e.toString();
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder(4096);
+
+            // Append the hint first if available.
+            if (hintString != null) {
+                buf.append("\tHint: ").append(hintString).append(NEWLINE);
+            }
+
+            // Append the stack trace.
+            StackTraceElement[] array = getStackTrace();
+            for (int i = RECORDS_TO_SKIP; i < array.length; i ++) {
+                String estr = array[i].toString();
 
                 // Strip the noisy stack trace elements.
                 boolean excluded = false;
@@ -381,8 +505,8 @@ public final class ResourceLeakDetector<T> {
                     buf.append(NEWLINE);
                 }
             }
-        }
 
-        return buf.toString();
+            return buf.toString();
+        }
     }
 }
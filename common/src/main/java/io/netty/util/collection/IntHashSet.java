@@ -0,0 +1,330 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of {@code int}s which does not box its elements.
+ * Like {@link IntObjectHashMap} it uses open addressing with linear probing and compacts on removal.
+ */
+public class IntHashSet {
+
+    /** Default initial capacity. Used if not specified in the constructor */
+    private static final int DEFAULT_CAPACITY = 11;
+
+    /** Default load factor. Used if not specified in the constructor */
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /** The maximum number of elements allowed without allocating more space. */
+    private int maxSize;
+
+    /** The load factor for the set. Used to calculate {@link #maxSize}. */
+    private final float loadFactor;
+
+    private int[] elements;
+    private boolean[] used;
+    private int size;
+
+    public IntHashSet() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntHashSet(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntHashSet(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be >= 1");
+        }
+        if (loadFactor <= 0.0f || loadFactor > 1.0f) {
+            // Cannot exceed 1 because we can never store more than capacity elements;
+            // using a bigger loadFactor would trigger rehashing before the desired load is reached.
+            throw new IllegalArgumentException("loadFactor must be > 0 and <= 1");
+        }
+
+        this.loadFactor = loadFactor;
+
+        // Adjust the initial capacity if necessary.
+        int capacity = adjustCapacity(initialCapacity);
+
+        // Allocate the arrays.
+        elements = new int[capacity];
+        used = new boolean[capacity];
+
+        // Initialize the maximum size value.
+        maxSize = calcMaxSize(capacity);
+    }
+
+    /**
+     * Adds the given element to this set.
+     *
+     * @return {@code true} if the element was added, {@code false} if it was already contained in this set.
+     */
+    public boolean add(int element) {
+        int startIndex = hashIndex(element);
+        int index = startIndex;
+
+        for (;;) {
+            if (!used[index]) {
+                // Found empty slot, use it.
+                elements[index] = element;
+                used[index] = true;
+                growSize();
+                return true;
+            }
+            if (elements[index] == element) {
+                return false;
+            }
+
+            // Conflict, keep probing ...
+            if ((index = probeNext(index)) == startIndex) {
+                // Can only happen if the set was full at MAX_ARRAY_SIZE and couldn't grow.
+                throw new IllegalStateException("Unable to insert");
+            }
+        }
+    }
+
+    /**
+     * Removes the given element from this set.
+     *
+     * @return {@code true} if the element was removed, {@code false} if it was not contained in this set.
+     */
+    public boolean remove(int element) {
+        int index = indexOf(element);
+        if (index == -1) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Indicates whether or not this set contains the given element.
+     */
+    public boolean contains(int element) {
+        return indexOf(element) >= 0;
+    }
+
+    /**
+     * Returns the number of elements contained in this set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether or not this set is empty (i.e {@link #size()} == {@code 0}).
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all elements from this set.
+     */
+    public void clear() {
+        Arrays.fill(elements, 0);
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Returns the elements contained in this set.
+     */
+    public int[] toArray() {
+        int[] out = new int[size];
+        int targetIx = 0;
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i]) {
+                out[targetIx++] = elements[i];
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public int hashCode() {
+        // Only depends on the elements and not on their order, see IntObjectHashMap.hashCode().
+        int hash = size;
+        for (int element : elements) {
+            hash ^= element;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntHashSet)) {
+            return false;
+        }
+        IntHashSet other = (IntHashSet) obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i] && !other.contains(elements[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int probeNext(int index) {
+        return index == used.length - 1 ? 0 : index + 1;
+    }
+
+    /**
+     * Locates the index for the given element.
+     *
+     * @return the index where the element was found, or {@code -1} if it is not contained in this set.
+     */
+    private int indexOf(int element) {
+        int startIndex = hashIndex(element);
+        int index = startIndex;
+
+        for (;;) {
+            if (!used[index]) {
+                // It's available, so no chance that this element exists anywhere in the set.
+                return -1;
+            }
+            if (element == elements[index]) {
+                return index;
+            }
+
+            // Conflict, keep probing ...
+            if ((index = probeNext(index)) == startIndex) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the hashed index for the given element.
+     */
+    private int hashIndex(int element) {
+        // Allowing for negative elements by adding the length after the first mod operation.
+        return (element % elements.length + elements.length) % elements.length;
+    }
+
+    /**
+     * Grows the set size after an insertion. If necessary, performs a rehash of the set.
+     */
+    private void growSize() {
+        size++;
+
+        if (size > maxSize) {
+            // Need to grow the arrays. We take care to detect integer overflow,
+            // also limit array size to ArrayList.MAX_ARRAY_SIZE.
+            rehash(adjustCapacity((int) Math.min(elements.length * 2.0, Integer.MAX_VALUE - 8)));
+        } else if (size == elements.length) {
+            // Open addressing requires that we have at least 1 slot available. Need to refresh
+            // the arrays to clear any removed elements.
+            rehash(elements.length);
+        }
+    }
+
+    /**
+     * Adjusts the given capacity value to ensure that it's odd. Even capacities can break probing.
+     */
+    private static int adjustCapacity(int capacity) {
+        return capacity | 1;
+    }
+
+    /**
+     * Removes the element at the given index position and moves displaced elements back, see
+     * {@link IntObjectHashMap}.
+     */
+    private void removeAt(int index) {
+        --size;
+        elements[index] = 0;
+        used[index] = false;
+
+        int nextFree = index;
+        for (int i = probeNext(index); used[i]; i = probeNext(i)) {
+            int bucket = hashIndex(elements[i]);
+            if (i < bucket && (bucket <= nextFree || nextFree <= i) ||
+                bucket <= nextFree && nextFree <= i) {
+                // Move the displaced element "back" to the first available position.
+                elements[nextFree] = elements[i];
+                used[nextFree] = true;
+                elements[i] = 0;
+                used[i] = false;
+                nextFree = i;
+            }
+        }
+    }
+
+    /**
+     * Calculates the maximum size allowed before rehashing.
+     */
+    private int calcMaxSize(int capacity) {
+        // Clip the upper bound so that there will always be at least one available slot.
+        int upperBound = capacity - 1;
+        return Math.min(upperBound, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Rehashes the set for the given capacity.
+     */
+    private void rehash(int newCapacity) {
+        int[] oldElements = elements;
+        boolean[] oldUsed = used;
+
+        elements = new int[newCapacity];
+        used = new boolean[newCapacity];
+
+        maxSize = calcMaxSize(newCapacity);
+
+        // Insert to the new arrays.
+        for (int i = 0; i < oldUsed.length; ++i) {
+            if (oldUsed[i]) {
+                int element = oldElements[i];
+                int index = hashIndex(element);
+
+                for (;;) {
+                    if (!used[index]) {
+                        elements[index] = element;
+                        used[index] = true;
+                        break;
+                    }
+
+                    // Conflict, keep probing. Can wrap around, but never reaches startIndex again.
+                    index = probeNext(index);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder(4 * size);
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i]) {
+                sb.append(sb.length() == 0 ? "[" : ", ");
+                sb.append(elements[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
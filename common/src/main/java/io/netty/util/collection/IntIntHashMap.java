@@ -0,0 +1,380 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * A hash map that uses {@code int}s as keys and values, without boxing either of them.
+ * Like {@link IntObjectHashMap} it uses open addressing with linear probing and compacts on removal.
+ * <p>
+ * As a primitive value can not be {@code null}, the methods which would return {@code null} for a missing key
+ * return {@link #noEntryValue()} instead.  Use {@link #containsKey(int)} if this value is also a valid value.
+ */
+public class IntIntHashMap {
+
+    /** Default initial capacity. Used if not specified in the constructor */
+    private static final int DEFAULT_CAPACITY = 11;
+
+    /** Default load factor. Used if not specified in the constructor */
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /** The maximum number of elements allowed without allocating more space. */
+    private int maxSize;
+
+    /** The load factor for the map. Used to calculate {@link #maxSize}. */
+    private final float loadFactor;
+
+    private final int noEntryValue;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntIntHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntIntHashMap(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, 0);
+    }
+
+    /**
+     * @param noEntryValue the value which is returned for missing keys
+     */
+    public IntIntHashMap(int initialCapacity, float loadFactor, int noEntryValue) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be >= 1");
+        }
+        if (loadFactor <= 0.0f || loadFactor > 1.0f) {
+            // Cannot exceed 1 because we can never store more than capacity elements;
+            // using a bigger loadFactor would trigger rehashing before the desired load is reached.
+            throw new IllegalArgumentException("loadFactor must be > 0 and <= 1");
+        }
+
+        this.loadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+
+        // Adjust the initial capacity if necessary.
+        int capacity = adjustCapacity(initialCapacity);
+
+        // Allocate the arrays.
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+
+        // Initialize the maximum size value.
+        maxSize = calcMaxSize(capacity);
+    }
+
+    /**
+     * Returns the value which is returned by {@link #get(int)}, {@link #put(int, int)} and {@link #remove(int)} if
+     * there is no mapping for the key.
+     */
+    public int noEntryValue() {
+        return noEntryValue;
+    }
+
+    /**
+     * Gets the value in the map with the specified key.
+     *
+     * @return the value or {@link #noEntryValue()} if the key was not found in the map.
+     */
+    public int get(int key) {
+        int index = indexOf(key);
+        return index == -1 ? noEntryValue : values[index];
+    }
+
+    /**
+     * Puts the given entry into the map.
+     *
+     * @return the previous value for this key or {@link #noEntryValue()} if there was no previous mapping.
+     */
+    public int put(int key, int value) {
+        int startIndex = hashIndex(key);
+        int index = startIndex;
+
+        for (;;) {
+            if (!used[index]) {
+                // Found empty slot, use it.
+                keys[index] = key;
+                values[index] = value;
+                used[index] = true;
+                growSize();
+                return noEntryValue;
+            }
+            if (keys[index] == key) {
+                // Found existing entry with this key, just replace the value.
+                int previousValue = values[index];
+                values[index] = value;
+                return previousValue;
+            }
+
+            // Conflict, keep probing ...
+            if ((index = probeNext(index)) == startIndex) {
+                // Can only happen if the map was full at MAX_ARRAY_SIZE and couldn't grow.
+                throw new IllegalStateException("Unable to insert");
+            }
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key.
+     *
+     * @return the previous value for the key, or {@link #noEntryValue()} if there was no mapping.
+     */
+    public int remove(int key) {
+        int index = indexOf(key);
+        if (index == -1) {
+            return noEntryValue;
+        }
+
+        int prev = values[index];
+        removeAt(index);
+        return prev;
+    }
+
+    /**
+     * Returns the number of entries contained in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether or not this map is empty (i.e {@link #size()} == {@code 0}).
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clears all entries from this map.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Indicates whether or not this map contains a value for the specified key.
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the keys contained in this map.
+     */
+    public int[] keys() {
+        int[] outKeys = new int[size];
+        int targetIx = 0;
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i]) {
+                outKeys[targetIx++] = keys[i];
+            }
+        }
+        return outKeys;
+    }
+
+    @Override
+    public int hashCode() {
+        // Only depends on the keys and not on their order, see IntObjectHashMap.hashCode().
+        int hash = size;
+        for (int key : keys) {
+            hash ^= key;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntIntHashMap)) {
+            return false;
+        }
+        IntIntHashMap other = (IntIntHashMap) obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i]) {
+                int otherIndex = other.indexOf(keys[i]);
+                if (otherIndex == -1 || values[i] != other.values[otherIndex]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int probeNext(int index) {
+        return index == used.length - 1 ? 0 : index + 1;
+    }
+
+    /**
+     * Locates the index for the given key.
+     *
+     * @return the index where the key was found, or {@code -1} if no entry is found for that key.
+     */
+    private int indexOf(int key) {
+        int startIndex = hashIndex(key);
+        int index = startIndex;
+
+        for (;;) {
+            if (!used[index]) {
+                // It's available, so no chance that this value exists anywhere in the map.
+                return -1;
+            }
+            if (key == keys[index]) {
+                return index;
+            }
+
+            // Conflict, keep probing ...
+            if ((index = probeNext(index)) == startIndex) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the hashed index for the given key.
+     */
+    private int hashIndex(int key) {
+        // Allowing for negative keys by adding the length after the first mod operation.
+        return (key % keys.length + keys.length) % keys.length;
+    }
+
+    /**
+     * Grows the map size after an insertion. If necessary, performs a rehash of the map.
+     */
+    private void growSize() {
+        size++;
+
+        if (size > maxSize) {
+            // Need to grow the arrays. We take care to detect integer overflow,
+            // also limit array size to ArrayList.MAX_ARRAY_SIZE.
+            rehash(adjustCapacity((int) Math.min(keys.length * 2.0, Integer.MAX_VALUE - 8)));
+        } else if (size == keys.length) {
+            // Open addressing requires that we have at least 1 slot available. Need to refresh
+            // the arrays to clear any removed elements.
+            rehash(keys.length);
+        }
+    }
+
+    /**
+     * Adjusts the given capacity value to ensure that it's odd. Even capacities can break probing.
+     */
+    private static int adjustCapacity(int capacity) {
+        return capacity | 1;
+    }
+
+    /**
+     * Removes entry at the given index position and moves displaced entries back, see
+     * {@link IntObjectHashMap}.
+     */
+    private void removeAt(int index) {
+        --size;
+        keys[index] = 0;
+        values[index] = 0;
+        used[index] = false;
+
+        int nextFree = index;
+        for (int i = probeNext(index); used[i]; i = probeNext(i)) {
+            int bucket = hashIndex(keys[i]);
+            if (i < bucket && (bucket <= nextFree || nextFree <= i) ||
+                bucket <= nextFree && nextFree <= i) {
+                // Move the displaced entry "back" to the first available position.
+                keys[nextFree] = keys[i];
+                values[nextFree] = values[i];
+                used[nextFree] = true;
+                // Put the first entry after the displaced entry
+                keys[i] = 0;
+                values[i] = 0;
+                used[i] = false;
+                nextFree = i;
+            }
+        }
+    }
+
+    /**
+     * Calculates the maximum size allowed before rehashing.
+     */
+    private int calcMaxSize(int capacity) {
+        // Clip the upper bound so that there will always be at least one available slot.
+        int upperBound = capacity - 1;
+        return Math.min(upperBound, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Rehashes the map for the given capacity.
+     */
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldVals = values;
+        boolean[] oldUsed = used;
+
+        keys = new int[newCapacity];
+        values = new int[newCapacity];
+        used = new boolean[newCapacity];
+
+        maxSize = calcMaxSize(newCapacity);
+
+        // Insert to the new arrays.
+        for (int i = 0; i < oldUsed.length; ++i) {
+            if (oldUsed[i]) {
+                int oldKey = oldKeys[i];
+                int index = hashIndex(oldKey);
+
+                for (;;) {
+                    if (!used[index]) {
+                        keys[index] = oldKey;
+                        values[index] = oldVals[i];
+                        used[index] = true;
+                        break;
+                    }
+
+                    // Conflict, keep probing. Can wrap around, but never reaches startIndex again.
+                    index = probeNext(index);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "{}";
+        }
+        StringBuilder sb = new StringBuilder(8 * size);
+        for (int i = 0; i < used.length; ++i) {
+            if (used[i]) {
+                sb.append(sb.length() == 0 ? "{" : ", ");
+                sb.append(keys[i]).append('=').append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.netty.util.concurrent;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -67,6 +68,16 @@ public abstract class AbstractEventExecutor extends AbstractExecutorService impl
         return this;
     }
 
+    @Override
+    public void executeBatch(Collection<? extends Runnable> tasks) {
+        if (tasks == null) {
+            throw new NullPointerException("tasks");
+        }
+        for (Runnable task: tasks) {
+            execute(task);
+        }
+    }
+
     @Override
     public Future<?> shutdownGracefully() {
         return shutdownGracefully(DEFAULT_SHUTDOWN_QUIET_PERIOD, DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
@@ -16,11 +16,11 @@
 package io.netty.util.concurrent;
 
 import io.netty.util.internal.CallableEventExecutorAdapter;
+import io.netty.util.internal.DefaultPriorityQueue;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.RunnableEventExecutorAdapter;
 
-import java.util.Iterator;
-import java.util.PriorityQueue;
+import java.util.Comparator;
 import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
@@ -31,7 +31,15 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class AbstractScheduledEventExecutor extends AbstractEventExecutor {
 
-    Queue<ScheduledFutureTask<?>> scheduledTaskQueue;
+    private static final Comparator<ScheduledFutureTask<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
+            new Comparator<ScheduledFutureTask<?>>() {
+                @Override
+                public int compare(ScheduledFutureTask<?> o1, ScheduledFutureTask<?> o2) {
+                    return o1.compareTo(o2);
+                }
+            };
+
+    DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue;
 
     protected AbstractScheduledEventExecutor() {
     }
@@ -44,9 +52,12 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return ScheduledFutureTask.nanoTime();
     }
 
-    Queue<ScheduledFutureTask<?>> scheduledTaskQueue() {
+    DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue() {
         if (scheduledTaskQueue == null) {
-            scheduledTaskQueue = new PriorityQueue<ScheduledFutureTask<?>>();
+            scheduledTaskQueue = new DefaultPriorityQueue<ScheduledFutureTask<?>>(
+                    SCHEDULED_FUTURE_TASK_COMPARATOR,
+                    // Use same initial capacity as java.util.PriorityQueue
+                    11);
         }
         return scheduledTaskQueue;
     }
@@ -208,16 +219,26 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return task;
     }
 
+    /**
+     * Removes a cancelled task from the queue right away if called from the event loop, so that timeouts which are
+     * cancelled before they expire do not pile up.  Tasks cancelled by other threads are left to
+     * {@link #purgeCancelledScheduledTasks()}, which avoids waking up the event loop for every cancellation.
+     */
+    final void removeScheduled(ScheduledFutureTask<?> task) {
+        if (scheduledTaskQueue != null && inEventLoop()) {
+            scheduledTaskQueue.removeTyped(task);
+        }
+    }
+
     void purgeCancelledScheduledTasks() {
-        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
         if (isNullOrEmpty(scheduledTaskQueue)) {
             return;
         }
-        Iterator<ScheduledFutureTask<?>> i = scheduledTaskQueue.iterator();
-        while (i.hasNext()) {
-            ScheduledFutureTask<?> task = i.next();
-            if (task.isCancelled()) {
-                i.remove();
+        for (Object task: scheduledTaskQueue.toArray()) {
+            ScheduledFutureTask<?> scheduledTask = (ScheduledFutureTask<?>) task;
+            if (scheduledTask.isCancelled()) {
+                scheduledTaskQueue.removeTyped(scheduledTask);
             }
         }
     }
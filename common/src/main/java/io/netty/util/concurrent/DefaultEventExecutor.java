@@ -39,6 +39,17 @@ public final class DefaultEventExecutor extends SingleThreadEventExecutor {
         super(parent, executor, true);
     }
 
+    /**
+     * @param parent            the {@link EventExecutorGroup} which is the parent of this instance and belongs to it.
+     * @param executor          the {@link Executor} which will be used for executing.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    public DefaultEventExecutor(EventExecutorGroup parent, Executor executor,
+                                int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        super(parent, executor, true, maxPendingTasks, rejectedHandler);
+    }
+
     @Override
     protected void run() {
         Runnable task = takeTask();
@@ -40,7 +40,22 @@ public class DefaultEventExecutorGroup extends MultithreadEventExecutorGroup {
      *                  this {@link EventExecutorGroup}.
      */
     public DefaultEventExecutorGroup(int nEventExecutors, Executor executor) {
-        super(nEventExecutors, executor);
+        this(nEventExecutors, executor, SingleThreadEventExecutor.DEFAULT_MAX_PENDING_EXECUTOR_TASKS,
+                RejectedExecutionHandlers.reject());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nEventExecutors   the number of {@link DefaultEventExecutor}s that this group will use.
+     * @param executor  the {@link Executor} responsible for executing the work handled by
+     *                  this {@link EventExecutorGroup}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    public DefaultEventExecutorGroup(int nEventExecutors, Executor executor,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        super(nEventExecutors, executor, maxPendingTasks, rejectedHandler);
     }
 
     /**
@@ -51,11 +66,26 @@ public class DefaultEventExecutorGroup extends MultithreadEventExecutorGroup {
      *                                 responsible for executing the work handled by this {@link EventExecutorGroup}.
      */
     public DefaultEventExecutorGroup(int nEventExecutors, ExecutorServiceFactory executorServiceFactory) {
-        super(nEventExecutors, executorServiceFactory);
+        this(nEventExecutors, executorServiceFactory, SingleThreadEventExecutor.DEFAULT_MAX_PENDING_EXECUTOR_TASKS,
+                RejectedExecutionHandlers.reject());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nEventExecutors   the number of {@link DefaultEventExecutor}s that this group will use.
+     * @param executorServiceFactory   the {@link ExecutorServiceFactory} which produces the {@link Executor}
+     *                                 responsible for executing the work handled by this {@link EventExecutorGroup}.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    public DefaultEventExecutorGroup(int nEventExecutors, ExecutorServiceFactory executorServiceFactory,
+                                     int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        super(nEventExecutors, executorServiceFactory, maxPendingTasks, rejectedHandler);
     }
 
     @Override
     protected EventExecutor newChild(Executor executor, Object... args) throws Exception {
-        return new DefaultEventExecutor(this, executor);
+        return new DefaultEventExecutor(this, executor, (Integer) args[0], (RejectedExecutionHandler) args[1]);
     }
 }
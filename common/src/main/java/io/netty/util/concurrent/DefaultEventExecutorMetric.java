@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * {@link EventExecutorMetric} of a {@link SingleThreadEventExecutor}, which measures tasks by wrapping them before
+ * they are added to the task queue.
+ */
+final class DefaultEventExecutorMetric implements EventExecutorMetric {
+
+    private final SingleThreadEventExecutor executor;
+    private final DefaultLatencyMetric taskQueueLatency = new DefaultLatencyMetric();
+    private final DefaultLatencyMetric taskRunTime = new DefaultLatencyMetric();
+
+    DefaultEventExecutorMetric(SingleThreadEventExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a {@link Runnable} which runs the given task and records how long it was queued and how long it ran.
+     */
+    Runnable newTimedTask(Runnable task) {
+        return new TimedTask(task, System.nanoTime());
+    }
+
+    @Override
+    public int pendingTasks() {
+        return executor.pendingTasks();
+    }
+
+    @Override
+    public long completedTasks() {
+        return taskRunTime.count();
+    }
+
+    @Override
+    public LatencyMetric taskQueueLatency() {
+        return taskQueueLatency;
+    }
+
+    @Override
+    public LatencyMetric taskRunTime() {
+        return taskRunTime;
+    }
+
+    @Override
+    public String toString() {
+        return "EventExecutorMetric(pendingTasks: " + pendingTasks() + ", completedTasks: " + completedTasks() +
+               ", taskQueueLatency: " + taskQueueLatency + ", taskRunTime: " + taskRunTime + ')';
+    }
+
+    final class TimedTask implements Runnable {
+        final Runnable task;
+        private final long queuedTime;
+
+        TimedTask(Runnable task, long queuedTime) {
+            this.task = task;
+            this.queuedTime = queuedTime;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            taskQueueLatency.record(startTime - queuedTime);
+            try {
+                task.run();
+            } finally {
+                taskRunTime.record(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
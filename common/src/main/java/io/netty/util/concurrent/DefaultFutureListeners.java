@@ -15,27 +15,50 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.Recycler;
+
 import java.util.Arrays;
 
-final class DefaultFutureListeners {
+/**
+ * Holds the listeners of a {@link DefaultPromise} once more than one listener was added, and is also the task that
+ * notifies them if this can not be done from the calling thread.  Instances are recycled together with their backing
+ * array once the listeners were notified, so adding a few listeners to a promise does not allocate.
+ */
+final class DefaultFutureListeners implements Runnable {
+
+    private static final int INITIAL_CAPACITY = 4;
+    // Arrays that grew larger than this are not kept when an instance is recycled.
+    private static final int MAX_RETAINED_CAPACITY = 16;
 
-    private GenericFutureListener<? extends Future<?>>[] listeners;
+    private static final Recycler<DefaultFutureListeners> RECYCLER = new Recycler<DefaultFutureListeners>() {
+        @Override
+        protected DefaultFutureListeners newObject(Handle<DefaultFutureListeners> handle) {
+            return new DefaultFutureListeners(handle);
+        }
+    };
+
+    private final Recycler.Handle<DefaultFutureListeners> handle;
+    private GenericFutureListener<? extends Future<?>>[] listeners = newArray(INITIAL_CAPACITY);
     private int size;
     private int progressiveSize; // the number of progressive listeners
+    // The promise to notify in run().
+    private DefaultPromise<?> promise;
 
-    @SuppressWarnings("unchecked")
-    DefaultFutureListeners(
+    static DefaultFutureListeners newInstance(
             GenericFutureListener<? extends Future<?>> first, GenericFutureListener<? extends Future<?>> second) {
-        listeners = new GenericFutureListener[2];
-        listeners[0] = first;
-        listeners[1] = second;
-        size = 2;
-        if (first instanceof GenericProgressiveFutureListener) {
-            progressiveSize ++;
-        }
-        if (second instanceof GenericProgressiveFutureListener) {
-            progressiveSize ++;
-        }
+        DefaultFutureListeners listeners = RECYCLER.get();
+        listeners.add(first);
+        listeners.add(second);
+        return listeners;
+    }
+
+    private DefaultFutureListeners(Recycler.Handle<DefaultFutureListeners> handle) {
+        this.handle = handle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GenericFutureListener<? extends Future<?>>[] newArray(int capacity) {
+        return new GenericFutureListener[capacity];
     }
 
     public void add(GenericFutureListener<? extends Future<?>> l) {
@@ -83,4 +106,35 @@ final class DefaultFutureListeners {
     public int progressiveSize() {
         return progressiveSize;
     }
+
+    /**
+     * Sets the {@link DefaultPromise} whose listeners are notified when this instance is run.
+     */
+    DefaultFutureListeners notifyOnRun(DefaultPromise<?> promise) {
+        this.promise = promise;
+        return this;
+    }
+
+    @Override
+    public void run() {
+        promise.notifyListenersNow(this);
+    }
+
+    /**
+     * Clears and recycles this instance.  Instances with progressive listeners are not recycled, as
+     * {@link DefaultProgressivePromise} may still read them from another thread.
+     */
+    void recycle() {
+        promise = null;
+        if (progressiveSize != 0) {
+            return;
+        }
+        if (listeners.length > MAX_RETAINED_CAPACITY) {
+            listeners = newArray(INITIAL_CAPACITY);
+        } else {
+            Arrays.fill(listeners, 0, size, null);
+        }
+        size = 0;
+        RECYCLER.recycle(this, handle);
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyMetric} which is written by a single thread at a time and may be read by any thread.
+ *
+ * Values below {@code 16} get a bucket of their own.  Every larger power of two is split into {@code 16} buckets of
+ * equal width, which gives {@code 960} buckets for all positive {@code long} values.
+ */
+final class DefaultLatencyMetric implements LatencyMetric {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private volatile long count;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    /**
+     * Records a value.  Must not be called by more than one thread at a time.
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            // System.nanoTime() is not guaranteed to be monotonic on all platforms.
+            nanos = 0;
+        }
+        int index = bucketIndex(nanos);
+        buckets.lazySet(index, buckets.get(index) + 1);
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        // Written last so a reader which sees the new count also sees the bucket.
+        count ++;
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public long percentileNanos(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0 < percentile <= 100)");
+        }
+
+        long count = this.count;
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long max = maxNanos;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i ++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        // Only reached if a value was recorded while iterating.
+        return max;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exp - SUB_BUCKET_BITS;
+        return (shift + 1 << SUB_BUCKET_BITS) + (int) (value >>> shift & SUB_BUCKET_MASK);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowerBound = (long) (SUB_BUCKETS + (index & SUB_BUCKET_MASK)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyMetric(count: " + count + ", p50: " + percentileNanos(50) + "ns, p99: " + percentileNanos(99) +
+               "ns, max: " + maxNanos + "ns)";
+    }
+}
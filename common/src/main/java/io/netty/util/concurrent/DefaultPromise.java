@@ -149,7 +149,7 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                     } else {
                         final GenericFutureListener<? extends Future<V>> firstListener =
                                 (GenericFutureListener<? extends Future<V>>) listeners;
-                        listeners = new DefaultFutureListeners(firstListener, listener);
+                        listeners = DefaultFutureListeners.newInstance(firstListener, listener);
                     }
                 }
                 return this;
@@ -560,14 +560,14 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                 threadLocals.setFutureListenerStackDepth(stackDepth + 1);
                 try {
                     if (listeners instanceof DefaultFutureListeners) {
-                        notifyListeners0(this, (DefaultFutureListeners) listeners);
+                        notifyListenersNow((DefaultFutureListeners) listeners);
                     } else {
                         final GenericFutureListener<? extends Future<V>> l =
                                 (GenericFutureListener<? extends Future<V>>) listeners;
                         notifyListener0(this, l);
+                        this.listeners = null;
                     }
                 } finally {
-                    this.listeners = null;
                     threadLocals.setFutureListenerStackDepth(stackDepth);
                 }
                 return;
@@ -575,14 +575,8 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         }
 
         if (listeners instanceof DefaultFutureListeners) {
-            final DefaultFutureListeners dfl = (DefaultFutureListeners) listeners;
-            execute(executor, new Runnable() {
-                @Override
-                public void run() {
-                    notifyListeners0(DefaultPromise.this, dfl);
-                    DefaultPromise.this.listeners = null;
-                }
-            });
+            // DefaultFutureListeners is the notification task itself, so no extra Runnable is allocated.
+            execute(executor, ((DefaultFutureListeners) listeners).notifyOnRun(this));
         } else {
             final GenericFutureListener<? extends Future<V>> l =
                     (GenericFutureListener<? extends Future<V>>) listeners;
@@ -596,6 +590,15 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         }
     }
 
+    /**
+     * Notifies the listeners stored in {@link #listeners} and recycles them afterwards.
+     */
+    void notifyListenersNow(DefaultFutureListeners listeners) {
+        notifyListeners0(this, listeners);
+        this.listeners = null;
+        listeners.recycle();
+    }
+
     private static void notifyListeners0(Future<?> future, DefaultFutureListeners listeners) {
         final GenericFutureListener<?>[] a = listeners.listeners();
         final int size = listeners.size();
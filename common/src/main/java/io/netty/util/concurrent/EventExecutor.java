@@ -15,6 +15,7 @@
  */
 package io.netty.util.concurrent;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -54,6 +55,16 @@ public interface EventExecutor extends EventExecutorGroup {
      */
     boolean inEventLoop(Thread thread);
 
+    /**
+     * Executes the given tasks in iteration order, as if {@link #execute(Runnable)} was called for each of them.
+     * Implementations may add them all at once and wake up the executor thread only once, which makes this cheaper
+     * than calling {@link #execute(Runnable)} in a loop from outside the event loop.
+     * <p>
+     * If a task is rejected, a {@link java.util.concurrent.RejectedExecutionException} is thrown and the tasks after
+     * it are not added.  The tasks before it may have been added already.
+     */
+    void executeBatch(Collection<? extends Runnable> tasks);
+
     /**
      * Returns an {@link EventExecutor} that is not a {@link WrappedEventExecutor}.
      *
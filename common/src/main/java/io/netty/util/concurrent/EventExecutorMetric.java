@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Expose metrics for a {@link SingleThreadEventExecutor}.
+ *
+ * Metrics are only collected if the system property {@code io.netty.eventexecutor.metrics} is set to {@code true},
+ * as they cost two {@link System#nanoTime()} calls and an allocation per task.  Only the tasks added via
+ * {@link EventExecutor#execute(Runnable)} and the methods built on top of it are measured.
+ */
+public interface EventExecutorMetric {
+
+    /**
+     * Returns the number of tasks that are pending for processing.
+     *
+     * @see SingleThreadEventExecutor#pendingTasks()
+     */
+    int pendingTasks();
+
+    /**
+     * Returns the number of tasks that were run.
+     */
+    long completedTasks();
+
+    /**
+     * Returns the time tasks spent in the task queue before they were run.
+     */
+    LatencyMetric taskQueueLatency();
+
+    /**
+     * Returns the time it took to run tasks.
+     */
+    LatencyMetric taskRunTime();
+}
@@ -210,8 +210,9 @@ public final class GlobalEventExecutor extends AbstractScheduledEventExecutor {
     private void startThread() {
         if (started.compareAndSet(false, true)) {
             Thread t = threadFactory.newThread(taskRunner);
-            t.start();
+            // Set the thread before starting it, so inEventLoop() is true as soon as the TaskRunner polls tasks.
             thread = t;
+            t.start();
         }
     }
 
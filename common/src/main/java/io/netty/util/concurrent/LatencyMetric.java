@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Expose a histogram of latencies in nanoseconds.
+ *
+ * The values are recorded into buckets whose width grows with the recorded value, so every value is known with a
+ * relative error of at most {@code 1/16}.  All values are cumulative since the histogram was created and may be
+ * slightly stale when read from another thread than the one recording them.
+ */
+public interface LatencyMetric {
+
+    /**
+     * Returns the number of recorded values.
+     */
+    long count();
+
+    /**
+     * Returns the sum of all recorded values in nanoseconds.
+     */
+    long totalNanos();
+
+    /**
+     * Returns the largest recorded value in nanoseconds.
+     */
+    long maxNanos();
+
+    /**
+     * Returns the value in nanoseconds below or equal to which the given percentage of all recorded values fall,
+     * or {@code 0} if no value was recorded yet.
+     *
+     * @param percentile a percentage greater than {@code 0} and less than or equal to {@code 100}
+     */
+    long percentileNanos(double percentile);
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.chmv8.ForkJoinPool;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link EventExecutorGroup} which preserves the execution order of the tasks submitted to each
+ * {@link EventExecutor} returned by {@link #next()}, but does not bind such an {@link EventExecutor} to a thread.
+ * <p>
+ * Every call to {@link #next()} creates a new, lightweight {@link EventExecutor} that owns a task queue of its own.
+ * As a {@code ChannelPipeline} calls {@link #next()} once per {@link EventExecutorGroup}, all handlers of a
+ * {@code Channel} that were added with this group share one such queue and see the events of their {@code Channel}
+ * in order.  Whenever a queue has tasks it is submitted to a shared {@link Executor}, so any idle thread can drain
+ * the queue of any {@code Channel}.  Unlike a {@link DefaultEventExecutorGroup}, a few busy {@code Channel}s therefore
+ * do not saturate one thread while the other threads are idle.  To keep a busy {@code Channel} from monopolizing a
+ * thread, an {@link EventExecutor} runs at most {@code maxTaskExecutePerRun} tasks before it is submitted to the
+ * {@link Executor} again.
+ * <p>
+ * {@link #children()} returns an empty {@link Set} as the {@link EventExecutor}s are not tracked by the group.
+ * Their life-cycle is the one of the group.
+ */
+public final class NonStickyEventExecutorGroup extends AbstractEventExecutorGroup {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(NonStickyEventExecutorGroup.class);
+
+    private static final int DEFAULT_MAX_TASK_EXECUTE_PER_RUN = 1024;
+
+    private static final int ST_STARTED = 1;
+    private static final int ST_SHUTTING_DOWN = 2;
+    private static final int ST_TERMINATED = 3;
+
+    private static final AtomicIntegerFieldUpdater<NonStickyEventExecutorGroup> STATE_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<NonStickyEventExecutorGroup> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(NonStickyEventExecutorGroup.class, "state");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(NonStickyEventExecutorGroup.class, "state");
+        }
+        STATE_UPDATER = updater;
+    }
+
+    private final Executor executor;
+    private final boolean shutdownExecutor;
+    private final int maxTaskExecutePerRun;
+    // The number of EventExecutors which are submitted to or running on the executor.
+    private final AtomicInteger activeExecutors = new AtomicInteger();
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile int state = ST_STARTED;
+
+    /**
+     * Create a new instance which runs its tasks on a new {@link ForkJoinPool}.
+     *
+     * @param nThreads  the number of threads of the {@link ForkJoinPool}.
+     */
+    public NonStickyEventExecutorGroup(int nThreads) {
+        this(nThreads, DEFAULT_MAX_TASK_EXECUTE_PER_RUN);
+    }
+
+    /**
+     * Create a new instance which runs its tasks on a new {@link ForkJoinPool}.
+     *
+     * @param nThreads              the number of threads of the {@link ForkJoinPool}.
+     * @param maxTaskExecutePerRun  the maximum number of tasks an {@link EventExecutor} runs before it gives up its
+     *                              thread.
+     */
+    public NonStickyEventExecutorGroup(int nThreads, int maxTaskExecutePerRun) {
+        this(new DefaultExecutorServiceFactory(NonStickyEventExecutorGroup.class).newExecutorService(nThreads),
+             true, maxTaskExecutePerRun);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param executor              the {@link Executor} which runs the tasks.  It is not shut down together with
+     *                              this group.
+     * @param maxTaskExecutePerRun  the maximum number of tasks an {@link EventExecutor} runs before it gives up its
+     *                              thread.
+     */
+    public NonStickyEventExecutorGroup(Executor executor, int maxTaskExecutePerRun) {
+        this(executor, false, maxTaskExecutePerRun);
+    }
+
+    private NonStickyEventExecutorGroup(Executor executor, boolean shutdownExecutor, int maxTaskExecutePerRun) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        if (maxTaskExecutePerRun <= 0) {
+            throw new IllegalArgumentException(
+                    "maxTaskExecutePerRun: " + maxTaskExecutePerRun + " (expected: > 0)");
+        }
+        this.executor = executor;
+        this.shutdownExecutor = shutdownExecutor;
+        this.maxTaskExecutePerRun = maxTaskExecutePerRun;
+    }
+
+    @Override
+    public EventExecutor next() {
+        return new NonStickyOrderedEventExecutor(this);
+    }
+
+    @Override
+    public <E extends EventExecutor> Set<E> children() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        shutdown0();
+        return terminationFuture;
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        shutdown0();
+    }
+
+    private void shutdown0() {
+        if (STATE_UPDATER.compareAndSet(this, ST_STARTED, ST_SHUTTING_DOWN)) {
+            // Terminate right away if no EventExecutor is active, otherwise the last one that goes idle does.
+            if (activeExecutors.get() == 0) {
+                tryTerminate();
+            }
+        }
+    }
+
+    private void tryTerminate() {
+        if (STATE_UPDATER.compareAndSet(this, ST_SHUTTING_DOWN, ST_TERMINATED)) {
+            if (shutdownExecutor) {
+                ((ExecutorService) executor).shutdown();
+            }
+            terminationFuture.setSuccess(null);
+        }
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return STATE_UPDATER.get(this) >= ST_SHUTTING_DOWN;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isTerminated();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return STATE_UPDATER.get(this) == ST_TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationFuture.await(timeout, unit);
+    }
+
+    /**
+     * Submits the given {@link NonStickyOrderedEventExecutor} to the {@link Executor}.
+     *
+     * @param activate  {@code true} if the {@link NonStickyOrderedEventExecutor} was idle before.
+     */
+    void submit(NonStickyOrderedEventExecutor child, boolean activate) {
+        if (activate) {
+            activeExecutors.incrementAndGet();
+        }
+        executor.execute(child);
+    }
+
+    /**
+     * Called once an {@link NonStickyOrderedEventExecutor} ran all its tasks and gave up its thread.
+     */
+    void deactivated() {
+        if (activeExecutors.decrementAndGet() == 0 && STATE_UPDATER.get(this) == ST_SHUTTING_DOWN) {
+            tryTerminate();
+        }
+    }
+
+    /**
+     * {@link EventExecutor} which runs its tasks one after another on whatever thread of the {@link Executor} it was
+     * submitted to.
+     */
+    static final class NonStickyOrderedEventExecutor extends AbstractScheduledEventExecutor implements Runnable {
+
+        private static final int ST_IDLE = 0;
+        private static final int ST_SUBMITTED = 1;
+
+        private static final AtomicIntegerFieldUpdater<NonStickyOrderedEventExecutor> STATE_UPDATER;
+
+        static {
+            AtomicIntegerFieldUpdater<NonStickyOrderedEventExecutor> updater =
+                    PlatformDependent.newAtomicIntegerFieldUpdater(NonStickyOrderedEventExecutor.class, "state");
+            if (updater == null) {
+                updater = AtomicIntegerFieldUpdater.newUpdater(NonStickyOrderedEventExecutor.class, "state");
+            }
+            STATE_UPDATER = updater;
+        }
+
+        private final NonStickyEventExecutorGroup group;
+        private final Queue<Runnable> taskQueue = PlatformDependent.newMpscQueue();
+
+        private final Runnable wakeupTask = new Runnable() {
+            @Override
+            public void run() {
+                if (STATE_UPDATER.compareAndSet(NonStickyOrderedEventExecutor.this, ST_IDLE, ST_SUBMITTED)) {
+                    try {
+                        group.submit(NonStickyOrderedEventExecutor.this, true);
+                    } catch (RejectedExecutionException e) {
+                        // The group was terminated and so the scheduled tasks will never run.
+                        deactivate();
+                        logger.debug("Failed to run the scheduled tasks of a terminated executor.", e);
+                    }
+                }
+            }
+        };
+
+        @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+        private volatile int state = ST_IDLE;
+        private volatile Thread thread;
+
+        // Only accessed from run(), which never runs concurrently with itself.
+        private ScheduledFuture<?> scheduledWakeup;
+        private long scheduledWakeupDeadline;
+
+        NonStickyOrderedEventExecutor(NonStickyEventExecutorGroup group) {
+            super(group);
+            this.group = group;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (task == null) {
+                throw new NullPointerException("task");
+            }
+            if (group.isTerminated()) {
+                throw new RejectedExecutionException("event executor terminated");
+            }
+            taskQueue.offer(task);
+            if (STATE_UPDATER.compareAndSet(this, ST_IDLE, ST_SUBMITTED)) {
+                try {
+                    group.submit(this, true);
+                } catch (RejectedExecutionException e) {
+                    deactivate();
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            final Thread currentThread = Thread.currentThread();
+            thread = currentThread;
+            for (;;) {
+                boolean shuttingDown = group.isShuttingDown();
+                if (shuttingDown) {
+                    cancelScheduledTasks();
+                }
+
+                // Once the group shuts down run all remaining tasks so it can terminate.
+                int maxTasks = shuttingDown ? Integer.MAX_VALUE : group.maxTaskExecutePerRun;
+                long nanoTime = nanoTime();
+                int i = 0;
+                for (; i < maxTasks; i ++) {
+                    Runnable task = pollScheduledTask(nanoTime);
+                    if (task == null) {
+                        task = taskQueue.poll();
+                        if (task == null) {
+                            break;
+                        }
+                    }
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warn("A task raised an exception.", t);
+                    }
+                }
+
+                if (i == maxTasks) {
+                    // There may be more tasks, give the other EventExecutors a chance to run first.
+                    thread = null;
+                    if (resubmit()) {
+                        return;
+                    }
+                    thread = currentThread;
+                    continue;
+                }
+
+                long deadline = shuttingDown ? -1 : nextScheduledTaskDeadline();
+
+                thread = null;
+                STATE_UPDATER.set(this, ST_IDLE);
+
+                // Check again as a task may have been added before the producer could see that we are idle.
+                if ((!taskQueue.isEmpty() || deadline != -1 && deadline <= nanoTime()) &&
+                        STATE_UPDATER.compareAndSet(this, ST_IDLE, ST_SUBMITTED)) {
+                    if (resubmit()) {
+                        return;
+                    }
+                    thread = currentThread;
+                    continue;
+                }
+
+                group.deactivated();
+                return;
+            }
+        }
+
+        /**
+         * Submits this instance to the {@link Executor} again, or returns {@code false} if the {@link Executor}
+         * rejected it, in which case the caller continues to run the tasks.
+         */
+        private boolean resubmit() {
+            try {
+                group.submit(this, false);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Returns the deadline of the closest scheduled task, or {@code -1} if there is none.  As no thread waits
+         * for tasks while this executor is idle a wakeup is scheduled on the {@link GlobalEventExecutor} for that
+         * deadline.
+         */
+        private long nextScheduledTaskDeadline() {
+            ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+            if (scheduledTask == null) {
+                return -1;
+            }
+
+            long deadline = scheduledTask.deadlineNanos();
+            if (scheduledWakeup == null || scheduledWakeup.isDone() || deadline < scheduledWakeupDeadline) {
+                if (scheduledWakeup != null) {
+                    scheduledWakeup.cancel(false);
+                }
+                scheduledWakeup = GlobalEventExecutor.INSTANCE.schedule(
+                        wakeupTask, scheduledTask.delayNanos(), TimeUnit.NANOSECONDS);
+                scheduledWakeupDeadline = deadline;
+            }
+            return deadline;
+        }
+
+        /**
+         * Called if the {@link Executor} rejected this instance while it was idle.
+         */
+        private void deactivate() {
+            STATE_UPDATER.set(this, ST_IDLE);
+            group.deactivated();
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return thread == this.thread;
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            return group.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return group.terminationFuture();
+        }
+
+        @Override
+        @Deprecated
+        public void shutdown() {
+            group.shutdown();
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return group.isShuttingDown();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return group.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return group.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return group.awaitTermination(timeout, unit);
+        }
+    }
+}
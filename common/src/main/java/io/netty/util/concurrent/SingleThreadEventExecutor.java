@@ -16,10 +16,12 @@
 package io.netty.util.concurrent;
 
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Queue;
@@ -27,12 +29,12 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Abstract base class for {@link EventExecutor}'s that execute all its submitted tasks in a single thread.
@@ -43,6 +45,19 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     private static final InternalLogger logger =
             InternalLoggerFactory.getInstance(SingleThreadEventExecutor.class);
 
+    protected static final int DEFAULT_MAX_PENDING_EXECUTOR_TASKS = Math.max(16,
+            SystemPropertyUtil.getInt("io.netty.eventexecutor.maxPendingTasks", Integer.MAX_VALUE));
+
+    private static final boolean METRICS_ENABLED =
+            SystemPropertyUtil.getBoolean("io.netty.eventexecutor.metrics", false);
+
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.eventexecutor.maxPendingTasks: {}", DEFAULT_MAX_PENDING_EXECUTOR_TASKS);
+            logger.debug("-Dio.netty.eventexecutor.metrics: {}", METRICS_ENABLED);
+        }
+    }
+
     private static final int ST_NOT_STARTED = 1;
     private static final int ST_STARTED = 2;
     private static final int ST_SHUTTING_DOWN = 3;
@@ -84,6 +99,13 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     private final Semaphore threadLock = new Semaphore(0);
     private final Set<Runnable> shutdownHooks = new LinkedHashSet<Runnable>();
     private final boolean addTaskWakesUp;
+    private final int maxPendingTasks;
+    private final RejectedExecutionHandler rejectedExecutionHandler;
+    // null if metrics are disabled.
+    private final DefaultEventExecutorMetric metric;
+
+    // true while takeTask() parks the executor thread because the task queue is not a BlockingQueue.
+    private volatile boolean waitingForTask;
 
     private long lastExecutionTime;
 
@@ -128,25 +150,53 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      *                         the executor thread.
      */
     protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor, boolean addTaskWakesUp) {
+        this(parent, executor, addTaskWakesUp, DEFAULT_MAX_PENDING_EXECUTOR_TASKS, RejectedExecutionHandlers.reject());
+    }
+
+    /**
+     * @param parent            the {@link EventExecutorGroup} which is the parent of this instance and belongs to it.
+     * @param executor          the {@link Executor} which will be used for executing.
+     * @param addTaskWakesUp   {@code true} if and only if invocation of {@link #addTask(Runnable)} will wake up
+     *                         the executor thread.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor, boolean addTaskWakesUp,
+                                        int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
         super(parent);
 
         if (executor == null) {
             throw new NullPointerException("executor");
         }
+        if (rejectedHandler == null) {
+            throw new NullPointerException("rejectedHandler");
+        }
 
         this.addTaskWakesUp = addTaskWakesUp;
+        this.maxPendingTasks = Math.max(16, maxPendingTasks);
         this.executor = executor;
+        rejectedExecutionHandler = rejectedHandler;
         taskQueue = newTaskQueue();
+        metric = METRICS_ENABLED ? new DefaultEventExecutorMetric(this) : null;
     }
 
     /**
-     * Create a new {@link Queue} which will holds the tasks to execute. This default implementation will return a
-     * {@link LinkedBlockingQueue} but if your sub-class of {@link SingleThreadEventExecutor} will not do any blocking
-     * calls on the this {@link Queue} it may make sense to {@code @Override} this and return some more performant
-     * implementation that does not support blocking operations at all.
+     * Create a new {@link Queue} which will holds the tasks to execute. This default implementation calls
+     * {@link #newTaskQueue(int)} with the {@code maxPendingTasks} this instance was constructed with.  Sub-classes
+     * which need the limit should override {@link #newTaskQueue(int)} instead.
      */
     protected Queue<Runnable> newTaskQueue() {
-        return new LinkedBlockingQueue<Runnable>();
+        return newTaskQueue(maxPendingTasks);
+    }
+
+    /**
+     * Create a new {@link Queue} which will holds the tasks to execute. This default implementation will return a
+     * lock-free multi-producer single-consumer {@link Queue} which holds at most {@code maxPendingTasks} tasks.
+     * {@link #takeTask()} parks the executor thread while it is empty.  Sub-classes may return a
+     * {@link BlockingQueue} instead, in which case {@link #takeTask()} blocks on the queue itself.
+     */
+    protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+        return PlatformDependent.newMpscArrayQueue(maxPendingTasks);
     }
 
     /**
@@ -166,8 +216,8 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     /**
      * Take the next {@link Runnable} from the task queue and so will block if no task is currently present.
      * <p>
-     * Be aware that this method will throw an {@link UnsupportedOperationException} if the task queue, which was
-     * created via {@link #newTaskQueue()}, does not implement {@link BlockingQueue}.
+     * If the task queue, which was created via {@link #newTaskQueue(int)}, does not implement {@link BlockingQueue}
+     * the executor thread is parked until {@link #addTask(Runnable)} adds a new task.
      * </p>
      *
      * @return {@code null} if the executor thread has been interrupted or waken up.
@@ -175,7 +225,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     protected Runnable takeTask() {
         assert inEventLoop();
         if (!(taskQueue instanceof BlockingQueue)) {
-            throw new UnsupportedOperationException();
+            return parkAndTakeTask();
         }
 
         BlockingQueue<Runnable> taskQueue = (BlockingQueue<Runnable>) this.taskQueue;
@@ -219,6 +269,44 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         }
     }
 
+    private Runnable parkAndTakeTask() {
+        for (;;) {
+            Runnable task = taskQueue.poll();
+            if (task == null) {
+                ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+                long delayNanos = scheduledTask == null ? 0 : scheduledTask.delayNanos();
+                if (scheduledTask == null || delayNanos > 0) {
+                    // Check the queue again after announcing that we park, as a task may have been added before
+                    // the producer could see the flag.
+                    waitingForTask = true;
+                    task = taskQueue.poll();
+                    if (task == null) {
+                        if (scheduledTask == null) {
+                            LockSupport.park(this);
+                        } else {
+                            LockSupport.parkNanos(this, delayNanos);
+                        }
+                    }
+                    waitingForTask = false;
+                    if (task == null && Thread.interrupted()) {
+                        return null;
+                    }
+                }
+                if (task == null) {
+                    // Same as in takeTask(), fetch the scheduled tasks so they can not starve.
+                    fetchFromScheduledTaskQueue();
+                    task = taskQueue.poll();
+                }
+            }
+            if (task == WAKEUP_TASK) {
+                return null;
+            }
+            if (task != null) {
+                return task;
+            }
+        }
+    }
+
     private void fetchFromScheduledTaskQueue() {
         if (hasScheduledTasks()) {
             long nanoTime = AbstractScheduledEventExecutor.nanoTime();
@@ -227,7 +315,12 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
                 if (scheduledTask == null) {
                     break;
                 }
-                taskQueue.add(scheduledTask);
+                if (!taskQueue.offer(scheduledTask)) {
+                    // No space left in the task queue, add it back to the scheduled task queue so we pick it up
+                    // again.
+                    scheduledTaskQueue().add((ScheduledFutureTask<?>) scheduledTask);
+                    break;
+                }
             }
         }
     }
@@ -258,6 +351,14 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         return taskQueue.size();
     }
 
+    /**
+     * Returns the {@link EventExecutorMetric} of this executor, or {@code null} if metrics are disabled because the
+     * system property {@code io.netty.eventexecutor.metrics} is not {@code true}.
+     */
+    public EventExecutorMetric metric() {
+        return metric;
+    }
+
     /**
      * Add a task to the task queue, or throws a {@link RejectedExecutionException} if this instance was shutdown
      * before.
@@ -269,7 +370,31 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (isShutdown()) {
             reject();
         }
-        taskQueue.add(task);
+        if (metric != null) {
+            task = metric.newTimedTask(task);
+        }
+        if (!offerTask(task)) {
+            rejectedExecutionHandler.rejected(task, this);
+        }
+    }
+
+    /**
+     * Adds the task to the task queue and unparks the executor thread if it waits for a task in {@link #takeTask()}.
+     *
+     * @return {@code false} if the task queue is full
+     */
+    final boolean offerTask(Runnable task) {
+        if (!taskQueue.offer(task)) {
+            return false;
+        }
+        unparkIfWaiting();
+        return true;
+    }
+
+    private void unparkIfWaiting() {
+        if (waitingForTask) {
+            LockSupport.unpark(thread);
+        }
     }
 
     /**
@@ -279,9 +404,23 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (task == null) {
             throw new NullPointerException("task");
         }
+        if (metric != null) {
+            // The queue holds the timed wrapper of the task.
+            return removeTimedTask(taskQueue, task);
+        }
         return taskQueue.remove(task);
     }
 
+    static boolean removeTimedTask(Queue<Runnable> taskQueue, Runnable task) {
+        for (Runnable t: taskQueue) {
+            if (t instanceof DefaultEventExecutorMetric.TimedTask &&
+                    ((DefaultEventExecutorMetric.TimedTask) t).task == task) {
+                return taskQueue.remove(t);
+            }
+        }
+        return false;
+    }
+
     /**
      * Poll all tasks from the task queue and run them via {@link Runnable#run()} method.
      *
@@ -389,7 +528,8 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
 
     protected void wakeup(boolean inEventLoop) {
         if (!inEventLoop || STATE_UPDATER.get(this) == ST_SHUTTING_DOWN) {
-            taskQueue.add(WAKEUP_TASK);
+            // If the task queue is full the executor thread is busy anyway.
+            offerTask(WAKEUP_TASK);
         }
     }
 
@@ -659,7 +799,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         } else {
             startExecution();
             addTask(task);
-            if (isShutdown() && removeTask(task)) {
+            if (isShutdown() && removeTaskIfSupported(task)) {
                 reject();
             }
         }
@@ -669,6 +809,69 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         }
     }
 
+    /**
+     * Adds all tasks to the task queue and then wakes up the executor thread once, instead of once per task as
+     * {@link #execute(Runnable)} would.
+     */
+    @Override
+    public void executeBatch(Collection<? extends Runnable> tasks) {
+        if (tasks == null) {
+            throw new NullPointerException("tasks");
+        }
+
+        boolean inEventLoop = inEventLoop();
+        if (!inEventLoop) {
+            startExecution();
+        }
+
+        boolean wakeup = false;
+        try {
+            for (Runnable task: tasks) {
+                if (task == null) {
+                    throw new NullPointerException("task");
+                }
+                if (isShutdown()) {
+                    reject();
+                }
+                wakeup |= wakesUpForTask(task);
+                if (metric != null) {
+                    task = metric.newTimedTask(task);
+                }
+                if (!taskQueue.offer(task)) {
+                    // Let the executor thread drain the queue before the handler decides what to do.
+                    unparkIfWaiting();
+                    rejectedExecutionHandler.rejected(task, this);
+                }
+            }
+        } finally {
+            // Also wake up the executor if a task was rejected, so it runs the tasks that were added before.
+            unparkIfWaiting();
+            if (!addTaskWakesUp && wakeup) {
+                wakeup(inEventLoop);
+            }
+        }
+
+        if (!inEventLoop && isShutdown()) {
+            boolean reject = false;
+            for (Runnable task: tasks) {
+                reject |= removeTaskIfSupported(task);
+            }
+            if (reject) {
+                reject();
+            }
+        }
+    }
+
+    private boolean removeTaskIfSupported(Runnable task) {
+        try {
+            return removeTask(task);
+        } catch (UnsupportedOperationException e) {
+            // The task queue does not support removal, so the best we can do is to move on and hope the task is
+            // picked up before the executor terminates.  In the worst case it is logged on termination.
+            return false;
+        }
+    }
+
     @SuppressWarnings("unused")
     protected boolean wakesUpForTask(Runnable task) {
         return true;
@@ -739,7 +942,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         executor.execute(asRunnable);
     }
 
-    private void updateThread(Thread t) {
+    final void updateThread(Thread t) {
         THREAD_UPDATER.lazySet(this, t);
     }
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link SingleThreadEventExecutor} used by {@link WorkStealingEventExecutorGroup}.  All tasks are executed in the
+ * order they were submitted, but unlike {@link DefaultEventExecutor} this executor does not block a thread of the
+ * shared {@link Executor} while waiting for tasks.  It runs the queued tasks for at most one time slice, and then
+ * either resubmits itself if more tasks are pending or returns the thread to the pool until the next
+ * {@link #execute(Runnable)} call.
+ */
+final class WorkStealingEventExecutor extends SingleThreadEventExecutor {
+
+    private static final long TIME_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final AtomicIntegerFieldUpdater<WorkStealingEventExecutor> IDLE_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<WorkStealingEventExecutor> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(WorkStealingEventExecutor.class, "idle");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(WorkStealingEventExecutor.class, "idle");
+        }
+        IDLE_UPDATER = updater;
+    }
+
+    private final Runnable wakeupTask = new Runnable() {
+        @Override
+        public void run() {
+            wakeup(false);
+        }
+    };
+
+    // 1 while no thread runs or is about to run this executor.
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile int idle;
+
+    // Only accessed from run(), which never runs concurrently with itself.
+    private ScheduledFuture<?> scheduledWakeup;
+    private long scheduledWakeupDeadline;
+
+    WorkStealingEventExecutor(EventExecutorGroup parent, Executor executor,
+                              int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        super(parent, executor, false, maxPendingTasks, rejectedHandler);
+    }
+
+    @Override
+    protected void run() {
+        runAllTasks(TIME_SLICE_NANOS);
+
+        if (isShuttingDown()) {
+            if (confirmShutdown()) {
+                cleanupAndTerminate(true);
+            } else {
+                scheduleExecution();
+            }
+            return;
+        }
+
+        if (hasTasks() || hasScheduledTasks()) {
+            // Give other executors of the pool a chance to run before we continue.
+            scheduleExecution();
+            return;
+        }
+
+        long deadline = nextScheduledTaskDeadline();
+
+        // Leave the event loop before announcing that we are idle, so that inEventLoop() does not return true for
+        // the thread that picks up the next executor of the pool.
+        updateThread(null);
+        IDLE_UPDATER.set(this, 1);
+
+        // Check again as a task may have been added or a shutdown requested before the producer could see the flag.
+        if (pendingTasks() != 0 || isShuttingDown() || deadline != -1 && deadline <= nanoTime()) {
+            wakeup(false);
+        }
+    }
+
+    /**
+     * Returns the deadline of the closest scheduled task, or {@code -1} if there is none.  As no thread is parked
+     * while this executor is idle a wakeup is scheduled on the {@link GlobalEventExecutor} for that deadline.
+     */
+    private long nextScheduledTaskDeadline() {
+        ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+        if (scheduledTask == null) {
+            return -1;
+        }
+
+        long deadline = scheduledTask.deadlineNanos();
+        if (scheduledWakeup == null || scheduledWakeup.isDone() || deadline < scheduledWakeupDeadline) {
+            if (scheduledWakeup != null) {
+                scheduledWakeup.cancel(false);
+            }
+            scheduledWakeup = GlobalEventExecutor.INSTANCE.schedule(
+                    wakeupTask, scheduledTask.delayNanos(), TimeUnit.NANOSECONDS);
+            scheduledWakeupDeadline = deadline;
+        }
+        return deadline;
+    }
+
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        // If we are in the event loop run() will check the task queue again before the executor goes idle.
+        if (!inEventLoop && IDLE_UPDATER.compareAndSet(this, 1, 0)) {
+            scheduleExecution();
+        }
+    }
+
+    @Override
+    protected void cleanup() {
+        if (scheduledWakeup != null) {
+            scheduledWakeup.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.chmv8.ForkJoinPool;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link MultithreadEventExecutorGroup} that multiplexes many {@link EventExecutor}s onto a smaller, work-stealing
+ * {@link ForkJoinPool}.  Each {@link EventExecutor} still runs its tasks one after another in submission order, so a
+ * {@code ChannelHandler} that is added to a pipeline with this group sees all events of its {@code Channel} in order,
+ * but an {@link EventExecutor} only occupies a thread while it has tasks to run.  This makes the group a good fit for
+ * CPU-bound business logic that is offloaded from the I/O threads, where a {@link DefaultEventExecutorGroup} would
+ * leave threads idle behind busy {@link EventExecutor}s.
+ * <p>
+ * The threads of the pool are always created by {@link DefaultExecutorServiceFactory}, so {@link FastThreadLocal}s
+ * (and with them the {@code Recycler} and the pooled buffer caches) take the fast path on them.
+ */
+public class WorkStealingEventExecutorGroup extends MultithreadEventExecutorGroup {
+
+    /**
+     * Create a new instance.
+     *
+     * @param nEventExecutors   the number of {@link EventExecutor}s that this group will use.  This is usually a
+     *                          multiple of {@code nThreads}, so that busy {@link EventExecutor}s can be spread
+     *                          over all threads.
+     * @param nThreads          the number of threads of the {@link ForkJoinPool} that runs the
+     *                          {@link EventExecutor}s.
+     */
+    public WorkStealingEventExecutorGroup(int nEventExecutors, int nThreads) {
+        this(nEventExecutors, nThreads, SingleThreadEventExecutor.DEFAULT_MAX_PENDING_EXECUTOR_TASKS,
+                RejectedExecutionHandlers.reject());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nEventExecutors   the number of {@link EventExecutor}s that this group will use.  This is usually a
+     *                          multiple of {@code nThreads}, so that busy {@link EventExecutor}s can be spread
+     *                          over all threads.
+     * @param nThreads          the number of threads of the {@link ForkJoinPool} that runs the
+     *                          {@link EventExecutor}s.
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    public WorkStealingEventExecutorGroup(int nEventExecutors, int nThreads,
+                                          int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        super(nEventExecutors, new ForkJoinPoolFactory(nThreads), maxPendingTasks, rejectedHandler);
+    }
+
+    @Override
+    protected EventExecutor newChild(Executor executor, Object... args) throws Exception {
+        return new WorkStealingEventExecutor(this, executor, (Integer) args[0], (RejectedExecutionHandler) args[1]);
+    }
+
+    /**
+     * Creates the {@link ForkJoinPool} with the requested number of threads instead of one thread per
+     * {@link EventExecutor}.
+     */
+    private static final class ForkJoinPoolFactory implements ExecutorServiceFactory {
+
+        private final int nThreads;
+
+        ForkJoinPoolFactory(int nThreads) {
+            if (nThreads <= 0) {
+                throw new IllegalArgumentException("nThreads: " + nThreads + " (expected: > 0)");
+            }
+            this.nThreads = nThreads;
+        }
+
+        @Override
+        public ExecutorService newExecutorService(int nEventExecutors) {
+            return new DefaultExecutorServiceFactory(WorkStealingEventExecutorGroup.class).newExecutorService(nThreads);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A lock-free multi-producer single-consumer {@link Queue} which stores its elements in arrays instead of allocating
+ * a node per element.
+ * <p>
+ * The elements are stored in a linked list of fixed size chunks.  An unbounded queue lets producers claim a slot
+ * with a single atomic increment, so {@link #offer(Object)} never has to retry while the current chunk has free
+ * slots.  A bounded queue claims slots with a compare-and-set instead, so that it never holds more than its
+ * {@code maxCapacity} elements.  Chunks are not reused, so only one array is allocated per chunk of elements.
+ * <p>
+ * Multiple producer threads can call {@link #offer(Object)}, {@link #add(Object)},
+ * {@link #addAll(java.util.Collection)}, {@link #remove(Object)}, {@link #size()}, {@link #isEmpty()} and
+ * {@link #iterator()} at the same time.  All other operations may only be called by the single consumer thread.
+ * The iterator is weakly consistent: it may miss elements which are added or consumed while it is used.
+ * {@link #remove(Object)} replaces the element with a marker which the consumer skips, so the slot is only freed once
+ * the consumer reaches it.
+ * <p>
+ * The chunked layout follows the fetch-and-add array queues described by Yang and Mellor-Crummey and by Ramalhete
+ * and Correia, the padding of the producer and consumer fields follows the queues of the
+ * <a href="https://github.com/JCTools/JCTools">JCTools project</a>.
+ */
+final class MpscArrayQueue<E> extends MpscArrayQueueTailRef<E> {
+
+    static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    // Stored into the slot of an element which was removed via remove(Object).
+    private static final Object REMOVED = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<MpscArrayQueue> REMOVED_ELEMENTS_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicIntegerFieldUpdater<MpscArrayQueue> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(MpscArrayQueue.class, "removedElements");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(MpscArrayQueue.class, "removedElements");
+        }
+        REMOVED_ELEMENTS_UPDATER = updater;
+    }
+
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56, p57;
+
+    private final int chunkSize;
+    private final int maxCapacity;
+
+    // The number of removed elements which the consumer did not skip yet.
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile int removedElements;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxCapacity   the maximum number of elements or {@link Integer#MAX_VALUE} for an unbounded queue.
+     */
+    MpscArrayQueue(int maxCapacity) {
+        this(maxCapacity, DEFAULT_CHUNK_SIZE);
+    }
+
+    MpscArrayQueue(int maxCapacity, int chunkSize) {
+        if (maxCapacity <= 0) {
+            throw new IllegalArgumentException("maxCapacity: " + maxCapacity + " (expected: > 0)");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize: " + chunkSize + " (expected: > 0)");
+        }
+        this.maxCapacity = maxCapacity;
+        this.chunkSize = Math.min(chunkSize, maxCapacity);
+
+        Chunk chunk = new Chunk(0, this.chunkSize);
+        headChunk = chunk;
+        setTailRef(chunk);
+    }
+
+    @Override
+    public boolean offer(E value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        return maxCapacity == Integer.MAX_VALUE ? offerUnbounded(value) : offerBounded(value);
+    }
+
+    private boolean offerUnbounded(E value) {
+        for (;;) {
+            Chunk tail = tailRef();
+            int index = tail.getAndIncrementProducerIndex();
+            if (index < chunkSize) {
+                tail.lazySet(index, value);
+                return true;
+            }
+            if (appendChunk(tail, value)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean offerBounded(E value) {
+        for (;;) {
+            Chunk tail = tailRef();
+            int index = tail.producerIndex();
+            // The consumer index may be stale, which can only make us reject an element too early, never accept
+            // one too many.
+            if (tail.baseIndex + index - consumerIndex() >= maxCapacity) {
+                return false;
+            }
+            if (index < chunkSize) {
+                if (tail.casProducerIndex(index, index + 1)) {
+                    tail.lazySet(index, value);
+                    return true;
+                }
+            } else if (appendChunk(tail, value)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Called once all slots of {@code tail} are claimed.  Links a new {@link Chunk} which contains {@code value}, or
+     * helps to move the tail forward if another producer linked one first.
+     *
+     * @return {@code true} if {@code value} was added
+     */
+    private boolean appendChunk(Chunk tail, E value) {
+        Chunk next = tail.next();
+        if (next == null) {
+            Chunk newTail = new Chunk(tail.baseIndex + chunkSize, chunkSize, value);
+            if (tail.casNext(null, newTail)) {
+                casTailRef(tail, newTail);
+                return true;
+            }
+            next = tail.next();
+        }
+        casTailRef(tail, next);
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        for (;;) {
+            Chunk head = headChunk();
+            if (head == null) {
+                return null;
+            }
+
+            final int index = headIndex;
+            Object value = head.get(index);
+            if (value == null) {
+                value = awaitClaimed(head, index);
+                if (value == null) {
+                    return null;
+                }
+            }
+
+            // Compete with remove(Object) for the element.  If we lose, the slot contains REMOVED now.
+            if (value != REMOVED && head.cas(index, value, null)) {
+                advance(head, index);
+                return (E) value;
+            }
+            skipRemoved(head, index);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        for (;;) {
+            Chunk head = headChunk();
+            if (head == null) {
+                return null;
+            }
+
+            final int index = headIndex;
+            Object value = head.get(index);
+            if (value == null) {
+                value = awaitClaimed(head, index);
+            }
+            if (value != REMOVED) {
+                return (E) value;
+            }
+            skipRemoved(head, index);
+        }
+    }
+
+    private void skipRemoved(Chunk head, int index) {
+        head.lazySet(index, null);
+        REMOVED_ELEMENTS_UPDATER.decrementAndGet(this);
+        advance(head, index);
+    }
+
+    private void advance(Chunk head, int index) {
+        headIndex = index + 1;
+        lazySetConsumerIndex(head.baseIndex + index + 1);
+    }
+
+    /**
+     * Returns the {@link Chunk} which contains the next element, or {@code null} if the current one was consumed
+     * completely and no producer linked the next one yet.
+     */
+    private Chunk headChunk() {
+        Chunk head = headChunk;
+        if (headIndex == chunkSize) {
+            // The old chunk must stay linked as a producer may still look at it before moving the tail forward.
+            Chunk next = head.next();
+            if (next == null) {
+                return null;
+            }
+            headChunk = head = next;
+            headIndex = 0;
+        }
+        return head;
+    }
+
+    /**
+     * Called if the slot at {@code index} is still empty.  Returns {@code null} if no producer claimed the slot yet,
+     * otherwise spins until the producer that claimed it stored its element.
+     */
+    private static Object awaitClaimed(Chunk head, int index) {
+        if (index >= head.producerIndex()) {
+            return null;
+        }
+        Object value;
+        do {
+            value = head.get(index);
+        } while (value == null);
+        return value;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer index first so that the result can never be negative.
+        long consumerIndex = consumerIndex();
+        Chunk tail = tailRef();
+        for (;;) {
+            Chunk next = tail.next();
+            if (next == null) {
+                break;
+            }
+            tail = next;
+        }
+        long size = tail.baseIndex + Math.min(tail.producerIndex(), chunkSize) - consumerIndex - removedElements;
+        // The removed elements may be counted before the consumer index moves past them.
+        return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        // Consumed slots are set to null, so it is fine to scan the head chunk from the start.
+        Chunk chunk = headChunk;
+        do {
+            int end = Math.min(chunk.producerIndex(), chunkSize);
+            for (int i = 0; i < end; i ++) {
+                Object value = chunk.get(i);
+                if (value != null && value != REMOVED && o.equals(value) && chunk.cas(i, value, REMOVED)) {
+                    REMOVED_ELEMENTS_UPDATER.incrementAndGet(this);
+                    return true;
+                }
+            }
+            chunk = chunk.next();
+        } while (chunk != null);
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            // Scan like remove(Object) does, so that the iterator can be used by producers as well.
+            private Chunk chunk = headChunk;
+            private int index;
+            private Object next = nextElement();
+
+            private Object nextElement() {
+                for (;;) {
+                    if (index == Math.min(chunk.producerIndex(), chunkSize)) {
+                        Chunk nextChunk = chunk.next();
+                        if (nextChunk == null) {
+                            return null;
+                        }
+                        chunk = nextChunk;
+                        index = 0;
+                        continue;
+                    }
+                    Object value = chunk.get(index ++);
+                    if (value != null && value != REMOVED) {
+                        return value;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                Object value = next;
+                if (value == null) {
+                    throw new NoSuchElementException();
+                }
+                next = nextElement();
+                return (E) value;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Holds the fields of {@link MpscArrayQueue} which are only written by the consumer.  The padding in front of them
+ * keeps them out of the cache line of the object header and of whatever was allocated before the queue.
+ */
+abstract class MpscArrayQueueHeadRef<E> extends AbstractQueue<E> {
+
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscArrayQueueHeadRef> CONSUMER_INDEX_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicLongFieldUpdater<MpscArrayQueueHeadRef> updater =
+                PlatformDependent.newAtomicLongFieldUpdater(MpscArrayQueueHeadRef.class, "consumerIndex");
+        if (updater == null) {
+            updater = AtomicLongFieldUpdater.newUpdater(MpscArrayQueueHeadRef.class, "consumerIndex");
+        }
+        CONSUMER_INDEX_UPDATER = updater;
+    }
+
+    // The number of elements the consumer has taken out of the queue so far.
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile long consumerIndex;
+
+    // Only written by the consumer, volatile so that remove(Object) can start its scan from it on any thread.
+    volatile Chunk headChunk;
+    // Only accessed by the consumer.
+    int headIndex;
+
+    protected final long consumerIndex() {
+        return consumerIndex;
+    }
+
+    protected final void lazySetConsumerIndex(long consumerIndex) {
+        CONSUMER_INDEX_UPDATER.lazySet(this, consumerIndex);
+    }
+
+    /**
+     * A fixed size part of the queue.  Producers claim a slot by incrementing {@link #producerIndex()} and then store
+     * their element into it.  Once all slots of a {@link Chunk} are claimed the next producer links a new one.
+     */
+    static final class Chunk {
+
+        private static final AtomicIntegerFieldUpdater<Chunk> PRODUCER_INDEX_UPDATER;
+        private static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT_UPDATER;
+
+        static {
+            AtomicIntegerFieldUpdater<Chunk> indexUpdater =
+                    PlatformDependent.newAtomicIntegerFieldUpdater(Chunk.class, "producerIndex");
+            if (indexUpdater == null) {
+                indexUpdater = AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "producerIndex");
+            }
+            PRODUCER_INDEX_UPDATER = indexUpdater;
+
+            AtomicReferenceFieldUpdater<Chunk, Chunk> nextUpdater =
+                    PlatformDependent.newAtomicReferenceFieldUpdater(Chunk.class, "next");
+            if (nextUpdater == null) {
+                nextUpdater = AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+            }
+            NEXT_UPDATER = nextUpdater;
+        }
+
+        // The index of the first slot relative to the start of the queue.
+        final long baseIndex;
+        private final AtomicReferenceArray<Object> elements;
+
+        // The number of claimed slots.  May be larger than the number of slots if producers raced for the last one.
+        @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+        private volatile int producerIndex;
+        @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+        private volatile Chunk next;
+
+        Chunk(long baseIndex, int size) {
+            this.baseIndex = baseIndex;
+            elements = new AtomicReferenceArray<Object>(size);
+        }
+
+        Chunk(long baseIndex, int size, Object first) {
+            this(baseIndex, size);
+            elements.lazySet(0, first);
+            producerIndex = 1;
+        }
+
+        int producerIndex() {
+            return producerIndex;
+        }
+
+        int getAndIncrementProducerIndex() {
+            return PRODUCER_INDEX_UPDATER.getAndIncrement(this);
+        }
+
+        boolean casProducerIndex(int expect, int update) {
+            return PRODUCER_INDEX_UPDATER.compareAndSet(this, expect, update);
+        }
+
+        Chunk next() {
+            return next;
+        }
+
+        boolean casNext(Chunk expect, Chunk update) {
+            return NEXT_UPDATER.compareAndSet(this, expect, update);
+        }
+
+        Object get(int index) {
+            return elements.get(index);
+        }
+
+        void lazySet(int index, Object value) {
+            elements.lazySet(index, value);
+        }
+
+        boolean cas(int index, Object expect, Object update) {
+            return elements.compareAndSet(index, expect, update);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.netty.util.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Holds the field of {@link MpscArrayQueue} which is written by the producers, padded away from the consumer fields.
+ */
+abstract class MpscArrayQueueTailRef<E> extends MpscArrayQueueHeadRef<E> {
+
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<MpscArrayQueueTailRef, Chunk> UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicReferenceFieldUpdater<MpscArrayQueueTailRef, Chunk> updater;
+        updater = PlatformDependent.newAtomicReferenceFieldUpdater(MpscArrayQueueTailRef.class, "tailRef");
+        if (updater == null) {
+            updater = AtomicReferenceFieldUpdater.newUpdater(MpscArrayQueueTailRef.class, Chunk.class, "tailRef");
+        }
+        UPDATER = updater;
+    }
+
+    @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+    private volatile Chunk tailRef;
+
+    protected final Chunk tailRef() {
+        return tailRef;
+    }
+
+    protected final void setTailRef(Chunk tailRef) {
+        this.tailRef = tailRef;
+    }
+
+    protected final boolean casTailRef(Chunk expect, Chunk update) {
+        return UPDATER.compareAndSet(this, expect, update);
+    }
+}
@@ -146,6 +146,14 @@ public final class PlatformDependent {
         return HAS_UNSAFE;
     }
 
+    /**
+     * Return {@code true} if {@code sun.misc.Unsafe} can be used and the platform supports unaligned access, so
+     * multi-byte values can be read from any address in a single operation.
+     */
+    public static boolean isUnaligned() {
+        return HAS_UNSAFE && PlatformDependent0.isUnaligned();
+    }
+
     /**
      * Returns {@code true} if the platform has reliable low-level direct buffer access API and a user specified
      * {@code -Dio.netty.preferDirect} option.
@@ -318,6 +326,22 @@ public final class PlatformDependent {
         return PlatformDependent0.getLong(address);
     }
 
+    /**
+     * Read an {@code int} in native byte order out of the given array. The caller is responsible for making sure
+     * that {@code index + 4} does not exceed the length of the array.
+     */
+    public static int getInt(byte[] data, int index) {
+        return PlatformDependent0.getInt(data, ARRAY_BASE_OFFSET + index);
+    }
+
+    /**
+     * Read a {@code long} in native byte order out of the given array. The caller is responsible for making sure
+     * that {@code index + 8} does not exceed the length of the array.
+     */
+    public static long getLong(byte[] data, int index) {
+        return PlatformDependent0.getLong(data, ARRAY_BASE_OFFSET + index);
+    }
+
     public static void putOrderedObject(Object object, long address, Object value) {
         PlatformDependent0.putOrderedObject(object, address, value);
     }
@@ -338,6 +362,22 @@ public final class PlatformDependent {
         PlatformDependent0.putLong(address, value);
     }
 
+    /**
+     * Write an {@code int} in native byte order into the given array. The caller is responsible for making sure
+     * that {@code index + 4} does not exceed the length of the array.
+     */
+    public static void putInt(byte[] data, int index, int value) {
+        PlatformDependent0.putInt(data, ARRAY_BASE_OFFSET + index, value);
+    }
+
+    /**
+     * Write a {@code long} in native byte order into the given array. The caller is responsible for making sure
+     * that {@code index + 8} does not exceed the length of the array.
+     */
+    public static void putLong(byte[] data, int index, long value) {
+        PlatformDependent0.putLong(data, ARRAY_BASE_OFFSET + index, value);
+    }
+
     public static void copyMemory(long srcAddr, long dstAddr, long length) {
         PlatformDependent0.copyMemory(srcAddr, dstAddr, length);
     }
@@ -409,6 +449,24 @@ public final class PlatformDependent {
         return new MpscLinkedQueue<T>();
     }
 
+    /**
+     * Create a new unbounded {@link Queue} which is safe to use for multiple producers (different threads) and a
+     * single consumer (one thread!).  Unlike {@link #newMpscQueue()} it stores its elements in arrays and so does not
+     * allocate a node per element.
+     */
+    public static <T> Queue<T> newMpscArrayQueue() {
+        return newMpscArrayQueue(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new {@link Queue} which is safe to use for multiple producers (different threads) and a single
+     * consumer (one thread!) and holds at most {@code maxCapacity} elements.  {@link Queue#offer(Object)} returns
+     * {@code false} once the queue is full.  Use {@link Integer#MAX_VALUE} for an unbounded queue.
+     */
+    public static <T> Queue<T> newMpscArrayQueue(int maxCapacity) {
+        return new MpscArrayQueue<T>(maxCapacity);
+    }
+
     /**
      * Return the {@link ClassLoader} for the given {@link Class}.
      */
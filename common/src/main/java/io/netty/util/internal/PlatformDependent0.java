@@ -137,6 +137,10 @@ final class PlatformDependent0 {
         return UNSAFE != null;
     }
 
+    static boolean isUnaligned() {
+        return UNALIGNED;
+    }
+
     static void throwException(Throwable t) {
         UNSAFE.throwException(t);
     }
@@ -167,7 +171,7 @@ final class PlatformDependent0 {
         return UNSAFE.getInt(object, fieldOffset);
     }
 
-    private static long getLong(Object object, long fieldOffset) {
+    static long getLong(Object object, long fieldOffset) {
         return UNSAFE.getLong(object, fieldOffset);
     }
 
@@ -233,6 +237,14 @@ final class PlatformDependent0 {
         UNSAFE.putOrderedObject(object, address, value);
     }
 
+    static void putInt(Object object, long fieldOffset, int value) {
+        UNSAFE.putInt(object, fieldOffset, value);
+    }
+
+    static void putLong(Object object, long fieldOffset, long value) {
+        UNSAFE.putLong(object, fieldOffset, value);
+    }
+
     static void putByte(long address, byte value) {
         UNSAFE.putByte(address, value);
     }
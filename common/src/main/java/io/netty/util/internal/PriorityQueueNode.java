@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+/**
+ * An element of a {@link DefaultPriorityQueue} which remembers its own position in the queue, so it can be removed
+ * without searching for it first.  An instance can only be contained in one queue at a time.
+ */
+public interface PriorityQueueNode {
+    /**
+     * The value returned by {@link #priorityQueueIndex()} if the node is not contained in a queue.
+     */
+    int INDEX_NOT_IN_QUEUE = -1;
+
+    /**
+     * Returns the last value set by {@link #priorityQueueIndex(int)}, which must be {@link #INDEX_NOT_IN_QUEUE}
+     * initially.
+     */
+    int priorityQueueIndex();
+
+    /**
+     * Called by the {@link DefaultPriorityQueue} whenever the position of this node changes.  Must not be called
+     * by anyone else.
+     */
+    void priorityQueueIndex(int i);
+}
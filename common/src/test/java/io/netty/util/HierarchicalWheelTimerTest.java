@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HierarchicalWheelTimerTest {
+
+    private static final TimerTask NOOP = new TimerTask() {
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            // NOOP
+        }
+    };
+
+    private EventExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new DefaultEventExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    public void testScheduleTimeoutShouldNotRunBeforeDelay() throws InterruptedException {
+        testScheduleTimeoutShouldNotRunBeforeDelay(new HierarchicalWheelTimer());
+        testScheduleTimeoutShouldNotRunBeforeDelay(new HierarchicalWheelTimer(executor));
+    }
+
+    private static void testScheduleTimeoutShouldNotRunBeforeDelay(Timer timer) throws InterruptedException {
+        final CountDownLatch barrier = new CountDownLatch(1);
+        final Timeout timeout = timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                fail("This should not have run");
+                barrier.countDown();
+            }
+        }, 10, TimeUnit.SECONDS);
+        assertFalse(barrier.await(2, TimeUnit.SECONDS));
+        assertFalse("timer should not expire", timeout.isExpired());
+        timer.stop();
+    }
+
+    @Test
+    public void testScheduleTimeoutShouldRunAfterDelay() throws InterruptedException {
+        testScheduleTimeoutShouldRunAfterDelay(new HierarchicalWheelTimer());
+        testScheduleTimeoutShouldRunAfterDelay(new HierarchicalWheelTimer(executor));
+    }
+
+    private static void testScheduleTimeoutShouldRunAfterDelay(Timer timer) throws InterruptedException {
+        final CountDownLatch barrier = new CountDownLatch(1);
+        final Timeout timeout = timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                barrier.countDown();
+            }
+        }, 1, TimeUnit.SECONDS);
+        assertTrue(barrier.await(2, TimeUnit.SECONDS));
+        assertTrue("timer should expire", timeout.isExpired());
+        timer.stop();
+    }
+
+    @Test
+    public void testStopTimer() throws InterruptedException {
+        testStopTimer(new HierarchicalWheelTimer(), new HierarchicalWheelTimer());
+        testStopTimer(new HierarchicalWheelTimer(executor), new HierarchicalWheelTimer(executor));
+    }
+
+    private static void testStopTimer(Timer timerProcessed, Timer timerUnprocessed) throws InterruptedException {
+        for (int i = 0; i < 3; i ++) {
+            timerProcessed.newTimeout(NOOP, 1, TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(500L);
+        assertEquals("Number of unprocessed timeouts should be 0", 0, timerProcessed.stop().size());
+
+        for (int i = 0; i < 5; i ++) {
+            timerUnprocessed.newTimeout(NOOP, 5, TimeUnit.SECONDS);
+        }
+        // Timeouts far beyond the first wheel must be returned as well.
+        timerUnprocessed.newTimeout(NOOP, 7, TimeUnit.DAYS);
+        timerUnprocessed.newTimeout(NOOP, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        Thread.sleep(500L);
+        assertEquals("Number of unprocessed timeouts should be 7", 7, timerUnprocessed.stop().size());
+    }
+
+    @Test
+    public void testStopExecutorTimerWithTimeoutsNotAddedToTheWheelsYet() throws Exception {
+        final HierarchicalWheelTimer timer = new HierarchicalWheelTimer(executor);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Future<Set<Timeout>> future = executor.submit(new Callable<Set<Timeout>>() {
+            @Override
+            public Set<Timeout> call() throws Exception {
+                latch.await();
+                return timer.stop();
+            }
+        });
+
+        // The timeouts are handed over to the executor, which only runs them after stop().
+        for (int i = 0; i < 5; i ++) {
+            timer.newTimeout(NOOP, 5, TimeUnit.SECONDS);
+        }
+        latch.countDown();
+        Set<Timeout> unprocessed = future.sync().getNow();
+        assertEquals(5, unprocessed.size());
+
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        }).sync();
+        assertEquals(5, timer.pendingTimeouts());
+        for (Timeout timeout: unprocessed) {
+            assertTrue(timeout.cancel());
+        }
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTimerShouldThrowExceptionAfterShutdownForNewTimeouts() {
+        final Timer timer = new HierarchicalWheelTimer();
+        timer.stop();
+        timer.newTimeout(NOOP, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExecutorTimerShouldThrowExceptionAfterShutdownForNewTimeouts() {
+        final Timer timer = new HierarchicalWheelTimer(executor);
+        timer.stop();
+        timer.newTimeout(NOOP, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testTimeoutsCascadeFromHigherWheels() throws InterruptedException {
+        // With 4 ticks per wheel a 1 second timeout is spread over several wheels before it expires.
+        final HierarchicalWheelTimer timer = new HierarchicalWheelTimer(
+                Executors.defaultThreadFactory(), 10, TimeUnit.MILLISECONDS, 4);
+        final AtomicInteger counter = new AtomicInteger();
+
+        timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(final Timeout timeout) throws Exception {
+                counter.incrementAndGet();
+                timer.newTimeout(this, 1, TimeUnit.SECONDS);
+            }
+        }, 1, TimeUnit.SECONDS);
+        Thread.sleep(3500);
+        assertEquals(3, counter.get());
+        timer.stop();
+    }
+
+    @Test
+    public void testExecutionOnTime() throws InterruptedException {
+        testExecutionOnTime(new HierarchicalWheelTimer(
+                Executors.defaultThreadFactory(), 20, TimeUnit.MILLISECONDS, 8));
+        testExecutionOnTime(new HierarchicalWheelTimer(executor, 20, TimeUnit.MILLISECONDS, 8));
+    }
+
+    private static void testExecutionOnTime(Timer timer) throws InterruptedException {
+        int tickDuration = 20;
+        int scheduledTasks = 10000;
+        final BlockingQueue<Long> queue = new LinkedBlockingQueue<Long>();
+
+        for (int i = 0; i < scheduledTasks; i++) {
+            final long start = System.nanoTime();
+            final long timeout = 100 + i % 1000;
+            timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(final Timeout t) throws Exception {
+                    long delay = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    queue.add(delay - timeout);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+
+        for (int i = 0; i < scheduledTasks; i++) {
+            long late = queue.take();
+            assertTrue("timeout expired " + late + " ms late", late >= 0 && late < 4 * tickDuration + 100);
+        }
+
+        timer.stop();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        testCancel(new HierarchicalWheelTimer());
+        testCancel(new HierarchicalWheelTimer(executor));
+    }
+
+    private void testCancel(final HierarchicalWheelTimer timer) throws Exception {
+        final int numTimeouts = 1000;
+        final CountDownLatch latch = new CountDownLatch(numTimeouts / 2);
+        final Timeout[] timeouts = new Timeout[numTimeouts];
+        for (int i = 0; i < numTimeouts; i ++) {
+            final boolean cancel = (i & 1) == 1;
+            timeouts[i] = timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) throws Exception {
+                    if (cancel) {
+                        fail("cancelled timeout should not run");
+                    }
+                    latch.countDown();
+                }
+            }, 500, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(numTimeouts, timer.pendingTimeouts());
+
+        // Cancel half of them from a foreign thread and the event loop.
+        for (int i = 1; i < numTimeouts / 2; i += 2) {
+            assertTrue(timeouts[i].cancel());
+            assertTrue(timeouts[i].isCancelled());
+            assertFalse(timeouts[i].cancel());
+        }
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (int i = numTimeouts / 2 + 1; i < numTimeouts; i += 2) {
+                    assertTrue(timeouts[i].cancel());
+                }
+                return null;
+            }
+        }).sync();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(0, timer.pendingTimeouts());
+        assertEquals(numTimeouts / 2, timer.expiredTimeouts());
+        assertEquals(numTimeouts / 2, timer.cancelledTimeouts());
+        assertTrue(timer.stop().isEmpty());
+    }
+}
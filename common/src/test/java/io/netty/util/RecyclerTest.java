@@ -15,9 +15,15 @@
 */
 package io.netty.util;
 
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -166,6 +172,135 @@ public class RecyclerTest {
         assertThat(recycler.threadLocalSize(), is(0));
     }
 
+    @Test
+    public void testRatioWhenRecycledAtDifferentThread() throws Exception {
+        final Recycler<HandledObject> recycler = newRecycler(256, 2, 4, 16);
+        final HandledObject[] array = new HandledObject[8];
+        for (int i = 0; i < array.length; i ++) {
+            array[i] = recycler.get();
+        }
+        recycleAtDifferentThread(recycler, array);
+
+        // Only the first and the fifth object were recycled.
+        assertEquals(2, countPooled(recycler, array));
+    }
+
+    @Test
+    public void testMaxSharedCapacityWhenRecycledAtDifferentThread() throws Exception {
+        final Recycler<HandledObject> recycler = newRecycler(64, 2, 1, 16);
+        final HandledObject[] array = new HandledObject[100];
+        for (int i = 0; i < array.length; i ++) {
+            array[i] = recycler.get();
+        }
+        recycleAtDifferentThread(recycler, array);
+
+        // Other threads may only hold back 64 / 2 objects.
+        assertEquals(32, countPooled(recycler, array));
+
+        // The capacity is given back once the objects were taken, except for the last link of the first queue
+        // which stays reserved until the queue is unlinked.
+        recycleAtDifferentThread(recycler, array);
+        assertEquals(16, countPooled(recycler, array));
+    }
+
+    @Test
+    public void testMaxDelayedQueuesPerThread() throws Exception {
+        final Recycler<HandledObject> recycler = newRecycler(256, 2, 1, 0);
+        final HandledObject o = recycler.get();
+        recycleAtDifferentThread(recycler, o);
+        assertNotSame(o, recycler.get());
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        final Recycler<HandledObject> recycler = newRecycler(1, 2, 1, 16);
+        Thread thread = new FastThreadLocalThread() {
+            @Override
+            public void run() {
+                HandledObject o = recycler.get();
+                for (int i = 0; i < 100; i ++) {
+                    recycler.recycle(o, o.handle);
+                    o = recycler.get();
+                }
+                HandledObject o2 = recycler.get();
+                recycler.recycle(o, o.handle);
+                recycler.recycle(o2, o2.handle);
+                FastThreadLocal.removeAll();
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertEquals(100, recycler.hits());
+        assertEquals(2, recycler.misses());
+        // The pool holds only one object.
+        assertEquals(1, recycler.dropped());
+    }
+
+    @Test
+    public void testStatsWhenDroppedAtDifferentThread() throws Exception {
+        // The other thread may not recycle for any stack, so it drops all objects.
+        final Recycler<HandledObject> recycler = newRecycler(256, 2, 1, 0);
+        final HandledObject[] array = new HandledObject[100];
+        for (int i = 0; i < array.length; i ++) {
+            array[i] = recycler.get();
+        }
+        final AtomicLong droppedBeforeRemoval = new AtomicLong();
+        Thread thread = new FastThreadLocalThread() {
+            @Override
+            public void run() {
+                for (HandledObject o: array) {
+                    recycler.recycle(o, o.handle);
+                }
+                droppedBeforeRemoval.set(recycler.dropped());
+                FastThreadLocal.removeAll();
+            }
+        };
+        thread.start();
+        thread.join();
+
+        // The drops are added to the statistics in batches.
+        assertEquals(64, droppedBeforeRemoval.get());
+        assertEquals(100, recycler.dropped());
+    }
+
+    private static Recycler<HandledObject> newRecycler(
+            int maxCapacity, int maxSharedCapacityFactor, int ratio, int maxDelayedQueuesPerThread) {
+        return new Recycler<HandledObject>(maxCapacity, maxSharedCapacityFactor, ratio, maxDelayedQueuesPerThread) {
+            @Override
+            protected HandledObject newObject(Recycler.Handle<HandledObject> handle) {
+                return new HandledObject(handle);
+            }
+        };
+    }
+
+    private static void recycleAtDifferentThread(
+            final Recycler<HandledObject> recycler, final HandledObject... objects) throws Exception {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                for (HandledObject o: objects) {
+                    recycler.recycle(o, o.handle);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+    }
+
+    private static int countPooled(Recycler<HandledObject> recycler, HandledObject... objects) {
+        Set<HandledObject> expected = new HashSet<HandledObject>(Arrays.asList(objects));
+        int pooled = 0;
+        for (int i = 0; i < objects.length; i ++) {
+            HandledObject o = recycler.get();
+            if (expected.contains(o)) {
+                pooled ++;
+            }
+            objects[i] = o;
+        }
+        return pooled;
+    }
+
     static final class HandledObject {
         Recycler.Handle<HandledObject> handle;
 
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class ResourceLeakDetectorTest {
+
+    private ResourceLeakDetector.Level oldLevel;
+
+    @Before
+    public void setUp() {
+        oldLevel = ResourceLeakDetector.getLevel();
+    }
+
+    @After
+    public void tearDown() {
+        ResourceLeakDetector.setLevel(oldLevel);
+    }
+
+    @Test
+    public void testSamplingInterval() {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.SIMPLE);
+        ResourceLeakDetector<Object> detector = new ResourceLeakDetector<Object>("test", 10, Long.MAX_VALUE);
+
+        List<ResourceLeak> leaks = new ArrayList<ResourceLeak>();
+        for (int i = 0; i < 100; i ++) {
+            ResourceLeak leak = detector.open(new Object());
+            if (leak != null) {
+                leaks.add(leak);
+            }
+        }
+        assertEquals(10, leaks.size());
+
+        for (ResourceLeak leak: leaks) {
+            assertTrue(leak.close());
+            assertFalse(leak.close());
+        }
+    }
+
+    @Test
+    public void testParanoidTracksEveryResource() {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        ResourceLeakDetector<Object> detector = new ResourceLeakDetector<Object>("test", 10, Long.MAX_VALUE);
+
+        for (int i = 0; i < 100; i ++) {
+            ResourceLeak leak = detector.open(new Object());
+            assertNotNull(leak);
+            assertTrue(leak.close());
+        }
+    }
+
+    @Test
+    public void testRecordsAreBoundedAndDroppedRecordsAreReported() throws Exception {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.ADVANCED);
+        ResourceLeakDetector<Object> detector = new ResourceLeakDetector<Object>("test", 1, Long.MAX_VALUE);
+        final ResourceLeak leak = detector.open(new Object());
+        assertNotNull(leak);
+
+        // Record from several threads at once, no dropped record may be lost.
+        final int numThreads = 4;
+        final int numRecords = 2500;
+        final CountDownLatch latch = new CountDownLatch(numThreads);
+        for (int i = 0; i < numThreads; i ++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < numRecords; j ++) {
+                            leak.record(j);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+
+        // The default limit of io.netty.leakDetection.maxRecords is 4.
+        String report = leak.toString();
+        assertTrue(report, report.contains("Recent access records: 4"));
+        assertTrue(report, report.contains(numThreads * numRecords - 4 + " leak records were discarded"));
+        assertTrue(report, report.contains("Created at:"));
+        assertTrue(leak.close());
+    }
+
+    @Test
+    public void testSimpleLevelDoesNotRecord() {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.SIMPLE);
+        ResourceLeakDetector<Object> detector = new ResourceLeakDetector<Object>("test", 1, Long.MAX_VALUE);
+        ResourceLeak leak = detector.open(new Object());
+        assertNotNull(leak);
+        leak.record();
+        assertEquals("", leak.toString());
+        assertTrue(leak.close());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link IntHashSet}.
+ */
+public class IntHashSetTest {
+
+    @Test
+    public void addRemoveShouldSucceed() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(0));
+        assertTrue(set.add(-5));
+        assertFalse(set.add(0));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(5));
+
+        int[] elements = set.toArray();
+        Arrays.sort(elements);
+        assertArrayEquals(new int[] { -5, 0 }, elements);
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertEquals(1, set.size());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals("[]", set.toString());
+    }
+
+    @Test
+    public void hashcodeEqualsTest() {
+        IntHashSet set1 = new IntHashSet();
+        IntHashSet set2 = new IntHashSet(3);
+        for (int i = 0; i < 100; i ++) {
+            set1.add(i * 11);
+            set2.add((99 - i) * 11);
+        }
+        assertEquals(set1.hashCode(), set2.hashCode());
+        assertEquals(set1, set2);
+        set2.remove(0);
+        assertFalse(set1.equals(set2));
+    }
+
+    @Test
+    public void fuzzTest() {
+        Random rnd = new Random(0);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> goodSet = new HashSet<Integer>();
+        for (int i = 0; i < 100000; ++i) {
+            int element = rnd.nextBoolean() ? rnd.nextInt(1000) : rnd.nextInt(1000) * 17;
+            if (rnd.nextDouble() >= 0.2) {
+                assertEquals(goodSet.add(element), set.add(element));
+            } else {
+                assertEquals(goodSet.remove(element), set.remove(element));
+            }
+            assertEquals(goodSet.size(), set.size());
+        }
+        for (int element : set.toArray()) {
+            assertTrue(goodSet.remove(element));
+            assertTrue(set.remove(element));
+        }
+        assertTrue(set.isEmpty());
+        assertTrue(goodSet.isEmpty());
+    }
+}
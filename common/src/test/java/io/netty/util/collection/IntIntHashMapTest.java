@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link IntIntHashMap}.
+ */
+public class IntIntHashMapTest {
+
+    @Test
+    public void missingKeyShouldReturnNoEntryValue() {
+        IntIntHashMap map = new IntIntHashMap(4, 0.5f, -1);
+        assertEquals(-1, map.noEntryValue());
+        assertEquals(-1, map.get(1));
+        assertEquals(-1, map.remove(1));
+        assertEquals(-1, map.put(1, 10));
+        assertEquals(10, map.put(1, 20));
+        assertEquals(20, map.get(1));
+        assertTrue(map.containsKey(1));
+        assertEquals(20, map.remove(1));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void noEntryValueShouldBeStorable() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(-3, 0);
+        assertTrue(map.containsKey(-3));
+        assertEquals(0, map.get(-3));
+        assertEquals(1, map.size());
+        assertEquals("{-3=0}", map.toString());
+    }
+
+    @Test
+    public void hashcodeEqualsTest() {
+        IntIntHashMap map1 = new IntIntHashMap();
+        IntIntHashMap map2 = new IntIntHashMap(3);
+        for (int i = 0; i < 100; i ++) {
+            map1.put(i * 11, i);
+            map2.put((99 - i) * 11, 99 - i);
+        }
+        assertEquals(map1.hashCode(), map2.hashCode());
+        assertEquals(map1, map2);
+        map2.put(0, 1);
+        assertFalse(map1.equals(map2));
+    }
+
+    @Test
+    public void fuzzTest() {
+        Random rnd = new Random(0);
+        IntIntHashMap map = new IntIntHashMap(1105, 0.5f, Integer.MIN_VALUE);
+        Map<Integer, Integer> goodMap = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 100000; ++i) {
+            // 50% keys are multiples of 17 => more conflicts.
+            int key = rnd.nextBoolean() ? rnd.nextInt(1000) : rnd.nextInt(1000) * 17;
+            int value = rnd.nextInt();
+            if (rnd.nextDouble() >= 0.2) {
+                assertEquals(toPrimitive(goodMap.put(key, value)), map.put(key, value));
+            } else {
+                assertEquals(toPrimitive(goodMap.remove(key)), map.remove(key));
+            }
+            assertEquals(goodMap.size(), map.size());
+        }
+        for (int key : map.keys()) {
+            assertEquals(toPrimitive(goodMap.remove(key)), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+        assertTrue(goodMap.isEmpty());
+    }
+
+    private static int toPrimitive(Integer value) {
+        return value == null ? Integer.MIN_VALUE : value;
+    }
+}
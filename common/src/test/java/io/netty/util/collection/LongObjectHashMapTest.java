@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LongObjectHashMap}.
+ */
+public class LongObjectHashMapTest {
+
+    @Test
+    public void keysOutsideOfIntRangeShouldSucceed() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+        long[] keys = { 0, 1, -1, Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE, Long.MIN_VALUE,
+                        1L << 32, 2L << 32 };
+        for (long key : keys) {
+            assertNull(map.put(key, Long.toString(key)));
+        }
+        assertEquals(keys.length, map.size());
+        for (long key : keys) {
+            assertTrue(map.containsKey(key));
+            assertEquals(Long.toString(key), map.get(key));
+        }
+        assertNull(map.get(3L << 32));
+
+        long[] found = map.keys();
+        Arrays.sort(found);
+        long[] expected = keys.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, found);
+
+        for (long key : keys) {
+            assertEquals(Long.toString(key), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void iteratorShouldTraverseEntries() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+        map.put(1L << 40, "v1");
+        map.put(2L << 40, "v2");
+        map.put(3L << 40, null);
+
+        Set<Long> found = new HashSet<Long>();
+        for (LongObjectMap.Entry<String> entry : map.entries()) {
+            assertTrue(found.add(entry.key()));
+        }
+        assertEquals(3, found.size());
+        assertTrue(map.containsValue(null));
+    }
+
+    @Test
+    public void hashcodeEqualsTest() {
+        LongObjectHashMap<Long> map1 = new LongObjectHashMap<Long>();
+        LongObjectHashMap<Long> map2 = new LongObjectHashMap<Long>(3);
+        for (long i = 0; i < 100; i ++) {
+            map1.put(i << 33, i);
+            map2.put(99L - i << 33, 99L - i);
+        }
+        assertEquals(map1.hashCode(), map2.hashCode());
+        assertEquals(map1, map2);
+        map2.remove(0);
+        assertFalse(map1.equals(map2));
+    }
+
+    @Test
+    public void fuzzTest() {
+        Random rnd = new Random(0);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+        Map<Long, Long> goodMap = new HashMap<Long, Long>();
+        for (int i = 0; i < 100000; ++i) {
+            // Keys which only differ in their upper bits conflict a lot.
+            long key = (long) rnd.nextInt(1000) << rnd.nextInt(48);
+            if (rnd.nextDouble() >= 0.2) {
+                assertEquals(goodMap.put(key, key), map.put(key, key));
+            } else {
+                assertEquals(goodMap.remove(key), map.remove(key));
+            }
+            assertEquals(goodMap.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> e : goodMap.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        for (long key : map.keys()) {
+            assertEquals(goodMap.remove(key), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+}
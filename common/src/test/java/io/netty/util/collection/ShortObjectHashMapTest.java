@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ShortObjectHashMap}.
+ */
+public class ShortObjectHashMapTest {
+
+    @Test
+    public void allKeysShouldSucceed() {
+        ShortObjectHashMap<Integer> map = new ShortObjectHashMap<Integer>();
+        for (int i = Short.MIN_VALUE; i <= Short.MAX_VALUE; i ++) {
+            assertNull(map.put((short) i, i));
+        }
+        assertEquals(65536, map.size());
+        for (int i = Short.MIN_VALUE; i <= Short.MAX_VALUE; i ++) {
+            assertEquals(Integer.valueOf(i), map.get((short) i));
+        }
+        assertEquals(65536, map.keys().length);
+        for (int i = Short.MIN_VALUE; i <= Short.MAX_VALUE; i ++) {
+            assertEquals(Integer.valueOf(i), map.remove((short) i));
+        }
+        assertTrue(map.isEmpty());
+        assertNull(map.get((short) 0));
+    }
+
+    @Test
+    public void clearShouldSucceed() {
+        ShortObjectHashMap<String> map = new ShortObjectHashMap<String>();
+        map.put((short) 1, "v1");
+        map.put((short) -1, "v2");
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey((short) 1));
+        assertEquals("{}", map.toString());
+    }
+
+    @Test
+    public void fuzzTest() {
+        Random rnd = new Random(0);
+        ShortObjectHashMap<Short> map = new ShortObjectHashMap<Short>();
+        Map<Short, Short> goodMap = new HashMap<Short, Short>();
+        for (int i = 0; i < 100000; ++i) {
+            short key = (short) (rnd.nextInt(2000) - 1000);
+            if (rnd.nextDouble() >= 0.2) {
+                assertEquals(goodMap.put(key, key), map.put(key, key));
+            } else {
+                assertEquals(goodMap.remove(key), map.remove(key));
+            }
+            assertEquals(goodMap.size(), map.size());
+        }
+        for (short key : map.keys()) {
+            assertEquals(goodMap.remove(key), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.PlatformDependent;
+import org.junit.Test;
+
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DefaultLatencyMetricTest {
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 100000; value ++) {
+            assertBucket(value);
+        }
+        for (int shift = 17; shift < 63; shift ++) {
+            assertBucket((1L << shift) - 1);
+            assertBucket(1L << shift);
+            assertBucket((1L << shift) + 12345);
+        }
+        assertBucket(Long.MAX_VALUE);
+    }
+
+    private static void assertBucket(long value) {
+        int index = DefaultLatencyMetric.bucketIndex(value);
+        long upperBound = DefaultLatencyMetric.bucketUpperBound(index);
+        assertTrue(value <= upperBound);
+        if (index > 0) {
+            assertTrue(value > DefaultLatencyMetric.bucketUpperBound(index - 1));
+        }
+        // The relative error is at most 1/16.
+        assertTrue(upperBound - value <= value / 16);
+    }
+
+    @Test
+    public void testPercentiles() {
+        DefaultLatencyMetric metric = new DefaultLatencyMetric();
+        assertEquals(0, metric.percentileNanos(99));
+
+        for (long i = 1; i <= 1000; i ++) {
+            metric.record(i * 1000);
+        }
+        assertEquals(1000, metric.count());
+        assertEquals(500500000, metric.totalNanos());
+        assertEquals(1000000, metric.maxNanos());
+        assertEquals(1000000, metric.percentileNanos(100));
+        assertApproximately(500000, metric.percentileNanos(50));
+        assertApproximately(990000, metric.percentileNanos(99));
+        assertApproximately(1000, metric.percentileNanos(0.1));
+    }
+
+    private static void assertApproximately(long expected, long actual) {
+        assertTrue(actual >= expected);
+        assertTrue(actual - expected <= expected / 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new DefaultLatencyMetric().percentileNanos(0);
+    }
+
+    @Test(timeout = 10000)
+    public void testEventExecutorMetric() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            DefaultEventExecutorMetric metric = new DefaultEventExecutorMetric(executor);
+            executor.submit(metric.newTimedTask(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ignore) {
+                        // Ignore
+                    }
+                }
+            })).sync();
+
+            assertEquals(1, metric.completedTasks());
+            assertEquals(1, metric.taskQueueLatency().count());
+            assertTrue(metric.taskRunTime().totalNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testTimedTaskCanBeRemovedFromTaskQueue() {
+        DefaultEventExecutorMetric metric = new DefaultEventExecutorMetric(new DefaultEventExecutor());
+        assertTimedTaskCanBeRemoved(metric, PlatformDependent.<Runnable>newMpscArrayQueue(16));
+        assertTimedTaskCanBeRemoved(metric, new LinkedBlockingQueue<Runnable>());
+    }
+
+    private static void assertTimedTaskCanBeRemoved(DefaultEventExecutorMetric metric, Queue<Runnable> queue) {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        };
+        Runnable otherTask = new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        };
+        queue.add(metric.newTimedTask(otherTask));
+        queue.add(task);
+        queue.add(metric.newTimedTask(task));
+        assertTrue(SingleThreadEventExecutor.removeTimedTask(queue, task));
+        assertFalse(SingleThreadEventExecutor.removeTimedTask(queue, task));
+        assertEquals(2, queue.size());
+        // Only the timed task was removed.
+        assertTrue(queue.contains(task));
+    }
+}
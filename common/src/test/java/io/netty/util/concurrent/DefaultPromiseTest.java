@@ -175,6 +175,66 @@ public class DefaultPromiseTest {
         executor.shutdownGracefully().sync();
     }
 
+    @Test(timeout = 10000)
+    public void testRecycledListenersNotifyOnlyTheirPromise() throws Exception {
+        EventExecutor executor = new TestEventExecutor();
+        try {
+            // Notified from the executor and from the calling thread, so both notification paths recycle.
+            testRecycledListenersNotifyOnlyTheirPromise(ImmediateEventExecutor.INSTANCE);
+            testRecycledListenersNotifyOnlyTheirPromise(executor);
+        } finally {
+            executor.shutdownGracefully().sync();
+        }
+    }
+
+    private static void testRecycledListenersNotifyOnlyTheirPromise(EventExecutor executor) throws Exception {
+        for (int numListeners = 0; numListeners <= 20; numListeners ++) {
+            final Promise<Void> promise = new DefaultPromise<Void>(executor);
+            final int[] notified = new int[numListeners];
+            final CountDownLatch latch = new CountDownLatch(numListeners);
+            for (int i = 0; i < numListeners; i ++) {
+                final int id = i;
+                promise.addListener(new FutureListener<Void>() {
+                    @Override
+                    public void operationComplete(Future<Void> future) throws Exception {
+                        assertSame(promise, future);
+                        notified[id] ++;
+                        latch.countDown();
+                    }
+                });
+            }
+            promise.setSuccess(null);
+            latch.await();
+
+            // Complete another promise, which may reuse the recycled listeners of the first one.
+            Promise<Void> other = new DefaultPromise<Void>(executor);
+            other.addListener(new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) throws Exception {
+                    // NOOP
+                }
+            });
+            other.addListener(new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) throws Exception {
+                    // NOOP
+                }
+            });
+            other.setSuccess(null);
+            other.sync();
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }).sync();
+
+            for (int n: notified) {
+                assertEquals(1, n);
+            }
+        }
+    }
+
     private static final class TestEventExecutor extends SingleThreadEventExecutor {
         TestEventExecutor() {
             super(null, new DefaultExecutorServiceFactory(TestEventExecutor.class).newExecutorService(1), true);
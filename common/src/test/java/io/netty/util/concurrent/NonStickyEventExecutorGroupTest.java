@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NonStickyEventExecutorGroupTest {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    private NonStickyEventExecutorGroup group;
+
+    @Before
+    public void setUp() {
+        group = new NonStickyEventExecutorGroup(4, 16);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        group.shutdownGracefully().sync();
+    }
+
+    @Test
+    public void testNextReturnsNewExecutor() {
+        assertNotSame(group.next(), group.next());
+        assertTrue(group.children().isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testTasksRunInOrder() throws Exception {
+        final int numExecutors = 8;
+        final int numTasks = 10000;
+        final int[] next = new int[numExecutors];
+        final AtomicBoolean outOfOrder = new AtomicBoolean();
+        final AtomicBoolean notInEventLoop = new AtomicBoolean();
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        EventExecutor[] executors = new EventExecutor[numExecutors];
+        for (int i = 0; i < numExecutors; i ++) {
+            executors[i] = group.next();
+        }
+
+        for (int i = 0; i < numTasks; i ++) {
+            for (int j = 0; j < numExecutors; j ++) {
+                final EventExecutor executor = executors[j];
+                final int id = j;
+                final int expected = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!executor.inEventLoop()) {
+                            notInEventLoop.set(true);
+                        }
+                        threads.add(Thread.currentThread());
+                        if (next[id]++ != expected) {
+                            outOfOrder.set(true);
+                        }
+                    }
+                });
+            }
+        }
+        for (EventExecutor executor: executors) {
+            executor.submit(NOOP).sync();
+            assertFalse(executor.inEventLoop());
+        }
+
+        assertFalse(outOfOrder.get());
+        assertFalse(notInEventLoop.get());
+        for (int n: next) {
+            assertEquals(numTasks, n);
+        }
+        for (Thread thread: threads) {
+            assertTrue(thread instanceof FastThreadLocalAccess);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBusyExecutorDoesNotStarveOthers() throws Exception {
+        NonStickyEventExecutorGroup group = new NonStickyEventExecutorGroup(1, 1);
+        try {
+            final EventExecutor busy = group.next();
+            final AtomicBoolean stop = new AtomicBoolean();
+            busy.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Keeps the only thread busy by always adding another task.
+                    if (!stop.get()) {
+                        busy.execute(this);
+                    }
+                }
+            });
+
+            // Must run although the busy executor always has a pending task.
+            group.next().submit(NOOP).sync();
+            stop.set(true);
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testScheduledTaskRunsWhileIdle() throws Exception {
+        EventExecutor executor = group.next();
+        long start = System.nanoTime();
+        executor.schedule(NOOP, 100, TimeUnit.MILLISECONDS).sync();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownRunsPendingTasks() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger counter = new AtomicInteger();
+        EventExecutor executor = group.next();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException ignore) {
+                    // Ignore
+                }
+            }
+        });
+        for (int i = 0; i < 100; i ++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+
+        Future<?> terminationFuture = group.shutdownGracefully();
+        assertTrue(group.isShuttingDown());
+        assertFalse(group.isTerminated());
+        latch.countDown();
+        terminationFuture.sync();
+
+        assertTrue(group.isTerminated());
+        assertTrue(executor.isTerminated());
+        assertEquals(100, counter.get());
+        try {
+            executor.execute(NOOP);
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleThreadEventExecutorTest {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    @Test(timeout = 10000)
+    public void testTakeTaskWakesUpOnExecute() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            for (int i = 0; i < 10; i ++) {
+                // Give the executor thread time to park before adding the next task.
+                Thread.sleep(10);
+                executor.submit(NOOP).sync();
+            }
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testScheduledTaskRunsWhileIdle() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            executor.submit(NOOP).sync();
+            long start = System.nanoTime();
+            executor.schedule(NOOP, 100, TimeUnit.MILLISECONDS).sync();
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testManyProducers() throws Exception {
+        final DefaultEventExecutor executor = new DefaultEventExecutor();
+        final AtomicInteger counter = new AtomicInteger();
+        final int numProducers = 4;
+        final int numTasks = 10000;
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+        try {
+            Thread[] producers = new Thread[numProducers];
+            for (int i = 0; i < numProducers; i ++) {
+                producers[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < numTasks; i ++) {
+                            executor.execute(task);
+                        }
+                    }
+                };
+                producers[i].start();
+            }
+            for (Thread producer: producers) {
+                producer.join();
+            }
+            executor.submit(NOOP).sync();
+            assertEquals(numProducers * numTasks, counter.get());
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectWhenTaskQueueFull() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        DefaultEventExecutor executor = newBlockedExecutor(latch, RejectedExecutionHandlers.reject());
+        try {
+            for (int i = 0; i < 16; i ++) {
+                executor.execute(NOOP);
+            }
+            try {
+                executor.execute(NOOP);
+                fail();
+            } catch (RejectedExecutionException expected) {
+                // expected
+            }
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBackoffWhenTaskQueueFull() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        DefaultEventExecutor executor = newBlockedExecutor(
+                latch, RejectedExecutionHandlers.backoff(100, 10, TimeUnit.MILLISECONDS));
+        try {
+            for (int i = 0; i < 16; i ++) {
+                executor.execute(NOOP);
+            }
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException ignore) {
+                        // Ignore
+                    }
+                    latch.countDown();
+                }
+            }.start();
+
+            // Must succeed once the executor made room in its task queue.
+            executor.submit(NOOP).sync();
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testExecuteBatch() throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            final List<Integer> executed = new ArrayList<Integer>();
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < 100; i ++) {
+                final int id = i;
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        executed.add(id);
+                    }
+                });
+            }
+            executor.executeBatch(tasks);
+            executor.submit(NOOP).sync();
+
+            assertEquals(100, executed.size());
+            for (int i = 0; i < 100; i ++) {
+                assertEquals(Integer.valueOf(i), executed.get(i));
+            }
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testExecuteBatchRejectWhenTaskQueueFull() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        DefaultEventExecutor executor = newBlockedExecutor(latch, RejectedExecutionHandlers.reject());
+        final AtomicInteger counter = new AtomicInteger();
+        try {
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < 20; i ++) {
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        counter.incrementAndGet();
+                    }
+                });
+            }
+            try {
+                executor.executeBatch(tasks);
+                fail();
+            } catch (RejectedExecutionException expected) {
+                // expected
+            }
+            latch.countDown();
+            // Only the tasks that fit into the task queue were added.
+            while (counter.get() < 16) {
+                Thread.sleep(10);
+            }
+            executor.submit(NOOP).sync();
+            assertEquals(16, counter.get());
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRemoveTask() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        DefaultEventExecutor executor = newBlockedExecutor(latch, RejectedExecutionHandlers.reject());
+        final AtomicInteger counter = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+        try {
+            executor.execute(task);
+            assertTrue(executor.removeTask(task));
+            assertFalse(executor.removeTask(task));
+            latch.countDown();
+            executor.submit(NOOP).sync();
+            assertEquals(0, counter.get());
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testNewTaskQueueOverride() throws Exception {
+        final AtomicInteger offered = new AtomicInteger();
+        final Queue<Runnable> queue = new LinkedBlockingQueue<Runnable>() {
+            @Override
+            public boolean offer(Runnable task) {
+                offered.incrementAndGet();
+                return super.offer(task);
+            }
+        };
+        SingleThreadEventExecutor executor = new SingleThreadEventExecutor(
+                null, new DefaultExecutorServiceFactory(DefaultEventExecutor.class).newExecutorService(1), true) {
+            @Override
+            protected Queue<Runnable> newTaskQueue() {
+                return queue;
+            }
+
+            @Override
+            protected void run() {
+                Runnable task = takeTask();
+                if (task != null) {
+                    task.run();
+                }
+
+                if (confirmShutdown()) {
+                    cleanupAndTerminate(true);
+                } else {
+                    scheduleExecution();
+                }
+            }
+        };
+        try {
+            executor.submit(NOOP).sync();
+            // Sub-classes which still override newTaskQueue() must get their queue used.
+            assertTrue(offered.get() > 0);
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static DefaultEventExecutor newBlockedExecutor(
+            final CountDownLatch latch, RejectedExecutionHandler rejectedHandler) throws Exception {
+        DefaultEventExecutor executor = new DefaultEventExecutor(
+                null, new DefaultExecutorServiceFactory(DefaultEventExecutor.class).newExecutorService(1),
+                16, rejectedHandler);
+        final CountDownLatch running = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                running.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException ignore) {
+                    // Ignore
+                }
+            }
+        });
+        running.await();
+        return executor;
+    }
+}
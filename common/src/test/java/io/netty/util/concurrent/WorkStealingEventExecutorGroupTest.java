@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WorkStealingEventExecutorGroupTest {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    private WorkStealingEventExecutorGroup group;
+
+    @Before
+    public void setUp() {
+        group = new WorkStealingEventExecutorGroup(8, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testTasksRunInOrderPerExecutor() throws Exception {
+        final int numTasks = 10000;
+        List<EventExecutor> executors = new ArrayList<EventExecutor>(group.<EventExecutor>children());
+        final int[] next = new int[executors.size()];
+        final AtomicBoolean outOfOrder = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+
+        for (int i = 0; i < numTasks; i ++) {
+            for (int j = 0; j < executors.size(); j ++) {
+                final EventExecutor executor = executors.get(j);
+                final int id = j;
+                final int expected = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!executor.inEventLoop()) {
+                            overlapped.set(true);
+                        }
+                        if (next[id]++ != expected) {
+                            outOfOrder.set(true);
+                        }
+                    }
+                });
+            }
+        }
+        for (EventExecutor executor: executors) {
+            executor.submit(NOOP).sync();
+        }
+
+        assertFalse(outOfOrder.get());
+        assertFalse(overlapped.get());
+        for (int n: next) {
+            assertEquals(numTasks, n);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWakeUpAfterIdle() throws Exception {
+        EventExecutor executor = group.next();
+        for (int i = 0; i < 10; i ++) {
+            // Give the executor time to go idle before submitting the next task.
+            Thread.sleep(10);
+            executor.submit(NOOP).sync();
+            assertFalse(executor.inEventLoop());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testScheduledTaskRunsWhileIdle() throws Exception {
+        EventExecutor executor = group.next();
+        executor.submit(NOOP).sync();
+        long start = System.nanoTime();
+        executor.schedule(NOOP, 100, TimeUnit.MILLISECONDS).sync();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test(timeout = 10000)
+    public void testThreadsSupportFastThreadLocal() throws Exception {
+        Future<Boolean> future = group.next().submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread() instanceof FastThreadLocalAccess;
+            }
+        });
+        assertTrue(future.sync().getNow());
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownGracefully() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        for (EventExecutor executor: group.<EventExecutor>children()) {
+            for (int i = 0; i < 100; i ++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        counter.incrementAndGet();
+                    }
+                });
+            }
+        }
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        assertTrue(group.isTerminated());
+        assertEquals(800, counter.get());
+    }
+}
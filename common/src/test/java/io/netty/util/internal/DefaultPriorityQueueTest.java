@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DefaultPriorityQueueTest {
+
+    private static final Comparator<TestElement> COMPARATOR = new Comparator<TestElement>() {
+        @Override
+        public int compare(TestElement o1, TestElement o2) {
+            return o1.value < o2.value ? -1 : o1.value > o2.value ? 1 : 0;
+        }
+    };
+
+    @Test
+    public void testPollReturnsElementsInOrder() {
+        DefaultPriorityQueue<TestElement> queue = new DefaultPriorityQueue<TestElement>(COMPARATOR, 0);
+        List<TestElement> elements = newElements(100);
+        for (TestElement element: elements) {
+            assertTrue(queue.offer(element));
+            assertTrue(queue.contains(element));
+        }
+        assertEquals(elements.size(), queue.size());
+
+        Collections.sort(elements, COMPARATOR);
+        for (TestElement element: elements) {
+            assertEquals(element.value, queue.peek().value);
+            TestElement polled = queue.poll();
+            assertEquals(element.value, polled.value);
+            assertEquals(PriorityQueueNode.INDEX_NOT_IN_QUEUE, polled.priorityQueueIndex());
+            assertFalse(queue.contains(polled));
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testRemove() {
+        DefaultPriorityQueue<TestElement> queue = new DefaultPriorityQueue<TestElement>(COMPARATOR, 4);
+        List<TestElement> elements = newElements(100);
+        queue.addAll(elements);
+
+        // Remove every other element, then all remaining ones must still be polled in order.
+        List<TestElement> remaining = new ArrayList<TestElement>();
+        for (int i = 0; i < elements.size(); i ++) {
+            TestElement element = elements.get(i);
+            if ((i & 1) == 0) {
+                assertTrue(queue.removeTyped(element));
+                assertFalse(queue.contains(element));
+                assertFalse(queue.remove(element));
+            } else {
+                remaining.add(element);
+            }
+        }
+        assertEquals(remaining.size(), queue.size());
+
+        Collections.sort(remaining, COMPARATOR);
+        for (TestElement element: remaining) {
+            assertEquals(element.value, queue.poll().value);
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRemoveElementOfOtherQueue() {
+        DefaultPriorityQueue<TestElement> queue = new DefaultPriorityQueue<TestElement>(COMPARATOR, 0);
+        DefaultPriorityQueue<TestElement> other = new DefaultPriorityQueue<TestElement>(COMPARATOR, 0);
+        TestElement a = new TestElement(1);
+        TestElement b = new TestElement(2);
+        queue.add(a);
+        other.add(b);
+
+        assertFalse(queue.remove(b));
+        assertFalse(queue.remove("not a node"));
+        assertEquals(1, queue.size());
+        assertTrue(other.contains(b));
+    }
+
+    @Test
+    public void testClearResetsIndex() {
+        DefaultPriorityQueue<TestElement> queue = new DefaultPriorityQueue<TestElement>(COMPARATOR, 0);
+        List<TestElement> elements = newElements(10);
+        queue.addAll(elements);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        for (TestElement element: elements) {
+            assertEquals(PriorityQueueNode.INDEX_NOT_IN_QUEUE, element.priorityQueueIndex());
+        }
+
+        // All of them can be added again.
+        queue.addAll(elements);
+        assertEquals(elements.size(), queue.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddTwice() {
+        DefaultPriorityQueue<TestElement> queue = new DefaultPriorityQueue<TestElement>(COMPARATOR, 0);
+        TestElement element = new TestElement(1);
+        queue.add(element);
+        queue.add(element);
+    }
+
+    private static List<TestElement> newElements(int size) {
+        Random random = new Random(size);
+        List<TestElement> elements = new ArrayList<TestElement>(size);
+        for (int i = 0; i < size; i ++) {
+            elements.add(new TestElement(random.nextInt(size / 2)));
+        }
+        return elements;
+    }
+
+    private static final class TestElement implements PriorityQueueNode {
+        final int value;
+        private int priorityQueueIndex = INDEX_NOT_IN_QUEUE;
+
+        TestElement(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int priorityQueueIndex() {
+            return priorityQueueIndex;
+        }
+
+        @Override
+        public void priorityQueueIndex(int i) {
+            priorityQueueIndex = i;
+        }
+    }
+}
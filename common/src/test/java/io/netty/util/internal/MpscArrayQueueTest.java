@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class MpscArrayQueueTest {
+
+    @Test
+    public void testOfferPollAcrossChunks() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(Integer.MAX_VALUE, 3);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+
+        for (int i = 0; i < 10; i ++) {
+            assertTrue(queue.offer(i));
+            assertEquals(i + 1, queue.size());
+        }
+
+        Iterator<Integer> it = queue.iterator();
+        for (int i = 0; i < 10; i ++) {
+            assertEquals(Integer.valueOf(i), it.next());
+        }
+        assertFalse(it.hasNext());
+
+        for (int i = 0; i < 10; i ++) {
+            assertEquals(Integer.valueOf(i), queue.peek());
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testIteratorSkipsConsumedElements() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(Integer.MAX_VALUE, 3);
+        for (int i = 0; i < 10; i ++) {
+            queue.add(i);
+        }
+        for (int i = 0; i < 4; i ++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+
+        Iterator<Integer> it = queue.iterator();
+        for (int i = 4; i < 10; i ++) {
+            assertEquals(Integer.valueOf(i), it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testBounded() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(5, 2);
+        for (int i = 0; i < 5; i ++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(5));
+        assertEquals(5, queue.size());
+
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(5));
+        assertFalse(queue.offer(6));
+
+        for (int i = 1; i <= 5; i ++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddToFullQueue() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(1);
+        queue.add(1);
+        queue.add(2);
+    }
+
+    @Test
+    public void testRemove() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(Integer.MAX_VALUE, 3);
+        for (int i = 0; i < 10; i ++) {
+            queue.add(i);
+        }
+        assertTrue(queue.remove(0));
+        assertTrue(queue.remove(4));
+        assertTrue(queue.remove(9));
+        assertFalse(queue.remove(4));
+        assertFalse(queue.remove(10));
+        assertFalse(queue.remove(null));
+        assertEquals(7, queue.size());
+
+        Iterator<Integer> it = queue.iterator();
+        for (int i: new int[] { 1, 2, 3, 5, 6, 7, 8 }) {
+            assertEquals(Integer.valueOf(i), it.next());
+        }
+        assertFalse(it.hasNext());
+
+        for (int i: new int[] { 1, 2, 3, 5, 6, 7, 8 }) {
+            assertEquals(Integer.valueOf(i), queue.peek());
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRemoveWhileConsumerPolls() throws Exception {
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(Integer.MAX_VALUE, 16);
+        final int numElements = 100000;
+        for (int i = 0; i < numElements; i ++) {
+            queue.add(i);
+        }
+
+        // Every element must either be removed or polled, never both.
+        final boolean[] removed = new boolean[numElements];
+        Thread remover = new Thread() {
+            @Override
+            public void run() {
+                for (int i = numElements - 1; i >= 0; i -= 2) {
+                    removed[i] = queue.remove(i);
+                }
+            }
+        };
+        remover.start();
+
+        boolean[] polled = new boolean[numElements];
+        Integer value;
+        while ((value = queue.poll()) != null) {
+            polled[value] = true;
+        }
+        remover.join();
+        while ((value = queue.poll()) != null) {
+            polled[value] = true;
+        }
+
+        for (int i = 0; i < numElements; i ++) {
+            assertTrue(String.valueOf(i), removed[i] ^ polled[i]);
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testMultipleProducers() throws Exception {
+        testMultipleProducers(Integer.MAX_VALUE);
+        testMultipleProducers(64);
+    }
+
+    private static void testMultipleProducers(int maxCapacity) throws Exception {
+        final MpscArrayQueue<Long> queue = new MpscArrayQueue<Long>(maxCapacity, 16);
+        final int numProducers = 4;
+        final int numElements = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[numProducers];
+        for (int i = 0; i < numProducers; i ++) {
+            final long producer = i;
+            producers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < numElements; i ++) {
+                        Long value = producer << 32 | i;
+                        while (!queue.offer(value)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers[i].start();
+        }
+        start.countDown();
+
+        // Elements of the same producer must be polled in the order they were added.
+        long[] expected = new long[numProducers];
+        for (int received = 0; received < numProducers * numElements;) {
+            Long value = queue.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) (value >>> 32);
+            assertEquals(expected[producer]++, value & 0xFFFFFFFFL);
+            received ++;
+        }
+        for (Thread producer: producers) {
+            producer.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
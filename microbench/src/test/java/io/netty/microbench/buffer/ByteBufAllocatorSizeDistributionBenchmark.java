@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PoolChunkListMetric;
+import io.netty.buffer.PoolChunkMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * Complements {@link ByteBufAllocatorBenchmark} with allocations which follow a realistic size distribution instead
+ * of a fixed size. Next to the throughput it reports the number of bytes reserved by the pool per byte requested by
+ * the live buffers after every iteration, which shows the internal fragmentation caused by the size classes.
+ */
+public class ByteBufAllocatorSizeDistributionBenchmark extends AbstractMicrobenchmark {
+
+    private static final int MAX_LIVE_BUFFERS = 4096;
+
+    /**
+     * <ul>
+     *     <li>{@code http}: mostly headers and small messages with some bodies of a few kilobytes</li>
+     *     <li>{@code uniform}: sizes uniformly distributed between 0 and 64 KiB</li>
+     * </ul>
+     */
+    @Param({ "http", "uniform" })
+    public String distribution;
+
+    private final Random rand = new Random();
+    private final ByteBuf[] buffers = new ByteBuf[MAX_LIVE_BUFFERS];
+    private PooledByteBufAllocator allocator;
+    private long liveRequestedBytes;
+
+    @Setup
+    public void setup() {
+        // Use a dedicated allocator so the reserved bytes are only caused by this benchmark.
+        allocator = new PooledByteBufAllocator(true, 1, 1, 8192, 11, 0, 0, 0); // Disable thread-local cache
+    }
+
+    @TearDown
+    public void releaseBuffers() {
+        for (int i = 0; i < buffers.length; i ++) {
+            ByteBuf buf = buffers[i];
+            if (buf != null) {
+                buf.release();
+                buffers[i] = null;
+            }
+        }
+        liveRequestedBytes = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportReservedBytes() {
+        long usedBytes = 0;
+        for (PoolArenaMetric arena: allocator.directArenas()) {
+            for (PoolChunkListMetric chunkList: arena.chunkLists()) {
+                for (PoolChunkMetric chunk: chunkList) {
+                    usedBytes += chunk.chunkSize() - chunk.freeBytes();
+                }
+            }
+        }
+        if (liveRequestedBytes > 0) {
+            System.out.printf("%n%s: %.3f bytes reserved per byte requested (%d / %d)%n",
+                    distribution, (double) usedBytes / liveRequestedBytes, usedBytes, liveRequestedBytes);
+        }
+    }
+
+    @Benchmark
+    public void pooledDirectAllocAndFree() {
+        int idx = rand.nextInt(buffers.length);
+        ByteBuf oldBuf = buffers[idx];
+        if (oldBuf != null) {
+            liveRequestedBytes -= oldBuf.capacity();
+            oldBuf.release();
+        }
+        int size = nextSize();
+        buffers[idx] = allocator.directBuffer(size);
+        liveRequestedBytes += size;
+    }
+
+    private int nextSize() {
+        if ("uniform".equals(distribution)) {
+            return rand.nextInt(64 * 1024);
+        }
+
+        int p = rand.nextInt(100);
+        if (p < 60) {
+            // headers, small requests and responses
+            return rand.nextInt(2048);
+        }
+        if (p < 90) {
+            // typical bodies such as 9 KiB or 17 KiB
+            return 2048 + rand.nextInt(30 * 1024);
+        }
+        return 32 * 1024 + rand.nextInt(96 * 1024);
+    }
+}
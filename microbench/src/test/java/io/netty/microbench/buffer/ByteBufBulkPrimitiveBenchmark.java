@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ByteBuf#readInts(int[], int, int)}, {@link ByteBuf#writeLongs(long[], int, int)} and friends
+ * against calling {@link ByteBuf#readInt()} and {@link ByteBuf#writeLong(long)} for each element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ByteBufBulkPrimitiveBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "16", "1024" })
+    public int length;
+
+    @Param({ "true", "false" })
+    public boolean direct;
+
+    @Param({ "BIG_ENDIAN", "LITTLE_ENDIAN" })
+    public String order;
+
+    private ByteBuf buffer;
+    private int[] ints;
+    private long[] longs;
+
+    @Setup
+    public void setup() {
+        ByteBuf buffer = direct ? PooledByteBufAllocator.DEFAULT.directBuffer(length * 8)
+                                : PooledByteBufAllocator.DEFAULT.heapBuffer(length * 8);
+        this.buffer = "LITTLE_ENDIAN".equals(order) ? buffer.order(ByteOrder.LITTLE_ENDIAN) : buffer;
+        ints = new int[length];
+        longs = new long[length];
+        Random rand = new Random(0);
+        for (int i = 0; i < length; i ++) {
+            ints[i] = rand.nextInt();
+            longs[i] = rand.nextLong();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public int[] writeReadIntsPerElement() {
+        ByteBuf buffer = this.buffer;
+        int[] ints = this.ints;
+        buffer.clear();
+        for (int i = 0; i < ints.length; i ++) {
+            buffer.writeInt(ints[i]);
+        }
+        for (int i = 0; i < ints.length; i ++) {
+            ints[i] = buffer.readInt();
+        }
+        return ints;
+    }
+
+    @Benchmark
+    public int[] writeReadInts() {
+        ByteBuf buffer = this.buffer;
+        int[] ints = this.ints;
+        buffer.clear();
+        buffer.writeInts(ints, 0, ints.length);
+        buffer.readInts(ints, 0, ints.length);
+        return ints;
+    }
+
+    @Benchmark
+    public long[] writeReadLongsPerElement() {
+        ByteBuf buffer = this.buffer;
+        long[] longs = this.longs;
+        buffer.clear();
+        for (int i = 0; i < longs.length; i ++) {
+            buffer.writeLong(longs[i]);
+        }
+        for (int i = 0; i < longs.length; i ++) {
+            longs[i] = buffer.readLong();
+        }
+        return longs;
+    }
+
+    @Benchmark
+    public long[] writeReadLongs() {
+        ByteBuf buffer = this.buffer;
+        long[] longs = this.longs;
+        buffer.clear();
+        buffer.writeLongs(longs, 0, longs.length);
+        buffer.readLongs(longs, 0, longs.length);
+        return longs;
+    }
+}
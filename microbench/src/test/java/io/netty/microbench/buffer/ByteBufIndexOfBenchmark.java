@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufProcessor;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the word-at-a-time search of {@link ByteBuf#indexOf(int, int, byte)} and
+ * {@link ByteBuf#forEachByte(ByteBufProcessor)} with {@link ByteBufProcessor#FIND_CRLF} against looking at one byte
+ * at a time. The delimiter is the last byte of the buffer, so {@code size} divided by the reported time is the
+ * throughput in bytes/ns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ByteBufIndexOfBenchmark extends AbstractMicrobenchmark {
+
+    // Same as ByteBufProcessor.FIND_CRLF, but not recognized by the buffer and so processed byte by byte.
+    private static final ByteBufProcessor FIND_CRLF_PER_BYTE = new ByteBufProcessor() {
+        @Override
+        public boolean process(byte value) throws Exception {
+            return value != '\r' && value != '\n';
+        }
+    };
+
+    @Param({ "16", "128", "1024", "8192" })
+    public int size;
+
+    @Param({ "true", "false" })
+    public boolean direct;
+
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() {
+        buffer = direct ? PooledByteBufAllocator.DEFAULT.directBuffer(size)
+                        : PooledByteBufAllocator.DEFAULT.heapBuffer(size);
+        for (int i = 0; i < size - 1; i ++) {
+            buffer.writeByte('a' + i % 26);
+        }
+        buffer.writeByte('\n');
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public int indexOfPerByte() {
+        ByteBuf buffer = this.buffer;
+        int writerIndex = buffer.writerIndex();
+        for (int i = buffer.readerIndex(); i < writerIndex; i ++) {
+            if (buffer.getByte(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return buffer.indexOf(buffer.readerIndex(), buffer.writerIndex(), (byte) '\n');
+    }
+
+    @Benchmark
+    public int forEachByteFindCrlfPerByte() {
+        return buffer.forEachByte(FIND_CRLF_PER_BYTE);
+    }
+
+    @Benchmark
+    public int forEachByteFindCrlf() {
+        return buffer.forEachByte(ByteBufProcessor.FIND_CRLF);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.ResourceLeakDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of the leak detection levels for a buffer which is allocated, accessed a few times and released.
+ * Run with {@code -Dio.netty.leakDetection.allocationSitesOnly=true} to measure the allocation-sites-only mode of the
+ * {@code ADVANCED} level.
+ */
+public class ByteBufLeakDetectionBenchmark extends AbstractMicrobenchmark {
+
+    private static final ByteBufAllocator allocator = new PooledByteBufAllocator(false);
+
+    @Param({ "DISABLED", "SIMPLE", "ADVANCED", "PARANOID" })
+    public ResourceLeakDetector.Level level;
+
+    private ResourceLeakDetector.Level oldLevel;
+
+    @Setup
+    public void setup() {
+        oldLevel = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(level);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceLeakDetector.setLevel(oldLevel);
+    }
+
+    @Benchmark
+    public long allocAccessAndRelease() {
+        ByteBuf buf = allocator.heapBuffer(256);
+        buf.writeLong(1);
+        buf.writeLong(2);
+        buf.touch();
+        long value = buf.readLong() + buf.readLong();
+        buf.release();
+        return value;
+    }
+}
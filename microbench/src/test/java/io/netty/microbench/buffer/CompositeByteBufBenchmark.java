@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures random-access reads and appends on a {@link CompositeByteBuf} with many components, as built by
+ * aggregating HTTP bodies or HTTP/2 DATA frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompositeByteBufBenchmark extends AbstractMicrobenchmark {
+
+    private static final int NUM_INDEXES = 1024;
+
+    @Param({ "16", "1024" })
+    public int numComponents;
+
+    @Param({ "64" })
+    public int componentSize;
+
+    private ByteBuf component;
+    private ByteBuf[] components;
+    private CompositeByteBuf composite;
+    private final int[] indexes = new int[NUM_INDEXES];
+    private int nextIndex;
+
+    @Setup
+    public void setup() {
+        byte[] bytes = new byte[componentSize];
+        new Random(0).nextBytes(bytes);
+        component = Unpooled.wrappedBuffer(bytes);
+        components = new ByteBuf[numComponents];
+
+        composite = newComposite(Integer.MAX_VALUE);
+        for (int i = 0; i < numComponents; i ++) {
+            composite.addComponent(component.retain());
+        }
+        composite.writerIndex(composite.capacity());
+
+        Random rand = new Random(0);
+        for (int i = 0; i < indexes.length; i ++) {
+            indexes[i] = rand.nextInt(composite.capacity() - 8);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        composite.release();
+        component.release();
+    }
+
+    @Benchmark
+    public byte getByteRandom() {
+        return composite.getByte(nextIndex());
+    }
+
+    @Benchmark
+    public long getLongRandom() {
+        return composite.getLong(nextIndex());
+    }
+
+    @Benchmark
+    public long readAllBytes() {
+        CompositeByteBuf composite = this.composite;
+        long sum = 0;
+        for (int i = 0, capacity = composite.capacity(); i < capacity; i ++) {
+            sum += composite.getByte(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int appendComponents() {
+        CompositeByteBuf composite = newComposite(Integer.MAX_VALUE);
+        for (int i = 0; i < numComponents; i ++) {
+            composite.addComponent(component.retain());
+        }
+        return releaseAndGetCapacity(composite);
+    }
+
+    @Benchmark
+    public int appendComponentsWithConsolidation() {
+        CompositeByteBuf composite = newComposite(16);
+        for (int i = 0; i < numComponents; i ++) {
+            composite.addComponent(component.retain());
+        }
+        return releaseAndGetCapacity(composite);
+    }
+
+    @Benchmark
+    public int insertComponentsInBulk() {
+        CompositeByteBuf composite = newComposite(Integer.MAX_VALUE);
+        composite.addComponents(component.retain(), component.retain());
+        ByteBuf[] components = this.components;
+        for (int i = 0; i < components.length; i ++) {
+            components[i] = component.retain();
+        }
+        composite.addComponents(1, components);
+        return releaseAndGetCapacity(composite);
+    }
+
+    private int nextIndex() {
+        return indexes[nextIndex ++ & NUM_INDEXES - 1];
+    }
+
+    private static CompositeByteBuf newComposite(int maxNumComponents) {
+        return new CompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, false, maxNumComponents);
+    }
+
+    private static int releaseAndGetCapacity(CompositeByteBuf composite) {
+        int capacity = composite.capacity();
+        composite.release();
+        return capacity;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+
+/**
+ * Compares the arena-wide monitor of {@link PooledByteBufAllocator} against fine-grained locking when many threads
+ * share a single arena. The thread-local cache is disabled so every allocation hits the arena. Sizes of 64 KiB and
+ * more are normal allocations which are served by the chunk stripes of the arena.
+ */
+public class PoolArenaContentionBenchmark extends AbstractMicrobenchmark {
+
+    private static final int MAX_LIVE_BUFFERS = 1024;
+
+    @State(Scope.Benchmark)
+    public static class AllocatorState {
+        @Param({ "false", "true" })
+        public boolean fineGrainedLocking;
+
+        ByteBufAllocator allocator;
+
+        @Setup
+        public void setup() {
+            allocator = new PooledByteBufAllocator(
+                    true, 1, 1, 8192, 11, 0, 0, 0, fineGrainedLocking); // Disable thread-local cache
+        }
+    }
+
+    @Param({ "00256", "01024", "08192", "16384", "65536", "1048576" })
+    public int size;
+
+    private final Random rand = new Random();
+    private final ByteBuf[] buffers = new ByteBuf[MAX_LIVE_BUFFERS];
+
+    @TearDown
+    public void releaseBuffers() {
+        for (int i = 0; i < buffers.length; i ++) {
+            ByteBuf buf = buffers[i];
+            if (buf != null) {
+                buf.release();
+                buffers[i] = null;
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void directAllocAndFree1Thread(AllocatorState state) {
+        allocAndFree(state.allocator);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void directAllocAndFree8Threads(AllocatorState state) {
+        allocAndFree(state.allocator);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void directAllocAndFree64Threads(AllocatorState state) {
+        allocAndFree(state.allocator);
+    }
+
+    private void allocAndFree(ByteBufAllocator allocator) {
+        int idx = rand.nextInt(buffers.length);
+        ByteBuf oldBuf = buffers[idx];
+        if (oldBuf != null) {
+            oldBuf.release();
+        }
+        buffers[idx] = allocator.directBuffer(size);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip time of a small ping-pong over loopback TCP with and without busy polling in the
+ * {@link EpollEventLoopGroup}. The sample time mode reports the p50 / p99 percentiles of the round trip time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EpollPingPongLatencyBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "0", "50000" })
+    public long busyPollNanos;
+
+    private EpollEventLoopGroup group;
+    private Channel server;
+    private Channel client;
+    private PongHandler pong;
+    private ByteBuf ping;
+
+    @Setup
+    public void setup() throws Exception {
+        if (!Epoll.isAvailable()) {
+            throw new IllegalStateException("epoll not available", Epoll.unavailabilityCause());
+        }
+        // Use different EventLoops for the client and the server so every round trip needs to wake up a thread.
+        group = new EpollEventLoopGroup(2);
+        group.setBusyPollNanos(busyPollNanos);
+        pong = new PongHandler();
+
+        server = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new EchoHandler())
+                .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        client = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(pong)
+                .connect(server.localAddress()).sync().channel();
+        ping = Unpooled.unreleasableBuffer(Unpooled.directBuffer(8).writeLong(0));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close().sync();
+        server.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public void pingPong() throws Exception {
+        long expected = pong.received + ping.readableBytes();
+        client.writeAndFlush(ping.duplicate(), client.voidPromise());
+        // Spin on the caller side so only the latency of the event loops is measured.
+        while (pong.received < expected) {
+            Thread.yield();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class EchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.writeAndFlush(msg, ctx.voidPromise());
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class PongHandler extends ChannelInboundHandlerAdapter {
+        volatile long received;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            received += ((ByteBuf) msg).readableBytes();
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
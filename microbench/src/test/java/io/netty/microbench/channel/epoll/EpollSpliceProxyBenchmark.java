@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a loopback TCP proxy which relays the inbound {@link ByteBuf}s through the pipeline with one that uses
+ * {@link EpollSocketChannel#spliceTo(io.netty.channel.epoll.AbstractEpollStreamChannel, int)} to move the bytes
+ * between the sockets without copying them into user-space.
+ */
+@State(Scope.Benchmark)
+public class EpollSpliceProxyBenchmark extends AbstractMicrobenchmark {
+
+    public enum ProxyMode {
+        BYTEBUF,
+        SPLICE
+    }
+
+    @Param
+    public ProxyMode mode;
+
+    @Param({ "65536", "1048576" })
+    public int size;
+
+    private EventLoopGroup group;
+    private Channel sinkServer;
+    private Channel proxyServer;
+    private Channel client;
+    private SinkHandler sink;
+    private ByteBuf payload;
+
+    @Setup
+    public void setup() throws Exception {
+        if (!Epoll.isAvailable()) {
+            throw new IllegalStateException("epoll not available", Epoll.unavailabilityCause());
+        }
+        // Use one EventLoop for everything as spliceTo(...) requires both channels to share it.
+        group = new EpollEventLoopGroup(1);
+        sink = new SinkHandler();
+
+        sinkServer = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                .childHandler(sink)
+                .bind(new InetSocketAddress(0)).sync().channel();
+
+        final CountDownLatch proxyReady = new CountDownLatch(1);
+        proxyServer = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                .childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                        final EpollSocketChannel inbound = (EpollSocketChannel) ctx.channel();
+                        inbound.config().setAutoRead(false);
+                        new Bootstrap().group(inbound.eventLoop()).channel(EpollSocketChannel.class)
+                                .option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED)
+                                .handler(new ChannelInboundHandlerAdapter())
+                                .connect(sinkServer.localAddress()).addListener(new ChannelFutureListener() {
+                                    @Override
+                                    public void operationComplete(ChannelFuture future) throws Exception {
+                                        if (!future.isSuccess()) {
+                                            inbound.close();
+                                            return;
+                                        }
+                                        EpollSocketChannel outbound = (EpollSocketChannel) future.channel();
+                                        if (mode == ProxyMode.SPLICE) {
+                                            inbound.spliceTo(outbound, Integer.MAX_VALUE);
+                                        } else {
+                                            inbound.pipeline().addLast(new RelayHandler(outbound));
+                                        }
+                                        inbound.config().setAutoRead(true);
+                                        proxyReady.countDown();
+                                    }
+                                });
+                    }
+                })
+                .bind(new InetSocketAddress(0)).sync().channel();
+
+        client = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(proxyServer.localAddress()).sync().channel();
+        proxyReady.await();
+
+        payload = Unpooled.directBuffer(size).writeZero(size);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close().sync();
+        proxyServer.close().sync();
+        sinkServer.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        payload.release();
+    }
+
+    @Benchmark
+    public void proxy() throws Exception {
+        CountDownLatch done = sink.expect(size);
+        client.writeAndFlush(payload.duplicate().retain());
+        done.await();
+    }
+
+    private static final class RelayHandler extends ChannelInboundHandlerAdapter {
+        private final Channel relayChannel;
+
+        RelayHandler(Channel relayChannel) {
+            this.relayChannel = relayChannel;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            relayChannel.write(msg, relayChannel.voidPromise());
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+            relayChannel.flush();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class SinkHandler extends ChannelInboundHandlerAdapter {
+        private long expected;
+        private long received;
+        private CountDownLatch latch;
+
+        synchronized CountDownLatch expect(int bytes) {
+            expected += bytes;
+            latch = new CountDownLatch(1);
+            if (received >= expected) {
+                latch.countDown();
+            }
+            return latch;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            int readable = ((ByteBuf) msg).readableBytes();
+            ReferenceCountUtil.release(msg);
+            synchronized (this) {
+                received += readable;
+                if (latch != null && received >= expected) {
+                    latch.countDown();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.collection;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.collection.IntHashSet;
+import io.netty.util.collection.IntIntHashMap;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.ShortObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Compares the primitive collections of {@code io.netty.util.collection} with the boxed {@link HashMap} and
+ * {@link HashSet}.  Every benchmark fills a collection with {@link #size} random keys, looks all of them up and then
+ * removes them again, like a registry of in-flight requests would.  The benchmarks return the number of keys found,
+ * so the lookups can not be optimized away.
+ */
+@State(Scope.Benchmark)
+public class PrimitiveCollectionsBenchmark extends AbstractMicrobenchmark {
+
+    private static final Object VALUE = new Object();
+
+    @Param({ "10", "100", "10000" })
+    public int size;
+
+    private int[] intKeys;
+    private long[] longKeys;
+    private short[] shortKeys;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(0);
+        intKeys = new int[size];
+        longKeys = new long[size];
+        shortKeys = new short[size];
+        HashSet<Integer> seen = new HashSet<Integer>();
+        for (int i = 0; i < size; i ++) {
+            int key;
+            do {
+                key = rnd.nextInt(65536);
+            } while (!seen.add(key));
+            intKeys[i] = key;
+            longKeys[i] = (long) key << 20 | key;
+            shortKeys[i] = (short) key;
+        }
+    }
+
+    @Benchmark
+    public int intObjectHashMap() {
+        IntObjectHashMap<Object> map = new IntObjectHashMap<Object>();
+        int found = 0;
+        for (int key : intKeys) {
+            map.put(key, VALUE);
+        }
+        for (int key : intKeys) {
+            found += map.get(key) == null ? 0 : 1;
+        }
+        for (int key : intKeys) {
+            found += map.remove(key) == null ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int longObjectHashMap() {
+        LongObjectHashMap<Object> map = new LongObjectHashMap<Object>();
+        int found = 0;
+        for (long key : longKeys) {
+            map.put(key, VALUE);
+        }
+        for (long key : longKeys) {
+            found += map.get(key) == null ? 0 : 1;
+        }
+        for (long key : longKeys) {
+            found += map.remove(key) == null ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int shortObjectHashMap() {
+        ShortObjectHashMap<Object> map = new ShortObjectHashMap<Object>();
+        int found = 0;
+        for (short key : shortKeys) {
+            map.put(key, VALUE);
+        }
+        for (short key : shortKeys) {
+            found += map.get(key) == null ? 0 : 1;
+        }
+        for (short key : shortKeys) {
+            found += map.remove(key) == null ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int intIntHashMap() {
+        IntIntHashMap map = new IntIntHashMap(11, 0.5f, -1);
+        int found = 0;
+        for (int key : intKeys) {
+            map.put(key, key);
+        }
+        for (int key : intKeys) {
+            found += map.get(key) == -1 ? 0 : 1;
+        }
+        for (int key : intKeys) {
+            found += map.remove(key) == -1 ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int intHashSet() {
+        IntHashSet set = new IntHashSet();
+        int found = 0;
+        for (int key : intKeys) {
+            set.add(key);
+        }
+        for (int key : intKeys) {
+            found += set.contains(key) ? 1 : 0;
+        }
+        for (int key : intKeys) {
+            found += set.remove(key) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int boxedIntHashMap() {
+        HashMap<Integer, Object> map = new HashMap<Integer, Object>();
+        int found = 0;
+        for (int key : intKeys) {
+            map.put(key, VALUE);
+        }
+        for (int key : intKeys) {
+            found += map.get(key) == null ? 0 : 1;
+        }
+        for (int key : intKeys) {
+            found += map.remove(key) == null ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int boxedLongHashMap() {
+        HashMap<Long, Object> map = new HashMap<Long, Object>();
+        int found = 0;
+        for (long key : longKeys) {
+            map.put(key, VALUE);
+        }
+        for (long key : longKeys) {
+            found += map.get(key) == null ? 0 : 1;
+        }
+        for (long key : longKeys) {
+            found += map.remove(key) == null ? 0 : 1;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int boxedIntHashSet() {
+        HashSet<Integer> set = new HashSet<Integer>();
+        int found = 0;
+        for (int key : intKeys) {
+            set.add(key);
+        }
+        for (int key : intKeys) {
+            found += set.contains(key) ? 1 : 0;
+        }
+        for (int key : intKeys) {
+            found += set.remove(key) ? 1 : 0;
+        }
+        return found;
+    }
+}
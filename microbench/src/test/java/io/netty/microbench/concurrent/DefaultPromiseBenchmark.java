@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.AbstractEventExecutor;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the completion of a {@link DefaultPromise} with a varying number of listeners, either notified directly
+ * because the promise is completed from its {@link EventExecutor}, or through a task submitted to the
+ * {@link EventExecutor}.
+ */
+@State(Scope.Thread)
+public class DefaultPromiseBenchmark extends AbstractMicrobenchmark {
+
+    public enum Notification {
+        IN_EVENT_LOOP,
+        SUBMITTED
+    }
+
+    @Param({ "0", "1", "3" })
+    public int listeners;
+
+    @Param
+    public Notification notification;
+
+    private final FutureListener<Void> listener = new FutureListener<Void>() {
+        @Override
+        public void operationComplete(Future<Void> future) throws Exception {
+            notified ++;
+        }
+    };
+
+    private EventExecutor executor;
+    private QueueingEventExecutor queueingExecutor;
+    private long notified;
+
+    @Setup
+    public void setup() {
+        switch (notification) {
+            case IN_EVENT_LOOP:
+                executor = ImmediateEventExecutor.INSTANCE;
+                break;
+            case SUBMITTED:
+                executor = queueingExecutor = new QueueingEventExecutor();
+                break;
+            default:
+                throw new Error();
+        }
+    }
+
+    @Benchmark
+    public long completePromise() {
+        Promise<Void> promise = new DefaultPromise<Void>(executor);
+        for (int i = 0; i < listeners; i ++) {
+            promise.addListener(listener);
+        }
+        promise.setSuccess(null);
+        if (queueingExecutor != null) {
+            queueingExecutor.runAllTasks();
+        }
+        return notified;
+    }
+
+    /**
+     * {@link EventExecutor} that is never in its event loop and runs the submitted tasks on demand, so notifying the
+     * listeners always goes through {@link #execute(Runnable)}.
+     */
+    private static final class QueueingEventExecutor extends AbstractEventExecutor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+
+        void runAllTasks() {
+            for (;;) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return false;
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @Deprecated
+        public void shutdown() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return false;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
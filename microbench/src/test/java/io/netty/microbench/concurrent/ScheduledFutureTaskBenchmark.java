@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules and cancels many timeouts from within the event loop, as done by {@code IdleStateHandler} and
+ * {@code ReadTimeoutHandler} for every connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScheduledFutureTaskBenchmark extends AbstractMicrobenchmark {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    @Param({ "100000", "1000000" })
+    public int numTimeouts;
+
+    private DefaultEventExecutor executor;
+    private ScheduledFuture<?>[] futures;
+
+    @Setup
+    public void setup() {
+        executor = new DefaultEventExecutor();
+        futures = new ScheduledFuture<?>[numTimeouts];
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public int scheduleAndCancel() throws Exception {
+        return executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                ScheduledFuture<?>[] futures = ScheduledFutureTaskBenchmark.this.futures;
+                for (int i = 0; i < futures.length; i ++) {
+                    futures[i] = executor.schedule(NOOP, 60 + (i & 1023), TimeUnit.SECONDS);
+                }
+                // Cancel in a different order than scheduled so that most removals are in the middle of the queue.
+                int cancelled = 0;
+                for (int i = futures.length - 1; i >= 0; i -= 2) {
+                    cancelled += futures[i].cancel(false) ? 1 : 0;
+                }
+                for (int i = futures.length - 2; i >= 0; i -= 2) {
+                    cancelled += futures[i].cancel(false) ? 1 : 0;
+                }
+                return cancelled;
+            }
+        }).get();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.NonStickyEventExecutorGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link DefaultEventExecutorGroup}, which pins every channel to one thread, and
+ * {@link NonStickyEventExecutorGroup} when a few channels receive most of the tasks.  Each channel is represented by
+ * the {@link EventExecutor} returned by {@link EventExecutorGroup#next()}, just like a {@code ChannelPipeline} does.
+ */
+@State(Scope.Benchmark)
+public class SkewedLoadEventExecutorGroupBenchmark extends AbstractMicrobenchmark {
+
+    public enum GroupType {
+        DEFAULT,
+        NON_STICKY
+    }
+
+    @Param
+    public GroupType groupType;
+
+    @Param({ "4" })
+    public int nThreads;
+
+    @Param({ "64" })
+    public int channels;
+
+    // Percentage of the tasks that are submitted to nThreads hot channels.
+    @Param({ "0", "90" })
+    public int hotPercentage;
+
+    @Param({ "4096" })
+    public int tasks;
+
+    @Param({ "256" })
+    public int workPerTask;
+
+    private EventExecutorGroup group;
+    private EventExecutor[] executors;
+    private int[] targets;
+
+    @Setup
+    public void setup() {
+        switch (groupType) {
+            case DEFAULT:
+                group = new DefaultEventExecutorGroup(nThreads);
+                break;
+            case NON_STICKY:
+                group = new NonStickyEventExecutorGroup(nThreads);
+                break;
+            default:
+                throw new Error();
+        }
+
+        executors = new EventExecutor[channels];
+        for (int i = 0; i < channels; i ++) {
+            executors[i] = group.next();
+        }
+
+        // Precompute the channel of each task, so the benchmark does not measure the random number generator.
+        // With the DEFAULT group the hot channels are all bound to the same thread if nThreads divides channels.
+        targets = new int[tasks];
+        Random random = new Random(0);
+        for (int i = 0; i < tasks; i ++) {
+            if (random.nextInt(100) < hotPercentage) {
+                targets[i] = random.nextInt(nThreads) * nThreads % channels;
+            } else {
+                targets[i] = random.nextInt(channels);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public long skewedLoad() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(tasks);
+        final long[] result = new long[channels];
+        for (int i = 0; i < tasks; i ++) {
+            final int channel = targets[i];
+            executors[channel].execute(new Runnable() {
+                @Override
+                public void run() {
+                    // Only ever accessed by the executor of the channel, so no synchronization is needed.
+                    result[channel] += work(workPerTask);
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        long sum = 0;
+        for (long r: result) {
+            sum += r;
+        }
+        return sum;
+    }
+
+    private static long work(int iterations) {
+        long x = iterations;
+        for (int i = 0; i < iterations; i ++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        return x;
+    }
+}
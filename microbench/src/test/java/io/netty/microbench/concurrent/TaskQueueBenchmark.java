@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.DefaultExecutorServiceFactory;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the task queues of {@link SingleThreadEventExecutor} when several producer threads feed one executor.
+ * Every producer adds a batch of tasks and then waits until the executor ran all of them, so the queue does not grow
+ * without bounds.
+ */
+public class TaskQueueBenchmark extends AbstractMicrobenchmark {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    public enum QueueType {
+        LINKED_BLOCKING,
+        MPSC_LINKED,
+        MPSC_ARRAY
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutorState {
+        @Param
+        public QueueType queueType;
+
+        SingleThreadEventExecutor executor;
+
+        @Setup
+        public void setup() {
+            switch (queueType) {
+                case LINKED_BLOCKING:
+                    executor = new TestExecutor() {
+                        @Override
+                        protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+                            return new LinkedBlockingQueue<Runnable>(maxPendingTasks);
+                        }
+                    };
+                    break;
+                case MPSC_LINKED:
+                    executor = new TestExecutor() {
+                        @Override
+                        protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+                            return PlatformDependent.newMpscQueue();
+                        }
+                    };
+                    break;
+                case MPSC_ARRAY:
+                    executor = new TestExecutor();
+                    break;
+                default:
+                    throw new Error();
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Param({ "1000" })
+    public int batchSize;
+
+    @Benchmark
+    @Threads(1)
+    public void execute1Producer(ExecutorState state) throws Exception {
+        executeBatch(state.executor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void execute4Producers(ExecutorState state) throws Exception {
+        executeBatch(state.executor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void execute16Producers(ExecutorState state) throws Exception {
+        executeBatch(state.executor);
+    }
+
+    private void executeBatch(SingleThreadEventExecutor executor) throws Exception {
+        for (int i = 0; i < batchSize; i ++) {
+            executor.execute(NOOP);
+        }
+        executor.submit(NOOP).sync();
+    }
+
+    private static class TestExecutor extends SingleThreadEventExecutor {
+        TestExecutor() {
+            super(null, new DefaultExecutorServiceFactory(TestExecutor.class).newExecutorService(1), true);
+        }
+
+        @Override
+        protected void run() {
+            Runnable task = takeTask();
+            if (task != null) {
+                task.run();
+                updateLastExecutionTime();
+            }
+
+            if (confirmShutdown()) {
+                cleanupAndTerminate(true);
+            } else {
+                scheduleExecution();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.HierarchicalWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds and cancels many timeouts from within an event loop, which is the common pattern for per-connection
+ * idle and request timeouts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WheelTimerBenchmark extends AbstractMicrobenchmark {
+
+    private static final TimerTask NOOP = new TimerTask() {
+        @Override
+        public void run(Timeout timeout) {
+            // NOOP
+        }
+    };
+
+    public enum TimerType {
+        HASHED,
+        HIERARCHICAL,
+        HIERARCHICAL_EXECUTOR
+    }
+
+    @Param
+    public TimerType timerType;
+
+    @Param({ "100000" })
+    public int numTimeouts;
+
+    private DefaultEventExecutor executor;
+    private Timer timer;
+    private Timeout[] timeouts;
+
+    @Setup
+    public void setup() {
+        executor = new DefaultEventExecutor();
+        switch (timerType) {
+            case HASHED:
+                timer = new HashedWheelTimer();
+                break;
+            case HIERARCHICAL:
+                timer = new HierarchicalWheelTimer();
+                break;
+            case HIERARCHICAL_EXECUTOR:
+                timer = new HierarchicalWheelTimer(executor);
+                break;
+            default:
+                throw new Error();
+        }
+        timeouts = new Timeout[numTimeouts];
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        timer.stop();
+        executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public int newTimeoutAndCancel() throws Exception {
+        return executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                Timeout[] timeouts = WheelTimerBenchmark.this.timeouts;
+                for (int i = 0; i < timeouts.length; i ++) {
+                    timeouts[i] = timer.newTimeout(NOOP, 30 + (i & 1023), TimeUnit.SECONDS);
+                }
+                int cancelled = 0;
+                for (int i = timeouts.length - 1; i >= 0; i --) {
+                    cancelled += timeouts[i].cancel() ? 1 : 0;
+                }
+                return cancelled;
+            }
+        }).get();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.internal;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.Recycler;
+import io.netty.util.internal.PlatformDependent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Queue;
+
+/**
+ * Compares recycling by the thread which got the object with recycling by another thread, which is what happens
+ * when one event loop decodes a message and another one releases it.
+ */
+@Threads(1)
+public class RecyclerBenchmark extends AbstractMicrobenchmark {
+
+    private static final class DummyObject {
+        private final Recycler.Handle<DummyObject> handle;
+
+        DummyObject(Recycler.Handle<DummyObject> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            handle.recycle(this);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RecyclerState {
+        @Param({ "1", "8" })
+        public int ratio;
+
+        Recycler<DummyObject> recycler;
+
+        @Setup
+        public void setup() {
+            recycler = new Recycler<DummyObject>(262144, 2, ratio, Runtime.getRuntime().availableProcessors() * 2) {
+                @Override
+                protected DummyObject newObject(Handle<DummyObject> handle) {
+                    return new DummyObject(handle);
+                }
+            };
+        }
+    }
+
+    /**
+     * Recycles every object handed over by the benchmark thread from a dedicated thread.
+     */
+    @State(Scope.Benchmark)
+    public static class RecyclingThread {
+        final Queue<DummyObject> queue = PlatformDependent.newMpscQueue();
+        private volatile boolean running = true;
+        private Thread thread;
+
+        @Setup
+        public void setup() {
+            thread = new Thread() {
+                @Override
+                public void run() {
+                    while (running) {
+                        DummyObject o = queue.poll();
+                        if (o == null) {
+                            Thread.yield();
+                        } else {
+                            o.recycle();
+                        }
+                    }
+                }
+            };
+            thread.start();
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            running = false;
+            thread.join();
+        }
+    }
+
+    @Benchmark
+    public DummyObject recycleSameThread(RecyclerState state) {
+        DummyObject o = state.recycler.get();
+        o.recycle();
+        return o;
+    }
+
+    @Benchmark
+    public DummyObject recycleOtherThread(RecyclerState state, RecyclingThread recyclingThread) {
+        DummyObject o = state.recycler.get();
+        recyclingThread.queue.offer(o);
+        return o;
+    }
+}
@@ -37,7 +37,6 @@ import io.netty.handler.codec.dns.DnsResponseDecoder;
 import io.netty.resolver.NameResolver;
 import io.netty.resolver.SimpleNameResolver;
 import io.netty.util.ReferenceCountUtil;
-import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
 import io.netty.util.concurrent.ScheduledFuture;
@@ -57,7 +56,6 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A DNS-based {@link NameResolver}.
@@ -91,11 +89,9 @@ public class DnsNameResolver extends SimpleNameResolver<InetSocketAddress> {
     final DatagramChannel ch;
 
     /**
-     * An array whose index is the ID of a DNS query and whose value is the promise of the corresponsing response. We
-     * don't use {@link IntObjectHashMap} or map-like data structure here because 64k elements are fairly small, which
-     * is only about 512KB.
+     * The contexts of the DNS queries in progress, keyed by the ID of the query.
      */
-    final AtomicReferenceArray<DnsQueryContext> promises = new AtomicReferenceArray<DnsQueryContext>(65536);
+    final DnsQueryContextManager queryContextManager = new DnsQueryContextManager();
 
     /**
      * The cache for {@link #query(DnsQuestion)}
@@ -773,7 +769,7 @@ public class DnsNameResolver extends SimpleNameResolver<InetSocketAddress> {
                     logger.debug("{} RECEIVED: [{}: {}], {}", ch, queryId, res.sender(), res);
                 }
 
-                final DnsQueryContext qCtx = promises.get(queryId);
+                final DnsQueryContext qCtx = queryContextManager.get(queryId);
 
                 if (qCtx == null) {
                     if (logger.isWarnEnabled()) {
@@ -802,7 +798,7 @@ public class DnsNameResolver extends SimpleNameResolver<InetSocketAddress> {
 
                 if (res.header().responseCode() == DnsResponseCode.NOERROR) {
                     cache(q, res);
-                    promises.set(queryId, null);
+                    queryContextManager.remove(queryId);
 
                     Promise<DnsResponse> qPromise = qCtx.promise();
                     if (qPromise.setUncancellable()) {
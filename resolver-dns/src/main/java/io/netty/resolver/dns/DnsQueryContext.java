@@ -29,7 +29,6 @@ import io.netty.util.concurrent.Promise;
 import io.netty.util.concurrent.ScheduledFuture;
 import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.StringUtil;
-import io.netty.util.internal.ThreadLocalRandom;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -63,7 +62,7 @@ final class DnsQueryContext {
         this.promise = promise;
         this.question = question;
 
-        id = allocateId();
+        id = parent.queryContextManager.add(this);
         recursionDesired = parent.isRecursionDesired();
         maxTries = parent.maxTriesPerQuery();
         remainingTries = maxTries;
@@ -72,23 +71,6 @@ final class DnsQueryContext {
         this.nameServerAddresses = nameServerAddresses.iterator();
     }
 
-    private int allocateId() {
-        int id = ThreadLocalRandom.current().nextInt(parent.promises.length());
-        final int maxTries = parent.promises.length() << 1;
-        int tries = 0;
-        for (;;) {
-            if (parent.promises.compareAndSet(id, null, this)) {
-                return id;
-            }
-
-            id = id + 1 & 0xFFFF;
-
-            if (++ tries >= maxTries) {
-                throw new IllegalStateException("query ID space exhausted: " + question);
-            }
-        }
-    }
-
     Promise<DnsResponse> promise() {
         return promise;
     }
@@ -105,7 +87,7 @@ final class DnsQueryContext {
         final DnsQuestion question = this.question;
 
         if (remainingTries <= 0 || !nameServerAddresses.hasNext()) {
-            parent.promises.set(id, null);
+            parent.queryContextManager.remove(id);
 
             int tries = maxTries - remainingTries;
             UnknownHostException cause;
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.resolver.dns;
+
+import io.netty.util.collection.ShortObjectHashMap;
+import io.netty.util.internal.ThreadLocalRandom;
+
+/**
+ * Keeps track of the {@link DnsQueryContext}s of the queries which are in progress, keyed by their 16-bit ID.
+ * Unlike an array with a slot for every possible ID, its footprint grows with the number of queries in progress.
+ */
+final class DnsQueryContextManager {
+
+    private static final int MAX_ID = 0xFFFF;
+
+    private final ShortObjectHashMap<DnsQueryContext> map = new ShortObjectHashMap<DnsQueryContext>();
+
+    /**
+     * Assigns a random, unused ID to the given context.
+     *
+     * @return the assigned ID
+     * @throws IllegalStateException if all IDs are in use
+     */
+    int add(DnsQueryContext qCtx) {
+        synchronized (map) {
+            if (map.size() > MAX_ID) {
+                throw new IllegalStateException("query ID space exhausted: " + qCtx.question());
+            }
+
+            int id = ThreadLocalRandom.current().nextInt(MAX_ID + 1);
+            while (map.containsKey((short) id)) {
+                id = id + 1 & MAX_ID;
+            }
+            map.put((short) id, qCtx);
+            return id;
+        }
+    }
+
+    /**
+     * Returns the context of the query with the given ID, or {@code null} if there is no such query in progress.
+     */
+    DnsQueryContext get(int id) {
+        synchronized (map) {
+            return map.get((short) id);
+        }
+    }
+
+    /**
+     * Releases the given ID, so it can be assigned to another query.
+     */
+    void remove(int id) {
+        synchronized (map) {
+            map.remove((short) id);
+        }
+    }
+}
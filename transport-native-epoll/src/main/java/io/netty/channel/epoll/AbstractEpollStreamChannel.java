@@ -28,27 +28,53 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoop;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.socket.ChannelInputShutdownEvent;
 import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.internal.EmptyArrays;
+import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
 
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(AbstractEpollStreamChannel.class);
+
     private static final String EXPECTED_TYPES =
             " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ", " +
                     StringUtil.simpleClassName(DefaultFileRegion.class) + ')';
 
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
+    private static final EOFException SPLICE_END_OF_INPUT_EXCEPTION =
+            new EOFException("input was shut down before all bytes were spliced");
+
+    static {
+        CLOSED_CHANNEL_EXCEPTION.setStackTrace(EmptyArrays.EMPTY_STACK_TRACE);
+        SPLICE_END_OF_INPUT_EXCEPTION.setStackTrace(EmptyArrays.EMPTY_STACK_TRACE);
+    }
+
     private volatile boolean inputShutdown;
     private volatile boolean outputShutdown;
 
+    // Lazy init these if we need to splice(...). Only accessed from the EventLoop.
+    private FileDescriptor pipeIn;
+    private FileDescriptor pipeOut;
+    private Queue<SpliceInTask> spliceQueue;
+
     protected AbstractEpollStreamChannel(Channel parent, int fd) {
         super(parent, fd, Native.EPOLLIN, true);
         // Add EPOLLRDHUP so we are notified once the remote peer close the connection.
@@ -70,6 +96,188 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
         return new EpollStreamUnsafe();
     }
 
+    /**
+     * Splice from this {@link AbstractEpollStreamChannel} to another {@link AbstractEpollStreamChannel}.
+     * The {@code len} is the number of bytes to splice. If using {@link Integer#MAX_VALUE} it will
+     * splice until the {@link ChannelFuture} was canceled or it was failed, or until the end of the input is reached,
+     * which succeeds the {@link ChannelFuture}. If the input ends before {@code len} bytes were spliced, the
+     * {@link ChannelFuture} is failed with an {@link EOFException}.
+     *
+     * Please note:
+     * <ul>
+     *   <li>both channels need to be registered to the same {@link EventLoop}, otherwise an
+     *   {@link IllegalArgumentException} is thrown. </li>
+     *   <li>{@link EpollChannelConfig#getEpollMode()} must be {@link EpollMode#LEVEL_TRIGGERED} for this and the
+     *   target {@link AbstractEpollStreamChannel}</li>
+     * </ul>
+     */
+    public final ChannelFuture spliceTo(final AbstractEpollStreamChannel ch, final int len) {
+        return spliceTo(ch, len, newPromise());
+    }
+
+    /**
+     * Splice from this {@link AbstractEpollStreamChannel} to another {@link AbstractEpollStreamChannel}.
+     * The {@code len} is the number of bytes to splice. If using {@link Integer#MAX_VALUE} it will
+     * splice until the {@link ChannelFuture} was canceled or it was failed, or until the end of the input is reached,
+     * which succeeds the {@link ChannelFuture}. If the input ends before {@code len} bytes were spliced, the
+     * {@link ChannelFuture} is failed with an {@link EOFException}.
+     *
+     * Please note:
+     * <ul>
+     *   <li>both channels need to be registered to the same {@link EventLoop}, otherwise an
+     *   {@link IllegalArgumentException} is thrown. </li>
+     *   <li>{@link EpollChannelConfig#getEpollMode()} must be {@link EpollMode#LEVEL_TRIGGERED} for this and the
+     *   target {@link AbstractEpollStreamChannel}</li>
+     * </ul>
+     */
+    public final ChannelFuture spliceTo(final AbstractEpollStreamChannel ch, final int len,
+                                        final ChannelPromise promise) {
+        if (ch == null) {
+            throw new NullPointerException("ch");
+        }
+        if (ch.eventLoop().unwrap() != eventLoop().unwrap()) {
+            throw new IllegalArgumentException("EventLoops are not the same.");
+        }
+        if (len < 0) {
+            throw new IllegalArgumentException("len: " + len + " (expected: >= 0)");
+        }
+        if (ch.config().getEpollMode() != EpollMode.LEVEL_TRIGGERED
+                || config().getEpollMode() != EpollMode.LEVEL_TRIGGERED) {
+            throw new IllegalStateException("spliceTo() supported only when using " + EpollMode.LEVEL_TRIGGERED);
+        }
+        if (promise == null) {
+            throw new NullPointerException("promise");
+        }
+        addToSpliceQueue(new SpliceInChannelTask(ch, len, promise));
+        return promise;
+    }
+
+    /**
+     * Splice from this {@link AbstractEpollStreamChannel} to another {@link FileDescriptor}.
+     * The {@code offset} is the offset for the {@link FileDescriptor} and {@code len} is the
+     * number of bytes to splice. If using {@link Integer#MAX_VALUE} it will splice until the
+     * {@link ChannelFuture} was canceled or it was failed, or until the end of the input is reached, which succeeds
+     * the {@link ChannelFuture}. If the input ends before {@code len} bytes were spliced, the {@link ChannelFuture}
+     * is failed with an {@link EOFException}.
+     *
+     * Please note:
+     * <ul>
+     *   <li>{@link EpollChannelConfig#getEpollMode()} must be {@link EpollMode#LEVEL_TRIGGERED} for this
+     *   {@link AbstractEpollStreamChannel}</li>
+     *   <li>the {@link FileDescriptor} will not be closed after the {@link ChannelFuture} is notified</li>
+     *   <li>the {@link FileDescriptor} should refer to a file as writing to it must never block</li>
+     * </ul>
+     */
+    public final ChannelFuture spliceTo(final FileDescriptor ch, final int offset, final int len) {
+        return spliceTo(ch, offset, len, newPromise());
+    }
+
+    /**
+     * Splice from this {@link AbstractEpollStreamChannel} to another {@link FileDescriptor}.
+     * The {@code offset} is the offset for the {@link FileDescriptor} and {@code len} is the
+     * number of bytes to splice. If using {@link Integer#MAX_VALUE} it will splice until the
+     * {@link ChannelFuture} was canceled or it was failed, or until the end of the input is reached, which succeeds
+     * the {@link ChannelFuture}. If the input ends before {@code len} bytes were spliced, the {@link ChannelFuture}
+     * is failed with an {@link EOFException}.
+     *
+     * Please note:
+     * <ul>
+     *   <li>{@link EpollChannelConfig#getEpollMode()} must be {@link EpollMode#LEVEL_TRIGGERED} for this
+     *   {@link AbstractEpollStreamChannel}</li>
+     *   <li>the {@link FileDescriptor} will not be closed after the {@link ChannelPromise} is notified</li>
+     *   <li>the {@link FileDescriptor} should refer to a file as writing to it must never block</li>
+     * </ul>
+     */
+    public final ChannelFuture spliceTo(final FileDescriptor ch, final int offset, final int len,
+                                        final ChannelPromise promise) {
+        if (ch == null) {
+            throw new NullPointerException("ch");
+        }
+        if (len < 0) {
+            throw new IllegalArgumentException("len: " + len + " (expected: >= 0)");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset: " + offset + " (expected: >= 0)");
+        }
+        if (config().getEpollMode() != EpollMode.LEVEL_TRIGGERED) {
+            throw new IllegalStateException("spliceTo() supported only when using " + EpollMode.LEVEL_TRIGGERED);
+        }
+        if (promise == null) {
+            throw new NullPointerException("promise");
+        }
+        addToSpliceQueue(new SpliceFdTask(ch, offset, len, promise));
+        return promise;
+    }
+
+    private void addToSpliceQueue(final SpliceInTask task) {
+        EventLoop eventLoop = eventLoop();
+        if (eventLoop.inEventLoop()) {
+            addToSpliceQueue0(task);
+        } else {
+            eventLoop.execute(new OneTimeTask() {
+                @Override
+                public void run() {
+                    addToSpliceQueue0(task);
+                }
+            });
+        }
+    }
+
+    private void addToSpliceQueue0(SpliceInTask task) {
+        if (!isOpen()) {
+            // The Channel was closed in the meantime, so doClose() will not pick up the task anymore.
+            task.fail(CLOSED_CHANNEL_EXCEPTION);
+            return;
+        }
+        if (inputShutdown) {
+            // Nothing is left to splice, so the task would never be picked up by the read loop.
+            task.inputShutdown(SPLICE_END_OF_INPUT_EXCEPTION);
+            return;
+        }
+        Queue<SpliceInTask> spliceQueue = this.spliceQueue;
+        if (spliceQueue == null) {
+            this.spliceQueue = spliceQueue = new ArrayDeque<SpliceInTask>();
+        }
+        spliceQueue.add(task);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        try {
+            super.doClose();
+        } finally {
+            safeClosePipe(pipeIn);
+            safeClosePipe(pipeOut);
+            failSpliceQueue(CLOSED_CHANNEL_EXCEPTION);
+        }
+    }
+
+    private void failSpliceQueue(Throwable cause) {
+        Queue<SpliceInTask> spliceQueue = this.spliceQueue;
+        if (spliceQueue == null) {
+            return;
+        }
+        for (;;) {
+            SpliceInTask task = spliceQueue.poll();
+            if (task == null) {
+                break;
+            }
+            task.fail(cause);
+        }
+    }
+
+    private static void safeClosePipe(FileDescriptor fd) {
+        if (fd != null) {
+            try {
+                fd.close();
+            } catch (IOException e) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Error while closing a pipe", e);
+                }
+            }
+        }
+    }
+
     /**
      * Write bytes form the given {@link ByteBuf} to the underlying {@link java.nio.channels.Channel}.
      * @param buf           the {@link ByteBuf} from which the bytes should be written
@@ -274,6 +482,14 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
                 // the network stack can handle more writes.
                 return false;
             }
+        } else if (msg instanceof SpliceOutTask) {
+            if (!((SpliceOutTask) msg).spliceOut(writeSpinCount)) {
+                // was not able to splice everything so break here we will get notified later again once
+                // the network stack can handle more writes.
+                setFlag(Native.EPOLLOUT);
+                return false;
+            }
+            in.remove();
         } else {
             // Should never reach here.
             throw new Error();
@@ -339,7 +555,7 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             return buf;
         }
 
-        if (msg instanceof DefaultFileRegion) {
+        if (msg instanceof DefaultFileRegion || msg instanceof SpliceOutTask) {
             return msg;
         }
 
@@ -375,6 +591,27 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
 
         boolean success = false;
         try {
+            if (isTcpFastOpenConnect() && remoteAddress instanceof InetSocketAddress
+                    && Epoll.isTcpFastOpenClientSideAvailable()) {
+                ChannelOutboundBuffer outbound = unsafe().outboundBuffer();
+                // Everything written before the connect will be written once the connection is established.
+                outbound.addFlush();
+                Object msg = outbound.current();
+                if (msg instanceof ByteBuf && ((ByteBuf) msg).hasMemoryAddress()) {
+                    ByteBuf buf = (ByteBuf) msg;
+                    InetSocketAddress remote = (InetSocketAddress) remoteAddress;
+                    // Send the first buffer as part of the SYN, the connect is finished once the socket becomes
+                    // writable as usual.
+                    int written = Native.sendToAddressFastOpen(fd().intValue(), buf.memoryAddress(),
+                            buf.readerIndex(), buf.writerIndex(), remote.getAddress(), remote.getPort());
+                    if (written > 0) {
+                        outbound.removeBytes(written);
+                    }
+                    setFlag(Native.EPOLLOUT);
+                    success = true;
+                    return false;
+                }
+            }
             boolean connected = Native.connect(fd().intValue(), remoteAddress);
             if (!connected) {
                 setFlag(Native.EPOLLOUT);
@@ -388,6 +625,14 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
         }
     }
 
+    /**
+     * Returns {@code true} if the data written before the connect should be sent as part of the SYN via TCP Fast
+     * Open.
+     */
+    protected boolean isTcpFastOpenConnect() {
+        return false;
+    }
+
     class EpollStreamUnsafe extends AbstractEpollUnsafe {
         /**
          * The future of the current connection attempt.  If not null, subsequent
@@ -549,6 +794,10 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             if (connectPromise != null) {
                 // pending connect which is now complete so handle it.
                 finishConnect();
+                if (connectPromise == null && isActive() && !outboundBuffer().isEmpty()) {
+                    // Flush the data that was written before the connect, see isTcpFastOpenConnect().
+                    super.epollOutReady();
+                }
             } else {
                 super.epollOutReady();
             }
@@ -602,7 +851,33 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
                         ? Integer.MAX_VALUE : config.getMaxMessagesPerRead();
                 int messages = 0;
                 int totalReadAmount = 0;
+                boolean spliced = false;
                 do {
+                    if (spliceQueue != null) {
+                        SpliceInTask spliceTask = spliceQueue.peek();
+                        if (spliceTask != null) {
+                            // The splice task records the amount of spliced bytes itself.
+                            spliced = true;
+                            if (spliceTask.spliceIn(allocHandle)) {
+                                // We need to check if it is still active as if not we removed all SpliceTasks in
+                                // doClose(...)
+                                if (isActive()) {
+                                    spliceQueue.remove();
+                                }
+                                continue;
+                            }
+                            if (spliceTask.endOfInput) {
+                                // The remote peer shut down its output, so none of the queued tasks can make
+                                // progress anymore.
+                                spliceQueue.remove();
+                                spliceTask.inputShutdown(SPLICE_END_OF_INPUT_EXCEPTION);
+                                failSpliceQueue(SPLICE_END_OF_INPUT_EXCEPTION);
+                                close = true;
+                            }
+                            break;
+                        }
+                    }
+
                     // we use a direct buffer here as the native implementations only be able
                     // to handle direct buffers.
                     byteBuf = allocHandle.allocate(allocator);
@@ -641,7 +916,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
                 } while (++ messages < maxMessagesPerRead);
 
                 pipeline.fireChannelReadComplete();
-                allocHandle.record(totalReadAmount);
+                if (!spliced || totalReadAmount > 0) {
+                    allocHandle.record(totalReadAmount);
+                }
 
                 if (close) {
                     closeOnRead(pipeline);
@@ -672,4 +949,272 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel {
             }
         }
     }
+
+    private abstract class SpliceInTask {
+        final ChannelPromise promise;
+        int len;
+        boolean endOfInput;
+
+        SpliceInTask(int len, ChannelPromise promise) {
+            this.promise = promise;
+            this.len = len;
+        }
+
+        /**
+         * Splice the next chunk of data and return {@code true} once this task is complete.
+         */
+        abstract boolean spliceIn(RecvByteBufAllocator.Handle handle);
+
+        void fail(Throwable cause) {
+            promise.tryFailure(cause);
+        }
+
+        /**
+         * Called once the input reached its end.  Completes the task if it was asked to splice until the end of the
+         * input via {@link Integer#MAX_VALUE}, otherwise fails it with the given {@code cause}.
+         */
+        abstract void inputShutdown(Throwable cause);
+
+        protected final int spliceIn(FileDescriptor pipeOut, RecvByteBufAllocator.Handle handle) throws IOException {
+            // calculate the maximum amount of data we are allowed to splice
+            int length = Math.min(handle.guess(), len);
+            int splicedIn = 0;
+            while (length > 0) {
+                // Splicing until there is nothing left to splice.
+                int localSplicedIn = Native.splice(fd().intValue(), -1, pipeOut.intValue(), -1, length);
+                if (localSplicedIn <= 0) {
+                    endOfInput = localSplicedIn < 0;
+                    break;
+                }
+                splicedIn += localSplicedIn;
+                length -= localSplicedIn;
+            }
+            handle.record(splicedIn);
+            return splicedIn;
+        }
+    }
+
+    // Let it directly implement ChannelFutureListener as well to reduce object creation.
+    private final class SpliceInChannelTask extends SpliceInTask implements ChannelFutureListener {
+        private final AbstractEpollStreamChannel ch;
+        // The promise of the last SpliceOutTask, which may still be pending when the input reaches its end.
+        private ChannelFuture lastSpliceFuture;
+
+        SpliceInChannelTask(AbstractEpollStreamChannel ch, int len, ChannelPromise promise) {
+            super(len, promise);
+            this.ch = ch;
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (!future.isSuccess()) {
+                promise.tryFailure(future.cause());
+            }
+        }
+
+        @Override
+        void inputShutdown(Throwable cause) {
+            if (len != Integer.MAX_VALUE) {
+                fail(cause);
+                return;
+            }
+            ChannelFuture lastSpliceFuture = this.lastSpliceFuture;
+            if (lastSpliceFuture == null || lastSpliceFuture.isDone()) {
+                // If the last write failed, this listener failed the promise already.
+                promise.trySuccess();
+            } else {
+                lastSpliceFuture.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) {
+                        // A failure is propagated by the SpliceInChannelTask itself.
+                        if (future.isSuccess()) {
+                            promise.trySuccess();
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public boolean spliceIn(RecvByteBufAllocator.Handle handle) {
+            assert ch.eventLoop().inEventLoop();
+            if (len == 0) {
+                promise.trySuccess();
+                return true;
+            }
+            if (promise.isDone()) {
+                // Cancelled or failed by a previous SpliceOutTask.
+                return true;
+            }
+            try {
+                // We create the pipe on the target channel as this will allow us to just handle pending writes
+                // later in a correct fashion without get into any ordering issues when spliceTo(...) is called
+                // on multiple Channels pointing to one target Channel.
+                FileDescriptor pipeOut = ch.pipeOut;
+                if (pipeOut == null) {
+                    // Create a new pipe as non was created before.
+                    FileDescriptor[] pipe = Native.pipe();
+                    ch.pipeIn = pipe[0];
+                    pipeOut = ch.pipeOut = pipe[1];
+                }
+
+                int splicedIn = spliceIn(pipeOut, handle);
+                if (splicedIn > 0) {
+                    // Integer.MAX_VALUE is a special value which will result in splice forever.
+                    if (len != Integer.MAX_VALUE) {
+                        len -= splicedIn;
+                    }
+
+                    // Depending on if we are done with splicing inbound data we set the right promise for the
+                    // outbound splicing.
+                    final ChannelPromise splicePromise;
+                    if (len == 0) {
+                        splicePromise = promise;
+                    } else {
+                        splicePromise = ch.newPromise().addListener(this);
+                    }
+
+                    boolean autoRead = config().isAutoRead();
+
+                    // Just call unsafe().write(...) and flush() as we not want to traverse the whole pipeline for this
+                    // case.
+                    lastSpliceFuture = splicePromise;
+                    ch.unsafe().write(new SpliceOutTask(ch, splicedIn, autoRead), splicePromise);
+                    ch.unsafe().flush();
+                    if (autoRead && !splicePromise.isDone()) {
+                        // Write was not done which means the target channel was not writable. In this case we need to
+                        // disable reading until we are done with splicing to the target channel because:
+                        //
+                        // - The user don't want to have any more data read from the socket
+                        // - We would need to keep all the data in the pipe(s) which may not be possible.
+                        config().setAutoRead(false);
+                    }
+                }
+
+                return len == 0;
+            } catch (Throwable cause) {
+                promise.tryFailure(cause);
+                return true;
+            }
+        }
+    }
+
+    private final class SpliceOutTask {
+        private final AbstractEpollStreamChannel ch;
+        private final boolean autoRead;
+        private int len;
+
+        SpliceOutTask(AbstractEpollStreamChannel ch, int len, boolean autoRead) {
+            this.ch = ch;
+            this.len = len;
+            this.autoRead = autoRead;
+        }
+
+        boolean spliceOut(int writeSpinCount) throws Exception {
+            assert ch.eventLoop().inEventLoop();
+            try {
+                for (int i = writeSpinCount - 1; i >= 0; i--) {
+                    int splicedOut = Native.splice(ch.pipeIn.intValue(), -1, ch.fd().intValue(), -1, len);
+                    if (splicedOut <= 0) {
+                        break;
+                    }
+                    len -= splicedOut;
+                    if (len == 0) {
+                        if (autoRead) {
+                            // AutoRead was used and we spliced everything so start reading again
+                            config().setAutoRead(true);
+                        }
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                if (autoRead) {
+                    // We got an IOException which means we need to start reading again
+                    config().setAutoRead(true);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private final class SpliceFdTask extends SpliceInTask {
+        private final FileDescriptor fd;
+        private FileDescriptor pipeIn;
+        private FileDescriptor pipeOut;
+        private long offset;
+
+        SpliceFdTask(FileDescriptor fd, int offset, int len, ChannelPromise promise) {
+            super(len, promise);
+            this.fd = fd;
+            this.offset = offset;
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            releasePipe();
+            super.fail(cause);
+        }
+
+        @Override
+        void inputShutdown(Throwable cause) {
+            if (len != Integer.MAX_VALUE) {
+                fail(cause);
+            } else {
+                // Everything spliced in was already written to the file descriptor.
+                releasePipe();
+                promise.trySuccess();
+            }
+        }
+
+        @Override
+        public boolean spliceIn(RecvByteBufAllocator.Handle handle) {
+            assert eventLoop().inEventLoop();
+            if (len == 0 || promise.isDone()) {
+                releasePipe();
+                promise.trySuccess();
+                return true;
+            }
+
+            try {
+                if (pipeOut == null) {
+                    // The pipe is kept until the task completes so it is not recreated for every read.
+                    FileDescriptor[] pipe = Native.pipe();
+                    pipeIn = pipe[0];
+                    pipeOut = pipe[1];
+                }
+                int splicedIn = spliceIn(pipeOut, handle);
+                if (splicedIn > 0) {
+                    // Integer.MAX_VALUE is a special value which will result in splice forever.
+                    if (len != Integer.MAX_VALUE) {
+                        len -= splicedIn;
+                    }
+                    do {
+                        int splicedOut = Native.splice(pipeIn.intValue(), -1, fd.intValue(), offset, splicedIn);
+                        if (splicedOut <= 0) {
+                            throw new IOException("splice to " + fd + " made no progress");
+                        }
+                        offset += splicedOut;
+                        splicedIn -= splicedOut;
+                    } while (splicedIn > 0);
+                    if (len == 0) {
+                        releasePipe();
+                        promise.trySuccess();
+                        return true;
+                    }
+                }
+                return false;
+            } catch (Throwable cause) {
+                fail(cause);
+                return true;
+            }
+        }
+
+        private void releasePipe() {
+            safeClosePipe(pipeIn);
+            safeClosePipe(pipeOut);
+            pipeIn = null;
+            pipeOut = null;
+        }
+    }
 }
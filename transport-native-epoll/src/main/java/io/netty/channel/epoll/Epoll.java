@@ -15,12 +15,26 @@
  */
 package io.netty.channel.epoll;
 
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+
 /**
  * Tells if <a href="http://netty.io/wiki/native-transports.html">{@code netty-transport-native-epoll}</a> is supported.
  */
 public final class Epoll {
 
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(Epoll.class);
+
+    // Bits of /proc/sys/net/ipv4/tcp_fastopen, see https://www.kernel.org/doc/Documentation/networking/ip-sysctl.txt
+    private static final int TCP_FASTOPEN_MODE_CLIENT = 1;
+    private static final int TCP_FASTOPEN_MODE_SERVER = 2;
+
     private static final Throwable UNAVAILABILITY_CAUSE;
+    private static final int TCP_FASTOPEN_MODE;
 
     static  {
         Throwable cause = null;
@@ -53,6 +67,34 @@ public final class Epoll {
         } else {
             UNAVAILABILITY_CAUSE = null;
         }
+
+        int tcpFastopenMode = 0;
+        File file = new File("/proc/sys/net/ipv4/tcp_fastopen");
+        if (file.exists()) {
+            BufferedReader in = null;
+            try {
+                in = new BufferedReader(new FileReader(file));
+                tcpFastopenMode = Integer.parseInt(in.readLine());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("{}: {}", file, tcpFastopenMode);
+                }
+            } catch (Exception e) {
+                logger.debug("Failed to get TCP_FASTOPEN from: {}", file, e);
+            } finally {
+                if (in != null) {
+                    try {
+                        in.close();
+                    } catch (Exception e) {
+                        // Ignored.
+                    }
+                }
+            }
+        } else {
+            if (logger.isDebugEnabled()) {
+                logger.debug("{}: {} (non-existent)", file, tcpFastopenMode);
+            }
+        }
+        TCP_FASTOPEN_MODE = tcpFastopenMode;
     }
 
     /**
@@ -86,5 +128,25 @@ public final class Epoll {
         return UNAVAILABILITY_CAUSE;
     }
 
+    /**
+     * Returns {@code true} if the epoll transport is available and the kernel allows to send data in the SYN of
+     * outgoing connections via TCP Fast Open.
+     *
+     * @see EpollChannelOption#TCP_FASTOPEN_CONNECT
+     */
+    public static boolean isTcpFastOpenClientSideAvailable() {
+        return isAvailable() && (TCP_FASTOPEN_MODE & TCP_FASTOPEN_MODE_CLIENT) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the epoll transport is available and the kernel accepts data in the SYN of
+     * incoming connections via TCP Fast Open.
+     *
+     * @see EpollChannelOption#TCP_FASTOPEN
+     */
+    public static boolean isTcpFastOpenServerSideAvailable() {
+        return isAvailable() && (TCP_FASTOPEN_MODE & TCP_FASTOPEN_MODE_SERVER) != 0;
+    }
+
     private Epoll() { }
 }
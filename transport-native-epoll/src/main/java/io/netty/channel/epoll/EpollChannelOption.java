@@ -23,9 +23,17 @@ public final class EpollChannelOption {
 
     public static final ChannelOption<Boolean> TCP_CORK = ChannelOption.valueOf(T, "TCP_CORK");
     public static final ChannelOption<Boolean> SO_REUSEPORT = ChannelOption.valueOf(T, "SO_REUSEPORT");
+    public static final ChannelOption<Boolean> UDP_GRO = ChannelOption.valueOf(T, "UDP_GRO");
+    public static final ChannelOption<Integer> SO_BUSY_POLL = ChannelOption.valueOf(T, "SO_BUSY_POLL");
+    public static final ChannelOption<Integer> SO_INCOMING_CPU = ChannelOption.valueOf(T, "SO_INCOMING_CPU");
     public static final ChannelOption<Integer> TCP_KEEPIDLE = ChannelOption.valueOf(T, "TCP_KEEPIDLE");
     public static final ChannelOption<Integer> TCP_KEEPINTVL = ChannelOption.valueOf(T, "TCP_KEEPINTVL");
     public static final ChannelOption<Integer> TCP_KEEPCNT = ChannelOption.valueOf(T, "TCP_KEEPCNT");
+    public static final ChannelOption<Integer> TCP_USER_TIMEOUT = ChannelOption.valueOf(T, "TCP_USER_TIMEOUT");
+    public static final ChannelOption<Integer> TCP_NOTSENT_LOWAT = ChannelOption.valueOf(T, "TCP_NOTSENT_LOWAT");
+    public static final ChannelOption<Boolean> TCP_QUICKACK = ChannelOption.valueOf(T, "TCP_QUICKACK");
+    public static final ChannelOption<Integer> TCP_FASTOPEN = ChannelOption.valueOf(T, "TCP_FASTOPEN");
+    public static final ChannelOption<Boolean> TCP_FASTOPEN_CONNECT = ChannelOption.valueOf(T, "TCP_FASTOPEN_CONNECT");
     public static final ChannelOption<DomainSocketReadMode> DOMAIN_SOCKET_READ_MODE =
             ChannelOption.valueOf(T, "DOMAIN_SOCKET_READ_MODE");
     public static final ChannelOption<EpollMode> EPOLL_MODE =
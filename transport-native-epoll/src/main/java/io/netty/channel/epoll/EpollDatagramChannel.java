@@ -16,6 +16,7 @@
 package io.netty.channel.epoll;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.AddressedEnvelope;
 import io.netty.channel.ChannelFuture;
@@ -293,7 +294,9 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
 
             try {
                 // Check if sendmmsg(...) is supported which is only the case for GLIBC 2.14+
-                if (Native.IS_SUPPORTING_SENDMMSG && in.size() > 1) {
+                // SegmentedDatagramPackets are always written via sendmmsg(...) as it is used to pass the
+                // UDP_SEGMENT control message.
+                if (Native.IS_SUPPORTING_SENDMMSG && (in.size() > 1 || msg instanceof SegmentedDatagramPacket)) {
                     NativeDatagramPacketArray array = NativeDatagramPacketArray.getInstance(in);
                     int cnt = array.count();
 
@@ -391,6 +394,21 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
 
     @Override
     protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof SegmentedDatagramPacket) {
+            if (!SegmentedDatagramPacket.isSupported()) {
+                throw new UnsupportedOperationException("unsupported message type: " +
+                        StringUtil.simpleClassName(msg) + " (UDP_SEGMENT not supported)");
+            }
+            SegmentedDatagramPacket packet = (SegmentedDatagramPacket) msg;
+            ByteBuf content = packet.content();
+            if (content.hasMemoryAddress()) {
+                return msg;
+            }
+            // The content must be passed to sendmmsg(...) as one continuous buffer so we need to copy if it has no
+            // memory address.
+            return new SegmentedDatagramPacket(newDirectBuffer(packet, content), packet.segmentSize(),
+                    packet.recipient());
+        }
         if (msg instanceof DatagramPacket) {
             DatagramPacket packet = (DatagramPacket) msg;
             ByteBuf content = packet.content();
@@ -531,42 +549,44 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                 // if edgeTriggered is used we need to read all messages as we are not notified again otherwise.
                 final int maxMessagesPerRead = edgeTriggered
                         ? Integer.MAX_VALUE : config.getMaxMessagesPerRead();
+                // Only read in batches if we are allowed to read more then one message, which is not the case if
+                // autoRead is disabled and epoll LT is used.
+                final int batchSize = Native.IS_SUPPORTING_RECVMMSG && (edgeTriggered || config.isAutoRead())
+                        ? Math.min(config.getMaxMessagesPerRead(), Native.UIO_MAX_IOV) : 1;
+                final ByteBufAllocator allocator = config.getAllocator();
+                // UDP_GRO always needs recvmmsg(...) as it is used to receive the segment size.
+                final boolean udpGro = EpollDatagramChannel.this.config().isUdpGro();
+                boolean useRecvmmsg = batchSize > 1 || udpGro;
                 int messages = 0;
                 do {
-                    ByteBuf data = null;
                     try {
-                        data = allocHandle.allocate(config.getAllocator());
-                        int writerIndex = data.writerIndex();
-                        DatagramSocketAddress remoteAddress;
-                        if (data.hasMemoryAddress()) {
-                            // has a memory address so use optimized call
-                            remoteAddress = Native.recvFromAddress(
-                                    fd().intValue(), data.memoryAddress(), writerIndex, data.capacity());
-                        } else {
-                            ByteBuffer nioData = data.internalNioBuffer(writerIndex, data.writableBytes());
-                            remoteAddress = Native.recvFrom(
-                                    fd().intValue(), nioData, nioData.position(), nioData.limit());
+                        int read = -1;
+                        int batch = Math.min(batchSize, maxMessagesPerRead - messages);
+                        if (useRecvmmsg) {
+                            read = recvmmsg(allocHandle, allocator, batch, udpGro);
+                            // Fallback to recvfrom(...) if the allocator does not hand out buffers with a memory
+                            // address.
+                            useRecvmmsg = read != -1;
                         }
-
-                        if (remoteAddress == null) {
-                            break;
+                        if (read == -1) {
+                            read = recvFrom(allocHandle, allocator);
+                            if (read == 0) {
+                                break;
+                            }
+                            messages += read;
+                        } else {
+                            messages += read;
+                            if (read < batch) {
+                                // The socket was drained so there is no need to call recvmmsg(...) again.
+                                break;
+                            }
                         }
-
-                        int readBytes = remoteAddress.receivedAmount;
-                        data.writerIndex(data.writerIndex() + readBytes);
-                        allocHandle.record(readBytes);
-                        readPending = false;
-
-                        readBuf.add(new DatagramPacket(data, (InetSocketAddress) localAddress(), remoteAddress));
-                        data = null;
                     } catch (Throwable t) {
                         // We do not break from the loop here and remember the last exception,
                         // because we need to consume everything from the socket used with epoll ET.
                         exception = t;
+                        messages ++;
                     } finally {
-                        if (data != null) {
-                            data.release();
-                        }
                         if (!edgeTriggered && !config.isAutoRead()) {
                             // This is not using EPOLLET so we can stop reading
                             // ASAP as we will get notified again later with
@@ -574,7 +594,7 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                             break;
                         }
                     }
-                } while (++ messages < maxMessagesPerRead);
+                } while (messages < maxMessagesPerRead);
 
                 int size = readBuf.size();
                 for (int i = 0; i < size; i ++) {
@@ -599,6 +619,110 @@ public final class EpollDatagramChannel extends AbstractEpollChannel implements
                 }
             }
         }
+
+        /**
+         * Read one datagram via {@code recvfrom(...)} and return the number of datagrams read, which is {@code 0}
+         * if there was nothing to read.
+         */
+        private int recvFrom(RecvByteBufAllocator.Handle allocHandle, ByteBufAllocator allocator) throws IOException {
+            ByteBuf data = allocHandle.allocate(allocator);
+            try {
+                int writerIndex = data.writerIndex();
+                DatagramSocketAddress remoteAddress;
+                if (data.hasMemoryAddress()) {
+                    // has a memory address so use optimized call
+                    remoteAddress = Native.recvFromAddress(
+                            fd().intValue(), data.memoryAddress(), writerIndex, data.capacity());
+                } else {
+                    ByteBuffer nioData = data.internalNioBuffer(writerIndex, data.writableBytes());
+                    remoteAddress = Native.recvFrom(
+                            fd().intValue(), nioData, nioData.position(), nioData.limit());
+                }
+
+                if (remoteAddress == null) {
+                    return 0;
+                }
+
+                int readBytes = remoteAddress.receivedAmount;
+                data.writerIndex(data.writerIndex() + readBytes);
+                allocHandle.record(readBytes);
+                readPending = false;
+
+                readBuf.add(new DatagramPacket(data, (InetSocketAddress) localAddress(), remoteAddress));
+                data = null;
+                return 1;
+            } finally {
+                if (data != null) {
+                    data.release();
+                }
+            }
+        }
+
+        /**
+         * Read up to {@code batchSize} datagrams with one {@code recvmmsg(...)} call and return the number of
+         * datagrams read, which is {@code 0} if there was nothing to read. Returns {@code -1} if the
+         * {@link ByteBufAllocator} does not allocate buffers with a memory address, in which case
+         * {@link #recvFrom(RecvByteBufAllocator.Handle, ByteBufAllocator)} must be used.
+         */
+        private int recvmmsg(RecvByteBufAllocator.Handle allocHandle, ByteBufAllocator allocator, int batchSize,
+                             boolean udpGro) throws IOException {
+            NativeDatagramPacketArray array = NativeDatagramPacketArray.getInstance();
+            int received = 0;
+            try {
+                for (int i = 0; i < batchSize; i++) {
+                    ByteBuf data = allocHandle.allocate(allocator);
+                    if (udpGro && !data.hasMemoryAddress()) {
+                        // Without recvmmsg(...) we would not know how to split the coalesced datagrams, so use a
+                        // direct buffer instead.
+                        ByteBuf direct = allocator.directBuffer(data.writableBytes());
+                        data.release();
+                        data = direct;
+                    }
+                    if (!array.addReadBuffer(data)) {
+                        data.release();
+                        break;
+                    }
+                }
+                int cnt = array.count();
+                if (cnt == 0) {
+                    return -1;
+                }
+                received = Native.recvmmsg(fd().intValue(), array.packets(), 0, cnt);
+                if (received > 0) {
+                    InetSocketAddress localAddress = (InetSocketAddress) localAddress();
+                    NativeDatagramPacketArray.NativeDatagramPacket[] packets = array.packets();
+                    for (int i = 0; i < received; i++) {
+                        NativeDatagramPacketArray.NativeDatagramPacket packet = packets[i];
+                        ByteBuf data = packet.buffer();
+                        DatagramSocketAddress remoteAddress = packet.sender();
+                        int readBytes = remoteAddress.receivedAmount;
+                        data.writerIndex(data.writerIndex() + readBytes);
+                        allocHandle.record(readBytes);
+
+                        int segmentSize = packet.segmentSize();
+                        if (segmentSize > 0 && readBytes > segmentSize) {
+                            // The kernel coalesced multiple datagrams via UDP_GRO so split them again.
+                            int index = data.readerIndex();
+                            int end = data.writerIndex();
+                            while (index < end) {
+                                int length = Math.min(segmentSize, end - index);
+                                readBuf.add(new DatagramPacket(
+                                        data.slice(index, length).retain(), localAddress, remoteAddress));
+                                index += length;
+                            }
+                            data.release();
+                        } else {
+                            readBuf.add(new DatagramPacket(data, localAddress, remoteAddress));
+                        }
+                    }
+                    readPending = false;
+                }
+                return received;
+            } finally {
+                // Release all buffers that were not filled.
+                array.releaseReadBuffers(received);
+            }
+        }
     }
 
     /**
@@ -30,6 +30,7 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
     private static final RecvByteBufAllocator DEFAULT_RCVBUF_ALLOCATOR = new FixedRecvByteBufAllocator(2048);
     private final EpollDatagramChannel datagramChannel;
     private boolean activeOnOpen;
+    private volatile boolean udpGro;
 
     EpollDatagramChannelConfig(EpollDatagramChannel channel) {
         super(channel);
@@ -46,7 +47,8 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
                 ChannelOption.SO_REUSEADDR, ChannelOption.IP_MULTICAST_LOOP_DISABLED,
                 ChannelOption.IP_MULTICAST_ADDR, ChannelOption.IP_MULTICAST_IF, ChannelOption.IP_MULTICAST_TTL,
                 ChannelOption.IP_TOS, ChannelOption.DATAGRAM_CHANNEL_ACTIVE_ON_REGISTRATION,
-                EpollChannelOption.SO_REUSEPORT);
+                EpollChannelOption.SO_REUSEPORT, EpollChannelOption.UDP_GRO, EpollChannelOption.SO_BUSY_POLL,
+                EpollChannelOption.SO_INCOMING_CPU);
     }
 
     @SuppressWarnings({ "unchecked", "deprecation" })
@@ -85,6 +87,15 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
         if (option == EpollChannelOption.SO_REUSEPORT) {
             return (T) Boolean.valueOf(isReusePort());
         }
+        if (option == EpollChannelOption.UDP_GRO) {
+            return (T) Boolean.valueOf(isUdpGro());
+        }
+        if (option == EpollChannelOption.SO_BUSY_POLL) {
+            return (T) Integer.valueOf(getSoBusyPoll());
+        }
+        if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            return (T) Integer.valueOf(getIncomingCpu());
+        }
         return super.getOption(option);
     }
 
@@ -115,6 +126,12 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
             setActiveOnOpen((Boolean) value);
         } else if (option == EpollChannelOption.SO_REUSEPORT) {
             setReusePort((Boolean) value);
+        } else if (option == EpollChannelOption.UDP_GRO) {
+            setUdpGro((Boolean) value);
+        } else if (option == EpollChannelOption.SO_BUSY_POLL) {
+            setSoBusyPoll((Integer) value);
+        } else if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            setIncomingCpu((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -302,4 +319,65 @@ public final class EpollDatagramChannelConfig extends EpollChannelConfig impleme
         Native.setReusePort(datagramChannel.fd().intValue(), reusePort ? 1 : 0);
         return this;
     }
+
+    /**
+     * Returns {@code true} if the UDP_GRO option is set.
+     */
+    public boolean isUdpGro() {
+        return udpGro;
+    }
+
+    /**
+     * Set the UDP_GRO option on the underlying Channel. This allows the kernel to coalesce multiple datagrams of
+     * the same flow into one large buffer, which is split into the individual
+     * {@link io.netty.channel.socket.DatagramPacket}s again before it is passed through the
+     * {@link io.netty.channel.ChannelPipeline}.
+     *
+     * Be aware this requires Linux 5.0+ and a {@link io.netty.channel.RecvByteBufAllocator} which allocates buffers
+     * that are large enough to hold the coalesced datagrams (up to 64KB), otherwise datagrams will be truncated.
+     */
+    public EpollDatagramChannelConfig setUdpGro(boolean udpGro) {
+        if (udpGro && !Native.IS_SUPPORTING_RECVMMSG) {
+            throw new UnsupportedOperationException("UDP_GRO requires recvmmsg(...) support");
+        }
+        Native.setUdpGro(datagramChannel.fd().intValue(), udpGro ? 1 : 0);
+        this.udpGro = udpGro;
+        return this;
+    }
+
+    /**
+     * Get the {@code SO_BUSY_POLL} option on the socket. See {@code man 7 socket} for more details.
+     */
+    public int getSoBusyPoll() {
+        return Native.getSoBusyPoll(datagramChannel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_BUSY_POLL} option on the socket, which is the approximate time in microseconds to busy poll
+     * on a blocking receive when there is no data. See {@code man 7 socket} for more details.
+     *
+     * Be aware that raising the value above {@code net.core.busy_read} requires {@code CAP_NET_ADMIN}.
+     */
+    public EpollDatagramChannelConfig setSoBusyPoll(int micros) {
+        Native.setSoBusyPoll(datagramChannel.fd().intValue(), micros);
+        return this;
+    }
+
+    /**
+     * Get the {@code SO_INCOMING_CPU} option on the socket, which is the CPU that processed the last packet
+     * received by the socket or {@code -1} if unknown. See {@code man 7 socket} for more details.
+     */
+    public int getIncomingCpu() {
+        return Native.getIncomingCpu(datagramChannel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_INCOMING_CPU} option on the socket. When used together with {@code SO_REUSEPORT} this
+     * allows to steer packets to the socket that is served by the {@link io.netty.channel.EventLoop} which runs on
+     * the same CPU. See {@code man 7 socket} for more details.
+     */
+    public EpollDatagramChannelConfig setIncomingCpu(int cpu) {
+        Native.setIncomingCpu(datagramChannel.fd().intValue(), cpu);
+        return this;
+    }
 }
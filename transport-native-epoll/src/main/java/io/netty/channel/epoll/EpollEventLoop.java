@@ -15,6 +15,7 @@
  */
 package io.netty.channel.epoll;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SingleThreadEventLoop;
@@ -28,7 +29,6 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
@@ -58,6 +58,7 @@ final class EpollEventLoop extends SingleThreadEventLoop {
     @SuppressWarnings("unused")
     private volatile int wakenUp;
     private volatile int ioRatio = 50;
+    private volatile long busyPollNanos;
 
     EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents) {
         super(parent, executor, false);
@@ -138,12 +139,6 @@ final class EpollEventLoop extends SingleThreadEventLoop {
         }
     }
 
-    @Override
-    protected Queue<Runnable> newTaskQueue() {
-        // This event loop never calls takeTask()
-        return PlatformDependent.newMpscQueue();
-    }
-
     /**
      * Returns the percentage of the desired amount of time spent for I/O in the event loop.
      */
@@ -162,10 +157,48 @@ final class EpollEventLoop extends SingleThreadEventLoop {
         this.ioRatio = ioRatio;
     }
 
+    /**
+     * Returns the time in nanoseconds this event loop busy polls for I/O before it blocks in
+     * {@code epoll_wait(...)}, or {@code 0} if busy polling is disabled.
+     */
+    public long getBusyPollNanos() {
+        return busyPollNanos;
+    }
+
+    /**
+     * Sets the time in nanoseconds this event loop busy polls for I/O before it blocks in {@code epoll_wait(...)}.
+     * While busy polling the thread spins on {@code epoll_wait(...)} with a zero timeout, so an event or a task that
+     * arrives within this time is processed without the latency of parking and waking up the thread, at the cost of
+     * burning a CPU core. The default value is {@code 0}, which disables busy polling.
+     *
+     * Only use this if every busy polling thread has a CPU core of its own, otherwise the spinning threads compete
+     * with each other and the latency gets worse.
+     */
+    public void setBusyPollNanos(long busyPollNanos) {
+        if (busyPollNanos < 0) {
+            throw new IllegalArgumentException("busyPollNanos: " + busyPollNanos + " (expected: >= 0)");
+        }
+        this.busyPollNanos = busyPollNanos;
+    }
+
     private int epollWait(boolean oldWakenUp) throws IOException {
         int selectCnt = 0;
         long currentTimeNanos = System.nanoTime();
         long selectDeadLineNanos = currentTimeNanos + delayNanos(currentTimeNanos);
+
+        final long busyPollNanos = this.busyPollNanos;
+        if (busyPollNanos > 0 && !oldWakenUp) {
+            // Never spin past the deadline of the next scheduled task.
+            long busyPollDeadlineNanos = Math.min(currentTimeNanos + busyPollNanos, selectDeadLineNanos);
+            do {
+                int ready = Native.epollWait(epollFd, events, 0);
+                if (ready != 0 || wakenUp == 1 || hasTasks()) {
+                    return ready;
+                }
+                currentTimeNanos = System.nanoTime();
+            } while (currentTimeNanos - busyPollDeadlineNanos < 0);
+        }
+
         for (;;) {
             long timeoutMillis = (selectDeadLineNanos - currentTimeNanos + 500000L) / 1000000L;
             if (timeoutMillis <= 0) {
@@ -188,6 +221,10 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                 // - a scheduled task is ready for processing
                 return selectedKeys;
             }
+
+            // timeoutMillis elapsed without anything selected, so give the memory cached for this thread back to
+            // the allocators.
+            PooledByteBufAllocator.trimCurrentThreadCaches();
             currentTimeNanos = System.nanoTime();
         }
         return 0;
@@ -196,6 +233,8 @@ final class EpollEventLoop extends SingleThreadEventLoop {
     @Override
     protected void run() {
         boolean oldWakenUp = WAKEN_UP_UPDATER.getAndSet(this, 0) == 1;
+        final boolean metricEnabled = isMetricEnabled();
+        final long ioWaitStartTime = metricEnabled ? System.nanoTime() : 0;
         try {
             int ready;
             if (hasTasks()) {
@@ -238,7 +277,7 @@ final class EpollEventLoop extends SingleThreadEventLoop {
             }
 
             final int ioRatio = this.ioRatio;
-            if (ioRatio == 100) {
+            if (ioRatio == 100 && !metricEnabled) {
                 if (ready > 0) {
                     processReady(events, ready);
                 }
@@ -251,7 +290,16 @@ final class EpollEventLoop extends SingleThreadEventLoop {
                 }
 
                 final long ioTime = System.nanoTime() - ioStartTime;
-                runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                if (ioRatio == 100) {
+                    runAllTasks();
+                } else {
+                    runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                }
+
+                if (metricEnabled) {
+                    recordIteration(ioStartTime - ioWaitStartTime, ioTime,
+                                    System.nanoTime() - ioStartTime - ioTime);
+                }
             }
             if (allowGrowing && ready == events.length()) {
                 //increase the size of the array as we needed the whole space for the events
@@ -134,6 +134,18 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
         }
     }
 
+    /**
+     * Sets the time in nanoseconds the child event loops busy poll for I/O before they block in
+     * {@code epoll_wait(...)}. The default value is {@code 0}, which disables busy polling. Busy polling lowers the
+     * latency of picking up new events at the cost of keeping the threads of this group spinning while idle, so it
+     * should only be used if there are enough CPU cores to dedicate one to each of them.
+     */
+    public void setBusyPollNanos(long busyPollNanos) {
+        for (EventExecutor e: children()) {
+            ((EpollEventLoop) e).setBusyPollNanos(busyPollNanos);
+        }
+    }
+
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
         return new EpollEventLoop(this, executor, (Integer) args[0]);
@@ -37,7 +37,8 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(super.getOptions(), EpollChannelOption.SO_REUSEPORT);
+        return getOptions(super.getOptions(), EpollChannelOption.SO_REUSEPORT, EpollChannelOption.SO_INCOMING_CPU,
+                EpollChannelOption.TCP_FASTOPEN);
     }
 
     @SuppressWarnings("unchecked")
@@ -46,6 +47,12 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
         if (option == EpollChannelOption.SO_REUSEPORT) {
             return (T) Boolean.valueOf(isReusePort());
         }
+        if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            return (T) Integer.valueOf(getIncomingCpu());
+        }
+        if (option == EpollChannelOption.TCP_FASTOPEN) {
+            return (T) Integer.valueOf(getTcpFastopen());
+        }
         return super.getOption(option);
     }
 
@@ -55,6 +62,10 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
 
         if (option == EpollChannelOption.SO_REUSEPORT) {
             setReusePort((Boolean) value);
+        } else if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            setIncomingCpu((Integer) value);
+        } else if (option == EpollChannelOption.TCP_FASTOPEN) {
+            setTcpFastopen((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -157,4 +168,48 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
         Native.setReusePort(channel.fd().intValue(), reusePort ? 1 : 0);
         return this;
     }
+
+    /**
+     * Get the {@code SO_INCOMING_CPU} option on the socket, which is the CPU that processed the last packet
+     * received by the socket or {@code -1} if unknown. See {@code man 7 socket} for more details.
+     */
+    public int getIncomingCpu() {
+        return Native.getIncomingCpu(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_INCOMING_CPU} option on the socket. When used together with {@code SO_REUSEPORT} this
+     * allows to steer packets to the socket that is served by the {@link io.netty.channel.EventLoop} which runs on
+     * the same CPU. See {@code man 7 socket} for more details.
+     */
+    public EpollServerSocketChannelConfig setIncomingCpu(int cpu) {
+        Native.setIncomingCpu(channel.fd().intValue(), cpu);
+        return this;
+    }
+
+    /**
+     * Returns the maximal length of the queue of pending TCP Fast Open requests or {@code 0} if TCP Fast Open is
+     * not enabled for this socket.
+     */
+    public int getTcpFastopen() {
+        return Native.getTcpFastopen(channel.fd().intValue());
+    }
+
+    /**
+     * Enables TCP Fast Open on the listening socket by setting the maximal length of the queue of pending TCP Fast
+     * Open requests, which allows clients to send data in the SYN and so saves one round trip for the first
+     * request. The kernel must accept TCP Fast Open on the server side, see
+     * {@link Epoll#isTcpFastOpenServerSideAvailable()}. See {@code man 7 tcp} for more details.
+     *
+     * Be aware this method needs be called before {@link EpollServerSocketChannel#bind(java.net.SocketAddress)} to
+     * have any affect.
+     */
+    public EpollServerSocketChannelConfig setTcpFastopen(int pendingFastOpenRequestsThreshold) {
+        if (pendingFastOpenRequestsThreshold < 0) {
+            throw new IllegalArgumentException("pendingFastOpenRequestsThreshold: "
+                    + pendingFastOpenRequestsThreshold + " (expected: >= 0)");
+        }
+        Native.setTcpFastopen(channel.fd().intValue(), pendingFastOpenRequestsThreshold);
+        return this;
+    }
 }
@@ -194,6 +194,11 @@ public final class EpollSocketChannel extends AbstractEpollStreamChannel impleme
         return connected;
     }
 
+    @Override
+    protected boolean isTcpFastOpenConnect() {
+        return config.isTcpFastOpenConnect();
+    }
+
     private final class EpollSocketChannelUnsafe extends EpollStreamUnsafe {
         @Override
         protected Executor closeExecutor() {
@@ -30,6 +30,7 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
 
     private final EpollSocketChannel channel;
     private volatile boolean allowHalfClosure;
+    private volatile boolean tcpFastopenConnect;
 
     /**
      * Creates a new instance.
@@ -49,7 +50,10 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
                 super.getOptions(),
                 SO_RCVBUF, SO_SNDBUF, TCP_NODELAY, SO_KEEPALIVE, SO_REUSEADDR, SO_LINGER, IP_TOS,
                 ALLOW_HALF_CLOSURE, EpollChannelOption.TCP_CORK, EpollChannelOption.TCP_KEEPCNT,
-                EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL);
+                EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL, EpollChannelOption.SO_BUSY_POLL,
+                EpollChannelOption.SO_INCOMING_CPU, EpollChannelOption.TCP_USER_TIMEOUT,
+                EpollChannelOption.TCP_NOTSENT_LOWAT, EpollChannelOption.TCP_QUICKACK,
+                EpollChannelOption.TCP_FASTOPEN_CONNECT);
     }
 
     @SuppressWarnings("unchecked")
@@ -91,6 +95,24 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         if (option == EpollChannelOption.TCP_KEEPCNT) {
             return (T) Integer.valueOf(getTcpKeepCnt());
         }
+        if (option == EpollChannelOption.SO_BUSY_POLL) {
+            return (T) Integer.valueOf(getSoBusyPoll());
+        }
+        if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            return (T) Integer.valueOf(getIncomingCpu());
+        }
+        if (option == EpollChannelOption.TCP_USER_TIMEOUT) {
+            return (T) Integer.valueOf(getTcpUserTimeout());
+        }
+        if (option == EpollChannelOption.TCP_NOTSENT_LOWAT) {
+            return (T) Integer.valueOf(getTcpNotSentLowAt());
+        }
+        if (option == EpollChannelOption.TCP_QUICKACK) {
+            return (T) Boolean.valueOf(isTcpQuickAck());
+        }
+        if (option == EpollChannelOption.TCP_FASTOPEN_CONNECT) {
+            return (T) Boolean.valueOf(isTcpFastOpenConnect());
+        }
         return super.getOption(option);
     }
 
@@ -122,6 +144,18 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
             setTcpKeepCntl((Integer) value);
         } else if (option == EpollChannelOption.TCP_KEEPINTVL) {
             setTcpKeepIntvl((Integer) value);
+        } else if (option == EpollChannelOption.SO_BUSY_POLL) {
+            setSoBusyPoll((Integer) value);
+        } else if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            setIncomingCpu((Integer) value);
+        } else if (option == EpollChannelOption.TCP_USER_TIMEOUT) {
+            setTcpUserTimeout((Integer) value);
+        } else if (option == EpollChannelOption.TCP_NOTSENT_LOWAT) {
+            setTcpNotSentLowAt((Integer) value);
+        } else if (option == EpollChannelOption.TCP_QUICKACK) {
+            setTcpQuickAck((Boolean) value);
+        } else if (option == EpollChannelOption.TCP_FASTOPEN_CONNECT) {
+            setTcpFastOpenConnect((Boolean) value);
         } else {
             return super.setOption(option, value);
         }
@@ -272,6 +306,115 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         return this;
     }
 
+    /**
+     * Get the {@code SO_BUSY_POLL} option on the socket. See {@code man 7 socket} for more details.
+     */
+    public int getSoBusyPoll() {
+        return Native.getSoBusyPoll(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_BUSY_POLL} option on the socket, which is the approximate time in microseconds to busy poll
+     * on a blocking receive when there is no data. See {@code man 7 socket} for more details.
+     *
+     * Be aware that raising the value above {@code net.core.busy_read} requires {@code CAP_NET_ADMIN}.
+     */
+    public EpollSocketChannelConfig setSoBusyPoll(int micros) {
+        Native.setSoBusyPoll(channel.fd().intValue(), micros);
+        return this;
+    }
+
+    /**
+     * Get the {@code SO_INCOMING_CPU} option on the socket, which is the CPU that processed the last packet
+     * received by the socket or {@code -1} if unknown. See {@code man 7 socket} for more details.
+     */
+    public int getIncomingCpu() {
+        return Native.getIncomingCpu(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code SO_INCOMING_CPU} option on the socket. When used together with {@code SO_REUSEPORT} this
+     * allows to steer packets to the socket that is served by the {@link io.netty.channel.EventLoop} which runs on
+     * the same CPU. See {@code man 7 socket} for more details.
+     */
+    public EpollSocketChannelConfig setIncomingCpu(int cpu) {
+        Native.setIncomingCpu(channel.fd().intValue(), cpu);
+        return this;
+    }
+
+    /**
+     * Get the {@code TCP_USER_TIMEOUT} option on the socket. See {@code man 7 tcp} for more details.
+     */
+    public int getTcpUserTimeout() {
+        return Native.getTcpUserTimeout(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code TCP_USER_TIMEOUT} option on the socket, which is the maximum time in milliseconds transmitted
+     * data may remain unacknowledged before the connection is closed. See {@code man 7 tcp} for more details.
+     */
+    public EpollSocketChannelConfig setTcpUserTimeout(int milliseconds) {
+        Native.setTcpUserTimeout(channel.fd().intValue(), milliseconds);
+        return this;
+    }
+
+    /**
+     * Get the {@code TCP_NOTSENT_LOWAT} option on the socket. See {@code man 7 tcp} for more details.
+     */
+    public int getTcpNotSentLowAt() {
+        return Native.getTcpNotSentLowAt(channel.fd().intValue());
+    }
+
+    /**
+     * Set the {@code TCP_NOTSENT_LOWAT} option on the socket, which limits the amount of unsent data in the socket
+     * send buffer. The socket only becomes writable again once less than this amount of bytes is unsent, which
+     * keeps the data in the {@link io.netty.channel.ChannelOutboundBuffer} and so reduces the latency and memory
+     * usage of the kernel. See {@code man 7 tcp} for more details.
+     */
+    public EpollSocketChannelConfig setTcpNotSentLowAt(int tcpNotSentLowAt) {
+        Native.setTcpNotSentLowAt(channel.fd().intValue(), tcpNotSentLowAt);
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if the {@code TCP_QUICKACK} option is set on the socket.
+     * See {@code man 7 tcp} for more details.
+     */
+    public boolean isTcpQuickAck() {
+        return Native.isTcpQuickAck(channel.fd().intValue()) == 1;
+    }
+
+    /**
+     * Set the {@code TCP_QUICKACK} option on the socket. Be aware this option is not permanent and may be reset by
+     * the kernel after the next operation. See {@code man 7 tcp} for more details.
+     */
+    public EpollSocketChannelConfig setTcpQuickAck(boolean quickAck) {
+        Native.setTcpQuickAck(channel.fd().intValue(), quickAck ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if the data that was written and flushed before the connect is sent as part of the SYN
+     * via TCP Fast Open.
+     */
+    public boolean isTcpFastOpenConnect() {
+        return tcpFastopenConnect;
+    }
+
+    /**
+     * Enables client-side TCP Fast Open. If enabled and supported by the kernel (see
+     * {@link Epoll#isTcpFastOpenClientSideAvailable()}), the data that was written and flushed before the connect
+     * is sent as part of the SYN via {@code sendto(..., MSG_FASTOPEN, ...)}, which saves one round trip once the
+     * kernel has a TCP Fast Open cookie of the remote peer cached.
+     *
+     * Be aware this method needs be called before {@link EpollSocketChannel#connect(java.net.SocketAddress)} to have
+     * any affect.
+     */
+    public EpollSocketChannelConfig setTcpFastOpenConnect(boolean fastOpenConnect) {
+        tcpFastopenConnect = fastOpenConnect;
+        return this;
+    }
+
     @Override
     public boolean isAllowHalfClosure() {
         return allowHalfClosure;
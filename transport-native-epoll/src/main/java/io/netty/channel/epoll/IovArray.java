@@ -93,6 +93,19 @@ final class IovArray implements MessageProcessor {
         return true;
     }
 
+    /**
+     * Try to add the writable region of the given {@link ByteBuf} so it can be used as target of a scattering read.
+     * Returns {@code true} on success, {@code false} otherwise.
+     */
+    boolean addWritable(ByteBuf buf) {
+        if (count == Native.IOV_MAX) {
+            // No more room!
+            return false;
+        }
+        add(buf.memoryAddress(), buf.writerIndex(), buf.writableBytes());
+        return true;
+    }
+
     private void add(long addr, int offset, int len) {
         if (len == 0) {
             // No need to add an empty buffer.
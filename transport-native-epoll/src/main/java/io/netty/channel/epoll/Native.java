@@ -19,6 +19,7 @@ package io.netty.channel.epoll;
 import io.netty.channel.ChannelException;
 import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.FileDescriptor;
 import io.netty.util.internal.EmptyArrays;
 import io.netty.util.internal.NativeLibraryLoader;
 import io.netty.util.internal.PlatformDependent;
@@ -58,6 +59,8 @@ final class Native {
     public static final int IOV_MAX = iovMax();
     public static final int UIO_MAX_IOV = uioMaxIov();
     public static final boolean IS_SUPPORTING_SENDMMSG = isSupportingSendmmsg();
+    public static final boolean IS_SUPPORTING_RECVMMSG = isSupportingRecvmmsg();
+    public static final boolean IS_SUPPORTING_UDP_SEGMENT = isSupportingUdpSegment();
 
     private static final byte[] IPV4_MAPPED_IPV6_PREFIX = {
             0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, (byte) 0xff };
@@ -89,6 +92,8 @@ final class Native {
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDTO;
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDMSG;
     private static final IOException CONNECTION_RESET_EXCEPTION_SENDMMSG;
+    private static final IOException CONNECTION_RESET_EXCEPTION_SPLICE;
+    private static final IOException CONNECTION_RESET_EXCEPTION_RECVMMSG;
 
     static {
         for (int i = 0; i < ERRORS.length; i++) {
@@ -110,6 +115,10 @@ final class Native {
                 ERRNO_EPIPE_NEGATIVE);
         CONNECTION_RESET_EXCEPTION_SENDMMSG = newConnectionResetException("syscall:sendmmsg(...)",
                 ERRNO_EPIPE_NEGATIVE);
+        CONNECTION_RESET_EXCEPTION_SPLICE = newConnectionResetException("syscall:splice(...)",
+                ERRNO_EPIPE_NEGATIVE);
+        CONNECTION_RESET_EXCEPTION_RECVMMSG = newConnectionResetException("syscall:recvmmsg(...)",
+                ERRNO_ECONNRESET_NEGATIVE);
         CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
         CLOSED_CHANNEL_EXCEPTION.setStackTrace(EmptyArrays.EMPTY_STACK_TRACE);
     }
@@ -260,6 +269,39 @@ final class Native {
     private static native long sendfile0(
             int dest, DefaultFileRegion src, long baseOffset, long offset, long length) throws IOException;
 
+    /**
+     * Move up to {@code len} bytes from {@code fd} to {@code fdOut} without copying them into user-space. One of
+     * both file descriptors must refer to a pipe. An offset of {@code -1} means the current file offset is used.
+     *
+     * @return the number of bytes moved, {@code 0} if the operation would block or {@code -1} if {@code fd} reached
+     *         the end of its input, e.g. because the remote peer shut down its output.
+     */
+    public static int splice(int fd, long offIn, int fdOut, long offOut, long len) throws IOException {
+        int res = splice0(fd, offIn, fdOut, offOut, len);
+        if (res > 0) {
+            return res;
+        }
+        if (res == 0) {
+            return -1;
+        }
+        return ioResult("splice", res, CONNECTION_RESET_EXCEPTION_SPLICE);
+    }
+
+    private static native int splice0(int fd, long offIn, int fdOut, long offOut, long len);
+
+    /**
+     * Create a new non-blocking pipe. The first {@link FileDescriptor} is the read end and the second the write end.
+     */
+    public static FileDescriptor[] pipe() throws IOException {
+        long res = pipe0();
+        if (res < 0) {
+            throw newIOException("pipe", (int) res);
+        }
+        return new FileDescriptor[] { new FileDescriptor((int) (res >>> 32)), new FileDescriptor((int) res) };
+    }
+
+    private static native long pipe0();
+
     public static int sendTo(
             int fd, ByteBuffer buf, int pos, int limit, InetAddress addr, int port) throws IOException {
         // just duplicate the toNativeInetAddress code here to minimize object creation as this method is expected
@@ -286,6 +328,22 @@ final class Native {
 
     public static int sendToAddress(
             int fd, long memoryAddress, int pos, int limit, InetAddress addr, int port) throws IOException {
+        return sendToAddress(fd, memoryAddress, pos, limit, addr, port, false);
+    }
+
+    /**
+     * Connect the socket to the given remote address and send the data as part of the SYN via
+     * {@code sendto(..., MSG_FASTOPEN, ...)}. Returns the number of bytes that were sent with the SYN, which is
+     * {@code 0} if the kernel had no TCP Fast Open cookie for the remote peer yet and so only started a normal
+     * connect. In both cases the connect needs to be finished once the socket becomes writable.
+     */
+    public static int sendToAddressFastOpen(
+            int fd, long memoryAddress, int pos, int limit, InetAddress addr, int port) throws IOException {
+        return sendToAddress(fd, memoryAddress, pos, limit, addr, port, true);
+    }
+
+    private static int sendToAddress(int fd, long memoryAddress, int pos, int limit, InetAddress addr, int port,
+                                     boolean fastOpen) throws IOException {
         // just duplicate the toNativeInetAddress code here to minimize object creation as this method is expected
         // to be called frequently
         byte[] address;
@@ -298,15 +356,22 @@ final class Native {
             scopeId = 0;
             address = ipv4MappedIpv6Address(addr.getAddress());
         }
-        int res = sendToAddress0(fd, memoryAddress, pos, limit, address, scopeId, port);
+        int res = fastOpen ? sendToAddressFastOpen0(fd, memoryAddress, pos, limit, address, scopeId, port)
+                           : sendToAddress0(fd, memoryAddress, pos, limit, address, scopeId, port);
         if (res >= 0) {
             return res;
         }
+        if (fastOpen && res == ERRNO_EINPROGRESS_NEGATIVE) {
+            // No data was sent but the connect is in progress.
+            return 0;
+        }
         return ioResult("sendToAddress", res, CONNECTION_RESET_EXCEPTION_SENDTO);
     }
 
     private static native int sendToAddress0(
             int fd, long memoryAddress, int pos, int limit, byte[] address, int scopeId, int port);
+    private static native int sendToAddressFastOpen0(
+            int fd, long memoryAddress, int pos, int limit, byte[] address, int scopeId, int port);
 
     public static int sendToAddresses(
             int fd, long memoryAddress, int length, InetAddress addr, int port) throws IOException {
@@ -352,6 +417,21 @@ final class Native {
 
     private static native boolean isSupportingSendmmsg();
 
+    public static int recvmmsg(
+            int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len) throws IOException {
+        int res = recvmmsg0(fd, msgs, offset, len);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("recvmmsg", res, CONNECTION_RESET_EXCEPTION_RECVMMSG);
+    }
+
+    private static native int recvmmsg0(
+            int fd, NativeDatagramPacketArray.NativeDatagramPacket[] msgs, int offset, int len);
+
+    private static native boolean isSupportingRecvmmsg();
+    private static native boolean isSupportingUdpSegment();
+
     // socket operations
     public static int socketStreamFd() {
         int res = socketStream();
@@ -577,6 +657,13 @@ final class Native {
     public static native int isKeepAlive(int fd);
     public static native int isReuseAddress(int fd);
     public static native int isReusePort(int fd);
+    public static native int isUdpGro(int fd);
+    public static native int getSoBusyPoll(int fd);
+    public static native int getIncomingCpu(int fd);
+    public static native int getTcpFastopen(int fd);
+    public static native int getTcpNotSentLowAt(int fd);
+    public static native int isTcpQuickAck(int fd);
+    public static native int getTcpUserTimeout(int fd);
     public static native int isTcpNoDelay(int fd);
     public static native int isTcpCork(int fd);
     public static native int getSoLinger(int fd);
@@ -591,6 +678,13 @@ final class Native {
     public static native void setReceiveBufferSize(int fd, int receiveBufferSize);
     public static native void setReuseAddress(int fd, int reuseAddress);
     public static native void setReusePort(int fd, int reuseAddress);
+    public static native void setUdpGro(int fd, int udpGro);
+    public static native void setSoBusyPoll(int fd, int micros);
+    public static native void setIncomingCpu(int fd, int cpu);
+    public static native void setTcpFastopen(int fd, int tcpFastopenBacklog);
+    public static native void setTcpNotSentLowAt(int fd, int tcpNotSentLowAt);
+    public static native void setTcpQuickAck(int fd, int quickAck);
+    public static native void setTcpUserTimeout(int fd, int milliseconds);
     public static native void setSendBufferSize(int fd, int sendBufferSize);
     public static native void setTcpNoDelay(int fd, int tcpNoDelay);
     public static native void setTcpCork(int fd, int tcpCork);
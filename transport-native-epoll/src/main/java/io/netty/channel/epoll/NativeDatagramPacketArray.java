@@ -25,7 +25,8 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 
 /**
- * Support <a href="http://linux.die.net/man/2/sendmmsg">sendmmsg(...)</a> on linux with GLIBC 2.14+
+ * Support <a href="http://linux.die.net/man/2/sendmmsg">sendmmsg(...)</a> on linux with GLIBC 2.14+ and
+ * <a href="http://linux.die.net/man/2/recvmmsg">recvmmsg(...)</a> on linux with GLIBC 2.12+
  */
 final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessageProcessor {
 
@@ -46,7 +47,8 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
                 }
             };
 
-    // Use UIO_MAX_IOV as this is the maximum number we can write with one sendmmsg(...) call.
+    // Use UIO_MAX_IOV as this is the maximum number we can write with one sendmmsg(...) or read with one
+    // recvmmsg(...) call.
     private final NativeDatagramPacket[] packets = new NativeDatagramPacket[Native.UIO_MAX_IOV];
     private int count;
 
@@ -71,7 +73,9 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         }
         NativeDatagramPacket p = packets[count];
         InetSocketAddress recipient = packet.recipient();
-        if (!p.init(content, recipient)) {
+        int segmentSize = packet instanceof SegmentedDatagramPacket ?
+                ((SegmentedDatagramPacket) packet).segmentSize() : 0;
+        if (!p.init(content, recipient, segmentSize)) {
             return false;
         }
 
@@ -79,6 +83,37 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         return true;
     }
 
+    /**
+     * Try to add the given {@link ByteBuf} as target of a {@code recvmmsg(...)} call. Returns {@code true} on success,
+     * {@code false} otherwise.
+     */
+    boolean addReadBuffer(ByteBuf buf) {
+        if (count == packets.length || !buf.hasMemoryAddress()) {
+            return false;
+        }
+        if (!packets[count].initForRead(buf)) {
+            return false;
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Release the buffers that were added via {@link #addReadBuffer(ByteBuf)} but not filled by the last
+     * {@code recvmmsg(...)} call, which means all buffers starting at {@code received}.
+     */
+    void releaseReadBuffers(int received) {
+        for (int i = 0; i < count; i++) {
+            ByteBuf buf = packets[i].buffer;
+            packets[i].buffer = null;
+            packets[i].sender = null;
+            if (i >= received) {
+                buf.release();
+            }
+        }
+        count = 0;
+    }
+
     @Override
     public boolean processMessage(Object msg) throws Exception {
         return msg instanceof DatagramPacket && add((DatagramPacket) msg);
@@ -109,6 +144,15 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         return array;
     }
 
+    /**
+     * Returns an empty {@link NativeDatagramPacketArray} which can be filled via {@link #addReadBuffer(ByteBuf)}.
+     */
+    static NativeDatagramPacketArray getInstance() {
+        NativeDatagramPacketArray array = ARRAY.get();
+        array.count = 0;
+        return array;
+    }
+
     /**
      * Used to pass needed data to JNI.
      */
@@ -127,14 +171,60 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
         private int scopeId;
         private int port;
 
+        // The segment size used for UDP_SEGMENT when sending or received via UDP_GRO, 0 if not used.
+        private int segmentSize;
+
+        // Filled by recvmmsg(...)
+        private EpollDatagramChannel.DatagramSocketAddress sender;
+        private ByteBuf buffer;
+
         private void release() {
             array.release();
         }
 
+        /**
+         * Returns the {@link ByteBuf} that was filled by {@code recvmmsg(...)}.
+         */
+        ByteBuf buffer() {
+            return buffer;
+        }
+
+        /**
+         * Returns the sender of the datagram that was received by {@code recvmmsg(...)}.
+         */
+        EpollDatagramChannel.DatagramSocketAddress sender() {
+            return sender;
+        }
+
+        /**
+         * Returns the segment size of the datagrams that were coalesced by the kernel via {@code UDP_GRO} or {@code 0}
+         * if the received buffer holds a single datagram.
+         */
+        int segmentSize() {
+            return segmentSize;
+        }
+
+        /**
+         * Init this instance for a read into the given {@link ByteBuf} and return {@code true} if the init was
+         * successful.
+         */
+        private boolean initForRead(ByteBuf buf) {
+            array.clear();
+            if (!array.addWritable(buf)) {
+                return false;
+            }
+            memoryAddress = array.memoryAddress(0);
+            count = array.count();
+            buffer = buf;
+            sender = null;
+            segmentSize = 0;
+            return true;
+        }
+
         /**
          * Init this instance and return {@code true} if the init was successful.
          */
-        private boolean init(ByteBuf buf, InetSocketAddress recipient) {
+        private boolean init(ByteBuf buf, InetSocketAddress recipient, int segmentSize) {
             array.clear();
             if (!array.add(buf)) {
                 return false;
@@ -152,6 +242,7 @@ final class NativeDatagramPacketArray implements ChannelOutboundBuffer.MessagePr
                 scopeId = 0;
             }
             port = recipient.getPort();
+            this.segmentSize = segmentSize;
             return true;
         }
     }
@@ -15,6 +15,7 @@
  */
 package io.netty.channel.unix;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -79,5 +80,32 @@ public class FileDescriptor {
         return fd;
     }
 
+    /**
+     * Open a new {@link FileDescriptor} for the given path. The file is created if it does not exist yet and
+     * truncated otherwise, so the returned {@link FileDescriptor} can be used to write to it.
+     */
+    public static FileDescriptor from(String path) throws IOException {
+        if (path == null) {
+            throw new NullPointerException("path");
+        }
+        int res = open(path);
+        if (res < 0) {
+            throw new IOException("open(" + path + ") failed with errno " + -res);
+        }
+        return new FileDescriptor(res);
+    }
+
+    /**
+     * Open a new {@link FileDescriptor} for the given {@link File}. The file is created if it does not exist yet and
+     * truncated otherwise, so the returned {@link FileDescriptor} can be used to write to it.
+     */
+    public static FileDescriptor from(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file");
+        }
+        return from(file.getPath());
+    }
+
+    private static native int open(String path);
     private static native int close(int fd);
 }
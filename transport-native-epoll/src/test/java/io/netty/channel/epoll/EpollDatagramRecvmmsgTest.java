@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class EpollDatagramRecvmmsgTest {
+
+    private static final int NUM_PACKETS = 512;
+
+    @Test(timeout = 30000)
+    public void testRecvmmsgEdgeTriggered() throws Throwable {
+        testReceiveBatch(EpollMode.EDGE_TRIGGERED, PooledByteBufAllocator.DEFAULT);
+    }
+
+    @Test(timeout = 30000)
+    public void testRecvmmsgLevelTriggered() throws Throwable {
+        testReceiveBatch(EpollMode.LEVEL_TRIGGERED, PooledByteBufAllocator.DEFAULT);
+    }
+
+    @Test(timeout = 30000)
+    public void testRecvmmsgFallbackForHeapBuffers() throws Throwable {
+        testReceiveBatch(EpollMode.EDGE_TRIGGERED, new UnpooledByteBufAllocator(false));
+    }
+
+    private static void testReceiveBatch(EpollMode mode, ByteBufAllocator allocator) throws Throwable {
+        final CountDownLatch latch = new CountDownLatch(NUM_PACKETS);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final boolean[] received = new boolean[NUM_PACKETS];
+        final AtomicReference<InetSocketAddress> expectedSender = new AtomicReference<InetSocketAddress>();
+
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            Bootstrap sb = new Bootstrap();
+            sb.group(group).channel(EpollDatagramChannel.class);
+            sb.option(EpollChannelOption.EPOLL_MODE, mode);
+            sb.option(ChannelOption.ALLOCATOR, allocator);
+            sb.option(ChannelOption.SO_RCVBUF, 4 * 1024 * 1024);
+            sb.handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                @Override
+                protected void messageReceived(ChannelHandlerContext ctx, DatagramPacket msg) throws Exception {
+                    try {
+                        assertEquals(expectedSender.get().getPort(), msg.sender().getPort());
+                        assertEquals(8, msg.content().readableBytes());
+                        int index = msg.content().readInt();
+                        assertEquals(index, msg.content().readInt());
+                        assertFalse(received[index]);
+                        received[index] = true;
+                    } catch (Throwable cause) {
+                        error.compareAndSet(null, cause);
+                    }
+                    latch.countDown();
+                }
+
+                @Override
+                public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                    error.compareAndSet(null, cause);
+                }
+            });
+            Channel sc = sb.bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group).channel(EpollDatagramChannel.class).handler(new ChannelInboundHandlerAdapter());
+            Channel cc = cb.bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+            expectedSender.set((InetSocketAddress) cc.localAddress());
+
+            InetSocketAddress recipient = (InetSocketAddress) sc.localAddress();
+            for (int i = 0; i < NUM_PACKETS; i++) {
+                ChannelFuture future = cc.write(
+                        new DatagramPacket(Unpooled.buffer(8).writeInt(i).writeInt(i), recipient));
+                if (i % 64 == 63) {
+                    // Flush in chunks so the receiver sees several datagrams per wakeup without dropping any.
+                    cc.flush();
+                    future.syncUninterruptibly();
+                }
+            }
+            cc.flush();
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            if (error.get() != null) {
+                throw error.get();
+            }
+            for (int i = 0; i < NUM_PACKETS; i++) {
+                assertTrue(received[i]);
+            }
+
+            cc.close().syncUninterruptibly();
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class EpollDatagramSegmentTest {
+
+    private static final int SEGMENT_SIZE = 100;
+    private static final int NUM_SEGMENTS = 11;
+    // The last segment is smaller then SEGMENT_SIZE.
+    private static final int CONTENT_SIZE = (NUM_SEGMENTS - 1) * SEGMENT_SIZE + SEGMENT_SIZE / 2;
+
+    @Test(timeout = 30000)
+    public void testSendSegmentedDatagramPacket() throws Throwable {
+        testSegmentedDatagramPacket(false);
+    }
+
+    @Test(timeout = 30000)
+    public void testSendSegmentedDatagramPacketWithUdpGro() throws Throwable {
+        testSegmentedDatagramPacket(true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSegmentSize() {
+        new SegmentedDatagramPacket(Unpooled.EMPTY_BUFFER, 0, new InetSocketAddress(0));
+    }
+
+    private static void testSegmentedDatagramPacket(boolean udpGro) throws Throwable {
+        assumeTrue(SegmentedDatagramPacket.isSupported());
+
+        final CountDownLatch latch = new CountDownLatch(NUM_SEGMENTS);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final byte[] received = new byte[CONTENT_SIZE];
+
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            Bootstrap sb = new Bootstrap();
+            sb.group(group).channel(EpollDatagramChannel.class);
+            if (udpGro) {
+                sb.option(EpollChannelOption.UDP_GRO, true);
+                sb.option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(65536));
+            }
+            sb.handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                @Override
+                protected void messageReceived(ChannelHandlerContext ctx, DatagramPacket msg) throws Exception {
+                    try {
+                        ByteBuf content = msg.content();
+                        int index = content.getShort(content.readerIndex());
+                        int expectedLength = index == NUM_SEGMENTS - 1 ? SEGMENT_SIZE / 2 : SEGMENT_SIZE;
+                        assertEquals(expectedLength, content.readableBytes());
+                        content.readBytes(received, index * SEGMENT_SIZE, expectedLength);
+                    } catch (Throwable cause) {
+                        error.compareAndSet(null, cause);
+                    }
+                    latch.countDown();
+                }
+
+                @Override
+                public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                    error.compareAndSet(null, cause);
+                }
+            });
+            Channel sc = sb.bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+            assertEquals(udpGro, sc.config().getOption(EpollChannelOption.UDP_GRO));
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group).channel(EpollDatagramChannel.class).handler(new ChannelInboundHandlerAdapter());
+            Channel cc = cb.bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+
+            // Every segment starts with its index so the receiver can verify the segment boundaries.
+            byte[] expected = new byte[CONTENT_SIZE];
+            ByteBuf content = Unpooled.wrappedBuffer(expected);
+            for (int i = 0; i < CONTENT_SIZE; i++) {
+                expected[i] = (byte) i;
+            }
+            for (int i = 0; i < NUM_SEGMENTS; i++) {
+                content.setShort(i * SEGMENT_SIZE, i);
+            }
+            cc.writeAndFlush(new SegmentedDatagramPacket(content.copy(), SEGMENT_SIZE,
+                    (InetSocketAddress) sc.localAddress())).syncUninterruptibly();
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            if (error.get() != null) {
+                throw error.get();
+            }
+            assertArrayEquals(expected, received);
+
+            cc.close().syncUninterruptibly();
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.concurrent.Future;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class EpollEventLoopTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBusyPollNanos() {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            group.setBusyPollNanos(-1);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testScheduledTaskRunsWhileBusyPolling() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1);
+        // Spin much longer than the schedule delay so the busy poll must stop at the deadline of the task.
+        group.setBusyPollNanos(TimeUnit.SECONDS.toNanos(5));
+        try {
+            long start = System.nanoTime();
+            Future<?> future = group.next().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }, 100, TimeUnit.MILLISECONDS).sync();
+            assertTrue(future.isSuccess());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testPingPongWhileBusyPolling() throws Throwable {
+        final int rounds = 1000;
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        EpollEventLoopGroup group = new EpollEventLoopGroup(2);
+        group.setBusyPollNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        try {
+            Channel sc = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                    .childHandler(new EchoHandler())
+                    .bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+
+            Channel cc = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                    .handler(new SimpleChannelInboundHandler<ByteBuf>() {
+                        private int received;
+
+                        @Override
+                        protected void messageReceived(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+                            received += msg.readableBytes();
+                            // Every round trip is 4 bytes, send the next ping once the pong was received fully.
+                            if (received % 4 != 0) {
+                                return;
+                            }
+                            int round = received / 4;
+                            if (round == rounds) {
+                                latch.countDown();
+                            } else {
+                                ctx.writeAndFlush(Unpooled.buffer(4).writeInt(round));
+                            }
+                        }
+
+                        @Override
+                        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                            error.compareAndSet(null, cause);
+                            latch.countDown();
+                        }
+                    })
+                    .connect(sc.localAddress()).syncUninterruptibly().channel();
+            cc.writeAndFlush(Unpooled.buffer(4).writeInt(0));
+
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+            if (error.get() != null) {
+                throw error.get();
+            }
+            cc.close().syncUninterruptibly();
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class EchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.writeAndFlush(msg);
+        }
+    }
+}
@@ -62,6 +62,51 @@ public class EpollSocketChannelTest {
         }
     }
 
+    @Test
+    public void testBusyPollAndIncomingCpu() throws Exception {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+
+        try {
+            Bootstrap bootstrap = new Bootstrap();
+            EpollSocketChannel ch = (EpollSocketChannel) bootstrap.group(group)
+                    .channel(EpollSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+            ch.config().setSoBusyPoll(0);
+            Assert.assertEquals(0, (int) ch.config().getOption(EpollChannelOption.SO_BUSY_POLL));
+            // -1 means the CPU is unknown as nothing was received yet.
+            Assert.assertTrue(ch.config().getIncomingCpu() >= -1);
+            ch.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testTcpOptions() throws Exception {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+
+        try {
+            Bootstrap bootstrap = new Bootstrap();
+            EpollSocketChannel ch = (EpollSocketChannel) bootstrap.group(group)
+                    .channel(EpollSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+            ch.config().setTcpUserTimeout(30000);
+            Assert.assertEquals(30000, (int) ch.config().getOption(EpollChannelOption.TCP_USER_TIMEOUT));
+            ch.config().setTcpNotSentLowAt(16384);
+            Assert.assertEquals(16384, (int) ch.config().getOption(EpollChannelOption.TCP_NOTSENT_LOWAT));
+            ch.config().setTcpQuickAck(true);
+            Assert.assertTrue(ch.config().getOption(EpollChannelOption.TCP_QUICKACK));
+            Assert.assertFalse(ch.config().getOption(EpollChannelOption.TCP_FASTOPEN_CONNECT));
+            ch.config().setOption(EpollChannelOption.TCP_FASTOPEN_CONNECT, true);
+            Assert.assertTrue(ch.config().isTcpFastOpenConnect());
+            ch.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
     private static void assertTcpInfo0(EpollTcpInfo info) throws Exception {
         Assert.assertNotNull(info);
 
@@ -0,0 +1,463 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.unix.FileDescriptor;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class EpollSpliceTest {
+
+    private static final Random random = new Random();
+    private static final byte[] data = new byte[1048576];
+
+    static {
+        random.nextBytes(data);
+    }
+
+    @Test(timeout = 30000)
+    public void spliceToSocket() throws Throwable {
+        final EchoHandler sh = new EchoHandler();
+        final EchoHandler ch = new EchoHandler();
+
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            ServerBootstrap bs = new ServerBootstrap();
+            bs.channel(EpollServerSocketChannel.class);
+            bs.group(group).childHandler(sh);
+            final Channel sc = bs.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            // The proxy splices all data between the client and the echo server without ever copying it into
+            // user-space.
+            ServerBootstrap bs2 = new ServerBootstrap();
+            bs2.channel(EpollServerSocketChannel.class);
+            bs2.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            bs2.group(group).childHandler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+                    ctx.channel().config().setAutoRead(false);
+                    Bootstrap bs = new Bootstrap();
+                    bs.option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+                    bs.channel(EpollSocketChannel.class);
+                    bs.group(ctx.channel().eventLoop()).handler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext context) throws Exception {
+                            EpollSocketChannel ch = (EpollSocketChannel) ctx.channel();
+                            EpollSocketChannel ch2 = (EpollSocketChannel) context.channel();
+                            // Integer.MAX_VALUE will splice infinitely.
+                            ch.spliceTo(ch2, Integer.MAX_VALUE).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+                            ch2.spliceTo(ch, Integer.MAX_VALUE).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+                            ctx.channel().config().setAutoRead(true);
+                        }
+
+                        @Override
+                        public void channelInactive(ChannelHandlerContext context) throws Exception {
+                            context.close();
+                        }
+                    });
+                    bs.connect(sc.localAddress()).addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (!future.isSuccess()) {
+                                ctx.close();
+                            } else {
+                                future.channel().closeFuture().addListener(new ChannelFutureListener() {
+                                    @Override
+                                    public void operationComplete(ChannelFuture future) throws Exception {
+                                        ctx.close();
+                                    }
+                                });
+                            }
+                        }
+                    });
+                }
+            });
+            Channel pc = bs2.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group);
+            cb.channel(EpollSocketChannel.class);
+            cb.handler(ch);
+            Channel cc = cb.connect(pc.localAddress()).syncUninterruptibly().channel();
+
+            for (int i = 0; i < data.length;) {
+                int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+                ByteBuf buf = Unpooled.wrappedBuffer(data, i, length);
+                cc.writeAndFlush(buf);
+                i += length;
+            }
+
+            while (ch.counter < data.length) {
+                assertNoException(sh, ch);
+                Thread.sleep(50);
+            }
+            while (sh.counter < data.length) {
+                assertNoException(sh, ch);
+                Thread.sleep(50);
+            }
+
+            sh.channel.close().sync();
+            ch.channel.close().sync();
+            sc.close().sync();
+            pc.close().sync();
+            assertNoException(sh, ch);
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void spliceToFile() throws Throwable {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        File file = File.createTempFile("netty-splice", null);
+        file.deleteOnExit();
+
+        final FileDescriptor fd = FileDescriptor.from(file);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> cause = new AtomicReference<Throwable>();
+        try {
+            ServerBootstrap bs = new ServerBootstrap();
+            bs.channel(EpollServerSocketChannel.class);
+            bs.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            bs.group(group).childHandler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                    EpollSocketChannel ch = (EpollSocketChannel) ctx.channel();
+                    ch.spliceTo(fd, 0, data.length).addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (!future.isSuccess()) {
+                                cause.set(future.cause());
+                            }
+                            future.channel().close();
+                            latch.countDown();
+                        }
+                    });
+                }
+            });
+            Channel sc = bs.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group);
+            cb.channel(EpollSocketChannel.class);
+            cb.handler(new ChannelInboundHandlerAdapter());
+            Channel cc = cb.connect(sc.localAddress()).syncUninterruptibly().channel();
+
+            for (int i = 0; i < data.length;) {
+                int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+                ByteBuf buf = Unpooled.wrappedBuffer(data, i, length);
+                cc.writeAndFlush(buf);
+                i += length;
+            }
+
+            latch.await();
+            if (cause.get() != null) {
+                throw cause.get();
+            }
+            cc.close().sync();
+            sc.close().sync();
+
+            assertArrayEquals(data, readFile(file));
+        } finally {
+            fd.close();
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void spliceToSocketUntilRemoteCloses() throws Throwable {
+        final EchoHandler sh = new EchoHandler(false);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<ChannelFuture> spliceFuture = new AtomicReference<ChannelFuture>();
+        final AtomicReference<Channel> accepted = new AtomicReference<Channel>();
+
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            ServerBootstrap bs = new ServerBootstrap();
+            bs.channel(EpollServerSocketChannel.class);
+            bs.group(group).childHandler(sh);
+            final Channel sc = bs.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            // The proxy splices the data of the client to the server until the client closes the connection.
+            ServerBootstrap bs2 = new ServerBootstrap();
+            bs2.channel(EpollServerSocketChannel.class);
+            bs2.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            bs2.group(group).childHandler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+                    ctx.channel().config().setAutoRead(false);
+                    accepted.set(ctx.channel());
+                    Bootstrap bs = new Bootstrap();
+                    bs.option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+                    bs.channel(EpollSocketChannel.class);
+                    bs.group(ctx.channel().eventLoop()).handler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext context) throws Exception {
+                            EpollSocketChannel ch = (EpollSocketChannel) ctx.channel();
+                            EpollSocketChannel ch2 = (EpollSocketChannel) context.channel();
+                            ch.spliceTo(ch2, Integer.MAX_VALUE).addListener(new ChannelFutureListener() {
+                                @Override
+                                public void operationComplete(ChannelFuture future) throws Exception {
+                                    spliceFuture.set(future);
+                                    latch.countDown();
+                                }
+                            });
+                            ctx.channel().config().setAutoRead(true);
+                        }
+                    });
+                    bs.connect(sc.localAddress());
+                }
+            });
+            Channel pc = bs2.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group);
+            cb.channel(EpollSocketChannel.class);
+            cb.handler(new ChannelInboundHandlerAdapter());
+            Channel cc = cb.connect(pc.localAddress()).syncUninterruptibly().channel();
+
+            for (int i = 0; i < data.length;) {
+                int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+                ByteBuf buf = Unpooled.wrappedBuffer(data, i, length);
+                cc.writeAndFlush(buf);
+                i += length;
+            }
+            // Close while the proxy is still splicing.
+            cc.close().sync();
+
+            latch.await();
+            if (!spliceFuture.get().isSuccess()) {
+                throw spliceFuture.get().cause();
+            }
+            // The proxy must close its side instead of spinning on the end of its input.
+            accepted.get().closeFuture().sync();
+
+            while (sh.counter < data.length) {
+                assertNoException(sh);
+                Thread.sleep(50);
+            }
+            assertEquals(data.length, sh.counter);
+
+            sh.channel.close().sync();
+            sc.close().sync();
+            pc.close().sync();
+            assertNoException(sh);
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void spliceToFileUntilRemoteCloses() throws Throwable {
+        testSpliceToFileWhenRemoteCloses(false, Integer.MAX_VALUE);
+    }
+
+    @Test(timeout = 10000)
+    public void spliceToFileUntilRemoteShutsDownOutput() throws Throwable {
+        testSpliceToFileWhenRemoteCloses(true, Integer.MAX_VALUE);
+    }
+
+    @Test(timeout = 10000)
+    public void spliceToFileFailsIfRemoteClosesEarly() throws Throwable {
+        testSpliceToFileWhenRemoteCloses(false, data.length * 2);
+    }
+
+    private static void testSpliceToFileWhenRemoteCloses(boolean halfClose, final int len) throws Throwable {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        File file = File.createTempFile("netty-splice", null);
+        file.deleteOnExit();
+
+        final FileDescriptor fd = FileDescriptor.from(file);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<ChannelFuture> spliceFuture = new AtomicReference<ChannelFuture>();
+        final AtomicReference<Channel> accepted = new AtomicReference<Channel>();
+        try {
+            ServerBootstrap bs = new ServerBootstrap();
+            bs.channel(EpollServerSocketChannel.class);
+            bs.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            bs.group(group).childHandler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                    EpollSocketChannel ch = (EpollSocketChannel) ctx.channel();
+                    accepted.set(ch);
+                    ch.spliceTo(fd, 0, len).addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            spliceFuture.set(future);
+                            latch.countDown();
+                        }
+                    });
+                }
+            });
+            Channel sc = bs.bind(new InetSocketAddress(0)).syncUninterruptibly().channel();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(group);
+            cb.channel(EpollSocketChannel.class);
+            cb.handler(new ChannelInboundHandlerAdapter());
+            EpollSocketChannel cc = (EpollSocketChannel) cb.connect(sc.localAddress()).syncUninterruptibly().channel();
+
+            ChannelFuture lastWrite = null;
+            for (int i = 0; i < data.length;) {
+                int length = Math.min(random.nextInt(1024 * 64), data.length - i);
+                ByteBuf buf = Unpooled.wrappedBuffer(data, i, length);
+                lastWrite = cc.writeAndFlush(buf);
+                i += length;
+            }
+            lastWrite.sync();
+            // End the input of the accepted channel while its splice is still in progress.
+            if (halfClose) {
+                cc.shutdownOutput().sync();
+            } else {
+                cc.close().sync();
+            }
+
+            latch.await();
+            ChannelFuture future = spliceFuture.get();
+            if (len == Integer.MAX_VALUE) {
+                if (!future.isSuccess()) {
+                    throw future.cause();
+                }
+            } else {
+                assertTrue(future.cause() instanceof EOFException);
+            }
+            // The accepted channel must be closed instead of spinning on the end of its input.
+            accepted.get().closeFuture().sync();
+            cc.close().sync();
+            sc.close().sync();
+
+            assertArrayEquals(data, readFile(file));
+        } finally {
+            fd.close();
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void spliceToRequiresLevelTriggered() throws Throwable {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        EpollSocketChannel ch = new EpollSocketChannel();
+        EpollSocketChannel ch2 = new EpollSocketChannel();
+        try {
+            group.register(ch).syncUninterruptibly();
+            group.register(ch2).syncUninterruptibly();
+            ch.spliceTo(ch2, 1024);
+        } finally {
+            ch.close().sync();
+            ch2.close().sync();
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        InputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < bytes.length) {
+                int r = in.read(bytes, read, bytes.length - read);
+                if (r < 0) {
+                    break;
+                }
+                read += r;
+            }
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private static void assertNoException(EchoHandler... handlers) throws Throwable {
+        for (EchoHandler handler: handlers) {
+            if (handler.exception.get() != null) {
+                throw handler.exception.get();
+            }
+        }
+    }
+
+    private static class EchoHandler extends SimpleChannelInboundHandler<ByteBuf> {
+        private final boolean echo;
+        volatile Channel channel;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile int counter;
+
+        EchoHandler() {
+            this(true);
+        }
+
+        EchoHandler(boolean echo) {
+            this.echo = echo;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void messageReceived(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+            byte[] actual = new byte[in.readableBytes()];
+            in.readBytes(actual);
+
+            int lastIdx = counter;
+            for (int i = 0; i < actual.length; i ++) {
+                assertEquals(data[i + lastIdx], actual[i]);
+            }
+
+            if (echo && channel.parent() != null) {
+                channel.write(Unpooled.wrappedBuffer(actual));
+            }
+
+            counter += actual.length;
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+            ctx.flush();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx,
+                                    Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                cause.printStackTrace();
+                ctx.close();
+            }
+        }
+    }
+}
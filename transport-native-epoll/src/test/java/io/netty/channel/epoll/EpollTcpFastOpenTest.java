@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class EpollTcpFastOpenTest {
+
+    private static final int NUM_CONNECTIONS = 3;
+
+    @Test
+    public void testServerTcpFastopenOption() throws Exception {
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            Channel sc = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                    .option(EpollChannelOption.TCP_FASTOPEN, 16)
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+            assertEquals(16, (int) sc.config().getOption(EpollChannelOption.TCP_FASTOPEN));
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testWriteBeforeConnect() throws Throwable {
+        assumeTrue(Epoll.isTcpFastOpenClientSideAvailable());
+
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+        try {
+            Channel sc = new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                    .option(EpollChannelOption.TCP_FASTOPEN, 16)
+                    .childHandler(new EchoHandler())
+                    .bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+
+            // The first connection can only request a cookie, the following ones send the data in the SYN if the
+            // kernel accepts TCP Fast Open on the server side as well.
+            for (int i = 0; i < NUM_CONNECTIONS; i++) {
+                testWriteBeforeConnect(group, sc.localAddress());
+            }
+            sc.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    private static void testWriteBeforeConnect(EventLoopGroup group, SocketAddress remote) throws Throwable {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final ByteBuf received = Unpooled.buffer();
+
+        Channel cc = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                .option(EpollChannelOption.TCP_FASTOPEN_CONNECT, true)
+                .handler(new SimpleChannelInboundHandler<ByteBuf>() {
+                    @Override
+                    protected void messageReceived(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+                        received.writeBytes(msg);
+                        if (received.readableBytes() == 16) {
+                            latch.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                        error.compareAndSet(null, cause);
+                        latch.countDown();
+                    }
+                }).register().syncUninterruptibly().channel();
+
+        // Write without flush, the data is sent during the connect.
+        ChannelFuture first = cc.write(Unpooled.directBuffer(8).writeLong(1));
+        ChannelFuture second = cc.write(Unpooled.directBuffer(8).writeLong(2));
+        cc.connect(remote).syncUninterruptibly();
+        first.syncUninterruptibly();
+        second.syncUninterruptibly();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        if (error.get() != null) {
+            throw error.get();
+        }
+        assertEquals(1, received.readLong());
+        assertEquals(2, received.readLong());
+        received.release();
+        cc.close().syncUninterruptibly();
+    }
+
+    @ChannelHandler.Sharable
+    private static final class EchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.writeAndFlush(msg);
+        }
+    }
+}
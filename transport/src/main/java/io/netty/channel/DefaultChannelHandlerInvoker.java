@@ -20,7 +20,6 @@ import io.netty.util.Recycler;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.internal.OneTimeTask;
-import io.netty.util.internal.RecyclableMpscLinkedQueueNode;
 
 import java.net.SocketAddress;
 
@@ -399,8 +398,8 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
         }
     }
 
-    static final class WriteTask extends RecyclableMpscLinkedQueueNode<SingleThreadEventLoop.NonWakeupRunnable>
-            implements SingleThreadEventLoop.NonWakeupRunnable {
+    static final class WriteTask implements SingleThreadEventLoop.NonWakeupRunnable {
+        private final Recycler.Handle<WriteTask> handle;
         private ChannelHandlerContext ctx;
         private Object msg;
         private ChannelPromise promise;
@@ -424,7 +423,7 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
         }
 
         private WriteTask(Recycler.Handle<WriteTask> handle) {
-            super(handle);
+            this.handle = handle;
         }
 
         @Override
@@ -443,12 +442,9 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
                 ctx = null;
                 msg = null;
                 promise = null;
+                // The task queue does not reference the task anymore once it was polled.
+                handle.recycle(this);
             }
         }
-
-        @Override
-        public SingleThreadEventLoop.NonWakeupRunnable value() {
-            return this;
-        }
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutorMetric;
+import io.netty.util.concurrent.LatencyMetric;
+
+/**
+ * {@link EventLoopMetric} which is written by the {@link SingleThreadEventLoop} only and may be read by any thread.
+ */
+final class DefaultEventLoopMetric implements EventLoopMetric {
+
+    private final EventExecutorMetric executorMetric;
+    private volatile long iterations;
+    private volatile long ioWaitTimeNanos;
+    private volatile long ioTimeNanos;
+    private volatile long taskTimeNanos;
+
+    DefaultEventLoopMetric(EventExecutorMetric executorMetric) {
+        this.executorMetric = executorMetric;
+    }
+
+    void recordIteration(long ioWaitNanos, long ioNanos, long taskNanos) {
+        ioWaitTimeNanos += Math.max(0, ioWaitNanos);
+        ioTimeNanos += Math.max(0, ioNanos);
+        taskTimeNanos += Math.max(0, taskNanos);
+        iterations ++;
+    }
+
+    @Override
+    public int pendingTasks() {
+        return executorMetric.pendingTasks();
+    }
+
+    @Override
+    public long completedTasks() {
+        return executorMetric.completedTasks();
+    }
+
+    @Override
+    public LatencyMetric taskQueueLatency() {
+        return executorMetric.taskQueueLatency();
+    }
+
+    @Override
+    public LatencyMetric taskRunTime() {
+        return executorMetric.taskRunTime();
+    }
+
+    @Override
+    public long iterations() {
+        return iterations;
+    }
+
+    @Override
+    public long ioWaitTimeNanos() {
+        return ioWaitTimeNanos;
+    }
+
+    @Override
+    public long ioTimeNanos() {
+        return ioTimeNanos;
+    }
+
+    @Override
+    public long taskTimeNanos() {
+        return taskTimeNanos;
+    }
+
+    @Override
+    public int ioRatio() {
+        long ioTimeNanos = this.ioTimeNanos;
+        long busyTimeNanos = ioTimeNanos + taskTimeNanos;
+        if (busyTimeNanos == 0) {
+            return 100;
+        }
+        return (int) (ioTimeNanos * 100 / busyTimeNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopMetric(pendingTasks: " + pendingTasks() + ", completedTasks: " + completedTasks() +
+               ", iterations: " + iterations + ", ioWaitTimeNanos: " + ioWaitTimeNanos +
+               ", ioTimeNanos: " + ioTimeNanos + ", taskTimeNanos: " + taskTimeNanos + ", ioRatio: " + ioRatio() +
+               ", taskQueueLatency: " + taskQueueLatency() + ", taskRunTime: " + taskRunTime() + ')';
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutorMetric;
+
+/**
+ * Expose metrics for a {@link SingleThreadEventLoop} which, in addition to its tasks, handles the I/O of its
+ * {@link Channel}s.  The times are cumulative since the event loop was created, so the share of a time period is
+ * best calculated from the difference of two samples.
+ */
+public interface EventLoopMetric extends EventExecutorMetric {
+
+    /**
+     * Returns the number of times the event loop waited for I/O and then handled the I/O and its tasks.
+     */
+    long iterations();
+
+    /**
+     * Returns the time in nanoseconds the event loop spent waiting for I/O, which is the time it was idle.
+     */
+    long ioWaitTimeNanos();
+
+    /**
+     * Returns the time in nanoseconds the event loop spent handling I/O.
+     */
+    long ioTimeNanos();
+
+    /**
+     * Returns the time in nanoseconds the event loop spent running tasks.
+     */
+    long taskTimeNanos();
+
+    /**
+     * Returns the percentage of the busy time that was spent handling I/O, which can be compared to the configured
+     * {@code ioRatio} of the event loop.  Returns {@code 100} if the event loop was not busy yet.
+     */
+    int ioRatio();
+}
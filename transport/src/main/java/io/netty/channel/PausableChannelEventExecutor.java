@@ -326,6 +326,14 @@ abstract class PausableChannelEventExecutor implements PausableEventExecutor, Ch
         unwrap().execute(command);
     }
 
+    @Override
+    public void executeBatch(Collection<? extends Runnable> tasks) {
+        if (!isAcceptingNewTasks()) {
+            throw new RejectedExecutionException();
+        }
+        unwrap().executeBatch(tasks);
+    }
+
     @Override
     public void close() throws Exception {
         unwrap().close();
@@ -16,6 +16,9 @@
 package io.netty.channel;
 
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorMetric;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 
 import java.util.concurrent.Executor;
@@ -28,9 +31,47 @@ import java.util.concurrent.ThreadFactory;
 public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor implements EventLoop {
 
     private final ChannelHandlerInvoker invoker = new DefaultChannelHandlerInvoker(this);
+    // null if metrics are disabled.
+    private final DefaultEventLoopMetric metric;
 
     protected SingleThreadEventLoop(EventLoopGroup parent, Executor executor, boolean addTaskWakesUp) {
-        super(parent, executor, addTaskWakesUp);
+        this(parent, executor, addTaskWakesUp, DEFAULT_MAX_PENDING_EXECUTOR_TASKS, RejectedExecutionHandlers.reject());
+    }
+
+    protected SingleThreadEventLoop(EventLoopGroup parent, Executor executor, boolean addTaskWakesUp,
+                                    int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(parent, executor, addTaskWakesUp, maxPendingTasks, rejectedExecutionHandler);
+        EventExecutorMetric executorMetric = super.metric();
+        metric = executorMetric == null ? null : new DefaultEventLoopMetric(executorMetric);
+    }
+
+    /**
+     * Returns the {@link EventLoopMetric} of this event loop, or {@code null} if metrics are disabled because the
+     * system property {@code io.netty.eventexecutor.metrics} is not {@code true}.
+     */
+    @Override
+    public EventLoopMetric metric() {
+        return metric;
+    }
+
+    /**
+     * Returns {@code true} if sub-classes should measure each iteration of their event loop and pass the result to
+     * {@link #recordIteration(long, long, long)}.
+     */
+    protected final boolean isMetricEnabled() {
+        return metric != null;
+    }
+
+    /**
+     * Records one iteration of the event loop.  Must only be called from within the event loop.
+     *
+     * @param ioWaitNanos   the time spent waiting for I/O
+     * @param ioNanos       the time spent handling I/O
+     * @param taskNanos     the time spent running tasks
+     */
+    protected final void recordIteration(long ioWaitNanos, long ioNanos, long taskNanos) {
+        assert inEventLoop();
+        metric.recordIteration(ioWaitNanos, ioNanos, taskNanos);
     }
 
     @Override
@@ -21,20 +21,27 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelId;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.ServerChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.PausableEventExecutor;
+import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * The default {@link ChannelGroup} implementation.
@@ -213,6 +220,10 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     @Override
     public ChannelGroupFuture write(Object message, ChannelMatcher matcher) {
+        return write(message, matcher, false);
+    }
+
+    private ChannelGroupFuture write(Object message, ChannelMatcher matcher, boolean flush) {
         if (message == null) {
             throw new NullPointerException("message");
         }
@@ -221,9 +232,51 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
         }
 
         Map<Channel, ChannelFuture> futures = new LinkedHashMap<Channel, ChannelFuture>(size());
+        // Writes issued outside of the event loop are grouped by the event loop behind the channel's executor, so
+        // every event loop is only woken up once instead of once per channel.
+        Map<EventExecutor, List<WriteTask>> batches = null;
         for (Channel c: nonServerChannels.values()) {
-            if (matcher.matches(c)) {
-                futures.put(c, c.write(safeDuplicate(message)));
+            if (!matcher.matches(c)) {
+                continue;
+            }
+            if (!c.isRegistered() || c.eventLoop().inEventLoop()) {
+                futures.put(c, flush ? c.writeAndFlush(safeDuplicate(message)) : c.write(safeDuplicate(message)));
+                continue;
+            }
+
+            ChannelPromise promise = c.newPromise();
+            futures.put(c, promise);
+            EventExecutor channelExecutor = c.eventLoop();
+            if (channelExecutor instanceof PausableEventExecutor &&
+                !((PausableEventExecutor) channelExecutor).isAcceptingNewTasks()) {
+                // The channel's executor would reject the write, e.g. because the channel is being deregistered.
+                promise.setFailure(new RejectedExecutionException());
+                continue;
+            }
+
+            EventExecutor eventLoop = channelExecutor.unwrap();
+            if (batches == null) {
+                batches = new IdentityHashMap<EventExecutor, List<WriteTask>>();
+            }
+            List<WriteTask> batch = batches.get(eventLoop);
+            if (batch == null) {
+                batch = new ArrayList<WriteTask>();
+                batches.put(eventLoop, batch);
+            }
+            batch.add(new WriteTask(c, safeDuplicate(message), promise, flush));
+        }
+
+        if (batches != null) {
+            for (Map.Entry<EventExecutor, List<WriteTask>> e: batches.entrySet()) {
+                List<WriteTask> batch = e.getValue();
+                try {
+                    e.getKey().executeBatch(batch);
+                } catch (Throwable cause) {
+                    // Some of the tasks may have been added before the event loop rejected the rest.
+                    for (WriteTask task: batch) {
+                        task.fail(cause);
+                    }
+                }
             }
         }
 
@@ -322,21 +375,7 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     @Override
     public ChannelGroupFuture writeAndFlush(Object message, ChannelMatcher matcher) {
-        if (message == null) {
-            throw new NullPointerException("message");
-        }
-
-        Map<Channel, ChannelFuture> futures = new LinkedHashMap<Channel, ChannelFuture>(size());
-
-        for (Channel c: nonServerChannels.values()) {
-            if (matcher.matches(c)) {
-                futures.put(c, c.writeAndFlush(safeDuplicate(message)));
-            }
-        }
-
-        ReferenceCountUtil.release(message);
-
-        return new DefaultChannelGroupFuture(this, futures, executor);
+        return write(message, matcher, true);
     }
 
     @Override
@@ -363,4 +402,57 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
     public String toString() {
         return StringUtil.simpleClassName(this) + "(name: " + name() + ", size: " + size() + ')';
     }
+
+    /**
+     * Writes a message to a {@link Channel} from within its event loop.  It is either run or failed, whichever
+     * happens first, so a batch that was only partly added to the event loop can be failed as a whole.
+     */
+    private static final class WriteTask extends OneTimeTask {
+        private static final AtomicIntegerFieldUpdater<WriteTask> DONE_UPDATER;
+
+        static {
+            AtomicIntegerFieldUpdater<WriteTask> updater =
+                    PlatformDependent.newAtomicIntegerFieldUpdater(WriteTask.class, "done");
+            if (updater == null) {
+                updater = AtomicIntegerFieldUpdater.newUpdater(WriteTask.class, "done");
+            }
+            DONE_UPDATER = updater;
+        }
+
+        private final Channel channel;
+        private final Object message;
+        private final ChannelPromise promise;
+        private final boolean flush;
+
+        @SuppressWarnings({ "FieldMayBeFinal", "unused" })
+        private volatile int done;
+
+        WriteTask(Channel channel, Object message, ChannelPromise promise, boolean flush) {
+            this.channel = channel;
+            this.message = message;
+            this.promise = promise;
+            this.flush = flush;
+        }
+
+        @Override
+        public void run() {
+            if (DONE_UPDATER.compareAndSet(this, 0, 1)) {
+                if (flush) {
+                    channel.writeAndFlush(message, promise);
+                } else {
+                    channel.write(message, promise);
+                }
+            }
+        }
+
+        void fail(Throwable cause) {
+            if (DONE_UPDATER.compareAndSet(this, 0, 1)) {
+                try {
+                    promise.setFailure(cause);
+                } finally {
+                    ReferenceCountUtil.release(message);
+                }
+            }
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package io.netty.channel.nio;
 
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.EventLoopException;
@@ -36,7 +37,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -160,12 +160,6 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         return selector;
     }
 
-    @Override
-    protected Queue<Runnable> newTaskQueue() {
-        // This event loop never calls takeTask()
-        return PlatformDependent.newMpscQueue();
-    }
-
     /**
      * Registers an arbitrary {@link SelectableChannel}, not necessarily created by Netty, to the {@link Selector}
      * of this event loop.  Once the specified {@link SelectableChannel} is registered, the specified {@code task} will
@@ -300,6 +294,8 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     @Override
     protected void run() {
         boolean oldWakenUp = wakenUp.getAndSet(false);
+        final boolean metricEnabled = isMetricEnabled();
+        final long ioWaitStartTime = metricEnabled ? System.nanoTime() : 0;
         try {
             if (hasTasks()) {
                 selectNow();
@@ -342,7 +338,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
             cancelledKeys = 0;
             needsToSelectAgain = false;
             final int ioRatio = this.ioRatio;
-            if (ioRatio == 100) {
+            if (ioRatio == 100 && !metricEnabled) {
                 processSelectedKeys();
                 runAllTasks();
             } else {
@@ -351,7 +347,16 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                 processSelectedKeys();
 
                 final long ioTime = System.nanoTime() - ioStartTime;
-                runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                if (ioRatio == 100) {
+                    runAllTasks();
+                } else {
+                    runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                }
+
+                if (metricEnabled) {
+                    recordIteration(ioStartTime - ioWaitStartTime, ioTime,
+                                    System.nanoTime() - ioStartTime - ioTime);
+                }
             }
 
             if (isShuttingDown()) {
@@ -651,6 +656,9 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                 if (time - TimeUnit.MILLISECONDS.toNanos(timeoutMillis) >= currentTimeNanos) {
                     // timeoutMillis elapsed without anything selected.
                     selectCnt = 1;
+
+                    // Nothing to do, so give the memory cached for this thread back to the allocators.
+                    PooledByteBufAllocator.trimCurrentThreadCaches();
                 } else if (SELECTOR_AUTO_REBUILD_THRESHOLD > 0 &&
                         selectCnt >= SELECTOR_AUTO_REBUILD_THRESHOLD) {
                     // The selector returned prematurely many times in a row.
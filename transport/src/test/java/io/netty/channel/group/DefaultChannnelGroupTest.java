@@ -15,16 +15,39 @@
  */
 package io.netty.channel.group;
 
+import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.PausableEventExecutor;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
 public class DefaultChannnelGroupTest {
 
     // Test for #1183
@@ -57,4 +80,99 @@ public class DefaultChannnelGroupTest {
         bossGroup.terminationFuture().sync();
         workerGroup.terminationFuture().sync();
     }
+
+    @Test(timeout = 10000)
+    public void testWriteAndFlushToChannelsOnDifferentEventLoops() throws Exception {
+        testWriteAndFlush(false);
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteAndFlushFailsForChannelWhichRejectsNewTasks() throws Exception {
+        testWriteAndFlush(true);
+    }
+
+    private static void testWriteAndFlush(boolean pauseFirstChannel) throws Exception {
+        EventLoopGroup serverGroup = new DefaultEventLoopGroup(2);
+        EventLoopGroup clientGroup = new DefaultEventLoopGroup(3);
+        LocalAddress addr = new LocalAddress("DefaultChannnelGroupTest");
+        final int numChannels = 10;
+        ReceiveHandler handler = new ReceiveHandler(pauseFirstChannel ? numChannels - 1 : numChannels);
+        try {
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.group(serverGroup)
+              .channel(LocalServerChannel.class)
+              .childHandler(handler);
+            sb.bind(addr).sync();
+
+            Bootstrap cb = new Bootstrap();
+            cb.group(clientGroup)
+              .channel(LocalChannel.class)
+              .handler(handler);
+
+            ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+            Set<Object> eventLoops = new HashSet<Object>();
+            List<Channel> channels = new ArrayList<Channel>();
+            for (int i = 0; i < numChannels; i ++) {
+                Channel ch = cb.connect(addr).sync().channel();
+                eventLoops.add(ch.eventLoop().unwrap());
+                channels.add(ch);
+                group.add(ch);
+            }
+            assertEquals(3, eventLoops.size());
+
+            Channel paused = channels.get(0);
+            if (pauseFirstChannel) {
+                ((PausableEventExecutor) paused.eventLoop()).rejectNewTasks();
+            }
+
+            ByteBuf message = Unpooled.copiedBuffer("hello", CharsetUtil.US_ASCII);
+            ChannelGroupFuture future = group.writeAndFlush(message);
+            handler.latch.await();
+
+            // Wait for every channel on its own, as the paused executor rejects the notification of the group future.
+            for (Channel ch: channels) {
+                ChannelFuture f = future.find(ch).await();
+                if (pauseFirstChannel && ch == paused) {
+                    assertThat(f.cause(), is(instanceOf(RejectedExecutionException.class)));
+                } else {
+                    assertTrue(f.isSuccess());
+                }
+            }
+            if (!pauseFirstChannel) {
+                assertTrue(future.await().isSuccess());
+            }
+            assertEquals(0, message.refCnt());
+            assertEquals(pauseFirstChannel ? numChannels - 1 : numChannels, handler.received.size());
+            for (String s: handler.received) {
+                assertEquals("hello", s);
+            }
+
+            if (pauseFirstChannel) {
+                ((PausableEventExecutor) paused.eventLoop()).acceptNewTasks();
+            }
+            group.close().sync();
+        } finally {
+            serverGroup.shutdownGracefully();
+            clientGroup.shutdownGracefully();
+            serverGroup.terminationFuture().sync();
+            clientGroup.terminationFuture().sync();
+        }
+    }
+
+    @Sharable
+    private static final class ReceiveHandler extends ChannelHandlerAdapter {
+        final CountDownLatch latch;
+        final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+
+        ReceiveHandler(int expectedMessages) {
+            latch = new CountDownLatch(expectedMessages);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            received.add(((ByteBuf) msg).toString(CharsetUtil.US_ASCII));
+            ReferenceCountUtil.release(msg);
+            latch.countDown();
+        }
+    }
 }